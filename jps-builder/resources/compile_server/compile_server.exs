@@ -0,0 +1,254 @@
+defmodule IntellijElixir.CompileServer do
+  @moduledoc false
+
+  # Keeps Mix and the projects' dependencies loaded between JPS builds, so that a build only pays for compiling.
+  #
+  # Requests are single lines of tab-separated fields: the token from the port file, `compile`, the project path and
+  # the arguments to `mix compile`.  Each line the compile writes to standard output or standard error is sent back as
+  # `output\t<line>`, followed by a final `exit\t<status>`.  The token followed by `stop` stops the server, such as when
+  # the build needs a server for a different SDK.
+  #
+  # Each connection is served by its own process, so a client that is slow to send its request doesn't hold up the
+  # others, but compiles still run one at a time, as Mix's project stack, task state and `:standard_error` are global.
+  #
+  # The first line of the port file is the port and the token; the second is the SDK home the server was started for.
+
+  # Stop once no build has connected for this long, as nothing else stops the server
+  @idle_timeout 30 * 60 * 1000
+  @recv_timeout 60 * 1000
+
+  def main([port_path, sdk_home]) do
+    Mix.start()
+    Mix.Local.append_archives()
+    Mix.Local.append_paths()
+
+    {:ok, listen_socket} =
+      :gen_tcp.listen(0, [:binary, active: false, ip: {127, 0, 0, 1}, packet: :line, reuseaddr: true])
+
+    {:ok, port} = :inet.port(listen_socket)
+    token = 16 |> :crypto.strong_rand_bytes() |> Base.encode16()
+
+    # written atomically so a client never reads a partial port file
+    temporary_port_path = port_path <> ".tmp"
+    File.write!(temporary_port_path, "#{port} #{token}\n#{sdk_home}\n")
+    File.rename(temporary_port_path, port_path)
+
+    # the app and `mix.exs` mtime of each project path, so that an edited `mix.exs` is loaded again
+    {:ok, projects} = Agent.start_link(fn -> %{} end)
+
+    accept(listen_socket, token, port_path, projects)
+  end
+
+  defp accept(listen_socket, token, port_path, projects) do
+    case :gen_tcp.accept(listen_socket, @idle_timeout) do
+      {:ok, socket} ->
+        {:ok, pid} = Task.start(fn -> serve(socket, token, port_path, projects) end)
+        # so the socket is closed if the handler dies
+        :gen_tcp.controlling_process(socket, pid)
+        accept(listen_socket, token, port_path, projects)
+
+      {:error, _} ->
+        stop(port_path)
+    end
+  end
+
+  defp serve(socket, token, port_path, projects) do
+    with {:ok, line} <- :gen_tcp.recv(socket, 0, @recv_timeout) do
+      case line |> String.trim_trailing("\n") |> String.split("\t") do
+        [^token, "compile", project_path | arguments] ->
+          status = serially(fn -> compile(socket, projects, project_path, arguments) end)
+          send_line(socket, "exit\t#{status}")
+
+        [^token, "stop"] ->
+          :gen_tcp.close(socket)
+          stop(port_path)
+
+        _ ->
+          :ok
+      end
+    end
+
+    :gen_tcp.close(socket)
+  end
+
+  # waits for any running compile, so it isn't cut off
+  defp stop(port_path) do
+    serially(fn ->
+      File.rm(port_path)
+      System.halt(0)
+    end)
+  end
+
+  # The lock is released if the process holding it dies
+  defp serially(fun), do: :global.trans({__MODULE__, self()}, fun, [node()], :infinity)
+
+  # The app `project_path` declares, which `Mix.Project.in_project/3` caches its project module under.  `mix.exs` is
+  # loaded again if it was edited or if another project with the same app replaced it in the cache since.
+  defp project_app(projects, project_path) do
+    mix_exs_path = Path.expand("mix.exs", project_path)
+    mix_exs_mtime = mix_exs_mtime(mix_exs_path)
+
+    app =
+      with {:ok, {app, ^mix_exs_mtime}} <- Agent.get(projects, &Map.fetch(&1, project_path)),
+           {_module, ^mix_exs_path} <- Mix.ProjectStack.read_cache({:app, app}) do
+        app
+      else
+        {:ok, {app, _mix_exs_mtime}} ->
+          reload(app)
+          load_project_app(project_path, mix_exs_path)
+
+        _ ->
+          load_project_app(project_path, mix_exs_path)
+      end
+
+    Agent.update(projects, &Map.put(&1, project_path, {app, mix_exs_mtime}))
+
+    app
+  end
+
+  # Loads `mix.exs` the way `Mix.Project.in_project/3` would, but to read the app it declares before caching the
+  # project module under it
+  defp load_project_app(project_path, mix_exs_path) do
+    if File.regular?(mix_exs_path) do
+      # another project with the same app may have defined the same project module
+      ignore_module_conflict = Map.get(Code.compiler_options(), :ignore_module_conflict, false)
+      Code.compiler_options(ignore_module_conflict: true)
+
+      try do
+        File.cd!(project_path, fn -> Code.load_file(mix_exs_path) end)
+      after
+        Code.compiler_options(ignore_module_conflict: ignore_module_conflict)
+      end
+    end
+
+    case Mix.Project.get() do
+      nil ->
+        default_app(project_path)
+
+      module ->
+        app = Mix.Project.config()[:app] || default_app(project_path)
+        Mix.Project.pop()
+        Mix.ProjectStack.write_cache({:app, app}, {module, mix_exs_path})
+
+        app
+    end
+  end
+
+  # umbrella projects don't declare an app
+  defp default_app(project_path) do
+    project_path
+    |> Path.basename()
+    |> String.to_atom()
+  end
+
+  defp mix_exs_mtime(mix_exs_path) do
+    case File.stat(mix_exs_path) do
+      {:ok, %File.Stat{mtime: mtime}} -> mtime
+      {:error, _} -> nil
+    end
+  end
+
+  # `Mix.Project.in_project` caches the project module it compiled from `mix.exs`, so forget it and purge the module
+  # for the edited `mix.exs` to be compiled again
+  defp reload(app) do
+    if Mix.Project.get(), do: Mix.Project.pop()
+
+    case Mix.ProjectStack.read_cache({:app, app}) do
+      {module, _file} when is_atom(module) and not is_nil(module) ->
+        :code.purge(module)
+        :code.delete(module)
+
+      _ ->
+        :ok
+    end
+
+    Mix.ProjectStack.clear_cache()
+  end
+
+  defp compile(socket, projects, project_path, arguments) do
+    output = spawn_link(fn -> output(socket, "") end)
+    group_leader = Process.group_leader()
+    standard_error = Process.whereis(:standard_error)
+
+    Process.group_leader(self(), output)
+    swap_standard_error(output)
+
+    try do
+      Mix.Task.clear()
+
+      projects
+      |> project_app(project_path)
+      |> Mix.Project.in_project(project_path, fn _ -> Mix.Task.run("compile", arguments) end)
+      |> status()
+    catch
+      kind, reason ->
+        IO.puts(:standard_error, Exception.format(kind, reason, __STACKTRACE__))
+        1
+    after
+      swap_standard_error(standard_error)
+      Process.group_leader(self(), group_leader)
+      flush(output)
+    end
+  end
+
+  defp flush(output) do
+    send(output, {:flush, self()})
+
+    receive do
+      :flushed -> :ok
+    end
+  end
+
+  defp output(socket, buffer) do
+    receive do
+      {:io_request, from, reply_as, request} ->
+        {reply, buffer} = io_request(request, socket, buffer)
+        send(from, {:io_reply, reply_as, reply})
+        output(socket, buffer)
+
+      {:flush, from} ->
+        if buffer != "", do: send_line(socket, "output\t" <> buffer)
+        send(from, :flushed)
+    end
+  end
+
+  defp io_request({:put_chars, chars}, socket, buffer), do: put_chars(chars, socket, buffer)
+  defp io_request({:put_chars, _encoding, chars}, socket, buffer), do: put_chars(chars, socket, buffer)
+
+  defp io_request({:put_chars, _encoding, module, function, arguments}, socket, buffer) do
+    put_chars(apply(module, function, arguments), socket, buffer)
+  end
+
+  defp io_request({:requests, requests}, socket, buffer) do
+    Enum.reduce(requests, {:ok, buffer}, fn
+      request, {:ok, buffer} -> io_request(request, socket, buffer)
+      _, acc -> acc
+    end)
+  end
+
+  defp io_request(_, _, buffer), do: {{:error, :enotsup}, buffer}
+
+  defp put_chars(chars, socket, buffer) do
+    {lines, [rest]} =
+      (buffer <> IO.chardata_to_string(chars))
+      |> String.split("\n")
+      |> Enum.split(-1)
+
+    Enum.each(lines, &send_line(socket, "output\t" <> &1))
+
+    {:ok, rest}
+  end
+
+  defp send_line(socket, line), do: :gen_tcp.send(socket, [line, ?\n])
+
+  defp status({:error, _}), do: 1
+  defp status(:error), do: 1
+  defp status(_), do: 0
+
+  defp swap_standard_error(pid) do
+    Process.unregister(:standard_error)
+    Process.register(pid, :standard_error)
+  end
+end
+
+IntellijElixir.CompileServer.main(System.argv())
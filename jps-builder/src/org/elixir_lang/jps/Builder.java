@@ -1,15 +1,19 @@
 package org.elixir_lang.jps;
 
 import com.intellij.execution.process.BaseOSProcessHandler;
+import com.intellij.execution.process.ProcessHandler;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.io.FileUtilRt;
 import com.intellij.util.CommonProcessors;
 import com.intellij.util.containers.ContainerUtil;
 import gnu.trove.THashSet;
+import org.elixir_lang.jps.builder.CompileServer;
+import org.elixir_lang.jps.builder.Dependencies;
 import org.elixir_lang.jps.builder.ExecutionException;
 import org.elixir_lang.jps.builder.GeneralCommandLine;
 import org.elixir_lang.jps.builder.ProcessAdapter;
+import org.elixir_lang.jps.builder.Scheduler;
 import org.elixir_lang.jps.builder.SourceRootDescriptor;
 import org.elixir_lang.jps.compiler_options.Extension;
 import org.elixir_lang.jps.model.ModuleType;
@@ -21,6 +25,7 @@ import org.elixir_lang.jps.target.Type;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.jps.builders.BuildOutputConsumer;
+import org.jetbrains.jps.builders.BuildTarget;
 import org.jetbrains.jps.builders.DirtyFilesHolder;
 import org.jetbrains.jps.incremental.CompileContext;
 import org.jetbrains.jps.incremental.ProjectBuildException;
@@ -81,19 +86,36 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
 
     /**
      * Build With elixirc.
-     * if "isMake": compile all files of the module and dependent module.
-     * else: just for compile the target affected file.
+     * Schedules compiling the dirty files and the files that depend at compile time on the modules the dirty or removed
+     * files defined, as recorded in {@link Dependencies}, on the {@link Scheduler}, after the targets {@code target}
+     * depends on.
      */
     private static void doBuildWithElixirc(Target target,
                                            CompileContext context,
                                            JpsModule module,
                                            CompilerOptions compilerOptions,
-                                           Collection<File> filesToCompile) throws ProjectBuildException {
+                                           Collection<File> dirtyFiles,
+                                           Collection<String> removedPaths) throws ProjectBuildException {
 
         // ensure compile output directory
         File outputDirectory = getBuildOutputDirectory(module, target.isTests(), context);
-
-        runElixirc(target, context, compilerOptions, filesToCompile, outputDirectory);
+        Collection<File> filesToCompile =
+                getFilesToCompile(module, target, context, dirtyFiles, removedPaths, outputDirectory);
+
+        if (!filesToCompile.isEmpty()) {
+            List<String> dependencyKeys = ContainerUtil.map(target.computeDependencies(), Builder::targetKey);
+
+            Scheduler.getInstance(context, compilerOptions).submit(targetKey(target), dependencyKeys, () -> {
+                long start = System.currentTimeMillis();
+                runElixirc(target, context, compilerOptions, filesToCompile, outputDirectory);
+                long elapsed = System.currentTimeMillis() - start;
+
+                String timing = "Compiled " + filesToCompile.size() + " file(s) of " + target.getPresentableName() +
+                        " in " + elapsed + " ms";
+                LOGGER.info(timing);
+                context.processMessage(new CompilerMessage(ElIXIRC_NAME, BuildMessage.Kind.INFO, timing));
+            });
+        }
     }
 
     private static void doBuildWithMix(Target target,
@@ -109,7 +131,11 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
             File mixConfigFile = new File(contentRootDir, MIX_CONFIG_FILE_NAME);
             if (!mixConfigFile.exists()) continue;
 
-            runMix(target, sdk, mixPath, contentRootPath, compilerOptions, context, module);
+            if (compilerOptions.useMixCompileServer && !target.isTests()) {
+                runMixCompileServer(sdk, contentRootPath, compilerOptions, context, module);
+            } else {
+                runMix(target, sdk, mixPath, contentRootPath, compilerOptions, context, module);
+            }
         }
     }
 
@@ -169,7 +195,7 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
         JpsSdk<SdkProperties> sdk = BuilderUtil.getSdk(context, module);
         File executable = Elixir.getByteCodeCompilerExecutable(sdk.getHomePath());
 
-        List<String> compileFilePaths = getCompileFilePaths(module, target, context, files);
+        List<String> compileFilePaths = ContainerUtil.map(files, File::getAbsolutePath);
 
         commandLine.withWorkDirectory(outputDirectory);
         commandLine.setExePath(executable.getAbsolutePath());
@@ -180,18 +206,72 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
         return commandLine;
     }
 
+    /**
+     * Updates the {@link Dependencies} of {@code target} for the dirty and removed files, deletes the beams of modules
+     * that are no longer defined, and returns the dirty files and the files that depend on any module the dirty or
+     * removed files defined before or after the change.
+     */
     @NotNull
-    private static List<String> getCompileFilePaths(@NotNull JpsModule module,
-                                                    @NotNull Target target,
-                                                    @NotNull CompileContext context,
-                                                    Collection<File> files) {
-        // make
-        if (context.getScope().isBuildIncrementally(target.getTargetType())) {
-            return getCompileFilePathsDefault(module, target);
+    private static Collection<File> getFilesToCompile(@NotNull JpsModule module,
+                                                      @NotNull Target target,
+                                                      @NotNull CompileContext context,
+                                                      @NotNull Collection<File> dirtyFiles,
+                                                      @NotNull Collection<String> removedPaths,
+                                                      @NotNull File outputDirectory) {
+        File dataRoot = context.getProjectDescriptor().dataManager.getDataPaths().getTargetDataRoot(target);
+        Dependencies dependencies = Dependencies.load(dataRoot);
+        Set<String> changedModuleSet = new HashSet<>();
+
+        for (String removedPath : removedPaths) {
+            Set<String> removedModuleSet = dependencies.remove(new File(removedPath).getAbsolutePath());
+            changedModuleSet.addAll(removedModuleSet);
+            deleteBeams(outputDirectory, removedModuleSet);
+        }
+
+        for (File dirtyFile : dirtyFiles) {
+            String dirtyPath = dirtyFile.getAbsolutePath();
+            Set<String> oldModuleSet = new HashSet<>(dependencies.moduleSet(dirtyPath));
+            dependencies.update(dirtyFile);
+            Set<String> newModuleSet = dependencies.moduleSet(dirtyPath);
+
+            changedModuleSet.addAll(oldModuleSet);
+            changedModuleSet.addAll(newModuleSet);
+
+            oldModuleSet.removeAll(newModuleSet);
+            deleteBeams(outputDirectory, oldModuleSet);
+        }
+
+        // files that were never scanned, such as when the dependencies were lost or their format changed
+        for (String sourcePath : getCompileFilePathsDefault(module, target)) {
+            if (!dependencies.contains(sourcePath)) {
+                dependencies.update(new File(sourcePath));
+            }
         }
 
-        // force build files
-        return ContainerUtil.map(files, File::getAbsolutePath);
+        Set<File> filesToCompile = new THashSet<>(dirtyFiles, FileUtil.FILE_HASHING_STRATEGY);
+
+        for (String dependentPath : dependencies.dependentPaths(changedModuleSet)) {
+            File dependentFile = new File(dependentPath);
+
+            if (dependentFile.isFile()) {
+                filesToCompile.add(dependentFile);
+            }
+        }
+
+        dependencies.save();
+
+        return filesToCompile;
+    }
+
+    @NotNull
+    private static String targetKey(@NotNull BuildTarget<?> target) {
+        return target.getTargetType().getTypeId() + ":" + target.getId();
+    }
+
+    private static void deleteBeams(@NotNull File outputDirectory, @NotNull Collection<String> moduleNames) {
+        for (String moduleName : moduleNames) {
+            FileUtil.delete(new File(outputDirectory, "Elixir." + moduleName + ".beam"));
+        }
     }
 
     @NotNull
@@ -220,16 +300,25 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
                                                    @NotNull JpsModule module,
                                                    @NotNull Target target,
                                                    @NotNull CompileContext context) throws ProjectBuildException {
+        commandLine.addParameters(dependentModuleCodePath(module, target, context));
+    }
 
+    @NotNull
+    private static List<String> dependentModuleCodePath(@NotNull JpsModule module,
+                                                        @NotNull Target target,
+                                                        @NotNull CompileContext context) throws ProjectBuildException {
         ArrayList<JpsModule> codePathModules = new ArrayList<>();
         collectDependentModules(module, codePathModules, new HashSet<>());
 
-        addModuleToCodePath(commandLine, module, target.isTests(), context);
+        List<String> codePath = new ArrayList<>();
+        addModuleToCodePath(codePath, module, target.isTests(), context);
         for (JpsModule codePathModule : codePathModules) {
             if (codePathModule != module) {
-                addModuleToCodePath(commandLine, codePathModule, false, context);
+                addModuleToCodePath(codePath, codePathModule, false, context);
             }
         }
+
+        return codePath;
     }
 
     private static void collectDependentModules(@NotNull JpsModule module,
@@ -251,17 +340,17 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
         }
     }
 
-    private static void addModuleToCodePath(@NotNull GeneralCommandLine commandLine,
+    private static void addModuleToCodePath(@NotNull List<String> codePath,
                                             @NotNull JpsModule module,
                                             boolean forTests,
                                             @NotNull CompileContext context) throws ProjectBuildException {
 
         File outputDirectory = getBuildOutputDirectory(module, forTests, context);
-        commandLine.addParameters(ADD_PATH_TO_FRONT_OF_CODE_PATH, outputDirectory.getPath());
+        Collections.addAll(codePath, ADD_PATH_TO_FRONT_OF_CODE_PATH, outputDirectory.getPath());
         for (String rootUrl : module.getContentRootsList().getUrls()) {
             try {
                 String path = new URL(rootUrl).getPath();
-                commandLine.addParameters(ADD_PATH_TO_FRONT_OF_CODE_PATH, path);
+                Collections.addAll(codePath, ADD_PATH_TO_FRONT_OF_CODE_PATH, path);
             } catch (MalformedURLException e) {
                 context.processMessage(new CompilerMessage(ElIXIRC_NAME, BuildMessage.Kind.ERROR, "Failed to find content root for module: " + module.getName()));
             }
@@ -269,21 +358,30 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
     }
 
     private static void addCompileOptions(@NotNull GeneralCommandLine commandLine, CompilerOptions compilerOptions) {
+        commandLine.addParameters(compileOptionList(compilerOptions));
+    }
+
+    @NotNull
+    private static List<String> compileOptionList(@NotNull CompilerOptions compilerOptions) {
+        List<String> compileOptionList = new ArrayList<>();
+
         if (!compilerOptions.attachDocsEnabled) {
-            commandLine.addParameter("--no-docs");
+            compileOptionList.add("--no-docs");
         }
 
         if (!compilerOptions.attachDebugInfoEnabled) {
-            commandLine.addParameter("--no-debug-info");
+            compileOptionList.add("--no-debug-info");
         }
 
         if (compilerOptions.warningsAsErrorsEnabled) {
-            commandLine.addParameter("--warnings-as-errors");
+            compileOptionList.add("--warnings-as-errors");
         }
 
         if (compilerOptions.ignoreModuleConflictEnabled) {
-            commandLine.addParameter("--ignore-module-conflict");
+            compileOptionList.add("--ignore-module-conflict");
         }
+
+        return compileOptionList;
     }
 
     /*** doBuildWithMix related private methods */
@@ -442,6 +540,26 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
         handler.waitFor();
     }
 
+    private static void runMixCompileServer(@Nullable JpsSdk<SdkProperties> sdk,
+                                            @NotNull String contentRootPath,
+                                            @NotNull CompilerOptions compilerOptions,
+                                            @NotNull CompileContext context,
+                                            @NotNull JpsModule module) throws ProjectBuildException {
+        File dataStorageRoot = context.getProjectDescriptor().dataManager.getDataPaths().getDataStorageRoot();
+        String sdkHomePath = sdk != null ? sdk.getHomePath() : null;
+        ProcessHandler handler = CompileServer.compile(
+                dataStorageRoot,
+                sdkHomePath != null ? sdkHomePath : "",
+                contentRootPath,
+                compileOptionList(compilerOptions),
+                commandLine -> setElixir(commandLine, sdk, module)
+        );
+        com.intellij.execution.process.ProcessAdapter adapter = new ProcessAdapter(context, MIX_NAME, contentRootPath, compilerOptions);
+        handler.addProcessListener(adapter);
+        handler.startNotify();
+        handler.waitFor();
+    }
+
     @Override
     public void build(@NotNull Target target,
                       @NotNull DirtyFilesHolder<SourceRootDescriptor, Target> holder,
@@ -469,11 +587,19 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
         } else {
             // elixirc can not compile tests now.
             if (!target.isTests()) {
-                doBuildWithElixirc(target, context, module, compilerOptions, filesToCompile);
+                doBuildWithElixirc(target, context, module, compilerOptions, filesToCompile, holder.getRemovedFiles(target));
             }
         }
     }
 
+    /**
+     * Waits for the {@code elixirc} runs that {@link #build} scheduled, so the build ends only once they are done.
+     */
+    @Override
+    public void buildFinished(CompileContext context) {
+        Scheduler.finish(context);
+    }
+
     @NotNull
     @Override
     public String getPresentableName() {
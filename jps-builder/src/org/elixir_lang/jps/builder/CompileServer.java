@@ -0,0 +1,305 @@
+package org.elixir_lang.jps.builder;
+
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jps.incremental.ProjectBuildException;
+import org.jetbrains.jps.service.SharedThreadPool;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A long-lived BEAM, one per project, that runs {@code mix compile} for the JPS builds of the project, so that they
+ * don't each pay for booting the VM, Mix and loading the dependencies.
+ *
+ * The server outlives the build process: it writes its port, an access token and the SDK home it was started for to a
+ * file in the project's build data directory and stops itself after being idle for 30 minutes.  A build for a different
+ * SDK home stops the server and starts a new one, so changing the SDK never compiles with the old Elixir.  The output of each compile is streamed back and replayed
+ * through a {@link ProcessHandler}, so {@link ProcessAdapter} parses it exactly like the output of a {@code mix}
+ * process.
+ */
+public class CompileServer {
+    private static final String DIRECTORY_NAME = "elixir_compile_server";
+    private static final String EXIT_PREFIX = "exit\t";
+    private static final String LOG_NAME = "compile_server.log";
+    private static final Logger LOGGER = Logger.getInstance(CompileServer.class);
+    private static final String OUTPUT_PREFIX = "output\t";
+    private static final String PORT_NAME = "port";
+    private static final String STOP_REQUEST = "\tstop\n";
+    private static final String SCRIPT_NAME = "compile_server.exs";
+    private static final int CONNECT_TIMEOUT_MILLISECONDS = 1000;
+    private static final long START_TIMEOUT_MILLISECONDS = 120 * 1000;
+    private static final long START_POLL_MILLISECONDS = 100;
+
+    private CompileServer() {
+    }
+
+    /**
+     * Sends a {@code mix compile} request for {@code projectPath} to the project's compile server, starting it first if
+     * none is running.
+     *
+     * @param dataStorageRoot {@code BuildDataPaths#getDataStorageRoot()}, which persists between builds
+     * @param sdkHomePath home of the module's SDK.  A running server started for a different SDK home is stopped.
+     * @param launcher sets the executable and parameters to run an {@code .exs} script with the module's SDK
+     * @return handler that replays the compile output once {@link ProcessHandler#startNotify()} is called
+     */
+    @NotNull
+    public static synchronized ProcessHandler compile(@NotNull File dataStorageRoot,
+                                                      @NotNull String sdkHomePath,
+                                                      @NotNull String projectPath,
+                                                      @NotNull List<String> arguments,
+                                                      @NotNull Launcher launcher) throws ProjectBuildException {
+        File directory = new File(dataStorageRoot, DIRECTORY_NAME);
+        Connection connection = connect(directory);
+
+        if (connection != null && !connection.sdkHomePath.equals(sdkHomePath)) {
+            stop(directory, connection);
+            connection = null;
+        }
+
+        if (connection == null) {
+            start(directory, sdkHomePath, launcher);
+            connection = connect(directory);
+        }
+
+        if (connection == null) {
+            throw new ProjectBuildException(
+                    "Could not connect to Elixir compile server.  See " + new File(directory, LOG_NAME)
+            );
+        }
+
+        StringBuilder request = new StringBuilder(connection.token)
+                .append("\tcompile\t")
+                .append(projectPath);
+
+        for (String argument : arguments) {
+            request.append('\t').append(argument);
+        }
+
+        request.append('\n');
+
+        try {
+            OutputStream outputStream = connection.socket.getOutputStream();
+            outputStream.write(request.toString().getBytes(StandardCharsets.UTF_8));
+            outputStream.flush();
+        } catch (IOException ioException) {
+            closeQuietly(connection.socket);
+            throw new ProjectBuildException("Could not send compile request to Elixir compile server", ioException);
+        }
+
+        return new Handler(connection.socket);
+    }
+
+    private static void closeQuietly(@NotNull Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ioException) {
+            LOGGER.debug(ioException);
+        }
+    }
+
+    @Nullable
+    private static Connection connect(@NotNull File directory) {
+        File portFile = new File(directory, PORT_NAME);
+        Connection connection = null;
+
+        if (portFile.isFile()) {
+            try {
+                List<String> lineList = FileUtil.loadLines(portFile);
+
+                if (lineList.size() == 2) {
+                    String[] portToken = lineList.get(0).trim().split(" ");
+
+                    if (portToken.length == 2) {
+                        Socket socket = new Socket();
+                        socket.connect(
+                                new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(portToken[0])),
+                                CONNECT_TIMEOUT_MILLISECONDS
+                        );
+                        connection = new Connection(socket, portToken[1], lineList.get(1));
+                    }
+                }
+            } catch (IOException | NumberFormatException exception) {
+                LOGGER.debug("Elixir compile server in " + directory + " is not running", exception);
+            }
+
+            if (connection == null) {
+                // stale port file from a server that was killed before it could remove it
+                FileUtil.delete(portFile);
+            }
+        }
+
+        return connection;
+    }
+
+    /**
+     * Stops the server behind {@code connection} and removes its port file, so the next {@link #connect(File)} doesn't
+     * find it.
+     */
+    private static void stop(@NotNull File directory, @NotNull Connection connection) {
+        try {
+            OutputStream outputStream = connection.socket.getOutputStream();
+            outputStream.write((connection.token + STOP_REQUEST).getBytes(StandardCharsets.UTF_8));
+            outputStream.flush();
+        } catch (IOException ioException) {
+            LOGGER.debug("Could not stop Elixir compile server in " + directory, ioException);
+        } finally {
+            closeQuietly(connection.socket);
+            FileUtil.delete(new File(directory, PORT_NAME));
+        }
+    }
+
+    private static void start(@NotNull File directory,
+                              @NotNull String sdkHomePath,
+                              @NotNull Launcher launcher) throws ProjectBuildException {
+        File portFile = new File(directory, PORT_NAME);
+        File logFile = new File(directory, LOG_NAME);
+        File scriptFile = new File(directory, SCRIPT_NAME);
+
+        try {
+            FileUtil.createDirectory(directory);
+
+            try (InputStream script = CompileServer.class.getResourceAsStream("/compile_server/" + SCRIPT_NAME)) {
+                FileUtil.writeToFile(scriptFile, FileUtil.loadBytes(script));
+            }
+        } catch (IOException ioException) {
+            throw new ProjectBuildException("Could not write Elixir compile server script to " + scriptFile, ioException);
+        }
+
+        GeneralCommandLine commandLine = new GeneralCommandLine() {
+            @NotNull
+            @Override
+            protected Process startProcess(@NotNull List<String> commands) throws IOException {
+                ProcessBuilder builder = new ProcessBuilder(commands);
+                setupEnvironment(builder.environment());
+                builder.directory(getWorkDirectory());
+                builder.redirectErrorStream(true);
+                // not piped, so the server does not depend on the build process that started it
+                builder.redirectOutput(ProcessBuilder.Redirect.appendTo(logFile));
+
+                return builder.start();
+            }
+        };
+        commandLine.withWorkDirectory(directory);
+        launcher.launch(commandLine);
+        commandLine.addParameters(scriptFile.getAbsolutePath(), portFile.getAbsolutePath(), sdkHomePath);
+
+        Process process;
+
+        try {
+            process = commandLine.createProcess();
+            process.getOutputStream().close();
+        } catch (ExecutionException | IOException exception) {
+            throw new ProjectBuildException("Failed to start Elixir compile server", exception);
+        }
+
+        long deadline = System.currentTimeMillis() + START_TIMEOUT_MILLISECONDS;
+
+        while (!portFile.isFile() && process.isAlive() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(START_POLL_MILLISECONDS);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new ProjectBuildException("Interrupted starting Elixir compile server", interruptedException);
+            }
+        }
+
+        if (!portFile.isFile()) {
+            process.destroy();
+            throw new ProjectBuildException("Elixir compile server did not start.  See " + logFile);
+        }
+    }
+
+    public interface Launcher {
+        void launch(@NotNull GeneralCommandLine commandLine);
+    }
+
+    private static class Connection {
+        @NotNull
+        final Socket socket;
+        @NotNull
+        final String token;
+        @NotNull
+        final String sdkHomePath;
+
+        Connection(@NotNull Socket socket, @NotNull String token, @NotNull String sdkHomePath) {
+            this.socket = socket;
+            this.token = token;
+            this.sdkHomePath = sdkHomePath;
+        }
+    }
+
+    private static class Handler extends ProcessHandler {
+        @NotNull
+        private final Socket socket;
+
+        Handler(@NotNull Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void startNotify() {
+            super.startNotify();
+
+            SharedThreadPool.getInstance().executeOnPooledThread(this::replay);
+        }
+
+        @Override
+        protected void destroyProcessImpl() {
+            closeQuietly(socket);
+        }
+
+        @Override
+        protected void detachProcessImpl() {
+            closeQuietly(socket);
+            notifyProcessDetached();
+        }
+
+        @Override
+        public boolean detachIsDefault() {
+            return false;
+        }
+
+        @Nullable
+        @Override
+        public OutputStream getProcessInput() {
+            return null;
+        }
+
+        private void replay() {
+            int exitCode = 1;
+
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)
+            )) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(OUTPUT_PREFIX)) {
+                        notifyTextAvailable(line.substring(OUTPUT_PREFIX.length()) + "\n", ProcessOutputTypes.STDOUT);
+                    } else if (line.startsWith(EXIT_PREFIX)) {
+                        exitCode = StringUtil.parseInt(line.substring(EXIT_PREFIX.length()), 1);
+                        break;
+                    }
+                }
+            } catch (IOException ioException) {
+                notifyTextAvailable(
+                        "Lost connection to Elixir compile server: " + ioException.getMessage() + "\n",
+                        ProcessOutputTypes.STDERR
+                );
+            } finally {
+                closeQuietly(socket);
+                notifyProcessTerminated(exitCode);
+            }
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package org.elixir_lang.jps.builder;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The modules each source file of a {@link org.elixir_lang.jps.Target} defines and the modules it depends on at
+ * compile time, persisted in the target's data directory, so that an incremental build only recompiles the dirty files
+ * and the files that {@code require}, {@code import}, {@code use} or build structs of the modules they define.
+ *
+ * JPS has no Elixir parser, so sources are scanned line by line.  A dependency that may name a changed module only
+ * through an unresolved alias is still treated as a dependency: recompiling too much is safe, recompiling too little
+ * is not.
+ */
+public class Dependencies {
+    private static final Logger LOGGER = Logger.getInstance(Dependencies.class);
+    private static final String FILE_NAME = "elixir_dependencies.dat";
+    /**
+     * Bump when {@link #scan(File)} changes, so that files are scanned again instead of trusting the old scans.
+     */
+    private static final int VERSION = 1;
+
+    private static final String ALIAS = "[A-Z][\\w.]*";
+    private static final Pattern ALIAS_AS_PATTERN =
+            Pattern.compile("^\\s*alias\\s+(" + ALIAS + ")\\s*,\\s*as:\\s*(" + ALIAS + ")");
+    private static final Pattern ALIAS_PATTERN = Pattern.compile("^\\s*alias\\s+(" + ALIAS + ")\\s*$");
+    private static final Pattern DEFIMPL_PATTERN =
+            Pattern.compile("^(\\s*)defimpl\\s+(" + ALIAS + ")\\s*,\\s*for:\\s*(" + ALIAS + ")");
+    private static final Pattern DEFMODULE_PATTERN = Pattern.compile("^(\\s*)(?:defmodule|defprotocol)\\s+(" + ALIAS + ")");
+    private static final Pattern DIRECTIVE_PATTERN = Pattern.compile("\\b(?:import|require|use)\\s+(" + ALIAS + ")");
+    private static final Pattern STRUCT_PATTERN = Pattern.compile("%(" + ALIAS + ")\\{");
+
+    @NotNull
+    private final File file;
+    @NotNull
+    private final Map<String, Source> sourceByPath;
+
+    private Dependencies(@NotNull File file, @NotNull Map<String, Source> sourceByPath) {
+        this.file = file;
+        this.sourceByPath = sourceByPath;
+    }
+
+    /**
+     * @param dataRoot {@code BuildDataPaths#getTargetDataRoot} of the target
+     */
+    @NotNull
+    public static Dependencies load(@NotNull File dataRoot) {
+        File file = new File(dataRoot, FILE_NAME);
+        Map<String, Source> sourceByPath = new HashMap<>();
+
+        if (file.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() == VERSION) {
+                    int sourceCount = in.readInt();
+
+                    for (int i = 0; i < sourceCount; i++) {
+                        String path = in.readUTF();
+                        sourceByPath.put(path, new Source(readStringSet(in), readStringSet(in)));
+                    }
+                }
+            } catch (IOException ioException) {
+                LOGGER.warn("Could not read Elixir dependencies from " + file + ".  All files will be scanned again.",
+                        ioException);
+                sourceByPath.clear();
+            }
+        }
+
+        return new Dependencies(file, sourceByPath);
+    }
+
+    /**
+     * Scans the modules {@code text} defines and the modules it depends on at compile time.
+     */
+    @NotNull
+    static Source scan(@NotNull CharSequence text) {
+        Set<String> moduleSet = new LinkedHashSet<>();
+        Set<String> unresolvedDependencySet = new LinkedHashSet<>();
+        Map<String, String> moduleByAlias = new HashMap<>();
+        // (indentation, module) of the enclosing `defmodule`s, innermost last
+        Deque<Map.Entry<Integer, String>> enclosingStack = new ArrayDeque<>();
+
+        for (String line : text.toString().split("\n")) {
+            Matcher defmoduleMatcher = DEFMODULE_PATTERN.matcher(line);
+            Matcher defimplMatcher = DEFIMPL_PATTERN.matcher(line);
+
+            if (defmoduleMatcher.find()) {
+                int indentation = defmoduleMatcher.group(1).length();
+                popEnclosing(enclosingStack, indentation);
+
+                String module = nested(enclosingStack, defmoduleMatcher.group(2));
+                moduleSet.add(module);
+                enclosingStack.addLast(new AbstractMap.SimpleImmutableEntry<>(indentation, module));
+            } else if (defimplMatcher.find()) {
+                int indentation = defimplMatcher.group(1).length();
+                popEnclosing(enclosingStack, indentation);
+
+                String protocol = defimplMatcher.group(2);
+                moduleSet.add(protocol + "." + defimplMatcher.group(3));
+                // the protocol must be compiled before its implementations
+                unresolvedDependencySet.add(protocol);
+            } else {
+                Matcher aliasAsMatcher = ALIAS_AS_PATTERN.matcher(line);
+
+                if (aliasAsMatcher.find()) {
+                    moduleByAlias.put(aliasAsMatcher.group(2), aliasAsMatcher.group(1));
+                } else {
+                    Matcher aliasMatcher = ALIAS_PATTERN.matcher(line);
+
+                    if (aliasMatcher.find()) {
+                        String module = aliasMatcher.group(1);
+                        moduleByAlias.put(module.substring(module.lastIndexOf('.') + 1), module);
+                    }
+                }
+            }
+
+            addAll(unresolvedDependencySet, DIRECTIVE_PATTERN.matcher(line));
+            addAll(unresolvedDependencySet, STRUCT_PATTERN.matcher(line));
+        }
+
+        Set<String> dependencySet = new LinkedHashSet<>();
+
+        for (String unresolvedDependency : unresolvedDependencySet) {
+            dependencySet.add(resolve(moduleByAlias, unresolvedDependency));
+        }
+
+        // a file does not need to be recompiled because of its own modules
+        dependencySet.removeAll(moduleSet);
+
+        return new Source(moduleSet, dependencySet);
+    }
+
+    public boolean contains(@NotNull String path) {
+        return sourceByPath.containsKey(path);
+    }
+
+    /**
+     * The paths of the sources that depend at compile time on any of {@code changedModuleSet} directly or through
+     * other sources in the returned set.
+     */
+    @NotNull
+    public Set<String> dependentPaths(@NotNull Set<String> changedModuleSet) {
+        Set<String> dependentPathSet = new LinkedHashSet<>();
+        Deque<String> changedModuleQueue = new ArrayDeque<>(changedModuleSet);
+        Set<String> visitedModuleSet = new HashSet<>(changedModuleSet);
+
+        while (!changedModuleQueue.isEmpty()) {
+            String changedModule = changedModuleQueue.removeFirst();
+
+            for (Map.Entry<String, Source> pathSource : sourceByPath.entrySet()) {
+                String path = pathSource.getKey();
+                Source source = pathSource.getValue();
+
+                if (!dependentPathSet.contains(path) && source.dependsOn(changedModule)) {
+                    dependentPathSet.add(path);
+
+                    for (String module : source.moduleSet) {
+                        if (visitedModuleSet.add(module)) {
+                            changedModuleQueue.addLast(module);
+                        }
+                    }
+                }
+            }
+        }
+
+        return dependentPathSet;
+    }
+
+    @NotNull
+    public Set<String> moduleSet(@NotNull String path) {
+        Source source = sourceByPath.get(path);
+
+        return source != null ? source.moduleSet : Collections.emptySet();
+    }
+
+    /**
+     * @return the modules {@code path} defined
+     */
+    @NotNull
+    public Set<String> remove(@NotNull String path) {
+        Source source = sourceByPath.remove(path);
+
+        return source != null ? source.moduleSet : Collections.emptySet();
+    }
+
+    public void save() {
+        try {
+            FileUtil.createParentDirs(file);
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                out.writeInt(VERSION);
+                out.writeInt(sourceByPath.size());
+
+                for (Map.Entry<String, Source> pathSource : sourceByPath.entrySet()) {
+                    Source source = pathSource.getValue();
+
+                    out.writeUTF(pathSource.getKey());
+                    writeStringSet(out, source.moduleSet);
+                    writeStringSet(out, source.dependencySet);
+                }
+            }
+        } catch (IOException ioException) {
+            LOGGER.warn("Could not write Elixir dependencies to " + file + ".  All files will be scanned again.",
+                    ioException);
+            FileUtil.delete(file);
+        }
+    }
+
+    /**
+     * Scans {@code sourceFile} again.
+     */
+    public void update(@NotNull File sourceFile) {
+        String path = sourceFile.getAbsolutePath();
+        Source source;
+
+        try {
+            source = scan(FileUtil.loadFile(sourceFile));
+        } catch (IOException ioException) {
+            LOGGER.warn("Could not scan " + path + " for Elixir dependencies", ioException);
+            source = null;
+        }
+
+        if (source != null) {
+            sourceByPath.put(path, source);
+        } else {
+            sourceByPath.remove(path);
+        }
+    }
+
+    private static void addAll(@NotNull Set<String> set, @NotNull Matcher matcher) {
+        while (matcher.find()) {
+            set.add(matcher.group(1));
+        }
+    }
+
+    @NotNull
+    private static String nested(@NotNull Deque<Map.Entry<Integer, String>> enclosingStack, @NotNull String module) {
+        Map.Entry<Integer, String> enclosing = enclosingStack.peekLast();
+
+        return enclosing != null ? enclosing.getValue() + "." + module : module;
+    }
+
+    private static void popEnclosing(@NotNull Deque<Map.Entry<Integer, String>> enclosingStack, int indentation) {
+        while (!enclosingStack.isEmpty() && enclosingStack.peekLast().getKey() >= indentation) {
+            enclosingStack.removeLast();
+        }
+    }
+
+    @NotNull
+    private static Set<String> readStringSet(@NotNull DataInput in) throws IOException {
+        int size = in.readInt();
+        Set<String> stringSet = new LinkedHashSet<>(size);
+
+        for (int i = 0; i < size; i++) {
+            stringSet.add(in.readUTF());
+        }
+
+        return stringSet;
+    }
+
+    /**
+     * Resolves the first segment of {@code module} through {@code alias}es in the same file.
+     */
+    @NotNull
+    private static String resolve(@NotNull Map<String, String> moduleByAlias, @NotNull String module) {
+        int dotIndex = module.indexOf('.');
+        String head = dotIndex == -1 ? module : module.substring(0, dotIndex);
+        @Nullable String aliased = moduleByAlias.get(head);
+        String resolved;
+
+        if (aliased != null) {
+            resolved = dotIndex == -1 ? aliased : aliased + module.substring(dotIndex);
+        } else {
+            resolved = module;
+        }
+
+        return resolved;
+    }
+
+    private static void writeStringSet(@NotNull DataOutput out, @NotNull Set<String> stringSet) throws IOException {
+        out.writeInt(stringSet.size());
+
+        for (String string : stringSet) {
+            out.writeUTF(string);
+        }
+    }
+
+    static class Source {
+        @NotNull
+        final Set<String> moduleSet;
+        @NotNull
+        final Set<String> dependencySet;
+
+        Source(@NotNull Set<String> moduleSet, @NotNull Set<String> dependencySet) {
+            this.moduleSet = moduleSet;
+            this.dependencySet = dependencySet;
+        }
+
+        /**
+         * {@code module} may be the nested module a relative name in {@link #dependencySet} refers to, such as
+         * {@code Outer.Inner} for {@code Inner} used inside {@code Outer}.
+         */
+        boolean dependsOn(@NotNull String module) {
+            boolean dependsOn = false;
+
+            for (String dependency : dependencySet) {
+                if (module.equals(dependency) || module.endsWith("." + dependency)) {
+                    dependsOn = true;
+                    break;
+                }
+            }
+
+            return dependsOn;
+        }
+    }
+}
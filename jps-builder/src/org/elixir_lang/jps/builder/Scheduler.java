@@ -0,0 +1,151 @@
+package org.elixir_lang.jps.builder;
+
+import com.intellij.openapi.util.Key;
+import org.elixir_lang.jps.CompilerOptions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jps.api.CanceledStatus;
+import org.jetbrains.jps.incremental.CompileContext;
+import org.jetbrains.jps.incremental.ProjectBuildException;
+import org.jetbrains.jps.incremental.messages.BuildMessage;
+import org.jetbrains.jps.incremental.messages.CompilerMessage;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Compiles the {@link org.elixir_lang.jps.Target}s of one build on a pool of {@link CompilerOptions#elixircWorkers}.
+ *
+ * JPS builds targets one at a time unless the opt-in parallel build is on, so
+ * {@link org.elixir_lang.jps.Builder#build} only {@link #submit}s the {@code elixirc} run of a target and returns.
+ * Each run waits for the runs of the targets it depends on, so independent targets compile at the same time while
+ * dependent targets still compile after their dependencies.  {@link #finish} waits for all runs when the build
+ * finishes.
+ */
+public class Scheduler {
+    private static final Key<Scheduler> KEY = Key.create("ELIXIR_SCHEDULER");
+
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, CompletableFuture<Void>> futureByTargetKey = new ConcurrentHashMap<>();
+
+    Scheduler(int workerCount) {
+        this.executor = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "elixirc worker");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    @NotNull
+    public static synchronized Scheduler getInstance(@NotNull CompileContext context,
+                                                     @NotNull CompilerOptions compilerOptions) {
+        Scheduler scheduler = KEY.get(context);
+
+        if (scheduler == null) {
+            scheduler = new Scheduler(workerCount(compilerOptions));
+            KEY.set(context, scheduler);
+        }
+
+        return scheduler;
+    }
+
+    /**
+     * Waits for the runs submitted during the build of {@code context}, if any, and reports their failures.
+     */
+    public static void finish(@NotNull CompileContext context) {
+        Scheduler scheduler;
+
+        synchronized (Scheduler.class) {
+            scheduler = KEY.get(context);
+            KEY.set(context, null);
+        }
+
+        if (scheduler != null) {
+            for (Throwable failure : scheduler.await(context.getCancelStatus())) {
+                context.processMessage(
+                        new CompilerMessage("elixirc", BuildMessage.Kind.ERROR, String.valueOf(failure.getMessage()))
+                );
+            }
+        }
+    }
+
+    static int workerCount(@NotNull CompilerOptions compilerOptions) {
+        int workerCount = compilerOptions.elixircWorkers;
+
+        if (workerCount <= 0) {
+            workerCount = Runtime.getRuntime().availableProcessors();
+        }
+
+        return workerCount;
+    }
+
+    /**
+     * Runs {@code work} on a free worker once the work submitted for each of {@code dependencyKeys} completed.  If any
+     * of it failed, {@code work} is skipped, as it would compile against missing modules.
+     *
+     * @param targetKey identifies the target of {@code work}
+     * @param dependencyKeys identify the targets that target depends on; targets with nothing to compile have no work
+     */
+    public void submit(@NotNull String targetKey, @NotNull Collection<String> dependencyKeys, @NotNull Work work) {
+        CompletableFuture<?>[] dependencyFutures = dependencyKeys
+                .stream()
+                .map(futureByTargetKey::get)
+                .filter(Objects::nonNull)
+                .toArray(CompletableFuture<?>[]::new);
+
+        CompletableFuture<Void> future = CompletableFuture.allOf(dependencyFutures).thenRunAsync(() -> {
+            try {
+                work.run();
+            } catch (ProjectBuildException projectBuildException) {
+                throw new CompletionException(projectBuildException);
+            }
+        }, executor);
+
+        futureByTargetKey.put(targetKey, future);
+    }
+
+    /**
+     * Waits for all submitted work and stops the workers.
+     *
+     * @param canceledStatus polled while waiting, so that cancelling the build skips the work that did not start yet
+     * @return the distinct failures of the work, without the skipped dependents of failed work
+     */
+    @NotNull
+    Collection<Throwable> await(@NotNull CanceledStatus canceledStatus) {
+        Set<Throwable> failureSet = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        try {
+            for (CompletableFuture<Void> future : futureByTargetKey.values()) {
+                while (true) {
+                    if (canceledStatus.isCanceled()) {
+                        futureByTargetKey.values().forEach(pending -> pending.cancel(false));
+                    }
+
+                    try {
+                        future.get(100, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException timeoutException) {
+                        continue;
+                    } catch (CancellationException cancellationException) {
+                        break;
+                    } catch (java.util.concurrent.ExecutionException executionException) {
+                        // a skipped dependent fails with the same failure as its dependency, so it is reported once
+                        failureSet.add(executionException.getCause());
+                        break;
+                    } catch (InterruptedException interruptedException) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return failureSet;
+    }
+
+    public interface Work {
+        void run() throws ProjectBuildException;
+    }
+}
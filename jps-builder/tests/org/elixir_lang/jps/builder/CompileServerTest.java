@@ -0,0 +1,162 @@
+package org.elixir_lang.jps.builder;
+
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jps.incremental.ProjectBuildException;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives {@link CompileServer} against a fake server in place of {@code compile_server.exs}, which records the request
+ * it receives and answers with canned {@code output} and {@code exit} lines.
+ */
+public class CompileServerTest extends TestCase {
+    private static final String SDK_HOME_PATH = "/sdk/elixir";
+    private static final String TOKEN = "TOKEN";
+
+    private File dataStorageRoot;
+
+    /*
+     * Tests
+     */
+
+    public void testCompileRequestAndReplay() throws Exception {
+        try (ServerSocket serverSocket = fakeServer(SDK_HOME_PATH)) {
+            CompletableFuture<String> request = respond(
+                    serverSocket,
+                    "output\tCompiling 1 file (.ex)\noutput\twarning: unused\nexit\t3\n"
+            );
+
+            ProcessHandler handler = CompileServer.compile(
+                    dataStorageRoot,
+                    SDK_HOME_PATH,
+                    "/project",
+                    Arrays.asList("--force", "--verbose"),
+                    commandLine -> fail("Running server should be reused")
+            );
+            List<String> textList = Collections.synchronizedList(new ArrayList<>());
+            int[] exitCode = new int[]{-1};
+            handler.addProcessListener(new ProcessAdapter() {
+                @Override
+                public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
+                    textList.add(event.getText());
+                }
+
+                @Override
+                public void processTerminated(@NotNull ProcessEvent event) {
+                    exitCode[0] = event.getExitCode();
+                }
+            });
+            handler.startNotify();
+
+            assertTrue("Replay did not finish", handler.waitFor(5000));
+            assertEquals(TOKEN + "\tcompile\t/project\t--force\t--verbose", request.get(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList("Compiling 1 file (.ex)\n", "warning: unused\n"), textList);
+            assertEquals(3, exitCode[0]);
+        }
+    }
+
+    public void testServerForOtherSdkIsStopped() throws Exception {
+        try (ServerSocket serverSocket = fakeServer("/sdk/other")) {
+            CompletableFuture<String> request = respond(serverSocket, "");
+            boolean[] launched = new boolean[]{false};
+
+            try {
+                CompileServer.compile(
+                        dataStorageRoot,
+                        SDK_HOME_PATH,
+                        "/project",
+                        Collections.emptyList(),
+                        commandLine -> {
+                            launched[0] = true;
+                            commandLine.setExePath(new File(dataStorageRoot, "missing-elixir").getPath());
+                        }
+                );
+                fail("Server for the SDK should not have started");
+            } catch (ProjectBuildException expected) {
+                // the launcher points at no executable
+            }
+
+            assertEquals(TOKEN + "\tstop", request.get(5, TimeUnit.SECONDS));
+            assertTrue("New server was not launched for the SDK", launched[0]);
+        }
+    }
+
+    /*
+     * Callbacks
+     */
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        dataStorageRoot = FileUtil.createTempDirectory("compile_server", null);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            FileUtil.delete(dataStorageRoot);
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    /*
+     * Private Instance Methods
+     */
+
+    /**
+     * Listens on a loopback port and writes the port file the way {@code compile_server.exs} does.
+     */
+    @NotNull
+    private ServerSocket fakeServer(@NotNull String sdkHomePath) throws IOException {
+        ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        File portFile = new File(new File(dataStorageRoot, "elixir_compile_server"), "port");
+        FileUtil.writeToFile(portFile, serverSocket.getLocalPort() + " " + TOKEN + "\n" + sdkHomePath + "\n");
+
+        return serverSocket;
+    }
+
+    /**
+     * Accepts one connection, completes with its request line and answers with {@code response}.
+     */
+    @NotNull
+    private static CompletableFuture<String> respond(@NotNull ServerSocket serverSocket, @NotNull String response) {
+        CompletableFuture<String> request = new CompletableFuture<>();
+
+        Thread thread = new Thread(() -> {
+            try (Socket socket = serverSocket.accept()) {
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)
+                );
+                request.complete(reader.readLine());
+
+                OutputStream outputStream = socket.getOutputStream();
+                outputStream.write(response.getBytes(StandardCharsets.UTF_8));
+                outputStream.flush();
+            } catch (IOException ioException) {
+                request.completeExceptionally(ioException);
+            }
+        }, "FakeCompileServer");
+        thread.setDaemon(true);
+        thread.start();
+
+        return request;
+    }
+}
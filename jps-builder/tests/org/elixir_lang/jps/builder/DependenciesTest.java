@@ -0,0 +1,98 @@
+package org.elixir_lang.jps.builder;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class DependenciesTest extends TestCase {
+    public void testScanNestedModules() {
+        Dependencies.Source source = Dependencies.scan(
+                "defmodule Outer do\n" +
+                "  defmodule Inner do\n" +
+                "  end\n" +
+                "\n" +
+                "  defmodule Sibling do\n" +
+                "  end\n" +
+                "end\n" +
+                "\n" +
+                "defprotocol Protocol do\n" +
+                "end\n" +
+                "\n" +
+                "defimpl Protocol, for: Outer do\n" +
+                "end\n"
+        );
+
+        assertEquals(
+                new HashSet<>(Arrays.asList("Outer", "Outer.Inner", "Outer.Sibling", "Protocol", "Protocol.Outer")),
+                source.moduleSet
+        );
+        // `Protocol` is defined in the same file, so it is not a dependency
+        assertEquals(Collections.emptySet(), source.dependencySet);
+    }
+
+    public void testScanDependencies() {
+        Dependencies.Source source = Dependencies.scan(
+                "defmodule Consumer do\n" +
+                "  alias Long.Name.Struct\n" +
+                "  alias Other.Helper, as: H\n" +
+                "  require Logger\n" +
+                "  import H.Imported\n" +
+                "  use GenServer\n" +
+                "\n" +
+                "  def new, do: %Struct{}\n" +
+                "end\n"
+        );
+
+        assertEquals(Collections.singleton("Consumer"), source.moduleSet);
+        assertEquals(
+                new HashSet<>(Arrays.asList("Logger", "Other.Helper.Imported", "GenServer", "Long.Name.Struct")),
+                source.dependencySet
+        );
+    }
+
+    public void testDependentPathsIsTransitive() throws IOException {
+        File dataRoot = FileUtil.createTempDirectory("dependencies", null);
+        File sourceRoot = FileUtil.createTempDirectory("sources", null);
+
+        try {
+            File base = source(sourceRoot, "base.ex", "defmodule Base do\nend\n");
+            File middle = source(sourceRoot, "middle.ex", "defmodule Middle do\n  require Base\nend\n");
+            File top = source(sourceRoot, "top.ex", "defmodule Top do\n  use Middle\nend\n");
+            File unrelated = source(sourceRoot, "unrelated.ex", "defmodule Unrelated do\nend\n");
+
+            Dependencies dependencies = Dependencies.load(dataRoot);
+
+            for (File file : Arrays.asList(base, middle, top, unrelated)) {
+                dependencies.update(file);
+            }
+
+            dependencies.save();
+
+            Dependencies loaded = Dependencies.load(dataRoot);
+
+            assertTrue(loaded.contains(base.getAbsolutePath()));
+
+            Set<String> dependentPaths = loaded.dependentPaths(Collections.singleton("Base"));
+
+            assertEquals(new HashSet<>(Arrays.asList(middle.getAbsolutePath(), top.getAbsolutePath())), dependentPaths);
+            assertEquals(Collections.singleton("Base"), loaded.remove(base.getAbsolutePath()));
+            assertFalse(loaded.contains(base.getAbsolutePath()));
+        } finally {
+            FileUtil.delete(dataRoot);
+            FileUtil.delete(sourceRoot);
+        }
+    }
+
+    private static File source(File sourceRoot, String name, String text) throws IOException {
+        File file = new File(sourceRoot, name);
+        FileUtil.writeToFile(file, text);
+
+        return file;
+    }
+}
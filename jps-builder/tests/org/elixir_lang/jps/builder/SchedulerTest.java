@@ -0,0 +1,92 @@
+package org.elixir_lang.jps.builder;
+
+import junit.framework.TestCase;
+import org.elixir_lang.jps.CompilerOptions;
+import org.jetbrains.jps.api.CanceledStatus;
+import org.jetbrains.jps.incremental.ProjectBuildException;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class SchedulerTest extends TestCase {
+    private static final CanceledStatus NOT_CANCELED = () -> false;
+
+    public void testWorkerCountDefaultsToAvailableProcessors() {
+        CompilerOptions compilerOptions = new CompilerOptions();
+
+        assertEquals(Runtime.getRuntime().availableProcessors(), Scheduler.workerCount(compilerOptions));
+    }
+
+    public void testWorkerCountIsConfigurable() {
+        CompilerOptions compilerOptions = new CompilerOptions();
+        compilerOptions.elixircWorkers = 3;
+
+        assertEquals(3, Scheduler.workerCount(compilerOptions));
+    }
+
+    public void testIndependentTargetsCompileAtTheSameTime() {
+        Scheduler scheduler = new Scheduler(2);
+        // each target only finishes once both are compiling, so compiling them one at a time times out
+        CountDownLatch compiling = new CountDownLatch(2);
+        List<Boolean> overlapped = Collections.synchronizedList(new ArrayList<>());
+
+        for (String targetKey : Arrays.asList("elixir-production:a", "elixir-production:b")) {
+            scheduler.submit(targetKey, Collections.emptyList(), () -> {
+                compiling.countDown();
+
+                try {
+                    overlapped.add(compiling.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException interruptedException) {
+                    throw new ProjectBuildException(interruptedException);
+                }
+            });
+        }
+
+        assertEquals(Collections.emptyList(), new ArrayList<>(scheduler.await(NOT_CANCELED)));
+        assertEquals(Arrays.asList(true, true), overlapped);
+    }
+
+    public void testDependentTargetCompilesAfterItsDependency() {
+        Scheduler scheduler = new Scheduler(2);
+        List<String> compiled = Collections.synchronizedList(new ArrayList<>());
+
+        scheduler.submit("elixir-production:dependency", Collections.emptyList(), () -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException interruptedException) {
+                throw new ProjectBuildException(interruptedException);
+            }
+
+            compiled.add("dependency");
+        });
+        scheduler.submit(
+                "elixir-production:dependent",
+                Collections.singletonList("elixir-production:dependency"),
+                () -> compiled.add("dependent")
+        );
+
+        assertEquals(Collections.emptyList(), new ArrayList<>(scheduler.await(NOT_CANCELED)));
+        assertEquals(Arrays.asList("dependency", "dependent"), compiled);
+    }
+
+    public void testDependentOfFailedTargetIsSkippedAndFailureReportedOnce() {
+        Scheduler scheduler = new Scheduler(2);
+        List<String> compiled = Collections.synchronizedList(new ArrayList<>());
+
+        scheduler.submit("elixir-production:dependency", Collections.emptyList(), () -> {
+            throw new ProjectBuildException("dependency failed");
+        });
+        scheduler.submit(
+                "elixir-production:dependent",
+                Collections.singletonList("elixir-production:dependency"),
+                () -> compiled.add("dependent")
+        );
+
+        Collection<Throwable> failures = scheduler.await(NOT_CANCELED);
+
+        assertEquals(1, failures.size());
+        assertEquals("dependency failed", failures.iterator().next().getMessage());
+        assertEquals(Collections.emptyList(), compiled);
+    }
+}
@@ -7,6 +7,13 @@ public class CompilerOptions {
   @Tag("useMixCompiler")
   public boolean useMixCompiler = true;
 
+  /**
+   * Whether {@link #useMixCompiler} sends {@code mix compile} to a BEAM that is kept running between builds instead of
+   * starting {@code mix} for each build.
+   */
+  @Tag("useMixCompileServer")
+  public boolean useMixCompileServer = false;
+
   @Tag("useDocs")
   public boolean attachDocsEnabled = true;
 
@@ -19,14 +26,23 @@ public class CompilerOptions {
   @Tag("useIgnoreModuleConflict")
   public boolean ignoreModuleConflictEnabled = false;
 
+  /**
+   * How many elixirc processes may compile independent modules at once.  {@code 0} uses the number of available
+   * processors.
+   */
+  @Tag("elixircWorkers")
+  public int elixircWorkers = 0;
+
   public CompilerOptions() {
   }
 
   public CompilerOptions(@NotNull CompilerOptions options){
     useMixCompiler = options.useMixCompiler;
+    useMixCompileServer = options.useMixCompileServer;
     attachDocsEnabled = options.attachDocsEnabled;
     attachDebugInfoEnabled = options.attachDebugInfoEnabled;
     warningsAsErrorsEnabled = options.warningsAsErrorsEnabled;
     ignoreModuleConflictEnabled = options.ignoreModuleConflictEnabled;
+    elixircWorkers = options.elixircWorkers;
   }
 }
@@ -0,0 +1,68 @@
+defmodule Mix.Tasks.IntellijElixir.CredoWorker do
+  @moduledoc false
+
+  use Mix.Task
+
+  # Every response starts with this prefix, so that any output from loading the project cannot be mistaken for a
+  # response.
+  @response_prefix "intellij_elixir.credo_worker"
+
+  # Functions
+
+  @impl Mix.Task
+  def run(_argv) do
+    Mix.Task.run("loadpaths", ["--no-deps-check"])
+    {:ok, _} = Application.ensure_all_started(:credo)
+
+    loop()
+  end
+
+  ## Private Functions
+
+  defp credo_lines(argv) do
+    {:ok, device} = StringIO.open("")
+    group_leader = Process.group_leader()
+    Process.group_leader(self(), device)
+
+    try do
+      # `Mix.Tasks.Credo.run/1` halts the VM when there are issues, but `Credo.run/1` does not.
+      Credo.run(argv)
+    after
+      Process.group_leader(self(), group_leader)
+    end
+
+    {:ok, {_, output}} = StringIO.close(device)
+
+    String.split(output, "\n", trim: true)
+  end
+
+  defp loop do
+    case IO.read(:stdio, :line) do
+      :eof ->
+        :ok
+
+      {:error, _reason} ->
+        :ok
+
+      line ->
+        line
+        |> String.trim_trailing("\n")
+        |> respond()
+
+        loop()
+    end
+  end
+
+  defp respond(path) do
+    try do
+      credo_lines(["--format", "flycheck", path])
+    rescue
+      exception ->
+        IO.puts("#{@response_prefix} error #{inspect(Exception.message(exception))}")
+    else
+      lines ->
+        IO.puts("#{@response_prefix} ok #{length(lines)}")
+        Enum.each(lines, &IO.puts/1)
+    end
+  end
+end
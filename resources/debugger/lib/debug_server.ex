@@ -3,7 +3,22 @@ defmodule IntellijElixir.DebugServer do
 
   use GenServer
 
-  defstruct reason_by_uninterpretable: %{},
+  # Terms whose external size is at most this many bytes are sent whole.  Larger lists, tuples, maps, and binaries are
+  # sent as `{:lazy, kind, child_count}` and their children are requested with `{:children, ...}` as the IDE expands
+  # them.
+  @eager_size 1024
+  # Large binaries are split into children of this many bytes
+  @binary_chunk_size 1024
+  # `{{module, line}, options, hits}` for breakpoints with a condition, hit count, or log expression.  Public, so that
+  # the meta processes calling `test_at_break/3` can read it without a round trip through this server.  The condition
+  # and log expression are compiled once into the `break_module/2` of the breakpoint, so a hit does not evaluate them.
+  @breaks __MODULE__.Breaks
+
+  # `{pid, level}` to the bindings of that frame, so that expanding children does not fetch them again from the meta
+  # process.  Forgotten when `pid` resumes.
+  defstruct bindings_by_frame: %{},
+            interpret_on_demand: false,
+            reason_by_uninterpretable: %{},
             port: nil,
             ref: nil,
             reject_erlang_module_name_patterns: [],
@@ -20,6 +35,19 @@ defmodule IntellijElixir.DebugServer do
     GenServer.cast(__MODULE__, {:breakpoint_reached, pid})
   end
 
+  @doc """
+  Called by `:int` in the meta process of `pid` when it reaches a breakpoint with options, so that conditions, hit
+  counts, and log expressions are evaluated in the BEAM and only hits that should suspend reach the IDE.
+  """
+  def test_at_break(module, line, bindings) do
+    key = {module, line}
+
+    case :ets.lookup(@breaks, key) do
+      [{^key, options, _hits}] -> test_break_options(key, options, elixir_binding(bindings))
+      [] -> true
+    end
+  end
+
   def put_reject_elixir_module_name_patterns(state = %__MODULE__{}, elixir_module_name_patterns)
       when is_list(elixir_module_name_patterns) do
     erlang_module_name_patterns = Enum.map(elixir_module_name_patterns, &elixir_module_name_to_erlang_module_name/1)
@@ -54,44 +82,105 @@ defmodule IntellijElixir.DebugServer do
     {:noreply, %{state | ref: ref}}
   end
 
-  def handle_cast({:set_breakpoint, module, line, file}, state = %__MODULE__{socket: socket})
+  def handle_cast({:set_breakpoint, module, line, file}, state) do
+    handle_cast({:set_breakpoint, module, line, file, []}, state)
+  end
+
+  def handle_cast({:set_breakpoint, module, line, file, options}, state = %__MODULE__{socket: socket})
       when is_binary(file)
-      when is_atom(module) and is_integer(line) do
-    unless module in :int.interpreted(), do: :int.ni(module)
+      when is_atom(module) and is_integer(line) and is_list(options) do
+    result =
+      with {:ok, compiled_options} <- compile_break_options(options) do
+        interpret([module], socket)
 
-    response = {:set_breakpoint_response, module, line, :int.break(module, line), file}
+        with :ok <- :int.break(module, line) do
+          put_break_options(module, line, compiled_options)
+        end
+      end
+
+    response = {:set_breakpoint_response, module, line, result, file}
     send_message(socket, response)
     {:noreply, state}
   end
 
   def handle_cast({:remove_breakpoint, module, line}, state) when is_atom(module) and is_integer(line) do
     :int.delete_break(module, line)
+    :ets.delete(@breaks, {module, line})
+    delete_break_module(module, line)
     {:noreply, state}
   end
 
+  def handle_cast({:breakpoint_log, module, line, type, message}, state = %__MODULE__{socket: socket}) do
+    send_message(socket, {:breakpoint_log, module, line, type, message})
+    {:noreply, state}
+  end
+
+  def handle_cast({:step_into, pid}, state = %__MODULE__{interpret_on_demand: true, socket: socket}) when is_pid(pid) do
+    pid
+    |> callees()
+    |> Enum.filter(&interpretable?(&1, state))
+    |> interpret(socket)
+
+    :int.step(pid)
+    {:noreply, forget_bindings(state, pid)}
+  end
+
   def handle_cast({:step_into, pid}, state) when is_pid(pid) do
     :int.step(pid)
-    {:noreply, state}
+    {:noreply, forget_bindings(state, pid)}
   end
 
   def handle_cast({:step_over, pid}, state) when is_pid(pid) do
     :int.next(pid)
-    {:noreply, state}
+    {:noreply, forget_bindings(state, pid)}
   end
 
   def handle_cast({:step_out, pid}, state) when is_pid(pid) do
     :int.finish(pid)
-    {:noreply, state}
+    {:noreply, forget_bindings(state, pid)}
   end
 
   def handle_cast({:continue, pid}, state) when is_pid(pid) do
     :int.continue(pid)
+    {:noreply, forget_bindings(state, pid)}
+  end
+
+  def handle_cast({:bindings, pid, level, request_id}, state = %__MODULE__{socket: socket})
+      when is_pid(pid) and is_integer(level) do
+    {result, state} = frame_bindings(state, pid, level)
+
+    children =
+      case result do
+        {:ok, bindings} -> Enum.map(bindings, fn {name, value} -> {name, lazy(value)} end)
+        :error -> []
+      end
+
+    send_message(socket, {:children_response, request_id, children})
+    {:noreply, state}
+  end
+
+  def handle_cast({:children, pid, level, name, path, offset, count, request_id}, state = %__MODULE__{socket: socket})
+      when is_pid(pid) and is_integer(level) and is_atom(name) and is_list(path) do
+    {result, state} = frame_bindings(state, pid, level)
+
+    children =
+      with {:ok, bindings} <- result,
+           {^name, value} <- List.keyfind(bindings, name, 0),
+           {:ok, term} <- descend(value, path) do
+        term
+        |> children(offset, count)
+        |> Enum.map(fn {label, child} -> {label, lazy(child)} end)
+      else
+        _ -> []
+      end
+
+    send_message(socket, {:children_response, request_id, children})
     {:noreply, state}
   end
 
   def handle_cast({:breakpoint_reached, pid}, state = %__MODULE__{socket: socket}) do
     send_message(socket, {:breakpoint_reached, pid, snapshot_with_stacks()})
-    {:noreply, state}
+    {:noreply, forget_bindings(state, pid)}
   end
 
   def handle_cast(request, state) do
@@ -118,14 +207,206 @@ defmodule IntellijElixir.DebugServer do
     {:ok, host} = :inet.gethostname()
     {:ok, socket} = :gen_tcp.connect(host, port, opts)
     :int.auto_attach([:break], {__MODULE__, :breakpoint_reached, []})
+    :ets.new(@breaks, [:named_table, :public, :set, read_concurrency: true])
+    send_interpreted_modules(socket, [])
 
     {:ok, %__MODULE__{state | socket: socket}}
   end
 
   ## Private Functions
 
-  defp bindings(meta_pid, level) do
-    :int.meta(meta_pid, :bindings, level)
+  defp abstract_code(module) do
+    with beam when is_list(beam) <- :code.which(module),
+         {:ok, {^module, [debug_info: {:debug_info_v1, backend, data}]}} <- :beam_lib.chunks(beam, [:debug_info]),
+         {:ok, forms} <- backend.debug_info(:erlang_v1, module, data, []) do
+      forms
+    else
+      _ -> []
+    end
+  end
+
+  defp binary_chunk(binary, index) do
+    start = index * @binary_chunk_size
+    size = min(@binary_chunk_size, byte_size(binary) - start)
+
+    {"[#{start}..#{start + size - 1}]", binary_part(binary, start, size)}
+  end
+
+  # `def name(binding)` that returns `default` without an expression or evaluates `quoted` with each variable it uses
+  # bound from `binding`, the Elixir variables at the breakpoint
+  defp break_function(name, nil, default) do
+    quote do
+      def unquote(name)(_binding), do: unquote(default)
+    end
+  end
+
+  defp break_function(name, quoted, _default) do
+    binding = Macro.var(:binding, __MODULE__)
+
+    assignments =
+      for variable_name <- variable_names(quoted) do
+        variable = Macro.var(variable_name, nil)
+
+        quote do
+          unquote(variable) = Map.get(unquote(binding), unquote(variable_name))
+          _ = unquote(variable)
+        end
+      end
+
+    quote do
+      def unquote(name)(unquote(binding)) do
+        _ = unquote(binding)
+        unquote_splicing(assignments)
+        unquote(quoted)
+      end
+    end
+  end
+
+  # Holds the compiled condition and log expression of the breakpoint at `line` in `module`
+  defp break_module(module, line), do: :"#{__MODULE__}.Break.#{module}.#{line}"
+
+  defp breakpoint_log({module, line}, type, message) do
+    GenServer.cast(__MODULE__, {:breakpoint_log, module, line, type, message})
+  end
+
+  # Remote calls on the line `pid` is stopped at, so that stepping into them can interpret their modules first
+  defp callees(pid) do
+    case List.keyfind(:int.snapshot(), pid, 0) do
+      {^pid, _init, :break, {module, line}} -> module |> abstract_code() |> remote_callees(line, []) |> Enum.uniq()
+      _ -> []
+    end
+  end
+
+  defp child_count(binary) when is_binary(binary), do: div(byte_size(binary) + @binary_chunk_size - 1, @binary_chunk_size)
+
+  defp child_count(list) when is_list(list) do
+    length(list)
+  rescue
+    # The tail of an improper list is its last child
+    ArgumentError -> improper_list_child_count(list, 0)
+  end
+
+  defp child_count(map) when is_map(map), do: map_size(map)
+  defp child_count(tuple) when is_tuple(tuple), do: tuple_size(tuple)
+
+  # `{label, child}` for `count` children from `offset` in the order the IDE shows them, so that a child's index is
+  # stable between requests.  Only the children in the page are labelled.
+  defp children(binary, offset, count) when is_binary(binary) do
+    binary
+    |> child_count()
+    |> page_indices(offset, count)
+    |> Enum.map(&binary_chunk(binary, &1))
+  end
+
+  defp children(list, offset, count) when is_list(list) do
+    list
+    |> list_drop(offset)
+    |> list_children(offset, count)
+  end
+
+  defp children(map, offset, count) when is_map(map) do
+    map
+    |> Enum.sort()
+    |> Enum.slice(offset, count)
+    |> Enum.map(fn {key, value} -> {inspect(key, limit: 10, printable_limit: 64), value} end)
+  end
+
+  defp children(tuple, offset, count) when is_tuple(tuple) do
+    tuple
+    |> tuple_size()
+    |> page_indices(offset, count)
+    |> Enum.map(&{"[#{&1}]", elem(tuple, &1)})
+  end
+
+  defp children(_, _, _), do: []
+
+  defp compile_break_options(options) do
+    with {:ok, condition} <- compile_expression(Keyword.get(options, :condition)),
+         {:ok, log_expression} <- compile_expression(Keyword.get(options, :log_expression)) do
+      {:ok,
+       %{
+         condition: condition,
+         hit_count: Keyword.get(options, :hit_count, 0),
+         log_expression: log_expression,
+         suspend: Keyword.get(options, :suspend, true)
+       }}
+    end
+  end
+
+  defp compile_expression(nil), do: {:ok, nil}
+  defp compile_expression(""), do: {:ok, nil}
+
+  defp compile_expression(string) when is_binary(string) do
+    case Code.string_to_quoted(string) do
+      {:ok, quoted} -> {:ok, quoted}
+      {:error, {line, error, token}} -> {:error, "#{string}:#{line}: #{error}#{token}"}
+    end
+  end
+
+  defp condition?(key, break_module, binding) do
+    break_module.condition(binding) not in [false, nil]
+  rescue
+    exception ->
+      breakpoint_log(key, :error, "Failed to evaluate breakpoint condition: #{Exception.message(exception)}")
+
+      # Like a condition that cannot be evaluated in the IDE, suspend so the user can see why
+      true
+  end
+
+  # Replaces the `break_module/2` left from an earlier version of the breakpoint, so editing the condition or log
+  # expression takes effect
+  defp create_break_module(module, line, %{condition: condition, log_expression: log_expression}) do
+    break_module = break_module(module, line)
+    delete_break_module(module, line)
+
+    contents =
+      quote do
+        def test(bindings), do: unquote(__MODULE__).test_at_break(unquote(module), unquote(line), bindings)
+        unquote(break_function(:condition, condition, true))
+        unquote(break_function(:log, log_expression, nil))
+      end
+
+    Module.create(break_module, contents, Macro.Env.location(__ENV__))
+    {:ok, break_module}
+  rescue
+    exception -> {:error, "Failed to compile breakpoint options: #{Exception.message(exception)}"}
+  end
+
+  defp delete_break_module(module, line) do
+    break_module = break_module(module, line)
+    # Purging before deleting drops any old code, so the module can then be deleted and its old code purged
+    :code.purge(break_module)
+    :code.delete(break_module)
+    :code.purge(break_module)
+  end
+
+  defp descend(term, []), do: {:ok, term}
+
+  defp descend(term, [index | path]) when is_integer(index) do
+    case children(term, index, 1) do
+      [{_label, child}] -> descend(child, path)
+      [] -> :error
+    end
+  end
+
+  # Elixir variables are `_name@version` in the interpreter.  The latest version is the one in scope.
+  defp elixir_binding(bindings) do
+    bindings
+    |> Enum.reduce(%{}, fn {erlang_name, value}, acc ->
+      case Regex.run(~r/^_(.+)@(\d+)$/, Atom.to_string(erlang_name)) do
+        [_, name, version] ->
+          version = String.to_integer(version)
+
+          Map.update(acc, name, {version, value}, fn
+            current = {current_version, _} when current_version > version -> current
+            _ -> {version, value}
+          end)
+
+        nil ->
+          acc
+      end
+    end)
+    |> Map.new(fn {name, {_version, value}} -> {String.to_atom(name), value} end)
   end
 
   defp elixir_module_name_to_erlang_module_name(":" <> erlang_module_name), do: erlang_module_name
@@ -149,9 +430,93 @@ defmodule IntellijElixir.DebugServer do
     Regex.compile!("^(#{unpinned_pattern})$")
   end
 
+  defp forget_bindings(state = %__MODULE__{bindings_by_frame: bindings_by_frame}, pid) do
+    bindings_by_frame = :maps.filter(fn {frame_pid, _level}, _bindings -> frame_pid != pid end, bindings_by_frame)
+    %__MODULE__{state | bindings_by_frame: bindings_by_frame}
+  end
+
+  defp frame_bindings(state = %__MODULE__{bindings_by_frame: bindings_by_frame}, pid, level) do
+    frame = {pid, level}
+
+    case bindings_by_frame do
+      %{^frame => bindings} ->
+        {{:ok, bindings}, state}
+
+      _ ->
+        case pid_to_bindings(pid, level) do
+          {:ok, bindings} ->
+            {{:ok, bindings}, %__MODULE__{state | bindings_by_frame: Map.put(bindings_by_frame, frame, bindings)}}
+
+          :error ->
+            {:error, state}
+        end
+    end
+  end
+
+  # Only modules that are not interpreted already are interpreted, so repeating a module is cheap
+  defp interpret(modules, socket) do
+    interpreted = :int.interpreted()
+
+    newly_interpreted =
+      Enum.filter(modules, fn module ->
+        module not in interpreted and match?({:module, _}, safely_interpret(module))
+      end)
+
+    unless newly_interpreted == [], do: send_interpreted_modules(socket, newly_interpreted)
+  end
+
+  defp interpretable?(module, %__MODULE__{reject_regex: reject_regex}) do
+    :int.interpretable(module) == true and not :code.is_sticky(module) and
+      not (reject_regex != nil and Regex.match?(reject_regex, Atom.to_string(module)))
+  end
+
+  defp improper_list_child_count([_ | tail], count), do: improper_list_child_count(tail, count + 1)
+  defp improper_list_child_count(_improper_tail, count), do: count + 1
+
+  defp kind(binary) when is_binary(binary), do: :binary
+  defp kind(list) when is_list(list), do: :list
+  defp kind(map) when is_map(map), do: :map
+  defp kind(tuple) when is_tuple(tuple), do: :tuple
+  defp kind(_), do: nil
+
+  defp lazy(term) do
+    with kind when not is_nil(kind) <- kind(term),
+         true <- :erlang.external_size(term) > @eager_size do
+      {:lazy, kind, child_count(term)}
+    else
+      _ -> {:value, term}
+    end
+  end
+
+  defp list_children(_, _, 0), do: []
+  defp list_children([], _, _), do: []
+
+  defp list_children([head | tail], index, count) do
+    [{"[#{index}]", head} | list_children(tail, index + 1, count - 1)]
+  end
+
+  defp list_children(improper_tail, _, _), do: [{"tail", improper_tail}]
+
+  # Like `Enum.drop/2`, but keeps the tail of an improper list as the child after the last element
+  defp list_drop(list, 0), do: list
+  defp list_drop([_ | tail], count), do: list_drop(tail, count - 1)
+  defp list_drop(_, _), do: []
+
+  defp log(_, %{log_expression: false}, _), do: :ok
+
+  defp log(key, %{break_module: break_module}, binding) do
+    value = break_module.log(binding)
+    message = if is_binary(value), do: value, else: inspect(value)
+    breakpoint_log(key, :info, message)
+  rescue
+    exception -> breakpoint_log(key, :error, "Failed to evaluate log expression: #{Exception.message(exception)}")
+  end
+
   defp meta_pid_to_stack(meta_pid, %{line: break_line}) do
     [{level, mfa} | backtrace_tail] = :int.meta(meta_pid, :backtrace, :all)
-    head_frame = {level, mfa, bindings(meta_pid, level), {to_file(mfa), break_line}}
+    # Bindings are not sent with the frames as they can be arbitrarily large.  The IDE requests them with
+    # `{:bindings, pid, level, request_id}` when a frame is expanded.
+    head_frame = {level, mfa, :lazy, {to_file(mfa), break_line}}
 
     tail_frames =
       case backtrace_tail do
@@ -162,8 +527,8 @@ defmodule IntellijElixir.DebugServer do
         _ ->
           frames = stack_frames_above(meta_pid, level)
 
-          for {{level, mfa = {module, _, _}}, {level, {module, line}, bindings}} <- List.zip([backtrace_tail, frames]) do
-            {level, mfa, bindings, {to_file(mfa), line}}
+          for {{level, mfa = {module, _, _}}, {level, {module, line}, _bindings}} <- List.zip([backtrace_tail, frames]) do
+            {level, mfa, :lazy, {to_file(mfa), line}}
           end
       end
 
@@ -184,6 +549,25 @@ defmodule IntellijElixir.DebugServer do
     end
   end
 
+  defp page_indices(child_count, offset, count) do
+    case min(offset + count, child_count) - 1 do
+      last when last >= offset -> Enum.to_list(offset..last)
+      _ -> []
+    end
+  end
+
+  defp pid_to_bindings(pid, level) do
+    case :dbg_iserver.safe_call({:get_meta, pid}) do
+      {:ok, meta_pid} ->
+        {:ok, :int.meta(meta_pid, :bindings, level)}
+
+      error ->
+        IO.warn("Failed to obtain meta pid for #{inspect(pid)}: #{inspect(error)}")
+
+        :error
+    end
+  end
+
   defp pid_to_stack(pid, options) do
     case :dbg_iserver.safe_call({:get_meta, pid}) do
       {:ok, meta_pid} ->
@@ -196,6 +580,52 @@ defmodule IntellijElixir.DebugServer do
     end
   end
 
+  # Plain breakpoints are left to `:int` alone, so they pay nothing for options they do not use
+  defp put_break_options(module, line, %{condition: nil, hit_count: hit_count, log_expression: nil, suspend: true})
+       when hit_count <= 1 do
+    :ets.delete(@breaks, {module, line})
+    delete_break_module(module, line)
+    :ok
+  end
+
+  defp put_break_options(module, line, options) do
+    %{hit_count: hit_count, log_expression: log_expression, suspend: suspend} = options
+
+    with {:ok, break_module} <- create_break_module(module, line, options) do
+      break_options = %{
+        break_module: break_module,
+        hit_count: hit_count,
+        log_expression: log_expression != nil,
+        suspend: suspend
+      }
+
+      :ets.insert(@breaks, {{module, line}, break_options, 0})
+      :int.test_at_break(module, line, {break_module, :test})
+    end
+  end
+
+  defp remote_callees({:call, anno, {:remote, _, {:atom, _, callee}, {:atom, _, _}}, arguments}, line, acc) do
+    acc = remote_callees(arguments, line, acc)
+
+    if :erl_anno.line(anno) == line do
+      [callee | acc]
+    else
+      acc
+    end
+  end
+
+  defp remote_callees(tuple, line, acc) when is_tuple(tuple) do
+    tuple
+    |> Tuple.to_list()
+    |> remote_callees(line, acc)
+  end
+
+  defp remote_callees(list, line, acc) when is_list(list) do
+    Enum.reduce(list, acc, &remote_callees(&1, line, &2))
+  end
+
+  defp remote_callees(_, _, acc), do: acc
+
   defp root_parent(ancestor) do
     if File.dir?(ancestor) and ancestor |> Path.join("mix.exs") |> File.exists?() do
       ancestor
@@ -206,6 +636,16 @@ defmodule IntellijElixir.DebugServer do
     end
   end
 
+  defp safely_interpret(module) do
+    :int.ni(module)
+  rescue
+    exception -> {:error, exception}
+  end
+
+  defp send_interpreted_modules(socket, newly_interpreted) do
+    send_message(socket, {:interpreted_modules, length(:int.interpreted()), newly_interpreted})
+  end
+
   defp send_message(socket, message) do
     :gen_tcp.send(socket, :erlang.term_to_binary(message))
   end
@@ -257,4 +697,32 @@ defmodule IntellijElixir.DebugServer do
       :error
     end
   end
+
+  # Hits are only counted when the condition holds, so a hit count of N suspends from the Nth time the condition holds
+  defp test_break_options(key, options = %{break_module: break_module, hit_count: hit_count}, binding) do
+    if condition?(key, break_module, binding) and :ets.update_counter(@breaks, key, {3, 1}) >= hit_count do
+      log(key, options, binding)
+      options.suspend
+    else
+      false
+    end
+  end
+
+  # Variables read in `quoted`, except the special forms like `__MODULE__` that cannot be bound
+  defp variable_names(quoted) do
+    {_quoted, names} =
+      Macro.prewalk(quoted, MapSet.new(), fn
+        variable = {name, _meta, context}, names when is_atom(name) and is_atom(context) ->
+          if String.starts_with?(Atom.to_string(name), "__") do
+            {variable, names}
+          else
+            {variable, MapSet.put(names, name)}
+          end
+
+        other, names ->
+          {other, names}
+      end)
+
+    MapSet.to_list(names)
+  end
 end
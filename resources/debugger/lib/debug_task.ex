@@ -22,15 +22,22 @@ defmodule Mix.Tasks.IntellijElixir.DebugTask do
     state =
       DebugServer.put_reject_elixir_module_name_patterns(
         %DebugServer{
+          interpret_on_demand: Keyword.get(options, :interpret_on_demand, false),
           port: Keyword.get(options, :debugger_port),
           task: {task_name, task_args}
         },
         elixir_module_name_patterns
       )
 
-    # Interpret project modules and project dependencies
-    state = interpret_modules_in(Mix.Project.load_paths(), state)
-    state = interpret_modules_in(Mix.Project.build_path(), state)
+    # Interpret project modules and project dependencies, unless the debug server interprets modules as breakpoints are
+    # set in them and they are stepped into, as interpreted code is much slower
+    state =
+      if state.interpret_on_demand do
+        state
+      else
+        state = interpret_modules_in(Mix.Project.load_paths(), state)
+        interpret_modules_in(Mix.Project.build_path(), state)
+      end
 
     # Check version, but continue anyway in case they've patched Erlang < OTP 19 to allow debugging Elixir
     version = String.to_integer(to_string(:erlang.system_info(:otp_release)))
@@ -154,7 +161,11 @@ defmodule Mix.Tasks.IntellijElixir.DebugTask do
         _ -> command_argv
       end
 
-    {options, _} = OptionParser.parse!(debug_argv, strict: [debugger_port: :integer, do_not_interpret_pattern: :keep])
+    {options, _} =
+      OptionParser.parse!(
+        debug_argv,
+        strict: [debugger_port: :integer, do_not_interpret_pattern: :keep, interpret_on_demand: :boolean]
+      )
 
     unless Keyword.get(options, :debugger_port) do
       Mix.shell().error("Option --debugger-port required")
@@ -6,11 +6,13 @@
 defmodule TeamCityExUnitFormatting do
   # Constants
 
+  @events_environment_variable "INTELLIJ_ELIXIR_EXUNIT_EVENTS"
   @root_parent_node_id 0
 
   # Struct
 
-  defstruct failures_counter: 0,
+  defstruct events: nil,
+            failures_counter: 0,
             invalids_counter: 0,
             seed: nil,
             skipped_counter: 0,
@@ -25,24 +27,25 @@ defmodule TeamCityExUnitFormatting do
 
   def new(opts) do
     %__MODULE__{
+      events: connect_events(),
       seed: opts[:seed],
       trace: opts[:trace]
     }
   end
 
   def put_event(state = %__MODULE__{}, {:case_finished, test_case = %ExUnit.TestCase{}}) do
-    put_formatted(:test_suite_finished, attributes(test_case))
+    put_formatted(state, :test_suite_finished, attributes(test_case))
 
     state
   end
 
   def put_event(state = %__MODULE__{}, {:case_started, test_case = %ExUnit.TestCase{}}) do
-    put_formatted(:test_suite_started, attributes(test_case))
+    put_formatted(state, :test_suite_started, attributes(test_case))
 
     state
   end
 
-  def put_event(state = %__MODULE__{}, {:suite_finished, _run_us, _load_us}), do: state
+  def put_event(state = %__MODULE__{}, {:suite_finished, _run_us, _load_us}), do: close_events(state)
 
   def put_event(state = %__MODULE__{}, {:suite_started, opts}) do
     seed = opts[:seed]
@@ -84,6 +87,7 @@ defmodule TeamCityExUnitFormatting do
     attributes = attributes(test)
 
     put_formatted(
+      state,
       :test_failed,
       Keyword.merge(
         attributes,
@@ -93,6 +97,7 @@ defmodule TeamCityExUnitFormatting do
     )
 
     put_formatted(
+      state,
       :test_finished,
       Keyword.merge(
         attributes,
@@ -131,6 +136,7 @@ defmodule TeamCityExUnitFormatting do
     attributes = attributes(test)
 
     put_formatted(
+      state,
       :test_failed,
       Keyword.merge(
         attributes,
@@ -140,6 +146,7 @@ defmodule TeamCityExUnitFormatting do
     )
 
     put_formatted(
+      state,
       :test_finished,
       Keyword.merge(
         attributes,
@@ -163,8 +170,8 @@ defmodule TeamCityExUnitFormatting do
       ) do
     attributes = attributes(test)
 
-    put_formatted(:test_ignored, attributes)
-    put_formatted(:test_finished, attributes)
+    put_formatted(state, :test_ignored, attributes)
+    put_formatted(state, :test_finished, attributes)
 
     %{
       state
@@ -180,6 +187,7 @@ defmodule TeamCityExUnitFormatting do
         }
       }) do
     put_formatted(
+      state,
       :test_finished,
       test
       |> attributes()
@@ -191,6 +199,7 @@ defmodule TeamCityExUnitFormatting do
 
   def put_event(state = %__MODULE__{}, {:test_started, test = %ExUnit.Test{tags: tags}}) do
     put_formatted(
+      state,
       :test_started,
       test
       |> attributes()
@@ -219,11 +228,46 @@ defmodule TeamCityExUnitFormatting do
     ]
   end
 
+  # `shutdown` instead of `close`, so the events already sent are delivered before the VM halts
+  defp close_events(state = %__MODULE__{events: nil}), do: state
+
+  defp close_events(state = %__MODULE__{events: events}) do
+    :gen_tcp.shutdown(events, :write)
+
+    %__MODULE__{state | events: nil}
+  end
+
   defp camelize(s) do
     [head | tail] = String.split(s, "_")
     "#{head}#{Enum.map(tail, &String.capitalize/1)}"
   end
 
+  # The IDE listens for events on the `port` in `port:token` and only accepts them after the `token`.  Events are sent
+  # as length-prefixed `:erlang.term_to_binary/1`, so the IDE doesn't have to scrape them out of stdout.
+  defp connect_events, do: connect_events(System.get_env(@events_environment_variable))
+
+  defp connect_events(nil), do: nil
+
+  defp connect_events(port_token) do
+    [port, token] = String.split(port_token, ":", parts: 2)
+
+    case :gen_tcp.connect({127, 0, 0, 1}, String.to_integer(port), [:binary, active: false, packet: 4]) do
+      {:ok, events} ->
+        case :gen_tcp.send(events, token) do
+          :ok ->
+            events
+
+          # the IDE closed the socket, so fall back to service messages on stdout
+          {:error, _} ->
+            :gen_tcp.close(events)
+            nil
+        end
+
+      {:error, _} ->
+        nil
+    end
+  end
+
   # Must escape certain characters
   # see: https://confluence.jetbrains.com/display/TCD9/Build+Script+Interaction+with+TeamCity
   defp escape_output(s) when not is_binary(s), do: escape_output("#{s}")
@@ -239,10 +283,7 @@ defmodule TeamCityExUnitFormatting do
   end
 
   defp format(type, attributes) do
-    messageName =
-      type
-      |> Atom.to_string()
-      |> camelize()
+    messageName = message_name(type)
 
     attrs =
       attributes
@@ -252,6 +293,15 @@ defmodule TeamCityExUnitFormatting do
     "##teamcity[#{messageName} #{attrs}]"
   end
 
+  defp event(type, attributes) do
+    :erlang.term_to_binary(
+      {
+        message_name(type),
+        Enum.map(attributes, fn {k, v} -> {Atom.to_string(k), to_string(v)} end)
+      }
+    )
+  end
+
   defp format_attribute({k, v}) do
     "#{Atom.to_string(k)}='#{escape_output(v)}'"
   end
@@ -262,6 +312,12 @@ defmodule TeamCityExUnitFormatting do
     |> String.replace(~r/\bElixir\./, "")
   end
 
+  defp message_name(type) do
+    type
+    |> Atom.to_string()
+    |> camelize()
+  end
+
   defp name(test = %ExUnit.Test{name: name}) do
     named_captures =
       Regex.named_captures(
@@ -298,9 +354,16 @@ defmodule TeamCityExUnitFormatting do
   defp parentNodeId(%ExUnit.TestCase{}), do: @root_parent_node_id
 
   # DO NOT use `flowId` as an attribute.  IDEA ignores flowId and so it can't be used to interleave async test output
-  defp put_formatted(type, attributes) do
+  defp put_formatted(%__MODULE__{events: nil}, type, attributes) do
     type
     |> format(attributes)
     |> IO.puts()
   end
+
+  defp put_formatted(%__MODULE__{events: events}, type, attributes) do
+    case :gen_tcp.send(events, event(type, attributes)) do
+      :ok -> :ok
+      {:error, _} -> put_formatted(%__MODULE__{events: nil}, type, attributes)
+    end
+  end
 end
@@ -6,11 +6,13 @@
 defmodule TeamCityExUnitFormatting do
   # Constants
 
+  @events_environment_variable "INTELLIJ_ELIXIR_EXUNIT_EVENTS"
   @root_parent_node_id 0
 
   # Struct
 
-  defstruct failures_counter: 0,
+  defstruct events: nil,
+            failures_counter: 0,
             invalids_counter: 0,
             seed: nil,
             skipped_counter: 0,
@@ -25,6 +27,7 @@ defmodule TeamCityExUnitFormatting do
 
   def new(opts) do
     %__MODULE__{
+      events: connect_events(),
       seed: opts[:seed],
       trace: opts[:trace]
     }
@@ -35,18 +38,18 @@ defmodule TeamCityExUnitFormatting do
   def put_event(state = %__MODULE__{}, {:case_started, %ExUnit.TestCase{}}), do: state
 
   def put_event(state = %__MODULE__{}, {:module_finished, test_module = %ExUnit.TestModule{}}) do
-    put_formatted :test_suite_finished, attributes(test_module)
+    put_formatted state, :test_suite_finished, attributes(test_module)
 
     state
   end
 
   def put_event(state = %__MODULE__{}, {:module_started, test_module = %ExUnit.TestModule{}}) do
-    put_formatted :test_suite_started, attributes(test_module)
+    put_formatted state, :test_suite_started, attributes(test_module)
 
     state
   end
 
-  def put_event(state = %__MODULE__{}, {:suite_finished, _run_us, _load_us}), do: state
+  def put_event(state = %__MODULE__{}, {:suite_finished, _run_us, _load_us}), do: close_events(state)
 
   def put_event(state = %__MODULE__{}, {:suite_started, opts}) do
     seed = opts[:seed]
@@ -83,13 +86,13 @@ defmodule TeamCityExUnitFormatting do
     )
     attributes = attributes(test)
 
-    put_formatted :test_failed,
+    put_formatted state, :test_failed,
                   Keyword.merge(
                     attributes,
                     details: formatted,
                     message: inspect(reason)
                   )
-    put_formatted :test_finished,
+    put_formatted state, :test_finished,
                   Keyword.merge(
                     attributes,
                     duration: div(time, 1000)
@@ -121,13 +124,13 @@ defmodule TeamCityExUnitFormatting do
     message = Enum.map_join(failed, "", fn {_kind, reason, _stack} -> inspect(reason) end)
     attributes = attributes(test)
 
-    put_formatted :test_failed,
+    put_formatted state, :test_failed,
                   Keyword.merge(
                     attributes,
                     details: formatted,
                     message: message
                   )
-    put_formatted :test_finished,
+    put_formatted state, :test_finished,
                   Keyword.merge(
                     attributes,
                     duration: div(time, 1000)
@@ -149,8 +152,8 @@ defmodule TeamCityExUnitFormatting do
       ) do
     attributes = attributes(test)
 
-    put_formatted :test_ignored, attributes
-    put_formatted :test_finished, attributes
+    put_formatted state, :test_ignored, attributes
+    put_formatted state, :test_finished, attributes
 
     %{
       state |
@@ -168,7 +171,7 @@ defmodule TeamCityExUnitFormatting do
           }
         }
       ) do
-    put_formatted :test_finished,
+    put_formatted state, :test_finished,
                   test
                   |> attributes()
                   |> Keyword.merge(
@@ -179,7 +182,7 @@ defmodule TeamCityExUnitFormatting do
   end
 
   def put_event(state = %__MODULE__{}, {:test_started, test = %ExUnit.Test{tags: tags}}) do
-    put_formatted :test_started,
+    put_formatted state, :test_started,
                   test
                   |> attributes()
                   |> Keyword.merge(
@@ -206,11 +209,46 @@ defmodule TeamCityExUnitFormatting do
     ]
   end
 
+  # `shutdown` instead of `close`, so the events already sent are delivered before the VM halts
+  defp close_events(state = %__MODULE__{events: nil}), do: state
+
+  defp close_events(state = %__MODULE__{events: events}) do
+    :gen_tcp.shutdown(events, :write)
+
+    %__MODULE__{state | events: nil}
+  end
+
   defp camelize(s) do
     [head | tail] = String.split s, "_"
     "#{head}#{Enum.map tail, &String.capitalize/1}"
   end
 
+  # The IDE listens for events on the `port` in `port:token` and only accepts them after the `token`.  Events are sent
+  # as length-prefixed `:erlang.term_to_binary/1`, so the IDE doesn't have to scrape them out of stdout.
+  defp connect_events, do: connect_events(System.get_env(@events_environment_variable))
+
+  defp connect_events(nil), do: nil
+
+  defp connect_events(port_token) do
+    [port, token] = String.split(port_token, ":", parts: 2)
+
+    case :gen_tcp.connect({127, 0, 0, 1}, String.to_integer(port), [:binary, active: false, packet: 4]) do
+      {:ok, events} ->
+        case :gen_tcp.send(events, token) do
+          :ok ->
+            events
+
+          # the IDE closed the socket, so fall back to service messages on stdout
+          {:error, _} ->
+            :gen_tcp.close(events)
+            nil
+        end
+
+      {:error, _} ->
+        nil
+    end
+  end
+
   # Must escape certain characters
   # see: https://confluence.jetbrains.com/display/TCD9/Build+Script+Interaction+with+TeamCity
   defp escape_output(s) when not is_binary(s), do: escape_output("#{s}")
@@ -225,15 +263,22 @@ defmodule TeamCityExUnitFormatting do
   end
 
   defp format(type, attributes) do
-    messageName = type
-                  |> Atom.to_string()
-                  |> camelize()
+    messageName = message_name(type)
     attrs = attributes
             |> Enum.map(&format_attribute/1)
             |> Enum.join(" ")
     "##teamcity[#{messageName} #{attrs}]"
   end
 
+  defp event(type, attributes) do
+    :erlang.term_to_binary(
+      {
+        message_name(type),
+        Enum.map(attributes, fn {k, v} -> {Atom.to_string(k), to_string(v)} end)
+      }
+    )
+  end
+
   defp format_attribute({k, v}) do
     "#{Atom.to_string k}='#{escape_output v}'"
   end
@@ -244,6 +289,12 @@ defmodule TeamCityExUnitFormatting do
     |> String.replace(~r/\bElixir\./, "")
   end
 
+  defp message_name(type) do
+    type
+    |> Atom.to_string()
+    |> camelize()
+  end
+
   defp name(test = %ExUnit.Test{name: name}) do
     named_captures = Regex.named_captures(
       ~r|test doc at (?<module>.+)\.(?<function>\w+)/(?<arity>\d+) \((?<count>\d+)\)|,
@@ -274,9 +325,16 @@ defmodule TeamCityExUnitFormatting do
   defp parentNodeId(%ExUnit.TestModule{}), do: @root_parent_node_id
 
   # DO NOT use `flowId` as an attribute.  IDEA ignores flowId and so it can't be used to interleave async test output
-  defp put_formatted(type, attributes) do
+  defp put_formatted(%__MODULE__{events: nil}, type, attributes) do
     type
     |> format(attributes)
     |> IO.puts()
   end
+
+  defp put_formatted(%__MODULE__{events: events}, type, attributes) do
+    case :gen_tcp.send(events, event(type, attributes)) do
+      :ok -> :ok
+      {:error, _} -> put_formatted(%__MODULE__{events: nil}, type, attributes)
+    end
+  end
 end
@@ -1127,6 +1127,19 @@ public class ElixirFlexLexer implements FlexLexer {
     this.project = project;
   }
 
+  /**
+   * @return the frames on the stack, so that {@link ElixirFlexLexerAdapter} can restart lexing in the middle of a
+   *   group or interpolation.
+   */
+  @Nullable
+  public org.elixir_lang.lexer.Stack.Snapshot getStackSnapshot() {
+    return stack.snapshot();
+  }
+
+  public void setStackSnapshot(@Nullable org.elixir_lang.lexer.Stack.Snapshot stackSnapshot) {
+    stack.restore(stackSnapshot);
+  }
+
 
   /**
    * Creates a new scanner
@@ -2,15 +2,147 @@ package org.elixir_lang
 
 import com.intellij.lexer.FlexAdapter
 import com.intellij.openapi.project.Project
+import org.elixir_lang.lexer.Stack
 
 import java.io.Reader
+import java.util.Arrays
 
+/**
+ * Makes the state restartable even though [ElixirFlexLexer] keeps a [Stack] beside its lexical state:
+ *
+ * * [ElixirFlexLexer.YYINITIAL] with frames on the stack, such as inside `{}`, is reported as [NESTED_YYINITIAL], so
+ *   the only initial state, which the editor highlighter restarts lexing from after a change, is one where the stack
+ *   is empty.
+ * * The [Stack.Snapshot] at each token is remembered by offset, so that restarting from a state this adapter
+ *   reported, as restoring a [com.intellij.lexer.LexerPosition] in [com.intellij.lexer.LookAheadLexer] does,
+ *   continues with the same stack instead of an empty one.
+ */
 class ElixirFlexLexerAdapter(project: Project?) : FlexAdapter(ElixirFlexLexer(null as Reader?)) {
     var level: Level?
       get() = (flex as ElixirFlexLexer).level
       set(value) = (flex as ElixirFlexLexer).setLevel(value)
 
+    private val elixirFlexLexer: ElixirFlexLexer
+        get() = flex as ElixirFlexLexer
+    /**
+     * Whether [state] is for the current token.  [FlexAdapter] only records [ElixirFlexLexer.yystate] before
+     * advancing, so the stack has to be captured here at the same time.
+     */
+    private var located = false
+    private var state = ElixirFlexLexer.YYINITIAL
+    private val stackSnapshots = StackSnapshots()
+
     init {
         (flex as ElixirFlexLexer).project = project
     }
+
+    override fun start(buffer: CharSequence, startOffset: Int, endOffset: Int, initialState: Int) {
+        val lexicalState = if (initialState == NESTED_YYINITIAL) ElixirFlexLexer.YYINITIAL else initialState
+
+        super.start(buffer, startOffset, endOffset, lexicalState)
+        elixirFlexLexer.stackSnapshot = stackSnapshots.restart(startOffset, initialState)
+        located = false
+    }
+
+    override fun advance() {
+        super.advance()
+        located = false
+    }
+
+    override fun getState(): Int {
+        locateToken()
+
+        return state
+    }
+
+    override fun locateToken() {
+        if (!located) {
+            val stackSnapshot = elixirFlexLexer.stackSnapshot
+            val lexicalState = elixirFlexLexer.yystate()
+
+            stackSnapshots.record(elixirFlexLexer.tokenEnd, stackSnapshot)
+            state = if (lexicalState == ElixirFlexLexer.YYINITIAL && stackSnapshot != null) {
+                NESTED_YYINITIAL
+            } else {
+                lexicalState
+            }
+            located = true
+        }
+
+        super.locateToken()
+    }
+
+    companion object {
+        /**
+         * Not a JFlex lexical state, so it can't be confused with one, and less than `1 shl 16`, so that it fits in
+         * the bits [org.elixir_lang.eex.lexer.EmbeddedElixir.getState] leaves to the Elixir lexer.
+         */
+        const val NESTED_YYINITIAL = 0x7FFF
+    }
+}
+
+/**
+ * The [Stack.Snapshot] at the start of each token, stored only where it changes, so lexing a whole file at the
+ * top-level costs nothing and lexing inside groups costs one entry per push or pop.
+ *
+ * Lexing is only restarted at or before a change, so the text before the restart offset, and the snapshots recorded
+ * for it, are the same even though the editor passes a new buffer after each change.  Only the snapshots from the
+ * restart offset on are forgotten.
+ */
+private class StackSnapshots {
+    private var offsets = IntArray(INITIAL_CAPACITY)
+    private var snapshots = arrayOfNulls<Stack.Snapshot>(INITIAL_CAPACITY)
+    private var size = 0
+    /**
+     * The greatest offset that was lexed, so offsets that were never lexed, such as a later EEx tag, aren't given the
+     * snapshot of the last token.
+     */
+    private var recordedEnd = -1
+
+    fun record(offset: Int, snapshot: Stack.Snapshot?) {
+        if (offset > recordedEnd) {
+            val last = if (size == 0) null else snapshots[size - 1]
+
+            if (last !== snapshot) {
+                if (size == offsets.size) {
+                    offsets = offsets.copyOf(size * 2)
+                    snapshots = snapshots.copyOf(size * 2)
+                }
+
+                offsets[size] = offset
+                snapshots[size] = snapshot
+                size++
+            }
+
+            recordedEnd = offset
+        }
+    }
+
+    /**
+     * @return the snapshot to restart lexing at [startOffset] in [initialState] with
+     */
+    fun restart(startOffset: Int, initialState: Int): Stack.Snapshot? {
+        val snapshot = if (initialState != ElixirFlexLexer.YYINITIAL && startOffset <= recordedEnd) {
+            floorIndex(startOffset).let { if (it >= 0) snapshots[it] else null }
+        } else {
+            null
+        }
+
+        // everything from `startOffset` will be recorded again as it is lexed
+        size = floorIndex(startOffset - 1) + 1
+        Arrays.fill(snapshots, size, snapshots.size, null)
+        recordedEnd = Math.min(recordedEnd, startOffset - 1)
+
+        return snapshot
+    }
+
+    private fun floorIndex(offset: Int): Int {
+        val index = Arrays.binarySearch(offsets, 0, size, offset)
+
+        return if (index >= 0) index else -index - 2
+    }
+
+    companion object {
+        private const val INITIAL_CAPACITY = 16
+    }
 }
@@ -9,7 +9,7 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.stubs.StubIndex;
 import org.elixir_lang.psi.NamedElement;
-import org.elixir_lang.psi.stub.index.AllName;
+import org.elixir_lang.psi.stub.index.ModularName;
 import org.intellij.erlang.psi.ErlangAtom;
 import org.jetbrains.annotations.NotNull;
 
@@ -27,10 +27,12 @@ public class Module implements Annotator {
 
             if (name.startsWith(ELIXIR_ALIAS_PREFIX)) {
                 Project project = psiElement.getProject();
+                String unprefixedName = name.substring(ELIXIR_ALIAS_PREFIX.length(), name.length());
 
+                // Modulars are indexed by their Elixir name, without the `Elixir.` prefix
                 Collection<NamedElement> namedElementCollection = StubIndex.getElements(
-                        AllName.KEY,
-                        name,
+                        ModularName.KEY,
+                        unprefixedName,
                         project,
                         GlobalSearchScope.allScope(project),
                         NamedElement.class
@@ -38,7 +40,6 @@ public class Module implements Annotator {
 
                 if (namedElementCollection.size() > 0) {
                     TextRange textRange = psiElement.getTextRange();
-                    String unprefixedName = name.substring(ELIXIR_ALIAS_PREFIX.length(), name.length());
                     Annotation annotation = annotationHolder.createInfoAnnotation(textRange, "Resolves to Elixir Module " + unprefixedName);
                     annotation.setTextAttributes(DefaultLanguageHighlighterColors.LINE_COMMENT);
                 } else {
@@ -4,23 +4,22 @@ import com.ericsson.otp.erlang.OtpErlangDecodeException
 import com.ericsson.otp.erlang.OtpErlangObject
 import com.ericsson.otp.erlang.OtpInputStream
 import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.util.io.FileUtil
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.util.indexing.FileContent
 import org.elixir_lang.beam.chunk.*
 import org.elixir_lang.beam.chunk.Chunk.TypeID.*
-import org.elixir_lang.beam.chunk.Chunk.length
-import org.elixir_lang.beam.chunk.Chunk.typeID
 import org.elixir_lang.beam.term.ByteCount
-import java.io.*
+import java.io.ByteArrayInputStream
+import java.io.DataInputStream
+import java.io.IOException
 import java.nio.charset.Charset
-import java.util.*
 import java.util.zip.GZIPInputStream
 
 private val callDefinitionTypeIDs = arrayOf(EXPT, LOCT)
 
 private const val GZIP_FIRST_UNSIGNED_BYTE = 0x1f
 private const val GZIP_SECOND_UNSIGNED_BYTE = 0x8b
-private const val HEADER = "FOR1"
 
 fun binaryToTerm(byteArray: ByteArray, offset: Int): Pair<OtpErlangObject, ByteCount> {
     val stream = OtpInputStream(byteArray, offset, byteArray.size, 0)
@@ -29,27 +28,9 @@ fun binaryToTerm(byteArray: ByteArray, offset: Int): Pair<OtpErlangObject, ByteC
     return Pair(term, stream.pos - offset)
 }
 
-private fun decompressedInputStream(inputStream: InputStream): InputStream? {
-    assert(inputStream.markSupported())
-
-    inputStream.mark(2)
-
-    return try {
-        if (inputStream.read() == GZIP_FIRST_UNSIGNED_BYTE && inputStream.read() == GZIP_SECOND_UNSIGNED_BYTE) {
-            inputStream.reset()
-            GZIPInputStream(inputStream)
-        } else {
-            inputStream.reset()
-            inputStream
-        }
-    } catch (e: IOException) {
-        null
-    }
-}
-
-private fun virtualFileToInputStream(virtualFile: VirtualFile): InputStream? =
+private fun virtualFileToByteArray(virtualFile: VirtualFile): ByteArray? =
         try {
-            virtualFile.inputStream
+            virtualFile.contentsToByteArray()
         } catch (e: IOException) {
             null
         }
@@ -99,93 +80,43 @@ class Beam private constructor(chunkCollection: Collection<Chunk>) {
     companion object {
         private val LOGGER = Logger.getInstance(Beam::class.java)
 
-        fun from(dataInputStream: DataInputStream, path: String): Beam? {
-            val header: String?
-
-            try {
-                header = typeID(dataInputStream, path)
-            } catch (ioException: IOException) {
-                LOGGER.error("Could not read header from BEAM DataInputStream from " + path, ioException)
-                return null
-            }
-
-            if (HEADER != header) {
-                if (!testCase(header)) {
-                    LOGGER.error(
-                            "header typeID ($header) did not match expected ($HEADER) from $path. " +
-                                    "There are ${dataInputStream.available()} bytes available on the " +
-                                    "dataInputStream. File size is ${File(path).length()} bytes."
-                    )
-                }
-                return null
-            }
-
-            try {
-                length(dataInputStream)
-            } catch (ioException: IOException) {
-                LOGGER.error("Could not read length from BEAM DataInputStream from " + path, ioException)
-                return null
-            }
-
-            val section: String?
-
-            try {
-                section = typeID(dataInputStream, path)
-            } catch (ioException: IOException) {
-                LOGGER.error("Could not read section header from BEAM DataInputStream from " + path, ioException)
-                return null
-            }
-
-
-            if ("BEAM" != section) {
-                LOGGER.error("Section header is not BEAM in " + path)
-                return null
-            }
-
-            val chunkList = ArrayList<Chunk>()
-            val i = 1
-
-            while (true) {
-                val chunk: Chunk?
-
+        fun from(dataInputStream: DataInputStream, path: String): Beam? =
                 try {
-                    chunk = Chunk.from(dataInputStream, path)
+                    FileUtil.loadBytes(dataInputStream)
                 } catch (ioException: IOException) {
-                    LOGGER.error(
-                            "Could not read chunk number " + i + " from BEAM DataInputStream from " + path +
-                                    ".  Returning truncated Beam object",
-                            ioException
-                    )
-                    break
-                }
-
-                if (chunk != null) {
-                    chunkList.add(chunk)
-                } else {
-                    break
-                }
-            }
-
-            return Beam(chunkList)
-        }
+                    LOGGER.error("Could not read BEAM DataInputStream from " + path, ioException)
+                    null
+                }?.let { from(it, path) }
 
+        /**
+         * Only the chunk headers are read: each chunk's data is a slice of [content] that is copied when decoded.
+         */
         @Throws(IOException::class, OtpErlangDecodeException::class)
         fun from(content: ByteArray, path: String): Beam? =
-                decompressedInputStream(ByteArrayInputStream(content))
-                        ?.let { DataInputStream(it) }
-                        ?.let { Beam.from(it, path) }
+                decompressed(content, path)
+                        ?.let { Directory.from(it, path) }
+                        ?.let { Beam(it.chunkList) }
 
         @Throws(IOException::class, OtpErlangDecodeException::class)
         fun from(fileContent: FileContent): Beam? = from(fileContent.content, fileContent.file.path)
 
         fun from(virtualFile: VirtualFile): Beam? =
-                virtualFileToInputStream(virtualFile)
-                        ?.let { decompressedInputStream(it) }
-                        ?.let { DataInputStream(it) }
-                        ?.let { Beam.from(it, virtualFile.path) }
+                virtualFileToByteArray(virtualFile)?.let { from(it, virtualFile.path) }
 
         fun `is`(virtualFile: VirtualFile): Boolean = !virtualFile.isDirectory && "beam" == virtualFile.extension
 
-        private fun testCase(header: String?): Boolean = header == "baz "
+        private fun decompressed(content: ByteArray, path: String): ByteArray? =
+                if (content.size >= 2 &&
+                        content[0].toInt().and(0xFF) == GZIP_FIRST_UNSIGNED_BYTE &&
+                        content[1].toInt().and(0xFF) == GZIP_SECOND_UNSIGNED_BYTE) {
+                    try {
+                        GZIPInputStream(ByteArrayInputStream(content)).use { FileUtil.loadBytes(it) }
+                    } catch (ioException: IOException) {
+                        LOGGER.error("Could not decompress gzipped BEAM from " + path, ioException)
+                        null
+                    }
+                } else {
+                    content
+                }
     }
 }
@@ -1,9 +1,14 @@
 package org.elixir_lang.beam
 
+import com.intellij.openapi.diagnostic.Logger
 import com.intellij.openapi.util.Key
 import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.concurrency.AppExecutorUtil
 import com.intellij.util.indexing.FileContent
 import org.elixir_lang.beam.chunk.*
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import kotlin.reflect.KProperty1
 
 class Cache private constructor(private val beam: Beam) {
     val atoms: Atoms? by lazy { beam.atoms() }
@@ -22,8 +27,59 @@ class Cache private constructor(private val beam: Beam) {
 
     fun chunkCollection(): Collection<Chunk> = beam.chunkCollection()
 
+    /**
+     * Decodes every chunk concurrently on a bounded pool, so that callers that render all chunks, like [FileEditor],
+     * wait for the slowest chunk instead of the sum of all of them.
+     *
+     * Each property is still a synchronized `lazy`, so chunks that need [atoms] wait for it to be decoded once and
+     * accessing a property while it is prefetched waits for the prefetch instead of decoding it again.  A chunk that
+     * fails to decode is left uninitialized, so that accessing its property throws on the caller's thread as before.
+     */
+    fun prefetch(): Cache {
+        PREFETCHERS
+                .map { property -> PREFETCH_EXECUTOR.submit(Callable { property.get(this) }) }
+                .forEach { future ->
+                    try {
+                        future.get()
+                    } catch (executionException: ExecutionException) {
+                        LOGGER.debug("Chunk could not be prefetched", executionException.cause)
+                    }
+                }
+
+        return this
+    }
+
     companion object {
         private val KEY = Key.create<Pair<Long, Cache?>>("beam.cache")
+        private val LOGGER = Logger.getInstance(Cache::class.java)
+
+        /**
+         * [atoms] first, as [exports], [functions], [imports], [lines] and [locals] depend on it
+         */
+        private val PREFETCHERS: List<KProperty1<Cache, *>> = listOf(
+                Cache::atoms,
+                Cache::attributes,
+                Cache::code,
+                Cache::compileInfo,
+                Cache::debugInfo,
+                Cache::elixirDocumentation,
+                Cache::exports,
+                Cache::functions,
+                Cache::imports,
+                Cache::lines,
+                Cache::literals,
+                Cache::locals,
+                Cache::strings
+        )
+
+        private val PREFETCH_EXECUTOR by lazy {
+            AppExecutorUtil.createBoundedApplicationPoolExecutor(
+                    "BEAM Cache prefetch",
+                    Runtime.getRuntime().availableProcessors().coerceIn(1, PREFETCHERS.size)
+            )
+        }
+
+        fun from(beam: Beam): Cache = Cache(beam)
 
         fun from(fileContent: FileContent) = from(fileContent.file)
         fun from(virtualFile: VirtualFile): Cache? {
@@ -1,18 +1,23 @@
 package org.elixir_lang.beam;
 
+import com.ericsson.otp.erlang.OtpErlangDecodeException;
 import com.google.common.base.Joiner;
 import com.intellij.diagnostic.LogMessageEx;
 import com.intellij.openapi.diagnostic.Attachment;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.fileTypes.BinaryFileDecompiler;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.elixir_lang.beam.chunk.Atoms;
 import org.elixir_lang.beam.chunk.CallDefinitions;
+import org.elixir_lang.beam.decompiler.Cache;
 import org.elixir_lang.beam.decompiler.Default;
 import org.elixir_lang.beam.decompiler.InfixOperator;
 import org.elixir_lang.beam.decompiler.PrefixOperator;
 import org.elixir_lang.beam.decompiler.Unquoted;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.*;
 
 import static org.elixir_lang.beam.chunk.Chunk.TypeID.ATOM;
@@ -20,6 +25,13 @@ import static org.elixir_lang.psi.call.name.Function.*;
 import static org.elixir_lang.psi.call.name.Module.ELIXIR_PREFIX;
 
 public class Decompiler implements BinaryFileDecompiler {
+    /**
+     * Bump when the decompiled text changes without a plugin release, such as during development, so that
+     * {@link org.elixir_lang.beam.decompiler.Cache} entries from before the change are not used.  Releases change the
+     * cache directory through the plugin version already.
+     */
+    public static final int VERSION = 1;
+    private static final Logger LOGGER = Logger.getInstance(Decompiler.class);
     private static final Map<String, String> HEADER_NAME_BY_MACRO = new HashMap<>();
 
     static {
@@ -183,6 +195,49 @@ public class Decompiler implements BinaryFileDecompiler {
     @NotNull
     @Override
     public CharSequence decompile(@NotNull VirtualFile virtualFile) {
-        return decompiled(Optional.ofNullable(Beam.Companion.from(virtualFile)));
+        byte[] content;
+
+        try {
+            content = virtualFile.contentsToByteArray();
+        } catch (IOException e) {
+            return decompiled(Optional.empty());
+        }
+
+        String path = virtualFile.getPath();
+        CharSequence decompiled = Cache.getOrDecompile(content, () -> decompiled(content, path));
+
+        if (decompiled == null) {
+            decompiled = decompiled(Optional.empty());
+        }
+
+        return decompiled;
+    }
+
+    /**
+     * @return {@code null} if {@code content} could not be read as a BEAM, so that the error is not cached.
+     */
+    @Nullable
+    private static CharSequence decompiled(@NotNull byte[] content, @NotNull String path) {
+        Optional<Beam> beamOptional;
+
+        try {
+            beamOptional = Optional.ofNullable(Beam.Companion.from(content, path));
+        } catch (IOException e) {
+            LOGGER.error("IOException during Decompiler.decompiled(content, " + path + ")", e);
+            beamOptional = Optional.empty();
+        } catch (OtpErlangDecodeException e) {
+            LOGGER.error("OtpErlangDecodeException during Decompiler.decompiled(content, " + path + ")", e);
+            beamOptional = Optional.empty();
+        }
+
+        CharSequence decompiled;
+
+        if (beamOptional.isPresent()) {
+            decompiled = decompiled(beamOptional);
+        } else {
+            decompiled = null;
+        }
+
+        return decompiled;
     }
 }
@@ -1,10 +1,12 @@
 package org.elixir_lang.beam
 
 import com.intellij.codeHighlighting.BackgroundEditorHighlighter
+import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.fileEditor.FileEditor
 import com.intellij.openapi.fileEditor.FileEditorLocation
 import com.intellij.openapi.fileEditor.FileEditorState
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.Condition
 import com.intellij.openapi.util.Disposer
 import com.intellij.openapi.util.UserDataHolderBase
 import com.intellij.openapi.vfs.VirtualFile
@@ -25,22 +27,15 @@ class FileEditor(
     private var isActive: Boolean = false
 
     // GUI
-    private lateinit var rootTabbedPane: JBTabbedPane
+    private val rootTabbedPane: JBTabbedPane by lazy {
+        JBTabbedPane(JTabbedPane.TOP, JTabbedPane.SCROLL_TAB_LAYOUT).also { addTabsInBackground(it) }
+    }
+
     override fun addPropertyChangeListener(listener: PropertyChangeListener) {}
     override fun removePropertyChangeListener(listener: PropertyChangeListener) {}
 
     override fun getBackgroundHighlighter(): BackgroundEditorHighlighter? = null
-    override fun getComponent(): JComponent {
-        rootTabbedPane = JBTabbedPane(JTabbedPane.TOP, JTabbedPane.SCROLL_TAB_LAYOUT)
-
-        Cache.from(virtualFile)?.let { cache ->
-            cache.chunkCollection().forEach { chunk ->
-                addTab(rootTabbedPane, cache, chunk)
-            }
-        }
-
-        return rootTabbedPane
-    }
+    override fun getComponent(): JComponent = rootTabbedPane
 
     override fun getCurrentLocation(): FileEditorLocation? = null
     override fun getName(): String = "BEAM Chunks"
@@ -66,6 +61,27 @@ class FileEditor(
 
     override fun setState(state: FileEditorState) {}
 
+    /**
+     * Decodes the chunks on a pooled thread, so that opening a large `.beam` does not block the EDT, and then adds
+     * their tabs on the EDT.
+     */
+    private fun addTabsInBackground(tabbedPane: JBTabbedPane) {
+        val application = ApplicationManager.getApplication()
+
+        application.executeOnPooledThread {
+            Cache.from(virtualFile)?.prefetch()?.let { cache ->
+                application.invokeLater(
+                        {
+                            cache.chunkCollection().forEach { chunk ->
+                                addTab(tabbedPane, cache, chunk)
+                            }
+                        },
+                        Condition<Any> { project.isDisposed || !virtualFile.isValid }
+                )
+            }
+        }
+    }
+
     private fun addTab(tabbedPane: JBTabbedPane, cache: Cache, chunk: Chunk) {
         val typeID = chunk.typeID
         val component: JComponent = when (typeID) {
@@ -69,6 +69,16 @@ public class MacroNameArity implements Comparable<MacroNameArity> {
      * Constructors
      */
 
+    /**
+     * @param macro {@code def}, {@code defp}, {@code defmacro} or {@code defmacrop}, as read back from
+     *   {@link org.elixir_lang.beam.bundle.Bundle}
+     */
+    public MacroNameArity(@NotNull String macro, @NotNull String name, int arity) {
+        this.macro = macro;
+        this.name = name;
+        this.arity = arity;
+    }
+
     public MacroNameArity(@NotNull Visibility visibility, @NotNull String exportName, int exportArity) {
         if (exportName.startsWith(MACRO_EXPORT_PREFIX)) {
             macro = MACRO_MACRO_BY_VISIBILITY.get(visibility);
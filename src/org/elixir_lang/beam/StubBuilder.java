@@ -12,7 +12,7 @@ import java.util.Optional;
 
 public class StubBuilder implements BinaryFileStubBuilder {
     private static final Logger LOGGER = Logger.getInstance(StubBuilder.class);
-    private static final int STUB_VERSION = 1;
+    private static final int STUB_VERSION = 2;
 
     /**
      * @param file a .beam file
@@ -6,16 +6,24 @@ import com.intellij.openapi.project.Project
 import com.intellij.psi.PsiDocumentManager
 import com.intellij.psi.PsiFileFactory
 import com.intellij.ui.components.JBCheckBox
+import com.intellij.ui.components.JBLabel
 import com.intellij.ui.components.JBScrollPane
 import org.elixir_lang.beam.Cache
 import org.elixir_lang.beam.chunk.Code
 import java.awt.event.ItemEvent.DESELECTED
 import java.awt.event.ItemEvent.SELECTED
 import javax.swing.BoxLayout
+import javax.swing.JButton
 import javax.swing.JPanel
 
 private const val DEFAULT_TEXT = "# Could not disassemble Code Chunk"
 
+/**
+ * Only this many functions are disassembled into the document at once, so that opening huge modules, like Unicode
+ * tables, does not render and lex the whole module.
+ */
+private const val FUNCTIONS_PER_PAGE = 100
+
 class Controls(val cache: Cache, val project: Project): JBScrollPane() {
     private var assemblyOptions: Code.Options = Code.Options(
             inline = Code.Options.Inline(
@@ -30,6 +38,12 @@ class Controls(val cache: Cache, val project: Project): JBScrollPane() {
             ),
             showArgumentNames = true
     )
+    private val functionCount = cache.code?.functionCount() ?: 0
+    private val pageCount = Math.max((functionCount + FUNCTIONS_PER_PAGE - 1) / FUNCTIONS_PER_PAGE, 1)
+    private var pageIndex = 0
+    private val pageLabel = JBLabel()
+    private val previousPageButton = JButton("Previous Functions")
+    private val nextPageButton = JButton("Next Functions")
     val document: Document
 
     init {
@@ -41,6 +55,19 @@ class Controls(val cache: Cache, val project: Project): JBScrollPane() {
         val scrollable = JPanel()
         scrollable.layout = BoxLayout(scrollable, BoxLayout.LINE_AXIS)
 
+        previousPageButton.addActionListener {
+            pageIndex--
+            setDocumentText()
+        }
+        scrollable.add(previousPageButton)
+        scrollable.add(pageLabel)
+        nextPageButton.addActionListener {
+            pageIndex++
+            setDocumentText()
+        }
+        scrollable.add(nextPageButton)
+        updatePageControls()
+
         val inlineAtomsCheckBox = JBCheckBox("Inline Atoms", assemblyOptions.inline.atoms)
         inlineAtomsCheckBox.addItemListener { itemEvent ->
             when (itemEvent.stateChange) {
@@ -175,11 +202,34 @@ class Controls(val cache: Cache, val project: Project): JBScrollPane() {
         setViewportView(scrollable)
     }
 
-    private fun computeDocumentText() = cache.code?.assembly(cache, assemblyOptions) ?: DEFAULT_TEXT
+    private fun computeDocumentText() =
+            cache.code?.assembly(cache, assemblyOptions, pageFunctionRange()) ?: DEFAULT_TEXT
+
+    private fun pageFunctionRange(): IntRange {
+        val start = pageIndex * FUNCTIONS_PER_PAGE
+
+        return start until Math.min(start + FUNCTIONS_PER_PAGE, functionCount)
+    }
 
     private fun setDocumentText() {
+        updatePageControls()
+
         ApplicationManager.getApplication().runWriteAction {
             document.setText(computeDocumentText())
         }
     }
+
+    private fun updatePageControls() {
+        val pageFunctionRange = pageFunctionRange()
+
+        pageLabel.text = if (pageFunctionRange.isEmpty()) {
+            "No functions"
+        } else {
+            "Functions ${pageFunctionRange.first + 1}-${pageFunctionRange.last + 1} of $functionCount"
+        }
+        previousPageButton.isEnabled = pageIndex > 0
+        nextPageButton.isEnabled = pageIndex < pageCount - 1
+        // a single page needs no paging
+        listOf(previousPageButton, pageLabel, nextPageButton).forEach { it.isVisible = pageCount > 1 }
+    }
 }
@@ -0,0 +1,316 @@
+package org.elixir_lang.beam.bundle
+
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.PathManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.progress.Task
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.ProjectManager
+import com.intellij.openapi.projectRoots.ProjectJdkTable
+import com.intellij.openapi.projectRoots.Sdk
+import com.intellij.openapi.roots.OrderRootType
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.io.DataInputOutputUtil
+import com.intellij.util.io.IOUtil
+import org.elixir_lang.beam.Beam
+import org.elixir_lang.beam.MacroNameArity
+import org.elixir_lang.sdk.erlang_dependent.SdkAdditionalData
+import java.io.*
+import java.security.MessageDigest
+
+/**
+ * Read-only bundles of the [Summary] of every `.beam` in an Elixir SDK and its Erlang SDK, generated once per pair of
+ * SDK versions.  [org.elixir_lang.beam.psi.BeamFileImpl.buildFileStub] and the `.beam` indexers look `.beam`s up here
+ * by the SHA-1 of their content before decoding them, so re-indexing the same SDK, after a cache invalidation or an
+ * SDK change in [org.elixir_lang.sdk.elixir.Type], only hashes each `.beam`.
+ *
+ * Bundles are written under the IDE system directory.  Bundles in the directory named by the
+ * [SHARED_DIRECTORY_PROPERTY] system property are also loaded, but never written, so a team can generate the bundles
+ * for its SDKs once and share them.  As with [org.elixir_lang.beam.decompiler.Cache], the content hash makes a bundle
+ * valid whatever path the SDK is installed at.  Only the bundles for the versions of the configured Elixir SDKs are
+ * loaded, so bundles for SDKs that were removed or upgraded don't stay in memory.  Those versions are cached until the
+ * SDK table changes, as the stub builder and indexers ask for a summary once per `.beam`.
+ */
+object Bundle {
+    const val SHARED_DIRECTORY_PROPERTY = "elixir.beam.bundles"
+
+    /**
+     * Bump when [Summary] or what the `.beam` stub builder and indexers derive changes, so old bundles are ignored.
+     */
+    private const val VERSION = 1
+    private const val EXTENSION = ".bundle"
+    private const val CAN_BE_CANCELLED = true
+    private val LOGGER = Logger.getInstance(Bundle::class.java)
+
+    /**
+     * The bundles loaded for the [Loaded.names] of the configured SDKs.  Only replaced while holding [loadLock].
+     */
+    @Volatile
+    private var loaded: Loaded? = null
+    private val loadLock = Any()
+
+    /**
+     * The [configuredNames] cache, cleared by [invalidateConfiguredNames].  Only replaced while holding
+     * [configuredNamesLock], so a clear can't be overwritten by names read from the SDK table before it changed.
+     */
+    @Volatile
+    private var cachedConfiguredNames: Set<String>? = null
+    private val configuredNamesLock = Any()
+
+    init {
+        ApplicationManager
+                .getApplication()
+                .messageBus
+                .connect()
+                .subscribe(ProjectJdkTable.JDK_TABLE_TOPIC, object : ProjectJdkTable.Listener {
+                    override fun jdkAdded(jdk: Sdk) = invalidateConfiguredNames()
+                    override fun jdkRemoved(jdk: Sdk) = invalidateConfiguredNames()
+                    override fun jdkNameChanged(jdk: Sdk, previousName: String) = invalidateConfiguredNames()
+                })
+    }
+
+    /**
+     * Generates the bundle for `sdk` in a cancellable background task, unless one already exists for its versions.
+     *
+     * Changing the SDK re-indexes its roots, which decodes every `.beam` anyway, so the task only starts once no open
+     * project is indexing, instead of decoding them all a second time while indexing competes for the same files.
+     */
+    @JvmStatic
+    fun generateInBackground(sdk: Sdk) {
+        // `sdk`'s versions may have changed without the SDK table noticing
+        invalidateConfiguredNames()
+
+        name(sdk)?.let { name ->
+            if (directories().none { File(it, name).isFile }) {
+                val roots = sdk.rootProvider.getFiles(OrderRootType.CLASSES)
+                val title = "Bundling ${sdk.name} BEAM files"
+
+                // later, so the re-indexing the SDK change causes has started
+                ApplicationManager.getApplication().invokeLater {
+                    whenIndexed {
+                        ProgressManager.getInstance().run(
+                                object : Task.Backgroundable(null, title, CAN_BE_CANCELLED) {
+                                    override fun run(indicator: ProgressIndicator) {
+                                        generate(name, roots, indicator)
+                                    }
+                                }
+                        )
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a bundle written by [write].
+     */
+    @JvmStatic
+    fun read(input: DataInput): Map<String, Summary> {
+        val summaryByDigest = mutableMapOf<String, Summary>()
+        read(input, summaryByDigest)
+
+        return summaryByDigest
+    }
+
+    /**
+     * @param content the raw (possibly gzipped) `.beam` content
+     * @return the bundled [Summary] of `content`; `null` if no bundle has it.
+     */
+    @JvmStatic
+    fun summary(content: ByteArray): Summary? =
+            summaryByDigest()
+                    // don't hash when no bundle was generated yet
+                    .takeIf { it.isNotEmpty() }
+                    ?.get(sha1(content))
+
+    /**
+     * Writes `summaryByDigest` in the format [read] reads.
+     */
+    @JvmStatic
+    fun write(output: DataOutput, summaryByDigest: Map<String, Summary>) {
+        DataInputOutputUtil.writeINT(output, summaryByDigest.size)
+
+        for ((digest, summary) in summaryByDigest) {
+            IOUtil.writeUTF(output, digest)
+            IOUtil.writeUTF(output, summary.moduleName)
+            DataInputOutputUtil.writeINT(output, summary.macroNameArities.size)
+
+            for (macroNameArity in summary.macroNameArities) {
+                IOUtil.writeUTF(output, macroNameArity.macro)
+                IOUtil.writeUTF(output, macroNameArity.name)
+                DataInputOutputUtil.writeINT(output, macroNameArity.arity)
+            }
+
+            output.writeBoolean(summary.sourcePath != null)
+            summary.sourcePath?.let { IOUtil.writeUTF(output, it) }
+            DataInputOutputUtil.writeINT(output, summary.relativePaths.size)
+
+            for (relativePath in summary.relativePaths) {
+                IOUtil.writeUTF(output, relativePath)
+            }
+        }
+    }
+
+    /**
+     * The bundle names of the configured Elixir SDKs
+     */
+    private fun configuredNames(): Set<String> =
+            cachedConfiguredNames ?: synchronized(configuredNamesLock) {
+                cachedConfiguredNames ?: ProjectJdkTable
+                        .getInstance()
+                        .getSdksOfType(org.elixir_lang.sdk.elixir.Type.getInstance())
+                        .mapNotNullTo(mutableSetOf(), ::name)
+                        .also { cachedConfiguredNames = it }
+            }
+
+    private fun directories(): List<File> =
+            listOfNotNull(directory(), System.getProperty(SHARED_DIRECTORY_PROPERTY)?.let(::File))
+
+    private fun directory(): File =
+            File(PathManager.getSystemPath(), "elixir${File.separator}beam_bundles${File.separator}v$VERSION")
+
+    /**
+     * Nothing is written if `indicator` is cancelled, so a partial bundle never hides `.beam`s from being decoded.
+     */
+    private fun generate(name: String, roots: Array<VirtualFile>, indicator: ProgressIndicator) {
+        val beams = roots.flatMap { root -> root.children.filter { Beam.`is`(it) } }
+        val summaryByDigest = mutableMapOf<String, Summary>()
+
+        indicator.isIndeterminate = false
+
+        beams.forEachIndexed { index, beam ->
+            indicator.checkCanceled()
+            indicator.fraction = index.toDouble() / beams.size
+            indicator.text2 = beam.path
+
+            try {
+                val content = beam.contentsToByteArray()
+
+                Beam.from(content, beam.path)?.let { Summary.from(it) }?.let { summary ->
+                    summaryByDigest[sha1(content)] = summary
+                }
+            } catch (exception: Exception) {
+                // left out of the bundle, so it is decoded, and any error reported, when it is indexed
+                LOGGER.debug("Could not summarize ${beam.path}", exception)
+            }
+        }
+
+        indicator.checkCanceled()
+        write(File(directory(), name), summaryByDigest)
+
+        synchronized(loadLock) {
+            // a load for these names before the bundle was written missed it, so add it instead of reloading all
+            loaded?.takeIf { name in it.names }?.let { loaded = Loaded(it.names, it.summaryByDigest + summaryByDigest) }
+        }
+    }
+
+    private fun invalidateConfiguredNames() {
+        synchronized(configuredNamesLock) {
+            cachedConfiguredNames = null
+        }
+    }
+
+    private fun load(names: Set<String>): Map<String, Summary> {
+        val summaryByDigest = mutableMapOf<String, Summary>()
+
+        for (directory in directories()) {
+            for (name in names) {
+                val file = File(directory, name)
+
+                if (file.isFile) {
+                    try {
+                        DataInputStream(BufferedInputStream(FileInputStream(file))).use { read(it, summaryByDigest) }
+                    } catch (ioException: IOException) {
+                        LOGGER.warn("Could not read BEAM bundle ${file.path}", ioException)
+                    }
+                }
+            }
+        }
+
+        return summaryByDigest
+    }
+
+    /**
+     * The file name for the Elixir and Erlang SDK versions of `sdk`
+     */
+    private fun name(sdk: Sdk): String? =
+            sdk.versionString?.let { elixirVersion ->
+                val erlangVersion = (sdk.sdkAdditionalData as? SdkAdditionalData)?.erlangSdk?.versionString
+
+                FileUtil.sanitizeFileName("$elixirVersion-${erlangVersion ?: "unknown"}") + EXTENSION
+            }
+
+    private fun read(input: DataInput, summaryByDigest: MutableMap<String, Summary>) {
+        val size = DataInputOutputUtil.readINT(input)
+
+        repeat(size) {
+            val digest = IOUtil.readUTF(input)
+            val moduleName = IOUtil.readUTF(input)
+            val macroNameArities = (0 until DataInputOutputUtil.readINT(input)).map {
+                MacroNameArity(IOUtil.readUTF(input), IOUtil.readUTF(input), DataInputOutputUtil.readINT(input))
+            }
+            val sourcePath = if (input.readBoolean()) IOUtil.readUTF(input) else null
+            val relativePaths = (0 until DataInputOutputUtil.readINT(input)).map { IOUtil.readUTF(input) }
+
+            summaryByDigest[digest] = Summary(moduleName, macroNameArities, sourcePath, relativePaths)
+        }
+    }
+
+    private fun sha1(content: ByteArray): String =
+            MessageDigest.getInstance("SHA-1").digest(content).joinToString("") { String.format("%02x", it) }
+
+    /**
+     * Reloads only when the configured SDKs' versions changed since the last load.
+     */
+    private fun summaryByDigest(): Map<String, Summary> {
+        val names = configuredNames()
+
+        return loaded?.takeIf { it.names == names }?.summaryByDigest ?: synchronized(loadLock) {
+            loaded?.takeIf { it.names == names }?.summaryByDigest
+                    ?: load(names).also { loaded = Loaded(names, it) }
+        }
+    }
+
+    /**
+     * Writes to a temporary file and renames it into place, so a concurrent [load] never sees a partial bundle.
+     */
+    private fun write(file: File, summaryByDigest: Map<String, Summary>) {
+        val directory = file.parentFile
+
+        try {
+            FileUtil.createDirectory(directory)
+            val temporary = FileUtil.createTempFile(directory, file.name, ".tmp", true, false)
+
+            DataOutputStream(BufferedOutputStream(FileOutputStream(temporary))).use { write(it, summaryByDigest) }
+
+            if (!temporary.renameTo(file)) {
+                // another IDE instance generated the same bundle first
+                FileUtil.delete(temporary)
+            }
+        } catch (ioException: IOException) {
+            LOGGER.warn("Could not write BEAM bundle to ${file.path}", ioException)
+        }
+    }
+
+    /**
+     * Runs `action` on the EDT once no open project is in dumb mode.
+     */
+    private fun whenIndexed(action: () -> Unit) {
+        val indexingProject = ProjectManager
+                .getInstance()
+                .openProjects
+                .firstOrNull { !it.isDisposed && DumbService.isDumb(it) }
+
+        if (indexingProject != null) {
+            // another project may have started indexing meanwhile, so check them all again
+            DumbService.getInstance(indexingProject).runWhenSmart { whenIndexed(action) }
+        } else {
+            action()
+        }
+    }
+
+    private class Loaded(val names: Set<String>, val summaryByDigest: Map<String, Summary>)
+}
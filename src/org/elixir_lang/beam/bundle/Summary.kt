@@ -0,0 +1,34 @@
+package org.elixir_lang.beam.bundle
+
+import org.elixir_lang.beam.Beam
+import org.elixir_lang.beam.Cache
+import org.elixir_lang.beam.MacroNameArity
+import org.elixir_lang.beam.chunk.CallDefinitions.macroNameAritySortedSet
+import org.elixir_lang.beam.source.path
+import org.elixir_lang.beam.source.relativePaths
+
+/**
+ * Everything the `.beam` stub builder and the `.beam` indices derive from a `.beam`, so that it can be bundled
+ * instead of decoding the `.beam` on every machine.
+ *
+ * @property moduleName the module atom, such as `Elixir.Kernel` or `lists`
+ * @property macroNameArities the call definitions for [org.elixir_lang.beam.psi.BeamFileImpl.buildFileStub]
+ * @property sourcePath [org.elixir_lang.beam.source.path]
+ * @property relativePaths [org.elixir_lang.beam.source.relativePaths]
+ */
+class Summary(val moduleName: String,
+              val macroNameArities: List<MacroNameArity>,
+              val sourcePath: String?,
+              val relativePaths: List<String>) {
+    companion object {
+        fun from(beam: Beam): Summary? {
+            val cache = Cache.from(beam)
+
+            return cache.atoms?.let { atoms ->
+                atoms.moduleName()?.let { moduleName ->
+                    Summary(moduleName, macroNameAritySortedSet(beam, atoms).toList(), path(cache), relativePaths(cache))
+                }
+            }
+        }
+    }
+}
@@ -6,8 +6,8 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.DataInputStream;
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import static com.intellij.openapi.util.Pair.pair;
 
@@ -18,66 +18,97 @@ public class Chunk {
     private static final int ALIGNMENT = 4;
     private static final int BYTE_BIT_COUNT = 8;
     private static final Logger LOGGER = Logger.getInstance(Chunk.class);
+    private static final int TYPE_ID_BYTE_COUNT = 4;
     private static final int UNSIGNED_INT_BYTE_COUNT = 4;
     private static final int UNSIGNED_SHORT_BYTE_COUNT = 2;
 
     @NotNull
     public final String typeID;
+    /**
+     * Byte array shared by all chunks of the same `.beam` file.  The chunk's data is the slice
+     * `[offset, offset + length)`.
+     */
     @NotNull
-    public final byte[] data;
+    private final byte[] source;
+    private final int offset;
+    private final int length;
+    /**
+     * Copy of the slice of {@link #source}, only made the first time {@link #getData()} is called, so that chunks
+     * that are never decoded are never copied.
+     */
+    @Nullable
+    private volatile byte[] data = null;
+
+    public Chunk(@NotNull String typeID, @NotNull byte[] source, int offset, int length) {
+        assert source.length >= offset + length;
 
-    private Chunk(@NotNull String typeID, @NotNull byte[] data) {
         this.typeID = typeID;
-        this.data = data;
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
     }
 
+    /**
+     * Reads the IFF header of the chunk starting at {@code offset} in {@code bytes} without copying the chunk's data.
+     *
+     * @return the chunk and the offset of the next chunk's header, taking into account the padding to
+     *   {@link #ALIGNMENT}; {@code null} if there are no more chunks.
+     */
     @Nullable
-    public static Chunk from(@NotNull DataInputStream dataInputStream, @NotNull String path) throws IOException {
-        String typeID = typeID(dataInputStream, path);
-        Chunk chunk = null;
-
-        if (typeID != null) {
-            long length = length(dataInputStream);
-
-            byte[] data = new byte[(int) length];
-            dataInputStream.readFully(data);
-
-            int padding = (int) ((ALIGNMENT - (length % ALIGNMENT)) % ALIGNMENT);
-            dataInputStream.skipBytes(padding);
-
-            chunk = new Chunk(typeID, data);
+    public static Pair<Chunk, Integer> from(@NotNull byte[] bytes, int offset, @NotNull String path) {
+        Pair<Chunk, Integer> chunkNextOffset = null;
+        int remaining = bytes.length - offset;
+
+        if (remaining >= TYPE_ID_BYTE_COUNT + UNSIGNED_INT_BYTE_COUNT) {
+            String typeID = new String(bytes, offset, TYPE_ID_BYTE_COUNT, StandardCharsets.US_ASCII);
+            int dataOffset = offset + TYPE_ID_BYTE_COUNT;
+
+            long length = unsignedInt(bytes, dataOffset).first;
+            dataOffset += UNSIGNED_INT_BYTE_COUNT;
+
+            if (dataOffset + length <= bytes.length) {
+                int padding = (int) ((ALIGNMENT - (length % ALIGNMENT)) % ALIGNMENT);
+
+                chunkNextOffset = pair(
+                        new Chunk(typeID, bytes, dataOffset, (int) length),
+                        (int) Math.min(bytes.length, dataOffset + length + padding)
+                );
+            } else {
+                LOGGER.error(
+                        "Chunk " + typeID + " in " + path + " claims " + length + " bytes, but only " +
+                                (bytes.length - dataOffset) + " bytes remain"
+                );
+            }
+        } else if (remaining > 0) {
+            LOGGER.error(
+                    "Could not read chunk header: only " + remaining + " bytes remain at offset " + offset + " in " +
+                            path
+            );
         }
 
-        return chunk;
+        return chunkNextOffset;
     }
 
-    public static long length(@NotNull DataInputStream dataInputStream) throws IOException {
-        return readUnsignedInt(dataInputStream);
-    }
-
-    private static long readUnsignedInt(@NotNull DataInputStream dataInputStream) throws IOException {
-        byte[] bytes = new byte[32 / 8];
+    /**
+     * The chunk's data.  Copied out of the file's bytes on first access.
+     */
+    @NotNull
+    public byte[] getData() {
+        byte[] data = this.data;
 
-        dataInputStream.readFully(bytes);
+        if (data == null) {
+            data = Arrays.copyOfRange(source, offset, offset + length);
+            this.data = data;
+        }
 
-        return unsignedInt(bytes).first;
+        return data;
     }
 
-    @Nullable
-    public static String typeID(@NotNull DataInputStream dataInputStream, @NotNull String path) throws IOException {
-        byte[] bytes = new byte[4];
-        int bytesRead = dataInputStream.read(bytes, 0, bytes.length);
-        String typeID = null;
-
-        if (bytesRead == bytes.length) {
-            typeID = new String(bytes);
-        } else if (bytesRead > 0) {
-            LOGGER.error(
-                    "Could not read typeID: read only " + bytesRead + " of " + bytes.length  + " bytes from " + path
-            );
-        }
-
-        return typeID;
+    /**
+     * The length of {@link #getData()} without copying the data out of the file's bytes.
+     */
+    public int getLength() {
+        return length;
     }
 
     @NotNull
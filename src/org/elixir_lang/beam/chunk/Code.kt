@@ -6,9 +6,27 @@ import com.intellij.openapi.util.component2
 import org.elixir_lang.beam.Cache
 import org.elixir_lang.beam.chunk.Chunk.unsignedInt
 import org.elixir_lang.beam.chunk.code.Operation
-import org.elixir_lang.beam.term.Literal
+import org.elixir_lang.beam.term.Term
+import org.elixir_lang.beam.term.index
+
+/**
+ * The operations are not decoded into [Operation]s up front: [from] only records each operation's opcode in
+ * [opcodes] and the offset of its first operand in [data] in [operandOffsets].  [get] decodes a single [Operation]
+ * when its operands are needed, such as for [assembly].
+ */
+class Code private constructor(
+        private val data: ByteArray,
+        private val literalFloat: Boolean,
+        private val opcodes: IntArray,
+        private val operandOffsets: IntArray
+) {
+    /**
+     * Visits each operation's code without decoding its operands.
+     */
+    interface Visitor {
+        fun visit(index: Int, code: org.elixir_lang.beam.chunk.code.operation.Code)
+    }
 
-class Code(private val operationList: List<Operation>) {
     data class Options(val inline: Inline = Inline(), val showArgumentNames: Boolean = true) {
         data class Inline(
                 val atoms: Boolean = true,
@@ -41,49 +59,78 @@ class Code(private val operationList: List<Operation>) {
     }
 
     private val labelIndexToOperationIndex by lazy {
-        operationList
-                .withIndex()
-                .filter { indexedOperation ->
-                    indexedOperation.value.code == org.elixir_lang.beam.chunk.code.operation.Code.LABEL
-                }.associate { indexedOperation ->
-                    val labelIndex = (indexedOperation.value.termList[0] as Literal).index
-                    val operationIndex = indexedOperation.index
-
-                    Pair(labelIndex, operationIndex)
-                }
+        val labelIndexToOperationIndex = mutableMapOf<Int, Int>()
+
+        for (operationIndex in 0 until size()) {
+            if (codeAt(operationIndex) == org.elixir_lang.beam.chunk.code.operation.Code.LABEL) {
+                labelIndexToOperationIndex[literalIndex(operationIndex)] = operationIndex
+            }
+        }
+
+        labelIndexToOperationIndex
     }
     private val labelIndexToFuncInfoIndex by lazy { mutableMapOf<Int, Int?>() }
 
-    fun assembly(cache: Cache, options: Options): String =
-        indentOperationList().joinToString("\n") { (indent, operation) ->
-            val operationAssembly = operation.assembly(cache, options)
-
-            val suffix = when (operation.code) {
-                org.elixir_lang.beam.chunk.code.operation.Code.APPLY_LAST,
-                org.elixir_lang.beam.chunk.code.operation.Code.BADMATCH,
-                org.elixir_lang.beam.chunk.code.operation.Code.CALL_EXT_LAST,
-                org.elixir_lang.beam.chunk.code.operation.Code.CALL_EXT_ONLY,
-                org.elixir_lang.beam.chunk.code.operation.Code.CALL_ONLY,
-                org.elixir_lang.beam.chunk.code.operation.Code.CALL_LAST,
-                org.elixir_lang.beam.chunk.code.operation.Code.JUMP,
-                org.elixir_lang.beam.chunk.code.operation.Code.RETURN ->
-                    "\n"
-                else ->
-                    ""
-            }
+    /**
+     * The operation index ranges of each function's head and body, so that a function can be found without scanning
+     * the operations before it.
+     */
+    private val functionHeadBodyRangePairList: List<Pair<IntRange, IntRange>> by lazy {
+        val headerIndexLengthPairs = headerIndexLengthPairs()
 
-            "${" ".repeat(indent)}$operationAssembly$suffix"
+        headerIndexLengthPairs.mapIndexed { index, (headerIndex, headerLength) ->
+            val bodyIndex = headerIndex + headerLength
+            val nextHeaderIndex = headerIndexLengthPairs.getOrNull(index + 1)?.first ?: size()
+
+            Pair(headerIndex until bodyIndex, bodyIndex until nextHeaderIndex)
         }
+    }
+
+    fun accept(visitor: Visitor) {
+        for (index in 0 until size()) {
+            visitor.visit(index, codeAt(index))
+        }
+    }
+
+    fun assembly(cache: Cache, options: Options): String = assembly(cache, options, 0 until functionCount())
 
-    operator fun get(index: Int): Operation = operationList[index]
+    /**
+     * Renders only the functions in [functionRange], so that the time to render a page of a huge module depends on
+     * the page size instead of the module size.
+     */
+    fun assembly(cache: Cache, options: Options, functionRange: IntRange): String {
+        val assembly = StringBuilder()
+
+        for (functionIndex in functionRange) {
+            val (functionHead, functionBody) = functionHeadBodyRangePairList[functionIndex]
+
+            functionHead.forEach { appendAssembly(assembly, 0, it, cache, options) }
+
+            functionBody.forEach {
+                val indent = when (codeAt(it)) {
+                    org.elixir_lang.beam.chunk.code.operation.Code.LABEL -> 2
+                    org.elixir_lang.beam.chunk.code.operation.Code.LINE -> 4
+                    else -> 6
+                }
+
+                appendAssembly(assembly, indent, it, cache, options)
+            }
+        }
+
+        return assembly.toString()
+    }
+
+    fun codeAt(index: Int): org.elixir_lang.beam.chunk.code.operation.Code = CODE_BY_OPCODE[opcodes[index]]!!
+
+    operator fun get(index: Int): Operation =
+            Operation.from(codeAt(index), data, operandOffsets[index], literalFloat).first
 
     fun labelIndexToFuncInfoIndex(labelIndex: Int): Int? =
         labelIndexToFuncInfoIndex.computeIfAbsent(labelIndex) { key ->
             labelIndexToOperationIndex[key]?.let { operationIndex ->
                 val funcInfoIndex = operationIndex - 1
 
-                if (operationList.getOrNull(funcInfoIndex)?.code ==
-                        org.elixir_lang.beam.chunk.code.operation.Code.FUNC_INFO) {
+                if (codeOrNull(funcInfoIndex) == org.elixir_lang.beam.chunk.code.operation.Code.FUNC_INFO) {
                     funcInfoIndex
                 } else {
                     null
@@ -91,82 +138,100 @@ class Code(private val operationList: List<Operation>) {
             }
         }
 
-    fun size(): Int = operationList.size
+    /**
+     * The number of functions, including the operations before the first function as function `0` if there are any
+     */
+    fun functionCount(): Int = functionHeadBodyRangePairList.size
 
-    private fun functionHeadBodyPairList(): List<Pair<List<Operation>, List<Operation>>> {
-        val headerIndexLengthPairs = headerIndexLengthPairs()
+    fun size(): Int = opcodes.size
 
-        return headerIndexLengthPairs.mapIndexed { index, (headerIndex, headerLength) ->
-            val bodyIndex = headerIndex + headerLength
-            val nextHeaderIndex = headerIndexLengthPairs.getOrNull(index + 1)?.first ?: operationList.size
+    private fun appendAssembly(assembly: StringBuilder, indent: Int, index: Int, cache: Cache, options: Options) {
+        if (assembly.isNotEmpty()) {
+            assembly.append('\n')
+        }
 
-            val functionHead = operationList.subList(headerIndex, bodyIndex)
-            val functionBody = operationList.subList(bodyIndex, nextHeaderIndex)
+        for (i in 0 until indent) {
+            assembly.append(' ')
+        }
 
-            Pair(functionHead, functionBody)
+        assembly.append(this[index].assembly(cache, options))
+
+        when (codeAt(index)) {
+            org.elixir_lang.beam.chunk.code.operation.Code.APPLY_LAST,
+            org.elixir_lang.beam.chunk.code.operation.Code.BADMATCH,
+            org.elixir_lang.beam.chunk.code.operation.Code.CALL_EXT_LAST,
+            org.elixir_lang.beam.chunk.code.operation.Code.CALL_EXT_ONLY,
+            org.elixir_lang.beam.chunk.code.operation.Code.CALL_ONLY,
+            org.elixir_lang.beam.chunk.code.operation.Code.CALL_LAST,
+            org.elixir_lang.beam.chunk.code.operation.Code.JUMP,
+            org.elixir_lang.beam.chunk.code.operation.Code.RETURN ->
+                assembly.append('\n')
+            else ->
+                Unit
         }
     }
 
+    private fun codeOrNull(index: Int): org.elixir_lang.beam.chunk.code.operation.Code? =
+            if (index in 0 until size()) {
+                codeAt(index)
+            } else {
+                null
+            }
+
     private fun headerIndexLengthPairs(): List<Pair<Int, Int>> {
-        val headerIndexLengthPairs = operationList
-                .mapIndexedNotNull { index, operation ->
-                    if (operation.code == org.elixir_lang.beam.chunk.code.operation.Code.FUNC_INFO) {
-                        index
-                    } else {
-                        null
-                    }
-                }.map { funcInfoIndex ->
-                    val lineIndex = funcInfoIndex - 1
-                    val hasLine = operationList.getOrNull(lineIndex)?.code == org.elixir_lang.beam.chunk.code.operation.Code.LINE
-
-                    if (hasLine) {
-                        val labelIndex = lineIndex - 1
-                        val hasLabel = operationList.getOrNull(labelIndex)?.code == org.elixir_lang.beam.chunk.code.operation.Code.LABEL
-
-                        if (hasLabel) {
-                            Pair(labelIndex, 3)
-                        } else {
-                            Pair(lineIndex, 2)
-                        }
+        val headerIndexLengthPairs = mutableListOf<Pair<Int, Int>>()
+
+        for (funcInfoIndex in 0 until size()) {
+            if (codeAt(funcInfoIndex) == org.elixir_lang.beam.chunk.code.operation.Code.FUNC_INFO) {
+                val lineIndex = funcInfoIndex - 1
+                val hasLine = codeOrNull(lineIndex) == org.elixir_lang.beam.chunk.code.operation.Code.LINE
+
+                val headerIndexLengthPair = if (hasLine) {
+                    val labelIndex = lineIndex - 1
+                    val hasLabel = codeOrNull(labelIndex) == org.elixir_lang.beam.chunk.code.operation.Code.LABEL
+
+                    if (hasLabel) {
+                        Pair(labelIndex, 3)
                     } else {
-                        Pair(funcInfoIndex, 1)
+                        Pair(lineIndex, 2)
                     }
+                } else {
+                    Pair(funcInfoIndex, 1)
                 }
 
-        val firstHeaderIndex = headerIndexLengthPairs.firstOrNull()?.first ?: 0
-
-        return if (firstHeaderIndex > 0) {
-            headerIndexLengthPairs.toMutableList().apply {
-                add(0, Pair(0, 0))
+                headerIndexLengthPairs.add(headerIndexLengthPair)
             }
-        } else {
-            headerIndexLengthPairs
         }
-    }
 
-    private fun indentOperationList() =
-            functionHeadBodyPairList().flatMap { (functionHead, functionBody) ->
-                val indentOperationList = mutableListOf<Pair<Int, Operation>>()
+        val firstHeaderIndex = headerIndexLengthPairs.firstOrNull()?.first ?: 0
 
-                functionHead.forEach {
-                    indentOperationList.add(Pair(0, it))
-                }
+        if (firstHeaderIndex > 0) {
+            headerIndexLengthPairs.add(0, Pair(0, 0))
+        }
 
-                functionBody.forEach {
-                    val indent = when (it.code) {
-                        org.elixir_lang.beam.chunk.code.operation.Code.LABEL -> 2
-                        org.elixir_lang.beam.chunk.code.operation.Code.LINE -> 4
-                        else -> 6
-                    }
+        return headerIndexLengthPairs
+    }
 
-                    indentOperationList.add(Pair(indent, it))
-                }
+    /**
+     * The index of the `Literal` that is the first operand of the operation at [operationIndex], such as the label
+     * number of a `label` operation.
+     */
+    private fun literalIndex(operationIndex: Int): Int {
+        val offset = operandOffsets[operationIndex]
 
-                indentOperationList
-            }
+        return index(data[offset].toInt().and(0xFF), data, offset + 1).first
+    }
 
     companion object {
         private val LOGGER = Logger.getInstance(Code::class.java)
+        private val CODE_BY_OPCODE: Array<org.elixir_lang.beam.chunk.code.operation.Code?> =
+                org.elixir_lang.beam.chunk.code.operation.Code.values().let { codes ->
+                    arrayOfNulls<org.elixir_lang.beam.chunk.code.operation.Code>(
+                            codes.map { it.number }.max()!! + 1
+                    ).apply {
+                        codes.forEach { code -> set(code.number, code) }
+                    }
+                }
 
         fun from(chunk: Chunk, literalFloat: Boolean = true): Code {
             val data = chunk.data
@@ -203,16 +268,36 @@ class Code(private val operationList: List<Operation>) {
             val (functionCount, functionCountByteCount) = unsignedInt(data, offset)
             offset += functionCountByteCount
 
-            val operationList = mutableListOf<Operation>()
+            // every operation is at least its opcode byte, so this only grows for chunks of mostly operand-less operations
+            var opcodes = IntArray(data.size / 4 + 1)
+            var operandOffsets = IntArray(opcodes.size)
+            var operationCount = 0
 
             while (offset < data.lastIndex) {
-                val (operation, operationByteCount) = Operation.from(data, offset, literalFloat)
+                if (operationCount == opcodes.size) {
+                    opcodes = opcodes.copyOf(operationCount * 2)
+                    operandOffsets = operandOffsets.copyOf(operationCount * 2)
+                }
+
+                opcodes[operationCount] = data[offset].toInt().and(0xFF)
+                operandOffsets[operationCount] = offset + 1
+                offset += operationByteCount(data, offset, literalFloat)
+                operationCount++
+            }
+
+            return Code(data, literalFloat, opcodes.copyOf(operationCount), operandOffsets.copyOf(operationCount))
+        }
+
+        private fun operationByteCount(data: ByteArray, offset: Int, literalFloat: Boolean): Int {
+            val opcode = data[offset].toInt().and(0xFF)
+            val code = CODE_BY_OPCODE.getOrNull(opcode) ?: throw IllegalArgumentException("Unknown opcode ($opcode)")
+            var internalOffset = offset + 1
 
-                operationList.add(operation)
-                offset += operationByteCount
+            repeat(code.arguments.size) {
+                internalOffset += Term.byteCount(data, internalOffset, literalFloat)
             }
 
-            return Code(operationList)
+            return internalOffset - offset
         }
     }
 }
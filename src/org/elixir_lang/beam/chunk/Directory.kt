@@ -0,0 +1,74 @@
+package org.elixir_lang.beam.chunk
+
+import com.intellij.openapi.diagnostic.Logger
+import org.elixir_lang.beam.chunk.Chunk.unsignedInt
+import java.nio.charset.StandardCharsets
+
+private const val FORM_BYTE_COUNT = 4
+private const val FORM_LENGTH_BYTE_COUNT = 4
+private const val FORM_TYPE_BYTE_COUNT = 4
+private const val FORM = "FOR1"
+private const val FORM_TYPE = "BEAM"
+private const val HEADER_BYTE_COUNT = FORM_BYTE_COUNT + FORM_LENGTH_BYTE_COUNT + FORM_TYPE_BYTE_COUNT
+
+/**
+ * The chunks of a `.beam` file found by scanning only the IFF chunk headers.  The data of each [Chunk] is a slice of
+ * the file's bytes that is only copied when the chunk is decoded, so callers that only need `AtU8`, `ExpT` and `LocT`
+ * don't pay for `Code`, `LitT` or `Dbgi`.
+ *
+ * See http://beam-wisdoms.clau.se/en/latest/indepth-beam-file.html
+ */
+class Directory private constructor(val chunkList: List<Chunk>) {
+    companion object {
+        private val LOGGER = Logger.getInstance(Directory::class.java)
+
+        fun from(bytes: ByteArray, path: String): Directory? {
+            if (bytes.size < HEADER_BYTE_COUNT) {
+                if (bytes.isNotEmpty()) {
+                    LOGGER.error("BEAM from $path is only ${bytes.size} bytes, which is too short for a header")
+                }
+
+                return null
+            }
+
+            val form = String(bytes, 0, FORM_BYTE_COUNT, StandardCharsets.US_ASCII)
+
+            if (form != FORM) {
+                if (!testCase(form)) {
+                    LOGGER.error(
+                            "header typeID ($form) did not match expected ($FORM) from $path. " +
+                                    "File size is ${bytes.size} bytes."
+                    )
+                }
+
+                return null
+            }
+
+            // The form length counts from after the length itself, so it can be used to ignore trailing garbage
+            val (formLength, _) = unsignedInt(bytes, FORM_BYTE_COUNT)
+            val end = minOf(bytes.size.toLong(), FORM_BYTE_COUNT + FORM_LENGTH_BYTE_COUNT + formLength).toInt()
+
+            val formType = String(bytes, FORM_BYTE_COUNT + FORM_LENGTH_BYTE_COUNT, FORM_TYPE_BYTE_COUNT, StandardCharsets.US_ASCII)
+
+            if (formType != FORM_TYPE) {
+                LOGGER.error("Section header is not $FORM_TYPE in $path")
+                return null
+            }
+
+            val formBytes = if (end == bytes.size) bytes else bytes.copyOf(end)
+            val chunkList = mutableListOf<Chunk>()
+            var offset = HEADER_BYTE_COUNT
+
+            while (true) {
+                val chunkNextOffset = Chunk.from(formBytes, offset, path) ?: break
+
+                chunkList.add(chunkNextOffset.first)
+                offset = chunkNextOffset.second
+            }
+
+            return Directory(chunkList)
+        }
+
+        private fun testCase(header: String?): Boolean = header == "baz "
+    }
+}
@@ -216,18 +216,29 @@ data class Operation(val code: Code, val termList: List<Term>) {
             val code = codeByNumber[opcode]
 
             return if (code != null) {
-                val termList = mutableListOf<Term>()
+                val (operation, termsByteCount) = from(code, data, internalOffset, literalFloat)
+                internalOffset += termsByteCount
 
-                repeat(code.arguments.size) {
-                    val (term, byteCount) = Term.from(data, internalOffset, literalFloat)
-                    termList.add(term)
-                    internalOffset += byteCount
-                }
-
-                Pair(Operation(code, termList), internalOffset - offset)
+                Pair(operation, internalOffset - offset)
             } else {
                 throw IllegalArgumentException("Unknown opcode ($opcode)")
             }
         }
+
+        /**
+         * @param offset offset of the first operand, after the opcode
+         */
+        fun from(code: Code, data: ByteArray, offset: Int, literalFloat: Boolean): Pair<Operation, Int> {
+            var internalOffset = offset
+            val termList = ArrayList<Term>(code.arguments.size)
+
+            repeat(code.arguments.size) {
+                val (term, byteCount) = Term.from(data, internalOffset, literalFloat)
+                termList.add(term)
+                internalOffset += byteCount
+            }
+
+            return Pair(Operation(code, termList), internalOffset - offset)
+        }
     }
 }
@@ -0,0 +1,149 @@
+package org.elixir_lang.beam.decompiler
+
+import com.intellij.ide.plugins.PluginManager
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.PathManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.extensions.PluginId
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.startup.StartupActivity
+import com.intellij.openapi.util.io.FileUtil
+import org.elixir_lang.beam.Decompiler
+import java.io.File
+import java.io.IOException
+import java.security.MessageDigest
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * On-disk cache of decompiled source under the IDE system directory, so that opening a `.beam` after a restart
+ * does not decompile it again.
+ *
+ * Entries are keyed by the SHA-1 of the `.beam` content, so identical `.beam`s in different SDKs share an entry and
+ * a recompiled `.beam` gets a new entry.  The plugin version and [Decompiler.VERSION] name the directory, so any
+ * plugin upgrade strands the old entries instead of serving them, and [prune] deletes them.
+ *
+ * The stub tree for the `.beam` does not need an entry here: it is already persisted by the stub index and read back
+ * through `StubTreeLoader.readOrBuild` in [org.elixir_lang.beam.psi.BeamFileImpl.getStubTree].
+ */
+object Cache {
+    private val LOGGER = Logger.getInstance(Cache::class.java)
+    private const val EXTENSION = ".ex"
+
+    /**
+     * Entries are deleted, least recently used first, when the cache grows past this size.
+     */
+    private const val MAX_SIZE_IN_BYTES = 128L * 1024 * 1024
+
+    private val pruned = AtomicBoolean(false)
+
+    private val version: String by lazy {
+        val pluginVersion = PluginManager.getPlugin(PluginId.getId("org.elixir_lang"))?.version ?: "unknown"
+
+        FileUtil.sanitizeFileName("$pluginVersion-${Decompiler.VERSION}")
+    }
+
+    /**
+     * @param content the raw (possibly gzipped) `.beam` content
+     * @param decompile decompiles [content]; `null` when the decompiled text should not be cached, such as when the
+     *   `.beam` could not be read
+     */
+    @JvmStatic
+    fun getOrDecompile(content: ByteArray, decompile: () -> CharSequence?): CharSequence? {
+        val file = file(content)
+
+        return read(file) ?: decompile()?.also { write(file, it) }
+    }
+
+    /**
+     * Deletes the directories of other plugin or [Decompiler] versions and then the least recently used entries of
+     * this version until it is under [MAX_SIZE_IN_BYTES].  Only runs once per IDE session.
+     */
+    @JvmStatic
+    fun prune() {
+        if (pruned.compareAndSet(false, true)) {
+            val directory = directory()
+
+            directory.parentFile.listFiles()?.filter { it != directory }?.forEach { FileUtil.delete(it) }
+
+            val entries = directory
+                    .listFiles()
+                    ?.flatMap { fanOut -> fanOut.listFiles()?.toList() ?: emptyList() }
+                    ?.filter { it.isFile }
+                    ?: emptyList()
+            var size = entries.fold(0L) { sum, entry -> sum + entry.length() }
+
+            if (size > MAX_SIZE_IN_BYTES) {
+                for (entry in entries.sortedBy { it.lastModified() }) {
+                    if (size <= MAX_SIZE_IN_BYTES) {
+                        break
+                    }
+
+                    val length = entry.length()
+
+                    if (FileUtil.delete(entry)) {
+                        size -= length
+                    }
+                }
+            }
+        }
+    }
+
+    private fun directory(): File =
+            File(PathManager.getSystemPath(), "elixir${File.separator}decompiled${File.separator}v$version")
+
+    private fun file(content: ByteArray): File {
+        val hash = sha1(content)
+
+        // two-character fan-out, like git objects, so no one directory holds every OTP and Elixir module
+        return File(File(directory(), hash.substring(0, 2)), hash.substring(2) + EXTENSION)
+    }
+
+    private fun read(file: File): CharSequence? =
+            if (file.isFile) {
+                try {
+                    FileUtil.loadFile(file, Charsets.UTF_8).also {
+                        // the modification time is the last use, so that [prune] deletes the least recently used
+                        file.setLastModified(System.currentTimeMillis())
+                    }
+                } catch (ioException: IOException) {
+                    LOGGER.warn("Could not read cached decompiled source from ${file.path}", ioException)
+                    null
+                }
+            } else {
+                null
+            }
+
+    private fun sha1(content: ByteArray): String =
+            MessageDigest.getInstance("SHA-1").digest(content).joinToString("") { String.format("%02x", it) }
+
+    /**
+     * Writes to a temporary file and renames it into place, so a concurrent [read] never sees a partial entry.
+     */
+    private fun write(file: File, decompiled: CharSequence) {
+        val directory = file.parentFile
+
+        try {
+            FileUtil.createDirectory(directory)
+            val temporary = FileUtil.createTempFile(directory, file.name, ".tmp", true, false)
+            FileUtil.writeToFile(temporary, decompiled.toString().toByteArray(Charsets.UTF_8))
+
+            if (!temporary.renameTo(file)) {
+                // another thread or IDE instance wrote the same entry first
+                FileUtil.delete(temporary)
+            }
+        } catch (ioException: IOException) {
+            LOGGER.warn("Could not cache decompiled source to ${file.path}", ioException)
+        }
+    }
+
+    /**
+     * Runs [prune] on a pooled thread when the first project opens.
+     */
+    class Pruner : StartupActivity {
+        override fun runActivity(project: Project) {
+            if (!ApplicationManager.getApplication().isUnitTestMode) {
+                ApplicationManager.getApplication().executeOnPooledThread { prune() }
+            }
+        }
+    }
+}
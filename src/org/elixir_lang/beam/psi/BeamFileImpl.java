@@ -28,6 +28,8 @@ import com.intellij.util.IncorrectOperationException;
 import org.elixir_lang.ElixirLanguage;
 import org.elixir_lang.beam.Beam;
 import org.elixir_lang.beam.MacroNameArity;
+import org.elixir_lang.beam.bundle.Bundle;
+import org.elixir_lang.beam.bundle.Summary;
 import org.elixir_lang.beam.chunk.Atoms;
 import org.elixir_lang.beam.chunk.CallDefinitions;
 import org.elixir_lang.beam.psi.impl.CallDefinitionStubImpl;
@@ -84,6 +86,20 @@ public class BeamFileImpl extends ModuleElementImpl implements ModuleOwner, PsiC
     }
 
     public static Optional<Stub> buildFileStub(@NotNull byte[] bytes, @NotNull String path) {
+        // SDK `.beam`s are summarized in a bundle, so they don't need to be decoded again
+        Summary summary = Bundle.summary(bytes);
+        Optional<Stub> fileStubOptional;
+
+        if (summary != null) {
+            fileStubOptional = Optional.of(buildModuleStub(summary).getParentStub());
+        } else {
+            fileStubOptional = decodeFileStub(bytes, path);
+        }
+
+        return fileStubOptional;
+    }
+
+    static Optional<Stub> decodeFileStub(@NotNull byte[] bytes, @NotNull String path) {
         Optional<Beam> beamOptional;
 
         try {
@@ -121,6 +137,17 @@ public class BeamFileImpl extends ModuleElementImpl implements ModuleOwner, PsiC
         return moduleStubOptional;
     }
 
+    @NotNull
+    static ModuleStub buildModuleStub(@NotNull Summary summary) {
+        String name = defmoduleArgument(summary.getModuleName());
+        ElixirFileStubImpl parentStub = new ElixirFileStubImpl();
+        ModuleStub moduleStub = new ModuleStubImpl(parentStub, name);
+
+        summary.getMacroNameArities().forEach(macroNameArity -> buildCallDefinition(moduleStub, macroNameArity));
+
+        return moduleStub;
+    }
+
     private static void buildCallDefinitions(@NotNull ModuleStub parentStub, @NotNull Beam beam, @NotNull Atoms atoms) {
         macroNameAritySortedSet(beam, atoms).forEach(macroNameArity -> buildCallDefinition(parentStub, macroNameArity));
     }
@@ -1,6 +1,7 @@
 package org.elixir_lang.beam.psi.impl;
 
 import com.intellij.util.io.StringRef;
+import kotlin.ranges.IntRange;
 import org.elixir_lang.beam.psi.CallDefinition;
 import org.elixir_lang.beam.psi.stubs.CallDefinitionStub;
 import org.elixir_lang.beam.psi.stubs.ModuleStub;
@@ -78,6 +79,16 @@ public class CallDefinitionStubImpl<T extends CallDefinition> extends StubbicBas
         return callDefinitionClauseHeadArity;
     }
 
+    /**
+     * Decompiled call definitions have no default arguments, so the range is only
+     * {@link #callDefinitionClauseHeadArity()}.
+     */
+    @NotNull
+    @Override
+    public IntRange callDefinitionClauseHeadArityRange() {
+        return new IntRange(callDefinitionClauseHeadArity, callDefinitionClauseHeadArity);
+    }
+
     /**
      * Arity of {@code def ... do} or {@code defmacro ... do}.
      *
@@ -3,9 +3,11 @@ package org.elixir_lang.beam.psi.impl;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.stubs.StubBase;
 import com.intellij.psi.stubs.StubElement;
+import kotlin.ranges.IntRange;
 import org.elixir_lang.beam.psi.stubs.ModuleElementType;
 import org.elixir_lang.psi.stub.call.Stubbic;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collections;
 import java.util.Set;
@@ -53,6 +55,17 @@ public abstract class StubbicBase<T extends PsiElement> extends StubBase<T> impl
         return canonicalNameSet;
     }
 
+    /**
+     * Decompiled modules are not call definition clauses
+     *
+     * @return {@code null}
+     */
+    @Nullable
+    @Override
+    public IntRange callDefinitionClauseHeadArityRange() {
+        return null;
+    }
+
     @NotNull
     @Override
     public String getName() {
@@ -0,0 +1,37 @@
+package org.elixir_lang.beam.source
+
+import com.ericsson.otp.erlang.OtpErlangList
+import com.ericsson.otp.erlang.OtpErlangObject
+import com.ericsson.otp.erlang.OtpErlangRangeException
+import com.ericsson.otp.erlang.OtpErlangString
+import org.elixir_lang.beam.Cache
+
+/**
+ * The absolute path of the source file the `.beam` was compiled from, as recorded in the `source` entry of the `CInf`
+ * chunk.
+ */
+fun path(cache: Cache): String? =
+        cache.compileInfo
+                ?.firstOrNull { it.key.atomValue() == "source" }
+                ?.value
+                ?.let(::stringValue)
+
+/**
+ * The source file names in the `Line` chunk, which are relative to the directory `elixirc` or `mix` ran in.
+ */
+fun relativePaths(cache: Cache): List<String> =
+        // Drop "invalid"
+        cache.lines?.fileNameList?.drop(1) ?: emptyList()
+
+private fun stringValue(term: OtpErlangObject): String? =
+        when (term) {
+            is OtpErlangString -> term.stringValue()
+            // charlists with code points over 255 are not `OtpErlangString`s
+            is OtpErlangList ->
+                try {
+                    term.stringValue()
+                } catch (rangeException: OtpErlangRangeException) {
+                    null
+                }
+            else -> null
+        }
@@ -0,0 +1,46 @@
+package org.elixir_lang.beam.source.modules
+
+import com.intellij.openapi.project.Project
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter
+import com.intellij.util.indexing.FileBasedIndex
+import com.intellij.util.indexing.FileBasedIndexExtension
+import com.intellij.util.indexing.ID
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.KeyDescriptor
+import org.elixir_lang.beam.FileType
+
+/**
+ * Maps the source paths of each `.beam` to its module atom, so that breakpoints can find the modules compiled from a
+ * source file with a single key lookup.
+ *
+ * Both the absolute path from the `CInf` chunk and the relative paths from the `Line` chunk are keys.
+ */
+class Index : FileBasedIndexExtension<String, String>() {
+    override fun dependsOnFileContent() = true
+    override fun getIndexer() = INDEXER
+    override fun getInputFilter() = DefaultFileTypeSpecificInputFilter(FileType.INSTANCE)
+    override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+    override fun getName() = NAME
+    override fun getValueExternalizer(): DataExternalizer<String> = EnumeratorStringDescriptor.INSTANCE
+    override fun getVersion() = VERSION
+
+    companion object {
+        const val VERSION = 1
+
+        val INDEXER = Indexer()
+        val NAME = ID.create<String, String>("beam.source.modules")
+
+        /**
+         * @param path absolute path or path relative to the directory the `.beam` was compiled in
+         * @return module atoms compiled from [path]
+         */
+        @JvmStatic
+        fun moduleNames(project: Project, path: String): Set<String> =
+                FileBasedIndex
+                        .getInstance()
+                        .getValues(NAME, path, GlobalSearchScope.allScope(project))
+                        .toSet()
+    }
+}
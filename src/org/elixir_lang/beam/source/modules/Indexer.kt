@@ -0,0 +1,22 @@
+package org.elixir_lang.beam.source.modules
+
+import com.intellij.util.indexing.DataIndexer
+import com.intellij.util.indexing.FileContent
+import org.elixir_lang.beam.Cache
+import org.elixir_lang.beam.bundle.Bundle
+import org.elixir_lang.beam.bundle.Summary
+import org.elixir_lang.beam.source.path
+import org.elixir_lang.beam.source.relativePaths
+
+class Indexer : DataIndexer<String, String, FileContent> {
+    override fun map(inputData: FileContent): Map<String, String> =
+            Bundle.summary(inputData.content)?.let { map(it) } ?:
+            Cache.from(inputData)?.let { cache ->
+                cache.atoms?.moduleName()?.let { moduleName ->
+                    (relativePaths(cache) + listOfNotNull(path(cache))).associate { Pair(it, moduleName) }
+                }
+            } ?: emptyMap()
+
+    private fun map(summary: Summary): Map<String, String> =
+            (summary.relativePaths + listOfNotNull(summary.sourcePath)).associate { Pair(it, summary.moduleName) }
+}
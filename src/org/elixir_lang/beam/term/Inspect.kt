@@ -5,9 +5,14 @@ import org.elixir_lang.beam.chunk.XValueRenderer
 import org.elixir_lang.debugger.stack_frame.value.Presentation
 import java.util.stream.IntStream
 
-fun inspect(term: OtpErlangObject): String =
+/**
+ * @param budget how much of [term] to render.  The default renders all of it, as decompiling needs; pass a smaller
+ *   budget where a huge term only needs to be recognizable, such as in log messages.
+ */
+@JvmOverloads
+fun inspect(term: OtpErlangObject, budget: Presentation.Budget = Presentation.Budget.UNBOUNDED): String =
     XValueRenderer().let { renderer ->
-        Presentation(term).renderValue(renderer)
+        Presentation(term, budget).renderValue(renderer)
         renderer.getText().elixirEscape()
     }
 
@@ -21,6 +21,79 @@ fun unsignedIntToInt(unsignedInt: Long): Int =
  */
 sealed class Term {
     companion object {
+        /**
+         * The number of bytes the term at [offset] occupies, computed the same way as [from], but without decoding
+         * the term, so that [org.elixir_lang.beam.chunk.Code.from] can skip operands without allocating them.
+         */
+        fun byteCount(data: ByteArray, offset: Int, literalFloat: Boolean): ByteCount {
+            val fullTag = data[offset].toInt().and(0xFF)
+            val internalOffset = offset + 1
+            val tag = fullTag.and(0b111)
+
+            val termByteCount = if (tag == 0b111) {
+                val extendedTag = fullTag.ushr(3).and(0b1_1111)
+                // see `from` for why extended tags shift when floats are literals
+                val shiftedExtendedTag = if (literalFloat && extendedTag != 0) extendedTag + 0b0010 else extendedTag
+
+                when (shiftedExtendedTag) {
+                    0b0010 ->
+                        // Float
+                        0
+                    0b0100 ->
+                        // List
+                        sizedByteCount(data, internalOffset, literalFloat, 1)
+                    0b0110, 0b1010 ->
+                        // FloatingPointRegister, ExtendedLiteral
+                        byteCount(data, internalOffset, literalFloat)
+                    0b1000 ->
+                        // AllocationList
+                        sizedByteCount(data, internalOffset, literalFloat, 2)
+                    else ->
+                        throw IllegalArgumentException("Extended tag ($extendedTag) is not properly shifted and masked")
+                }
+            } else {
+                valueByteCount(fullTag, data, internalOffset)
+            }
+
+            return 1 + termByteCount
+        }
+
+        /**
+         * The byte count of a `Literal` size followed by size times [termsPerElement] terms
+         */
+        private fun sizedByteCount(data: ByteArray, offset: Int, literalFloat: Boolean, termsPerElement: Int): ByteCount {
+            var internalOffset = offset
+            val sizeFullTag = data[internalOffset].toInt().and(0xFF)
+            val (size, sizeByteCount) = index(sizeFullTag, data, internalOffset + 1)
+            internalOffset += 1 + sizeByteCount
+
+            repeat(size * termsPerElement) {
+                internalOffset += byteCount(data, internalOffset, literalFloat)
+            }
+
+            return internalOffset - offset
+        }
+
+        /**
+         * The byte count after the tag of the value decoded by [value]
+         */
+        private fun valueByteCount(fullTag: UnsignedByte, data: ByteArray, offset: Int): ByteCount {
+            val bit3 = fullTag.ushr(3).and(0b1)
+
+            return if (bit3 == 0) {
+                0
+            } else {
+                val bit4 = fullTag.ushr(4).and(0b1)
+                val bits7to5 = fullTag.and(0b1110_0000).shr(5)
+
+                when {
+                    bit4 == 0 -> 1
+                    bits7to5 == 0b111 -> 1 + data[offset].toInt().and(0xFF)
+                    else -> bits7to5 + 2
+                }
+            }
+        }
+
         fun from(data: ByteArray, offset: Int, literalFloat: Boolean): Pair<Term, ByteCount> {
             var internalOffset = offset
 
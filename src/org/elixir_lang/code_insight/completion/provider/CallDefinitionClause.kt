@@ -7,24 +7,21 @@ import com.intellij.codeInsight.lookup.LookupElement
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiWhiteSpace
 import com.intellij.util.ProcessingContext
+import org.elixir_lang.psi.CallDefinitionTable
 import org.elixir_lang.psi.ElixirTypes
 import org.elixir_lang.psi.call.Call
-import org.elixir_lang.psi.impl.call.macroChildCalls
 import org.elixir_lang.psi.impl.maybeModularNameToModular
-import org.elixir_lang.structure_view.element.CallDefinitionClause.Companion.nameArityRange
 
 class CallDefinitionClause : CompletionProvider<CompletionParameters>() {
     private fun callDefinitionClauseLookupElements(scope: Call): Iterable<LookupElement> =
-            scope
-                    .macroChildCalls()
-                    .filter { org.elixir_lang.structure_view.element.CallDefinitionClause.`is`(it) }
-                    .mapNotNull {
-                        nameArityRange(it)?.let { (name, _) ->
-                            org.elixir_lang.code_insight.lookup.element.CallDefinitionClause.createWithSmartPointer(
-                                    name,
-                                    it
-                            )
-                        }
+            CallDefinitionTable
+                    .of(scope)
+                    .entries
+                    .map { (call, name, _) ->
+                        org.elixir_lang.code_insight.lookup.element.CallDefinitionClause.createWithSmartPointer(
+                                name,
+                                call
+                        )
                     }
 
     private fun maybeModularName(parameters: CompletionParameters): PsiElement? =
@@ -14,10 +14,12 @@ import javax.swing.event.AncestorEvent;
 public class ElixirCompilerOptionsConfigurable extends CompilerConfigurable {
   private JPanel myRootPanel;
   private JCheckBox myUseMixCompilerCheckBox;
+  private JCheckBox myUseMixCompileServerCheckBox;
   private JCheckBox myAttachDebugInfoCheckBox;
   private JCheckBox myIgnoreModuleConflictCheckBox;
   private JCheckBox myAttachDocsCheckBox;
   private JCheckBox myWarningsAsErrorsCheckBox;
+  private JSpinner myElixircWorkersSpinner;
 
   private final ElixirCompilerSettings mySettings;
 
@@ -26,6 +28,8 @@ public class ElixirCompilerOptionsConfigurable extends CompilerConfigurable {
 
     mySettings = ElixirCompilerSettings.getInstance(project);
 
+    myElixircWorkersSpinner.setModel(new SpinnerNumberModel(0, 0, 64, 1));
+
     setupUiListeners();
   }
 
@@ -57,27 +61,33 @@ public class ElixirCompilerOptionsConfigurable extends CompilerConfigurable {
   @Override
   public void reset() {
     myUseMixCompilerCheckBox.setSelected(mySettings.isUseMixCompilerEnabled());
+    myUseMixCompileServerCheckBox.setSelected(mySettings.isUseMixCompileServerEnabled());
     myAttachDocsCheckBox.setSelected(mySettings.isAttachDocsEnabled());
     myAttachDebugInfoCheckBox.setSelected(mySettings.isAttachDebugInfoEnabled());
     myWarningsAsErrorsCheckBox.setSelected(mySettings.isWarningsAsErrorsEnabled());
     myIgnoreModuleConflictCheckBox.setSelected(mySettings.isIgnoreModuleConflictEnabled());
+    myElixircWorkersSpinner.setValue(mySettings.getElixircWorkers());
   }
 
   @Override
   public void apply() {
     mySettings.setUseMixCompilerEnabled(myUseMixCompilerCheckBox.isSelected());
+    mySettings.setUseMixCompileServerEnabled(myUseMixCompileServerCheckBox.isSelected());
     mySettings.setAttachDocsEnabled(myAttachDocsCheckBox.isSelected());
     mySettings.setAttachDebugInfoEnabled(myAttachDebugInfoCheckBox.isSelected());
     mySettings.setWarningsAsErrorsEnabled(myWarningsAsErrorsCheckBox.isSelected());
     mySettings.setIgnoreModuleConflictEnabled(myIgnoreModuleConflictCheckBox.isSelected());
+    mySettings.setElixircWorkers((Integer) myElixircWorkersSpinner.getValue());
   }
 
   @Override
   public boolean isModified() {
     return myUseMixCompilerCheckBox.isSelected() != mySettings.isUseMixCompilerEnabled() ||
+        myUseMixCompileServerCheckBox.isSelected() != mySettings.isUseMixCompileServerEnabled() ||
         myAttachDocsCheckBox.isSelected() != mySettings.isAttachDocsEnabled() ||
         myAttachDebugInfoCheckBox.isSelected() != mySettings.isAttachDebugInfoEnabled() ||
         myWarningsAsErrorsCheckBox.isSelected() != mySettings.isWarningsAsErrorsEnabled() ||
-        myIgnoreModuleConflictCheckBox.isSelected() != mySettings.isIgnoreModuleConflictEnabled();
+        myIgnoreModuleConflictCheckBox.isSelected() != mySettings.isIgnoreModuleConflictEnabled() ||
+        (Integer) myElixircWorkersSpinner.getValue() != mySettings.getElixircWorkers();
   }
 }
@@ -46,6 +46,15 @@ public class ElixirCompilerSettings implements PersistentStateComponent<Compiler
     myCompilerOptions.useMixCompiler = useMixCompiler;
   }
 
+  /* use mix compile server */
+  public boolean isUseMixCompileServerEnabled(){
+    return myCompilerOptions.useMixCompileServer;
+  }
+
+  public void setUseMixCompileServerEnabled(boolean useMixCompileServer){
+    myCompilerOptions.useMixCompileServer = useMixCompileServer;
+  }
+
   /* attach docs */
   public boolean isAttachDocsEnabled(){
     return myCompilerOptions.attachDocsEnabled;
@@ -82,4 +91,13 @@ public class ElixirCompilerSettings implements PersistentStateComponent<Compiler
     myCompilerOptions.ignoreModuleConflictEnabled = useIgnoreModuleConflict;
   }
 
+  /* elixirc workers */
+  public int getElixircWorkers(){
+    return myCompilerOptions.elixircWorkers;
+  }
+
+  public void setElixircWorkers(int elixircWorkers){
+    myCompilerOptions.elixircWorkers = elixircWorkers;
+  }
+
 }
@@ -18,6 +18,8 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vfs.LocalFileSystem;
@@ -55,12 +57,26 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
     private static final String CODE_IN_QUESTION_HEADER = "CODE IN QUESTION";
     private static final String CONFIGURATION_OPTIONS = "CONFIGURATION OPTIONS";
     private static final String WHY_IT_MATTERS_HEADER = "WHY IT MATTERS";
+    /**
+     * Issues by the {@link VirtualFile} modification stamp they were found at, so that annotation passes that did not
+     * change the file, such as after changing focus, do not run Credo again.  Credo reads the file on disk, so the
+     * stamp is the one that changes on save, not the {@link PsiFile} one that changes on every edit of the document.
+     */
+    private static final Key<Pair<Long, List<Issue>>> ISSUE_LIST_KEY = Key.create("credo.issue.list");
 
     @NotNull
     public static List<Issue> lineListToIssueList(@NotNull List<String> lineList) {
         return lineListToIssueList(lineList, false, null, null);
     }
 
+    /**
+     * @return {@code null} if {@code line} is not a {@code --format flycheck} issue line
+     */
+    @Nullable
+    public static Issue lineToIssue(@NotNull String line) {
+        return lineToIssue(line, false, null, null);
+    }
+
     @NotNull
     private static List<Issue> lineListToIssueList(@NotNull List<String> lineList,
                                                    @NotNull Project project,
@@ -316,16 +332,55 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
     @Nullable
     @Override
     public List<Issue> doAnnotate(PsiFile file) {
-        List<Issue> issueList;
+        VirtualFile virtualFile = file.getVirtualFile();
+        List<Issue> issueList = null;
+        long modificationStamp = 0;
+
+        if (virtualFile != null) {
+            modificationStamp = virtualFile.getModificationStamp();
+            Pair<Long, List<Issue>> cached = virtualFile.getUserData(ISSUE_LIST_KEY);
 
-        try {
-            ProcessOutput processOutput = ExecUtil.execAndGetOutput(generalCommandLine(file));
+            if (cached != null && cached.first == modificationStamp) {
+                issueList = cached.second;
+            }
+        }
+
+        if (issueList == null) {
             Project project = file.getProject();
             Module module = ModuleUtilCore.findModuleForPsiElement(file);
+            List<String> lineList = null;
 
-            issueList = lineListToIssueList(processOutput.getStdoutLines(), project, module);
-        } catch (ExecutionException executionException) {
-            issueList = Collections.emptyList();
+            if (virtualFile != null && Service.getInstance(project).useWorker()) {
+                String workingDirectory;
+
+                if (module != null) {
+                    workingDirectory = workingDirectory(module);
+                } else {
+                    workingDirectory = workingDirectory(project);
+                }
+
+                lineList = Workers
+                        .getInstance(project)
+                        .lineList(project, module, workingDirectory, virtualFile.getPath());
+            }
+
+            if (lineList == null) {
+                try {
+                    lineList = ExecUtil.execAndGetOutput(generalCommandLine(file)).getStdoutLines();
+                } catch (ExecutionException executionException) {
+                    lineList = null;
+                }
+            }
+
+            if (lineList != null) {
+                issueList = lineListToIssueList(lineList, project, module);
+
+                if (virtualFile != null) {
+                    virtualFile.putUserData(ISSUE_LIST_KEY, Pair.create(modificationStamp, issueList));
+                }
+            } else {
+                issueList = Collections.emptyList();
+            }
         }
 
         return issueList;
@@ -378,7 +433,7 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
                     annotation.setAfterEndOfLine(end == start);
 
                     issue.explanation.ifPresent(explanation -> {
-                        String toolTip = explanationToToolTip(explanation, workingDirectory);
+                        String toolTip = explanationToToolTip(explanation.stream(), workingDirectory);
 
                         if (!toolTip.isEmpty()) {
                             annotation.setTooltip(toolTip);
@@ -543,7 +598,7 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
         final String message;
         @NotNull
         @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
-        Optional<Stream<String>> explanation = Optional.empty();
+        Optional<List<String>> explanation = Optional.empty();
 
         Issue(@NotNull String path,
               int line,
@@ -558,10 +613,10 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
         }
 
         @NotNull
-        private Optional<Stream<String>> explanation(@NotNull Project project, @Nullable Module module) {
+        private Optional<List<String>> explanation(@NotNull Project project, @Nullable Module module) {
             ParametersList mixParametersList = mixParametersList(this);
             GeneralCommandLine generalCommandLine = generalCommandLine(project, module, mixParametersList);
-            Optional<Stream<String>> explanation;
+            Optional<List<String>> explanation;
 
             try {
                 explanation = Optional.of(
@@ -571,6 +626,8 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
                                 .stream()
                                 .skip(3)
                                 .filter(line -> !line.isEmpty())
+                                // collected, so cached issues can be applied again
+                                .collect(Collectors.toList())
                 );
             } catch (ExecutionException executionException) {
                 explanation = Optional.empty();
@@ -11,6 +11,7 @@ public class Configurable implements SearchableConfigurable {
     private static final String ID = "Credo";
     private JPanel panel;
     private JCheckBox includeExplanationCheckBox;
+    private JCheckBox useWorkerCheckBox;
     private Service service;
 
     public Configurable(@NotNull Project project) {
@@ -37,17 +38,20 @@ public class Configurable implements SearchableConfigurable {
 
     @Override
     public boolean isModified() {
-        return service.includeExplanation() != includeExplanationCheckBox.getModel().isSelected();
+        return service.includeExplanation() != includeExplanationCheckBox.getModel().isSelected() ||
+                service.useWorker() != useWorkerCheckBox.getModel().isSelected();
     }
 
     @Override
     public void apply() {
         service.includeExplanation(includeExplanationCheckBox.getModel().isSelected());
+        service.useWorker(useWorkerCheckBox.getModel().isSelected());
     }
 
     @Override
     public void reset() {
         includeExplanationCheckBox.getModel().setSelected(service.includeExplanation());
+        useWorkerCheckBox.getModel().setSelected(service.useWorker());
     }
 
     @NotNull
@@ -48,4 +48,12 @@ public class Service implements PersistentStateComponent<State> {
     public void includeExplanation(boolean includeExplanation) {
         state.includeExplanation = includeExplanation;
     }
+
+    public boolean useWorker() {
+        return state.useWorker;
+    }
+
+    public void useWorker(boolean useWorker) {
+        state.useWorker = useWorker;
+    }
 }
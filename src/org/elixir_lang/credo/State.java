@@ -5,4 +5,6 @@ import com.intellij.util.xmlb.annotations.Tag;
 public class State {
     @Tag("includeExplanation")
     public boolean includeExplanation = true;
+    @Tag("useWorker")
+    public boolean useWorker = true;
 }
@@ -0,0 +1,165 @@
+package org.elixir_lang.credo;
+
+import com.google.common.base.Charsets;
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.elixir_lang.ElixirModules;
+import org.elixir_lang.jps.builder.ParametersList;
+import org.elixir_lang.mix.runner.MixRunningStateUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.elixir_lang.sdk.elixir.Type.mostSpecificSdk;
+
+/**
+ * A long-lived {@code mix intellij_elixir.credo_worker} for one working directory, so that each file only pays for
+ * running the checks instead of booting the VM and loading the Mix project.
+ *
+ * Each request is a path on a line of stdin.  Each response is a line starting with {@link #RESPONSE_PREFIX}, followed
+ * by either {@code ok COUNT} and {@code COUNT} lines in the {@code --format flycheck} format or {@code error MESSAGE}.
+ */
+class Worker {
+    private static final Logger LOGGER = Logger.getInstance(Worker.class);
+    private static final String BASE_PATH = "/credo";
+    private static final String MIX_TASK = "intellij_elixir.credo_worker";
+    private static final String RESPONSE_PREFIX = MIX_TASK + " ";
+    private static final String OK_PREFIX = RESPONSE_PREFIX + "ok ";
+    /**
+     * Long enough for the first response, which waits for the worker to load the project, but bounded, so that a hung
+     * worker does not block the annotator forever.
+     */
+    private static final long RESPONSE_TIMEOUT_SECONDS = 60;
+
+    @NotNull
+    private final Process process;
+    @NotNull
+    private final BufferedReader reader;
+    @NotNull
+    private final Writer writer;
+
+    private Worker(@NotNull Process process) {
+        this.process = process;
+        this.reader = new BufferedReader(new InputStreamReader(process.getInputStream(), Charsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), Charsets.UTF_8));
+    }
+
+    @NotNull
+    static Worker start(@NotNull Project project,
+                        @Nullable Module module,
+                        @NotNull String workingDirectory) throws ExecutionException, IOException {
+        GeneralCommandLine workingDirectoryGeneralCommandLine = new GeneralCommandLine()
+                .withCharset(Charsets.UTF_8)
+                .withWorkDirectory(workingDirectory)
+                // anything the project prints while loading is skipped until a response prefix
+                .withRedirectErrorStream(true);
+        ParametersList elixirParametersList = ElixirModules.parametersList(
+                ElixirModules.copy(BASE_PATH, Collections.singletonList("lib/credo_worker.ex"))
+        );
+        ParametersList mixParametersList = new ParametersList();
+        mixParametersList.add(MIX_TASK);
+
+        GeneralCommandLine generalCommandLine = MixRunningStateUtil.commandLine(
+                workingDirectoryGeneralCommandLine,
+                module != null ? mostSpecificSdk(module) : mostSpecificSdk(project),
+                elixirParametersList,
+                mixParametersList
+        );
+
+        return new Worker(generalCommandLine.createProcess());
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * @return {@code --format flycheck} lines for {@code path}; {@code null} if the worker failed or did not respond
+     *   within {@link #RESPONSE_TIMEOUT_SECONDS}, in which case the worker is killed and the caller should fall back to
+     *   {@code mix credo}.
+     */
+    @Nullable
+    synchronized List<String> lineList(@NotNull String path) {
+        List<String> lineList;
+
+        try {
+            writer.write(path);
+            writer.write('\n');
+            writer.flush();
+
+            // read on a pooled thread, as a blocking read can't time out
+            lineList = AppExecutorUtil
+                    .getAppExecutorService()
+                    .submit(this::readResponse)
+                    .get(RESPONSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (IOException ioException) {
+            LOGGER.warn("Credo worker could not check " + path, ioException);
+            lineList = null;
+        } catch (java.util.concurrent.ExecutionException executionException) {
+            LOGGER.warn("Credo worker could not check " + path, executionException.getCause());
+            lineList = null;
+        } catch (TimeoutException timeoutException) {
+            LOGGER.warn("Credo worker did not check " + path + " within " + RESPONSE_TIMEOUT_SECONDS + " seconds");
+            lineList = null;
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            lineList = null;
+        }
+
+        if (lineList == null) {
+            stop();
+        }
+
+        return lineList;
+    }
+
+    /**
+     * Kills the worker, which also ends any read still blocked on its output.
+     */
+    void stop() {
+        process.destroyForcibly();
+    }
+
+    @Nullable
+    private List<String> readResponse() throws IOException {
+        String line;
+
+        do {
+            line = reader.readLine();
+        } while (line != null && !line.startsWith(RESPONSE_PREFIX));
+
+        List<String> lineList;
+
+        if (line == null) {
+            lineList = null;
+        } else if (line.startsWith(OK_PREFIX)) {
+            int count = Integer.parseInt(line.substring(OK_PREFIX.length()).trim());
+            lineList = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                String issueLine = reader.readLine();
+
+                if (issueLine == null) {
+                    return null;
+                }
+
+                lineList.add(issueLine);
+            }
+        } else {
+            LOGGER.warn("Credo worker failed: " + line.substring(RESPONSE_PREFIX.length()));
+            lineList = null;
+        }
+
+        return lineList;
+    }
+}
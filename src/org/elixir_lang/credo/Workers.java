@@ -0,0 +1,143 @@
+package org.elixir_lang.credo;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link Worker} per working directory of the project, stopped when the project closes.
+ */
+public class Workers implements Disposable {
+    private static final Logger LOGGER = Logger.getInstance(Workers.class);
+
+    @NotNull
+    private final Map<String, Worker> workerByWorkingDirectory = new ConcurrentHashMap<>();
+    /**
+     * How long a working directory goes straight to {@code mix credo} after its worker failed, unless
+     * {@link #configurationStamp(String)} changes first.
+     */
+    private static final long FAILURE_EXPIRY_MILLISECONDS = TimeUnit.MINUTES.toMillis(5);
+    private static final List<String> CONFIGURATION_RELATIVE_PATHS =
+            Arrays.asList("mix.exs", ".credo.exs", "config" + File.separator + ".credo.exs");
+
+    /**
+     * Working directories where the worker failed, such as because the project's Credo has no {@code Credo.run/1},
+     * so that they go straight to {@code mix credo} instead of restarting the worker for every file.  Failures expire
+     * after {@link #FAILURE_EXPIRY_MILLISECONDS} or when the project's {@code mix.exs} or {@code .credo.exs} changes,
+     * so fixing the project turns the worker back on.
+     */
+    @NotNull
+    private final Map<String, Failure> failureByWorkingDirectory = new ConcurrentHashMap<>();
+
+    @NotNull
+    public static Workers getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, Workers.class);
+    }
+
+    /**
+     * @return {@code --format flycheck} lines for {@code path}; {@code null} if there is no working worker for
+     *   {@code workingDirectory}.
+     */
+    @Nullable
+    List<String> lineList(@NotNull Project project,
+                          @Nullable Module module,
+                          @NotNull String workingDirectory,
+                          @NotNull String path) {
+        List<String> lineList = null;
+
+        if (!hasFailed(workingDirectory)) {
+            Worker worker = worker(project, module, workingDirectory);
+
+            if (worker != null) {
+                lineList = worker.lineList(path);
+            }
+
+            if (lineList == null) {
+                workerByWorkingDirectory.remove(workingDirectory, worker);
+                failureByWorkingDirectory.put(
+                        workingDirectory,
+                        new Failure(System.currentTimeMillis(), configurationStamp(workingDirectory))
+                );
+            }
+        }
+
+        return lineList;
+    }
+
+    @Override
+    public void dispose() {
+        workerByWorkingDirectory.values().forEach(Worker::stop);
+        workerByWorkingDirectory.clear();
+    }
+
+    @NotNull
+    private static String configurationStamp(@NotNull String workingDirectory) {
+        StringBuilder configurationStamp = new StringBuilder();
+
+        for (String relativePath : CONFIGURATION_RELATIVE_PATHS) {
+            configurationStamp.append(new File(workingDirectory, relativePath).lastModified()).append(':');
+        }
+
+        return configurationStamp.toString();
+    }
+
+    private boolean hasFailed(@NotNull String workingDirectory) {
+        Failure failure = failureByWorkingDirectory.get(workingDirectory);
+        boolean hasFailed = false;
+
+        if (failure != null) {
+            if (System.currentTimeMillis() - failure.time < FAILURE_EXPIRY_MILLISECONDS &&
+                    failure.configurationStamp.equals(configurationStamp(workingDirectory))) {
+                hasFailed = true;
+            } else {
+                failureByWorkingDirectory.remove(workingDirectory, failure);
+            }
+        }
+
+        return hasFailed;
+    }
+
+    @Nullable
+    private Worker worker(@NotNull Project project, @Nullable Module module, @NotNull String workingDirectory) {
+        return workerByWorkingDirectory.compute(workingDirectory, (key, worker) -> {
+            Worker computed;
+
+            if (worker != null && worker.isAlive()) {
+                computed = worker;
+            } else {
+                try {
+                    computed = Worker.start(project, module, workingDirectory);
+                } catch (ExecutionException | IOException exception) {
+                    LOGGER.warn("Could not start Credo worker in " + workingDirectory, exception);
+                    computed = null;
+                }
+            }
+
+            return computed;
+        });
+    }
+
+    private static class Failure {
+        private final long time;
+        @NotNull
+        private final String configurationStamp;
+
+        private Failure(long time, @NotNull String configurationStamp) {
+            this.time = time;
+            this.configurationStamp = configurationStamp;
+        }
+    }
+}
@@ -8,55 +8,49 @@ import com.intellij.codeInspection.*
 import com.intellij.codeInspection.reference.*
 import com.intellij.execution.ExecutionException
 import com.intellij.execution.configurations.GeneralCommandLine
-import com.intellij.execution.util.ExecUtil
 import com.intellij.lang.ExternalLanguageAnnotators
 import com.intellij.lang.annotation.Annotation
 import com.intellij.lang.annotation.AnnotationSession
 import com.intellij.lang.annotation.ExternalAnnotator
 import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.diagnostic.Logger
 import com.intellij.openapi.module.Module
 import com.intellij.openapi.module.ModuleUtilCore
+import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.roots.ModuleRootManager
+import com.intellij.openapi.roots.ProjectRootManager
+import com.intellij.openapi.util.Key
+import com.intellij.openapi.util.io.FileUtil
 import com.intellij.openapi.vfs.LocalFileSystem
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiFile
 import com.intellij.psi.PsiManager
+import com.intellij.util.Processor
+import com.intellij.util.concurrency.AppExecutorUtil
 import com.intellij.util.containers.ContainerUtil
+import org.elixir_lang.ElixirFileType
 import org.elixir_lang.ElixirLanguage
 import org.elixir_lang.credo.Annotator
 import org.elixir_lang.jps.builder.ParametersList
 import org.elixir_lang.mix.runner.MixRunningStateUtil
 
+import java.io.File
+import java.io.IOException
 import java.nio.file.Paths
+import java.security.MessageDigest
 import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.locks.ReentrantLock
+import java.util.concurrent.ExecutionException as FutureExecutionException
 
 
-private fun put(pathSetByWorkingDirectory: MutableMap<String, MutableSet<String>>,
-                workingDirectorySet: Set<String>) {
-    for (workingDirectory in workingDirectorySet) {
-        put(pathSetByWorkingDirectory, workingDirectory, workingDirectory)
-    }
-}
-
-private fun put(pathSetByWorkingDirectory: MutableMap<String, MutableSet<String>>,
-                workingDirectorySet: Set<String>,
-                path: String) {
-    for (workingDirectory in workingDirectorySet) {
-        put(pathSetByWorkingDirectory, workingDirectory, path)
-    }
-}
-
-private fun put(pathSetByWorkingDirectory: MutableMap<String, MutableSet<String>>,
-                workingDirectory: String,
-                path: String) {
-    pathSetByWorkingDirectory
-            .computeIfAbsent(workingDirectory) { mutableSetOf() }
-            .add(path)
-}
-
 private fun generalCommandLine(workingDirectoryGeneralCommandLine: GeneralCommandLine,
                                module: Module,
                                mixParametersList: ParametersList): GeneralCommandLine =
@@ -67,28 +61,330 @@ private fun generalCommandLine(workingDirectoryGeneralCommandLine: GeneralComman
                 mixParametersList
         )
 
-private fun runInspection(module: Module,
-                          workingDirectory: String,
-                          pathSet: Set<String>): List<Annotator.Issue> {
-    return try {
-        val processOutput = ExecUtil.execAndGetOutput(
-                generalCommandLine(workingDirectory, module, pathSet)
-        )
+/**
+ * At most this many changed files are passed to `mix credo`, so that the command line stays short enough for Windows.
+ * With more, or when no file of the working directory is cached, Credo checks the whole working directory instead.
+ */
+private const val PATH_ARGUMENT_LIMIT = 100
+
+/**
+ * Bounds the `mix credo` runs across all working directories, as each one compiles and checks a whole Mix project.
+ */
+private val EXECUTOR by lazy {
+    AppExecutorUtil.createBoundedApplicationPoolExecutor(
+            "Credo Global Inspection",
+            Runtime.getRuntime().availableProcessors().coerceAtLeast(1)
+    )
+}
+
+/**
+ * Issues by the [contentHash] they were found at, so that running the inspection again skips unchanged files.
+ */
+private val ISSUE_LIST_KEY = Key.create<Pair<String, List<Annotator.Issue>>>("credo.global.issue.list")
+private val LOGGER = Logger.getInstance(Global::class.java)
+
+/**
+ * Locks by [mixProjectDirectory], so that the apps of an umbrella, which share its `_build`, don't compile their
+ * dependencies into it at the same time.
+ */
+private val LOCK_BY_MIX_PROJECT_DIRECTORY = ConcurrentHashMap<String, ReentrantLock>()
+
+private val CONFIGURATION_RELATIVE_PATHS = listOf(".credo.exs", "config${File.separator}.credo.exs")
+private val CREDO_LOCK_REGEX = Regex("""^\s*"credo":.*$""", RegexOption.MULTILINE)
+
+/**
+ * Waits for `futures` while checking for cancellation, so that cancelling the inspection stops the `mix credo` runs
+ * by destroying their `processes`.
+ */
+private fun await(futures: List<Future<*>>, processes: MutableSet<Process>) {
+    try {
+        for (future in futures) {
+            while (true) {
+                ProgressManager.checkCanceled()
+
+                try {
+                    future.get(100, TimeUnit.MILLISECONDS)
+                    break
+                } catch (timeoutException: TimeoutException) {
+                    continue
+                } catch (executionException: FutureExecutionException) {
+                    LOGGER.warn("Credo run failed", executionException.cause)
+                    break
+                }
+            }
+        }
+    } catch (processCanceledException: ProcessCanceledException) {
+        futures.forEach { it.cancel(true) }
+        processes.forEach { it.destroy() }
+
+        throw processCanceledException
+    }
+}
+
+/**
+ * Remembers the issues Credo found for each of `uncached` at its content hash.
+ *
+ * Credo exits with a bit per issue category, and mix also fails when the project doesn't compile, so that a file has no
+ * issues is only remembered if Credo evidently ran.
+ */
+internal fun cacheIssueLists(uncached: List<Pair<VirtualFile, String>>,
+                             exitCode: Int?,
+                             issueListByFullPath: Map<String, List<Annotator.Issue>>) {
+    if (exitCode == 0 || issueListByFullPath.isNotEmpty()) {
+        for ((virtualFile, contentHash) in uncached) {
+            val issueList = issueListByFullPath[virtualFile.path].orEmpty()
+            virtualFile.putUserData(ISSUE_LIST_KEY, Pair(contentHash, issueList))
+        }
+    }
+}
+
+/**
+ * @return the issues remembered by [cacheIssueLists] for `virtualFile`; `null` if they were found at a different
+ *   `contentHash`.
+ */
+internal fun cachedIssueList(virtualFile: VirtualFile, contentHash: String): List<Annotator.Issue>? =
+        virtualFile
+                .getUserData(ISSUE_LIST_KEY)
+                ?.takeIf { (cachedContentHash, _) -> cachedContentHash == contentHash }
+                ?.second
+
+/**
+ * The Credo version and the contents of the Credo configuration files that apply in `workingDirectory`, so that
+ * upgrading Credo or changing its configuration runs Credo again, even if the files kept their timestamps.
+ */
+internal fun configurationKey(workingDirectory: String, mixProjectDirectory: String): String {
+    val messageDigest = MessageDigest.getInstance("SHA-1")
+
+    messageDigest.update(credoLock(mixProjectDirectory).toByteArray(Charsets.UTF_8))
+
+    for (directory in linkedSetOf(mixProjectDirectory, workingDirectory)) {
+        for (relativePath in CONFIGURATION_RELATIVE_PATHS) {
+            val file = File(directory, relativePath)
+            // the path keeps a missing file and an empty one apart
+            messageDigest.update(file.path.toByteArray(Charsets.UTF_8))
+
+            try {
+                if (file.isFile) {
+                    messageDigest.update(file.readBytes())
+                }
+            } catch (ioException: IOException) {
+                LOGGER.debug("Could not read Credo configuration ${file.path}", ioException)
+            }
+        }
+    }
+
+    return hex(messageDigest.digest())
+}
+
+internal fun contentHash(virtualFile: VirtualFile, configurationKey: String): String? =
+        try {
+            hex(MessageDigest.getInstance("SHA-1").digest(virtualFile.contentsToByteArray())) + configurationKey
+        } catch (ioException: IOException) {
+            null
+        }
+
+/**
+ * The `credo` entry in the `mix.lock` of `mixProjectDirectory`, which pins the Credo version; empty if there is none.
+ */
+private fun credoLock(mixProjectDirectory: String): String =
+        try {
+            File(mixProjectDirectory, "mix.lock")
+                    .takeIf(File::isFile)
+                    ?.readText(Charsets.UTF_8)
+                    ?.let { CREDO_LOCK_REGEX.find(it) }
+                    ?.value
+                    ?.trim()
+                    .orEmpty()
+        } catch (ioException: IOException) {
+            ""
+        }
+
+private fun fullPath(workingDirectory: String, issue: Annotator.Issue): String =
+        FileUtil.toSystemIndependentName(Paths.get(workingDirectory).resolve(issue.path).normalize().toString())
+
+private fun hex(digest: ByteArray): String = digest.joinToString("") { String.format("%02x", it) }
+
+/**
+ * The outermost directory with a `mix.exs` that contains `workingDirectory`, up to `contentRootPath`, as the apps of
+ * an umbrella build into the umbrella's `_build`.  The walk stops at `contentRootPath`, so a stray `mix.exs` outside
+ * the project doesn't make unrelated projects share a lock.
+ */
+internal fun mixProjectDirectory(workingDirectory: String, contentRootPath: String?): String =
+        generateSequence(File(workingDirectory)) { it.parentFile }
+                .takeWhile { contentRootPath != null && FileUtil.isAncestor(contentRootPath, it.path, false) }
+                .filter { File(it, "mix.exs").isFile }
+                .lastOrNull()
+                ?.let { FileUtil.toSystemIndependentName(it.path) }
+                ?: workingDirectory
+
+/**
+ * The outermost content root of `project` that contains `workingDirectory`
+ */
+private fun contentRootPath(project: Project, workingDirectory: String): String? =
+        ReadAction.compute<String?, RuntimeException> {
+            ProjectRootManager
+                    .getInstance(project)
+                    .contentRoots
+                    .map(VirtualFile::getPath)
+                    .filter { FileUtil.isAncestor(it, workingDirectory, false) }
+                    .minBy { it.length }
+        }
+
+private fun module(project: Project, workingDirectory: String): Module? =
+        ReadAction.compute<Module?, RuntimeException> {
+            LocalFileSystem.getInstance().findFileByPath(workingDirectory)?.let { virtualFile ->
+                ModuleUtilCore.findModuleForFile(virtualFile, project)
+            }
+        }
 
-        Annotator.lineListToIssueList(processOutput.stdoutLines)
+/**
+ * Runs `mix deps.loadpaths` in `workingDirectory` while holding the lock for `mixProjectDirectory`, so that the only
+ * step that writes to the shared `_build` runs one at a time, and the `mix credo` runs after it only read it.
+ */
+private fun loadPaths(module: Module,
+                      workingDirectory: String,
+                      mixProjectDirectory: String,
+                      processes: MutableSet<Process>) {
+    try {
+        withMixProjectLock(mixProjectDirectory) {
+            val generalCommandLine = generalCommandLine(workingDirectory, module, depsLoadPathsParametersList())
+            runProcess(generalCommandLine, processes) { lineSequence -> lineSequence.forEach { LOGGER.debug(it) } }
+        }
     } catch (executionException: ExecutionException) {
-        emptyList()
+        LOGGER.warn("Could not load the dependencies of $workingDirectory", executionException)
+    } catch (interruptedException: InterruptedException) {
+        Thread.currentThread().interrupt()
     }
 }
 
-private fun runInspection(project: Project,
-                          workingDirectory: String,
-                          pathSet: Set<String>): List<Annotator.Issue> =
-        LocalFileSystem.getInstance().findFileByPath(workingDirectory)?.let { virtualFile ->
-            ModuleUtilCore.findModuleForFile(virtualFile, project)?.let { module ->
-                runInspection(module, workingDirectory, pathSet)
+/**
+ * Runs one `mix credo` in `workingDirectory` and adds the issues for each of `uncached` to `problems`.  Credo only
+ * prints its issues once it checked every file, so they are added once the run ends.
+ *
+ * @param pathSet the paths to pass to Credo; empty to check the whole working directory
+ * @param dependenciesLoaded compiles the dependencies of the Mix project first; shared by the working directories of
+ *   the project
+ */
+private fun runCredo(module: Module,
+                     workingDirectory: String,
+                     pathSet: Set<String>,
+                     uncached: List<Pair<VirtualFile, String>>,
+                     dependenciesLoaded: Lazy<Unit>,
+                     processes: MutableSet<Process>,
+                     problems: Problems) {
+    dependenciesLoaded.value
+
+    val fullPathSet = uncached.mapTo(hashSetOf()) { (virtualFile, _) -> virtualFile.path }
+    var issueListByFullPath: Map<String, List<Annotator.Issue>> = emptyMap()
+
+    val exitCode = try {
+        runProcess(generalCommandLine(workingDirectory, module, pathSet), processes) { lineSequence ->
+            issueListByFullPath = parseIssues(lineSequence, workingDirectory, fullPathSet)
+        }
+    } catch (executionException: ExecutionException) {
+        LOGGER.warn("Could not run Credo in $workingDirectory", executionException)
+        null
+    } catch (interruptedException: InterruptedException) {
+        null
+    }
+
+    if (!Thread.currentThread().isInterrupted) {
+        for ((fullPath, issueList) in issueListByFullPath) {
+            problems.add(fullPath, issueList)
+        }
+
+        cacheIssueLists(uncached, exitCode, issueListByFullPath)
+    }
+}
+
+/**
+ * Runs `generalCommandLine` with its process in `processes` while it runs, so that [await] can destroy it when the
+ * inspection is cancelled.
+ *
+ * @return the exit code
+ */
+private fun runProcess(generalCommandLine: GeneralCommandLine,
+                       processes: MutableSet<Process>,
+                       consume: (Sequence<String>) -> Unit): Int {
+    val process = generalCommandLine.withRedirectErrorStream(true).createProcess()
+    processes.add(process)
+
+    try {
+        // cancelled after `await` destroyed the running processes, but before this one was added
+        if (Thread.currentThread().isInterrupted) {
+            throw InterruptedException()
+        }
+
+        process.inputStream.bufferedReader(Charsets.UTF_8).useLines(consume)
+
+        return process.waitFor()
+    } finally {
+        process.destroy()
+        processes.remove(process)
+    }
+}
+
+/**
+ * The issues Credo reported for each file in `fullPathSet`.  Issues for other files, such as the cached files when
+ * Credo checks a whole working directory, are skipped.
+ */
+internal fun parseIssues(lineSequence: Sequence<String>,
+                         workingDirectory: String,
+                         fullPathSet: Set<String>): Map<String, List<Annotator.Issue>> {
+    val issueListByFullPath = mutableMapOf<String, MutableList<Annotator.Issue>>()
+
+    for (line in lineSequence) {
+        Annotator.lineToIssue(line)?.let { issue ->
+            val fullPath = fullPath(workingDirectory, issue)
+
+            if (fullPath in fullPathSet) {
+                issueListByFullPath.computeIfAbsent(fullPath) { mutableListOf() }.add(issue)
             }
-        } ?: emptyList()
+        }
+    }
+
+    return issueListByFullPath
+}
+
+private inline fun <T> withMixProjectLock(mixProjectDirectory: String, block: () -> T): T {
+    val lock = LOCK_BY_MIX_PROJECT_DIRECTORY.computeIfAbsent(mixProjectDirectory) { ReentrantLock() }
+    // interruptible, so that cancelling the inspection doesn't wait for another project's dependencies to compile
+    lock.lockInterruptibly()
+
+    return try {
+        block()
+    } finally {
+        lock.unlock()
+    }
+}
+
+/**
+ * The Elixir files in `scope` by the working directories they should be checked in.
+ */
+private fun virtualFileListByWorkingDirectory(project: Project, scope: AnalysisScope): Map<String, List<VirtualFile>> {
+    val virtualFileListByWorkingDirectory = mutableMapOf<String, MutableList<VirtualFile>>()
+
+    ReadAction.run<RuntimeException> {
+        scope.accept(Processor<VirtualFile> { virtualFile ->
+            if (virtualFile.fileType is ElixirFileType) {
+                val module = ModuleUtilCore.findModuleForFile(virtualFile, project)
+                val workingDirectorySet = module?.let { workingDirectorySet(it) } ?: workingDirectorySet(project)
+
+                workingDirectorySet
+                        .filter { FileUtil.isAncestor(it, virtualFile.path, true) }
+                        .forEach { workingDirectory ->
+                            virtualFileListByWorkingDirectory
+                                    .computeIfAbsent(workingDirectory) { mutableListOf() }
+                                    .add(virtualFile)
+                        }
+            }
+
+            true
+        })
+    }
+
+    return virtualFileListByWorkingDirectory
+}
 
 private fun generalCommandLine(workingDirectory: String,
                                module: Module,
@@ -106,6 +402,10 @@ private fun generalCommandLine(workingDirectory: String,
                                pathSet: Set<String>): GeneralCommandLine =
         generalCommandLine(workingDirectory, module, mixParameterList(pathSet))
 
+private fun depsLoadPathsParametersList(): ParametersList = ParametersList().apply {
+    add("deps.loadpaths")
+}
+
 private fun mixParametersList(): ParametersList = ParametersList().apply {
     add("credo")
 }
@@ -275,94 +575,113 @@ private fun problemDescriptors(
             convertToProblemDescriptors(annotationHolder, psiFile)
         }
 
+/**
+ * Adds problem elements from the pool threads running Credo, one file at a time.
+ */
+private class Problems(private val problemDescriptionsProcessor: ProblemDescriptionsProcessor,
+                       private val psiManager: PsiManager,
+                       private val refManager: RefManager,
+                       private val externalAnnotator: ExternalAnnotator<PsiFile, List<Annotator.Issue>>) {
+    private val localFileSystem = LocalFileSystem.getInstance()
+
+    @Synchronized
+    fun add(fullPath: String, issueList: List<Annotator.Issue>) {
+        ReadAction.run<RuntimeException> {
+            addProblemElement(
+                    problemDescriptionsProcessor,
+                    localFileSystem,
+                    psiManager,
+                    refManager,
+                    externalAnnotator,
+                    fullPath,
+                    issueList
+            )
+        }
+    }
+
+    @Synchronized
+    fun add(virtualFile: VirtualFile, issueList: List<Annotator.Issue>) {
+        ReadAction.run<RuntimeException> {
+            addProblemElement(
+                    problemDescriptionsProcessor,
+                    psiManager,
+                    refManager,
+                    externalAnnotator,
+                    virtualFile,
+                    issueList
+            )
+        }
+    }
+}
+
 class Global : GlobalInspectionTool() {
-    private fun pathSetByWorkingDirectory(globalContext: GlobalInspectionContext): Map<String, Set<String>> {
-        val pathSetByWorkingDirectory = mutableMapOf<String, MutableSet<String>>()
-
-        globalContext.refManager.iterate(object : RefVisitor() {
-            override fun visitElement(refEntity: RefEntity) {
-                if (globalContext.shouldCheck(refEntity, this@Global)) {
-                    when (refEntity) {
-                        is RefModule -> put(pathSetByWorkingDirectory, workingDirectorySet(refEntity.module))
-                        is RefProject -> {
-                            globalContext.project.basePath?.let {
-                                put(pathSetByWorkingDirectory, setOf(it))
-                            }
-                        }
-                        is RefFile -> {
-                            val psiFile = refEntity.element
+    /**
+     * Runs one `mix credo` per working directory of the files in `scope`, concurrently on [EXECUTOR], after one
+     * `mix deps.loadpaths` per Mix project.  Files whose content, Credo version and Credo configuration haven't changed
+     * since the last run reuse their issues from that run instead.
+     */
+    override fun runInspection(scope: AnalysisScope,
+                               manager: InspectionManager,
+                               globalContext: GlobalInspectionContext,
+                               problemDescriptionsProcessor: ProblemDescriptionsProcessor) {
+        val project = globalContext.project
+        val problems = Problems(
+                problemDescriptionsProcessor,
+                PsiManager.getInstance(project),
+                globalContext.refManager,
+                annotator()
+        )
+        val futures = mutableListOf<Future<*>>()
+        val processes = ConcurrentHashMap.newKeySet<Process>()
+        val dependenciesLoadedByMixProjectDirectory = mutableMapOf<String, Lazy<Unit>>()
 
-                            val workingDirectorySet: Set<String>
-                            val module = ModuleUtilCore.findModuleForPsiElement(refEntity.element)
+        for ((workingDirectory, virtualFileList) in virtualFileListByWorkingDirectory(project, scope)) {
+            val module = module(project, workingDirectory) ?: continue
+            val mixProjectDirectory = mixProjectDirectory(workingDirectory, contentRootPath(project, workingDirectory))
+            val configurationKey = configurationKey(workingDirectory, mixProjectDirectory)
+            val uncached = mutableListOf<Pair<VirtualFile, String>>()
 
-                            workingDirectorySet = if (module != null) {
-                                workingDirectorySet(module)
-                            } else {
-                                workingDirectorySet(psiFile.project)
-                            }
+            for (virtualFile in virtualFileList) {
+                ProgressManager.checkCanceled()
 
-                            put(pathSetByWorkingDirectory, workingDirectorySet, psiFile.virtualFile.path)
-                        }
-                        is RefDirectory -> {
-                            val refModule = refEntity.module
-                            val workingDirectorySet: Set<String>
-
-                            workingDirectorySet = if (refModule != null) {
-                                workingDirectorySet(refModule.module)
-                            } else {
-                                workingDirectorySet(refEntity.element.project)
-                            }
-
-                            put(
-                                    pathSetByWorkingDirectory,
-                                    workingDirectorySet,
-                                    refEntity.element.containingFile.virtualFile.path
-                            )
+                contentHash(virtualFile, configurationKey)?.let { contentHash ->
+                    val cachedIssueList = cachedIssueList(virtualFile, contentHash)
+
+                    if (cachedIssueList != null) {
+                        if (cachedIssueList.isNotEmpty()) {
+                            problems.add(virtualFile, cachedIssueList)
                         }
+                    } else {
+                        uncached.add(Pair(virtualFile, contentHash))
                     }
                 }
             }
-        })
 
-        return pathSetByWorkingDirectory
-    }
-
-    override fun runInspection(scope: AnalysisScope,
-                               manager: InspectionManager,
-                               globalContext: GlobalInspectionContext,
-                               problemDescriptionsProcessor: ProblemDescriptionsProcessor) {
-        val pathSetByWorkingDirectory = pathSetByWorkingDirectory(globalContext)
-        val issueListByFullPath = mutableMapOf<String, MutableList<Annotator.Issue>>()
+            if (uncached.isNotEmpty()) {
+                val pathSet = if (uncached.size < virtualFileList.size && uncached.size <= PATH_ARGUMENT_LIMIT) {
+                    uncached.mapTo(linkedSetOf()) { (virtualFile, _) ->
+                        FileUtil.getRelativePath(workingDirectory, virtualFile.path, '/') ?: virtualFile.path
+                    }
+                } else {
+                    emptySet<String>()
+                }
 
-        for ((workingDirectory, value) in pathSetByWorkingDirectory) {
-            val issueList = runInspection(manager.project, workingDirectory, value)
+                // the first working directory of a project to run compiles its dependencies; the others wait for it
+                val dependenciesLoaded = dependenciesLoadedByMixProjectDirectory.computeIfAbsent(mixProjectDirectory) {
+                    lazy { loadPaths(module, workingDirectory, mixProjectDirectory, processes) }
+                }
 
-            for (issue in issueList) {
-                val fullPath = Paths.get(workingDirectory, issue.path).toString()
-                issueListByFullPath.computeIfAbsent(fullPath, { mutableListOf() }).add(issue)
+                futures.add(EXECUTOR.submit {
+                    runCredo(module, workingDirectory, pathSet, uncached, dependenciesLoaded, processes, problems)
+                })
             }
         }
 
-        val localFileSystem = LocalFileSystem.getInstance()
-        val psiManager = PsiManager.getInstance(globalContext.project)
-        val refManager = globalContext.refManager
-        val externalAnnotator = annotator()
-
-        for ((key, value) in issueListByFullPath) {
-            addProblemElement(
-                    problemDescriptionsProcessor,
-                    localFileSystem,
-                    psiManager,
-                    refManager,
-                    externalAnnotator,
-                    key,
-                    value
-            )
-        }
+        await(futures, processes)
     }
 
     override fun getSharedLocalInspectionTool(): LocalInspectionTool = Local()
-    override fun isGraphNeeded(): Boolean = true
+    override fun isGraphNeeded(): Boolean = false
     override fun worksInBatchModeOnly(): Boolean = true
 
     companion object {
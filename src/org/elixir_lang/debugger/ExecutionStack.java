@@ -29,13 +29,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 class ExecutionStack extends XExecutionStack {
+  @NotNull
+  private final Node myNode;
   @NotNull
   private final ProcessSnapshot myProcessSnapshot;
   @NotNull
   private final List<StackFrame> myStack;
 
-  public ExecutionStack(@NotNull ProcessSnapshot snapshot) {
+  public ExecutionStack(@NotNull Node node, @NotNull ProcessSnapshot snapshot) {
     super(snapshot.getPidString());
+    myNode = node;
     myProcessSnapshot = snapshot;
     myStack = new ArrayList<>(snapshot.getStack().size());
   }
@@ -51,7 +54,7 @@ class ExecutionStack extends XExecutionStack {
     if (myStack.isEmpty()) {
       List<TraceElement> traceElements = myProcessSnapshot.getStack();
       for (TraceElement traceElement : traceElements) {
-        myStack.add(new StackFrame(traceElement));
+        myStack.add(new StackFrame(myNode, myProcessSnapshot.getPid(), traceElement));
       }
       container.addStackFrames(myStack, true);
     }
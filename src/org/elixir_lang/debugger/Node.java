@@ -4,9 +4,11 @@ import com.ericsson.otp.erlang.*;
 import com.intellij.concurrency.AsyncFutureFactory;
 import com.intellij.concurrency.AsyncFutureResult;
 import com.intellij.openapi.application.ApplicationManager;
+import org.elixir_lang.debugger.node.Child;
 import org.elixir_lang.debugger.node.Command;
 import org.elixir_lang.debugger.node.command.*;
 import org.elixir_lang.debugger.node.event.Listener;
+import org.elixir_lang.debugger.stack_frame.value.Presentation;
 import org.elixir_lang.debugger.node.Exception;
 import org.elixir_lang.debugger.node.Event;
 import org.elixir_lang.utils.ElixirModulesUtil;
@@ -14,34 +16,58 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.*;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
-import java.net.SocketTimeoutException;
-import java.nio.ByteBuffer;
-import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.LockSupport;
 
 import static org.elixir_lang.beam.term.InspectKt.inspect;
 import static org.elixir_lang.debugger.Log.LOG;
 
+/**
+ * Connection to the {@code debug_server.ex} running in the debugged node.
+ *
+ * Events are read by blocking on the socket on the server thread, so they are processed as soon as they arrive.
+ * Commands are written by a separate writer thread that parks until {@link #addCommand(Command)} unparks it, so
+ * stepping latency is bounded by the network instead of a polling interval.
+ */
 public class Node {
-  private static final int RECEIVE_TIMEOUT = 50;
-  private static final int RETRIES_ON_TIMEOUT = 10;
+  /**
+   * Size of the socket buffers.  Frames that arrive together, such as during a busy trace, are read with one read of
+   * the socket instead of one read per frame.
+   */
+  private static final int BUFFER_SIZE = 64 * 1024;
 
   private OtpErlangPid myLastSuspendedPid;
 
-  private final Queue<Command> myCommandsQueue = new LinkedList<>();
+  /**
+   * Lock-free, so adding a command from the EDT never waits on the writer thread.
+   */
+  private final Queue<Command> myCommandsQueue = new ConcurrentLinkedQueue<>();
+  /**
+   * Callbacks for {@link #requestBindings} and {@link #requestChildren} waiting on their {@code :children_response}.
+   */
+  private final Map<Long, Consumer<List<Child>>> myChildrenCallbackByRequestId = new ConcurrentHashMap<>();
+  private final AtomicLong myNextRequestId = new AtomicLong();
   private int myLocalDebuggerPort = -1;
   @NotNull
   private final Listener myEventListener;
   @NotNull
   private AtomicBoolean myStopped = new AtomicBoolean(false);
+  @Nullable
+  private volatile Socket myDebuggerSocket = null;
+  @Nullable
+  private volatile Thread myWriterThread = null;
 
   public Node(@NotNull Listener eventListener) throws Exception {
     myEventListener = eventListener;
@@ -60,6 +86,19 @@ public class Node {
 
   public void stop() {
     myStopped.set(true);
+    unparkWriter();
+    failPendingRequests();
+
+    // unblocks the reader
+    Socket debuggerSocket = myDebuggerSocket;
+
+    if (debuggerSocket != null) {
+      try {
+        debuggerSocket.close();
+      } catch (IOException e) {
+        LOG.debug(e);
+      }
+    }
   }
 
   @Contract(pure = true)
@@ -72,7 +111,91 @@ public class Node {
   }
 
   public void setBreakpoint(@NotNull String module, @NotNull String file, int line) {
-    addCommand(new SetBreakpoint(ElixirModulesUtil.INSTANCE.elixirModuleNameToErlang(module), line, file));
+    setBreakpoint(module, file, line, null, 0, null, true);
+  }
+
+  /**
+   * Sets a breakpoint whose {@code condition}, {@code hitCount} and {@code logExpression} are evaluated in the BEAM, so
+   * that hits that do not suspend never reach the IDE.
+   */
+  public void setBreakpoint(@NotNull String module,
+                            @NotNull String file,
+                            int line,
+                            @Nullable String condition,
+                            int hitCount,
+                            @Nullable String logExpression,
+                            boolean suspend) {
+    addCommand(
+            new SetBreakpoint(
+                    ElixirModulesUtil.INSTANCE.elixirModuleNameToErlang(module),
+                    line,
+                    file,
+                    condition,
+                    hitCount,
+                    logExpression,
+                    suspend
+            )
+    );
+  }
+
+  /**
+   * Requests the bindings of the frame at {@code level} in the suspended {@code pid}.  Bindings are not sent with the
+   * frames, so that stopping at a breakpoint does not pay for bindings that are never looked at.
+   *
+   * @param callback called on the reader thread with the bindings or with {@code null} if the debugger stopped first.
+   */
+  public void requestBindings(@NotNull OtpErlangPid pid, int level, @NotNull Consumer<List<Child>> callback) {
+    long requestId = registerRequest(callback);
+    addCommand(new Bindings(pid, level, requestId));
+  }
+
+  /**
+   * Requests {@code count} children starting at {@code offset} of the term at {@code path} under the binding
+   * {@code name}.
+   *
+   * @param callback called on the reader thread with the children or with {@code null} if the debugger stopped first.
+   */
+  public void requestChildren(@NotNull OtpErlangPid pid,
+                              int level,
+                              @NotNull String name,
+                              @NotNull List<Integer> path,
+                              int offset,
+                              int count,
+                              @NotNull Consumer<List<Child>> callback) {
+    long requestId = registerRequest(callback);
+    addCommand(new Children(pid, level, name, path, offset, count, requestId));
+  }
+
+  public void childrenResponse(long requestId, @NotNull List<Child> children) {
+    Consumer<List<Child>> callback = myChildrenCallbackByRequestId.remove(requestId);
+
+    if (callback != null) {
+      callback.accept(children);
+    } else {
+      LOG.debug("No request is waiting on :children_response " + requestId);
+    }
+  }
+
+  private long registerRequest(@NotNull Consumer<List<Child>> callback) {
+    long requestId = myNextRequestId.incrementAndGet();
+    myChildrenCallbackByRequestId.put(requestId, callback);
+
+    // the reader may have already failed the pending requests
+    if (isStopped() && myChildrenCallbackByRequestId.remove(requestId) != null) {
+      callback.accept(null);
+    }
+
+    return requestId;
+  }
+
+  private void failPendingRequests() {
+    for (Long requestId : myChildrenCallbackByRequestId.keySet()) {
+      Consumer<List<Child>> callback = myChildrenCallbackByRequestId.remove(requestId);
+
+      if (callback != null) {
+        callback.accept(null);
+      }
+    }
   }
 
   public void reasonByUninterpretable() {
@@ -112,8 +235,15 @@ public class Node {
   }
 
   private void addCommand(Command command) {
-    synchronized (myCommandsQueue) {
-      myCommandsQueue.add(command);
+    myCommandsQueue.add(command);
+    unparkWriter();
+  }
+
+  private void unparkWriter() {
+    Thread writerThread = myWriterThread;
+
+    if (writerThread != null) {
+      LockSupport.unpark(writerThread);
     }
   }
 
@@ -169,23 +299,52 @@ public class Node {
   }
 
   private void serverLoop(@NotNull Socket debuggerSocket) throws IOException {
-    debuggerSocket.setSoTimeout(RECEIVE_TIMEOUT);
+    debuggerSocket.setTcpNoDelay(true);
+    myDebuggerSocket = debuggerSocket;
+
+    DataInputStream in = new DataInputStream(new BufferedInputStream(debuggerSocket.getInputStream(), BUFFER_SIZE));
+    DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(debuggerSocket.getOutputStream(), BUFFER_SIZE)
+    );
+
+    Future<?> writerFuture = ApplicationManager.getApplication().executeOnPooledThread(() -> writerLoop(out));
+
+    try {
+      readerLoop(in);
+    } finally {
+      myStopped.set(true);
+      unparkWriter();
+      writerFuture.cancel(false);
+      failPendingRequests();
+    }
+  }
 
+  private void readerLoop(@NotNull DataInputStream in) throws IOException {
     while (!isStopped()) {
-      if (!isStopped()) {
-        receiveMessage(debuggerSocket);
+      OtpErlangObject receivedMessage;
+
+      try {
+        receivedMessage = receive(in);
+      } catch (EOFException e) {
+        throw new SocketException("A socket was closed.");
+      } catch (SocketException e) {
+        if (isStopped()) {
+          break;
+        }
+
+        throw e;
       }
-      if (!isStopped()) {
-        sendMessages(debuggerSocket);
+
+      if (receivedMessage != null) {
+        processMessage(receivedMessage);
       }
     }
   }
 
-  private void receiveMessage(@NotNull Socket socket) throws SocketException {
-    OtpErlangObject receivedMessage = receive(socket);
-    if (receivedMessage == null) return;
-
-    LOG.debug("Message received: " + inspect(receivedMessage));
+  private void processMessage(@NotNull OtpErlangObject receivedMessage) {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Message received: " + inspect(receivedMessage, Presentation.Budget.LOG));
+    }
 
     Event event = Event.Companion.from(receivedMessage);
     boolean messageRecognized = event != null;
@@ -196,47 +355,42 @@ public class Node {
     LOG.debug("Message processed: " + messageRecognized);
   }
 
-  private void sendMessages(@NotNull Socket socket) throws SocketException {
-    synchronized (myCommandsQueue) {
-      while (!myCommandsQueue.isEmpty()) {
-        OtpErlangObject message = myCommandsQueue.remove().toMessage();
-        LOG.debug("Sending message: " + inspect(message));
-        send(socket, message);
-      }
-    }
-  }
+  private void writerLoop(@NotNull DataOutputStream out) {
+    myWriterThread = Thread.currentThread();
 
-  private static void send(@NotNull Socket socket, @NotNull OtpErlangObject message) throws SocketException {
     try {
-      OutputStream out = socket.getOutputStream();
-
-      byte[] bytes = new OtpOutputStream(message).toByteArray();
-      byte[] sizeBytes = ByteBuffer.allocate(4).putInt(1 + bytes.length).array();
-
-      out.write(sizeBytes);
-      out.write(OtpExternal.versionTag);
-      out.write(bytes);
-    }
-    catch (SocketException e) {
-      throw e;
-    }
-    catch (IOException e) {
+      while (!isStopped()) {
+        if (myCommandsQueue.isEmpty()) {
+          // spurious wake-ups only cause an extra empty check
+          LockSupport.park(this);
+        } else {
+          sendMessages(out);
+        }
+      }
+    } catch (SocketException e) {
       LOG.debug(e);
+      stop();
+    } finally {
+      myWriterThread = null;
     }
   }
 
-  @Nullable
-  private static OtpErlangObject receive(@NotNull Socket socket) throws SocketException {
-    try {
-      InputStream in = socket.getInputStream();
-
-      int objectSize = readObjectSize(in);
-      if (objectSize == -1) return null;
+  /**
+   * Writes all queued commands and then flushes once, so commands queued together go out in one packet.
+   */
+  private void sendMessages(@NotNull DataOutputStream out) throws SocketException {
+    Command command;
 
-      LOG.debug("Incoming packet size: " + objectSize + " bytes");
+    try {
+      while ((command = myCommandsQueue.poll()) != null) {
+        OtpErlangObject message = command.toMessage();
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Sending message: " + inspect(message, Presentation.Budget.LOG));
+        }
+        send(out, message);
+      }
 
-      byte[] objectBytes = readBytes(in, objectSize, true);
-      return objectBytes == null ? null : decode(objectBytes);
+      out.flush();
     }
     catch (SocketException e) {
       throw e;
@@ -244,57 +398,31 @@ public class Node {
     catch (IOException e) {
       LOG.debug(e);
     }
-    return null;
   }
 
-  private static int readObjectSize(@NotNull InputStream in) throws SocketException {
-    byte[] bytes = readBytes(in, 4, false);
-    return bytes != null ? ByteBuffer.wrap(bytes).getInt() : -1;
+  private static void send(@NotNull DataOutputStream out, @NotNull OtpErlangObject message) throws IOException {
+    byte[] bytes = new OtpOutputStream(message).toByteArray();
+
+    out.writeInt(1 + bytes.length);
+    out.write(OtpExternal.versionTag);
+    out.write(bytes);
   }
 
   /**
-   * Reads size bytes from passed socket input stream.
-   * <p/>
-   * Makes #RETRIES_ON_TIMEOUT attempts to read input unless the read request is not forced and no bytes were read.
+   * Blocks until a whole frame is read.
    *
-   * @return bytes read or null if the request was not forced and it timed out, or if an I/O exception occurred.
-   * @throws SocketException when a socket exception is thrown from passed input stream or if a number of
-   *                         retry attempts was exceeded.
+   * @return the decoded term or {@code null} if the frame could not be decoded.
    */
   @Nullable
-  private static byte[] readBytes(@NotNull InputStream in, int size, boolean force) throws SocketException {
-    try {
-      int bytesReadTotal = 0;
-      byte[] buffer = new byte[size];
-
-      int attemptsMade = 0;
-      while (size != bytesReadTotal) {
-        try {
-          int bytesRead = in.read(buffer, bytesReadTotal, size - bytesReadTotal);
-          if (bytesRead < 0) {
-            throw new SocketException("A socket was closed.");
-          }
-          bytesReadTotal += bytesRead;
-        }
-        catch (SocketTimeoutException e) {
-          // if we're not forced to read, but we touched the stream, we're forced
-          if (bytesReadTotal == 0 && !force) {
-            return null;
-          }
-          if (++attemptsMade >= RETRIES_ON_TIMEOUT) {
-            throw e;
-          }
-        }
-      }
-      return buffer;
-    }
-    catch (SocketException e) {
-      throw e;
-    }
-    catch (IOException e) {
-      LOG.debug(e);
-      return null;
-    }
+  private static OtpErlangObject receive(@NotNull DataInputStream in) throws IOException {
+    int objectSize = in.readInt();
+
+    LOG.debug("Incoming packet size: " + objectSize + " bytes");
+
+    byte[] objectBytes = new byte[objectSize];
+    in.readFully(objectBytes);
+
+    return decode(objectBytes);
   }
 
   @Nullable
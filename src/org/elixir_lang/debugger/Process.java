@@ -28,6 +28,7 @@ import com.intellij.execution.process.OSProcessHandler;
 import com.intellij.execution.process.ProcessHandler;
 import com.intellij.execution.runners.ExecutionEnvironment;
 import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
 import com.intellij.execution.ui.ExecutionConsole;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.editor.Document;
@@ -37,16 +38,17 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.MessageType;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
-import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.testFramework.LightVirtualFile;
 import com.intellij.util.containers.ContainerUtil;
-import com.intellij.util.indexing.FileBasedIndex;
 import com.intellij.xdebugger.XDebugSession;
+import com.intellij.xdebugger.XExpression;
 import com.intellij.xdebugger.XSourcePosition;
+import com.intellij.xdebugger.breakpoints.SuspendPolicy;
 import com.intellij.xdebugger.breakpoints.XBreakpointHandler;
 import com.intellij.xdebugger.breakpoints.XLineBreakpoint;
 import com.intellij.xdebugger.evaluation.EvaluationMode;
@@ -54,12 +56,13 @@ import com.intellij.xdebugger.evaluation.XDebuggerEditorsProvider;
 import gnu.trove.THashSet;
 import kotlin.io.FilesKt;
 import org.elixir_lang.ElixirFileType;
-import org.elixir_lang.beam.chunk.lines.file_names.Index;
+import org.elixir_lang.beam.source.modules.Index;
 import org.elixir_lang.debugger.line_breakpoint.Handler;
 import org.elixir_lang.debugger.line_breakpoint.Properties;
 import org.elixir_lang.debugger.node.Exception;
 import org.elixir_lang.debugger.node.ProcessSnapshot;
 import org.elixir_lang.debugger.node.event.Listener;
+import org.elixir_lang.debugger.stack_frame.value.Presentation;
 import org.elixir_lang.eex.File;
 import org.elixir_lang.jps.builder.ParametersList;
 import org.elixir_lang.mix.runner.MixRunConfigurationBase;
@@ -67,12 +70,14 @@ import org.elixir_lang.mix.runner.MixRunningState;
 import org.elixir_lang.mix.runner.MixRunningStateUtil;
 import org.elixir_lang.mix.runner.exunit.MixExUnitRunConfiguration;
 import org.elixir_lang.psi.ElixirFile;
+import org.elixir_lang.utils.ElixirModulesUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import static org.elixir_lang.beam.term.InspectKt.inspect;
 import static org.elixir_lang.debugger.Log.LOG;
@@ -125,6 +130,13 @@ public class Process extends com.intellij.xdebugger.XDebugProcess implements Lis
         return updated;
     }
 
+    @Nullable
+    private static String expression(@Nullable XExpression expression) {
+        return expression != null && !StringUtil.isEmptyOrSpaces(expression.getExpression()) ?
+                expression.getExpression() :
+                null;
+    }
+
     @Nullable
     private static SourcePosition getElixirSourcePosition(@NotNull XLineBreakpoint<Properties> breakpoint) {
         XSourcePosition sourcePosition = breakpoint.getSourcePosition();
@@ -142,8 +154,21 @@ public class Process extends com.intellij.xdebugger.XDebugProcess implements Lis
         if (!moduleNameSet.isEmpty()) {
             myPositionToLineBreakpointMap.put(breakpointPosition, breakpoint);
 
+            String condition = expression(breakpoint.getConditionExpression());
+            String logExpression = expression(breakpoint.getLogExpressionObject());
+            int hitCount = breakpoint.getProperties().getHitCount();
+            boolean suspend = breakpoint.getSuspendPolicy() != SuspendPolicy.NONE;
+
             for (String moduleName : moduleNameSet) {
-                myNode.setBreakpoint(moduleName, breakpointPosition.getFile().getPath(), breakpointPosition.getLine());
+                myNode.setBreakpoint(
+                        moduleName,
+                        breakpointPosition.getFile().getPath(),
+                        breakpointPosition.getLine(),
+                        condition,
+                        hitCount,
+                        logExpression,
+                        suspend
+                );
             }
         } else {
             final String message =
@@ -157,13 +182,21 @@ public class Process extends com.intellij.xdebugger.XDebugProcess implements Lis
     public void breakpointIsSet(String module, String file, int line) {
     }
 
+    @Override
+    public void breakpointLogged(@NotNull String module, int line, boolean isError, @NotNull String message) {
+        ConsoleViewContentType contentType =
+                isError ? ConsoleViewContentType.ERROR_OUTPUT : ConsoleViewContentType.NORMAL_OUTPUT;
+
+        getSession().getConsoleView().print(message + "\n", contentType);
+    }
+
     @Override
     public void breakpointReached(@NotNull final OtpErlangPid pid, @NotNull List<ProcessSnapshot> snapshots) {
         ProcessSnapshot processInBreakpoint = ContainerUtil.find(snapshots, elixirProcessSnapshot -> elixirProcessSnapshot.getPid().equals(pid));
         assert processInBreakpoint != null;
         SourcePosition breakPosition = SourcePosition.create(processInBreakpoint);
         XLineBreakpoint<Properties> breakpoint = getLineBreakpoint(breakPosition);
-        SuspendContext suspendContext = new SuspendContext(pid, snapshots);
+        SuspendContext suspendContext = new SuspendContext(myNode, pid, snapshots);
         if (breakpoint == null) {
             getSession().positionReached(suspendContext);
         } else {
@@ -202,7 +235,8 @@ public class Process extends com.intellij.xdebugger.XDebugProcess implements Lis
 
     @Override
     public void failedToDebugRemoteNode(@NotNull String nodeName, @NotNull OtpErlangObject error) {
-        String message = "Failed to debug remote node '" + nodeName + "'. Details: " + inspect(error);
+        String message =
+                "Failed to debug remote node '" + nodeName + "'. Details: " + inspect(error, Presentation.Budget.LOG);
         getSession().reportMessage(message, MessageType.ERROR);
     }
 
@@ -214,7 +248,11 @@ public class Process extends com.intellij.xdebugger.XDebugProcess implements Lis
                 .append("):\n\n");
 
         for (Map.Entry<String, ? extends OtpErlangObject> entry : errorReasonByModule.entrySet()) {
-            stringBuilder.append(entry.getKey()).append(": ").append(inspect(entry.getValue())).append("\n\n");
+            stringBuilder
+                    .append(entry.getKey())
+                    .append(": ")
+                    .append(inspect(entry.getValue(), Presentation.Budget.LOG))
+                    .append("\n\n");
         }
 
         stringBuilder.append(
@@ -234,7 +272,11 @@ public class Process extends com.intellij.xdebugger.XDebugProcess implements Lis
         XLineBreakpoint<Properties> breakpoint = getLineBreakpoint(sourcePosition);
 
         if (breakpoint != null) {
-            getSession().updateBreakpointPresentation(breakpoint, AllIcons.Debugger.Db_invalid_breakpoint, inspect(errorMessage));
+            getSession().updateBreakpointPresentation(
+                    breakpoint,
+                    AllIcons.Debugger.Db_invalid_breakpoint,
+                    inspect(errorMessage, Presentation.Budget.LOG)
+            );
         }
 
         getSession().reportMessage("Failed to set breakpoint. Module: " + module + " Line: " + (line + 1), MessageType.WARNING);
@@ -291,52 +333,15 @@ public class Process extends com.intellij.xdebugger.XDebugProcess implements Lis
                 // TODO allow multiple module names for `defimpl`
                 moduleNameSet = Collections.singleton(getModuleName(element));
             } else if (psiFile instanceof File) {
-                Module module = ModuleUtilCore.findModuleForPsiElement(psiFile);
-                String rootDirectory = null;
-
-                if (module != null) {
-                    rootDirectory = workingDirectory(module);
-                }
-
-                if (rootDirectory == null) {
-                    rootDirectory = workingDirectory(project);
-                }
-
-                String path = virtualFile.getPath();
-                java.io.File relativeFile;
-
-                try {
-                    relativeFile = FilesKt.relativeTo(
-                            new java.io.File(path),
-                            new java.io.File(rootDirectory)
-                    );
-                } catch (IllegalArgumentException illegalArgumentException) {
-                    relativeFile = null;
-                }
-
-                if (relativeFile != null) {
-                    String filename = relativeFile.getPath();
-
-                    Collection<VirtualFile> fileNameVirtualFileCollection =
-                            FileBasedIndex
-                                    .getInstance()
-                                    .getContainingFiles(
-                                            Index.Companion.getNAME(),
-                                            filename,
-                                            GlobalSearchScope.allScope(project)
-                                    );
+                // `CInf` `source` paths are absolute, so most files need no relative path
+                moduleNameSet = elixirModuleNameSet(Index.moduleNames(project, virtualFile.getPath()));
 
-                    moduleNameSet = new THashSet<>();
+                if (moduleNameSet.isEmpty()) {
+                    String relativePath = relativePath(project, psiFile, virtualFile);
 
-                    for (VirtualFile fileNameVirtualFile : fileNameVirtualFileCollection) {
-                        String beamName = fileNameVirtualFile.getName();
-                        String erlangModuleName = kotlin.text.StringsKt.removeSuffix(beamName, ".beam");
-                        String elixirModuleName = kotlin.text.StringsKt.removePrefix(erlangModuleName, "Elixir.");
-
-                        moduleNameSet.add(elixirModuleName);
+                    if (relativePath != null) {
+                        moduleNameSet = elixirModuleNameSet(Index.moduleNames(project, relativePath));
                     }
-                } else {
-                    moduleNameSet = null;
                 }
             } else {
                 moduleNameSet = null;
@@ -352,6 +357,49 @@ public class Process extends com.intellij.xdebugger.XDebugProcess implements Lis
         return moduleNameSet;
     }
 
+    @NotNull
+    private static Set<String> elixirModuleNameSet(@NotNull Set<String> erlangModuleNameSet) {
+        Set<String> elixirModuleNameSet = new THashSet<>(erlangModuleNameSet.size());
+
+        for (String erlangModuleName : erlangModuleNameSet) {
+            elixirModuleNameSet.add(kotlin.text.StringsKt.removePrefix(erlangModuleName, "Elixir."));
+        }
+
+        return elixirModuleNameSet;
+    }
+
+    /**
+     * The path of {@code virtualFile} relative to the working directory, as the {@code Line} chunk records it.
+     */
+    @Nullable
+    private static String relativePath(@NotNull Project project,
+                                       @NotNull PsiFile psiFile,
+                                       @NotNull VirtualFile virtualFile) {
+        Module module = ModuleUtilCore.findModuleForPsiElement(psiFile);
+        String rootDirectory = null;
+
+        if (module != null) {
+            rootDirectory = workingDirectory(module);
+        }
+
+        if (rootDirectory == null) {
+            rootDirectory = workingDirectory(project);
+        }
+
+        String relativePath;
+
+        try {
+            relativePath = FilesKt.relativeTo(
+                    new java.io.File(virtualFile.getPath()),
+                    new java.io.File(rootDirectory)
+            ).getPath();
+        } catch (IllegalArgumentException illegalArgumentException) {
+            relativePath = null;
+        }
+
+        return relativePath;
+    }
+
     @NotNull
     private MixRunConfigurationBase getRunConfiguration() {
         MixRunConfigurationBase runConfig = (MixRunConfigurationBase) getSession().getRunProfile();
@@ -401,12 +449,17 @@ public class Process extends com.intellij.xdebugger.XDebugProcess implements Lis
                 Integer.toString(myNode.getLocalDebuggerPort())
         );
 
-        List<String> doNotInterpretPatterns = Settings.Companion.getInstance().enabledModuleFilterPatternList();
+        Settings settings = Settings.Companion.getInstance();
+        List<String> doNotInterpretPatterns = settings.enabledModuleFilterPatternList();
 
         for (String doNotInterpretPattern : doNotInterpretPatterns) {
             mixParametersList.addAll("--do-not-interpret-pattern", doNotInterpretPattern);
         }
 
+        if (settings.getInterpretOnDemand()) {
+            mixParametersList.add("--interpret-on-demand");
+        }
+
         mixParametersList.add("--");
 
         MixRunConfigurationBase mixRunConfigurationBase = getRunConfiguration();
@@ -465,6 +518,28 @@ public class Process extends com.intellij.xdebugger.XDebugProcess implements Lis
         myNode.stop();
     }
 
+    @Override
+    public void interpretedModules(int count, @NotNull List<String> newlyInterpreted) {
+        ConsoleView consoleView = getSession().getConsoleView();
+
+        if (consoleView != null) {
+            StringBuilder stringBuilder = new StringBuilder("Interpreting ").append(count).append(" modules");
+
+            if (!newlyInterpreted.isEmpty()) {
+                stringBuilder.append(" (newly interpreted: ");
+                stringBuilder.append(
+                        newlyInterpreted
+                                .stream()
+                                .map(ElixirModulesUtil.INSTANCE::erlangModuleNameToElixir)
+                                .collect(Collectors.joining(", "))
+                );
+                stringBuilder.append(")");
+            }
+
+            consoleView.print(stringBuilder.append("\n").toString(), ConsoleViewContentType.SYSTEM_OUTPUT);
+        }
+    }
+
     @Override
     public void unknownMessage(String messageText) {
         getSession().reportMessage("Unknown message received: " + messageText, MessageType.WARNING);
@@ -10,12 +10,21 @@ import com.intellij.xdebugger.settings.XDebuggerSettings
 import org.elixir_lang.debugger.settings.stepping.ModuleFilter
 import org.elixir_lang.debugger.settings.stepping.UI
 
-class Settings(moduleFilters: List<ModuleFilter> = defaultModuleFilters()):
+class Settings(moduleFilters: List<ModuleFilter> = defaultModuleFilters(), interpretOnDemand: Boolean = false):
         XDebuggerSettings<Settings>("elixir"), Getter<Settings> {
     @Tag("module-filters")
     // `var` only for `XmlSerializerUtil.copyBean(state, this)`
     var moduleFilters: MutableList<ModuleFilter> = moduleFilters.toMutableList()
 
+    /**
+     * Only interpret modules with breakpoints and modules that are stepped into, instead of every project and dependency
+     * module that [moduleFilters] does not exclude.  Interpreted code is much slower, so this lets large projects boot
+     * under the debugger.
+     */
+    @Tag("interpret-on-demand")
+    @Suppress("CanBePrimaryConstructorProperty")
+    var interpretOnDemand: Boolean = interpretOnDemand
+
     override fun createConfigurables(category: DebuggerSettingsCategory): Collection<Configurable> =
         when (category) {
             DebuggerSettingsCategory.STEPPING ->
@@ -35,18 +44,20 @@ class Settings(moduleFilters: List<ModuleFilter> = defaultModuleFilters()):
             = moduleFilters.filter(ModuleFilter::enabled).map(ModuleFilter::pattern)
 
     override fun equals(other: Any?) =
-            other is Settings && other.moduleFilters.let { otherModuleFilters ->
-              moduleFilters.size == otherModuleFilters.size &&
-                      moduleFilters
-                              .zip(otherModuleFilters)
-                              .all { (moduleFilter, otherModuleFilter) ->
-                                  moduleFilter == otherModuleFilter
-                              }
-            }
+            other is Settings &&
+                    interpretOnDemand == other.interpretOnDemand &&
+                    other.moduleFilters.let { otherModuleFilters ->
+                      moduleFilters.size == otherModuleFilters.size &&
+                              moduleFilters
+                                      .zip(otherModuleFilters)
+                                      .all { (moduleFilter, otherModuleFilter) ->
+                                          moduleFilter == otherModuleFilter
+                                      }
+                    }
 
     override fun get(): Settings = this
     override fun getState()= this
-    override fun hashCode(): Int = moduleFilters.hashCode()
+    override fun hashCode(): Int = 31 * moduleFilters.hashCode() + interpretOnDemand.hashCode()
 
     override fun loadState(state: Settings) {
         XmlSerializerUtil.copyBean(state, this)
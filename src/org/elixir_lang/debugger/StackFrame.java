@@ -19,6 +19,7 @@
 package org.elixir_lang.debugger;
 
 import com.ericsson.otp.erlang.OtpErlangObject;
+import com.ericsson.otp.erlang.OtpErlangPid;
 import com.intellij.icons.AllIcons;
 import com.intellij.ui.ColoredTextContainer;
 import com.intellij.ui.SimpleTextAttributes;
@@ -27,21 +28,30 @@ import com.intellij.xdebugger.frame.XCompositeNode;
 import com.intellij.xdebugger.frame.XStackFrame;
 import com.intellij.xdebugger.frame.XValue;
 import com.intellij.xdebugger.frame.XValueChildrenList;
+import org.elixir_lang.debugger.node.Child;
 import org.elixir_lang.debugger.node.TraceElement;
 import org.elixir_lang.debugger.stack_frame.value.Factory;
+import org.elixir_lang.debugger.stack_frame.value.Lazy;
 import org.elixir_lang.utils.ElixirModulesUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
 import java.util.Map;
 
 class StackFrame extends XStackFrame {
+  @NotNull
+  private final Node myNode;
+  @NotNull
+  private final OtpErlangPid myPid;
   @NotNull
   private final TraceElement myTraceElement;
   @Nullable
   private final SourcePosition mySourcePosition;
 
-  StackFrame(@NotNull TraceElement traceElement) {
+  StackFrame(@NotNull Node node, @NotNull OtpErlangPid pid, @NotNull TraceElement traceElement) {
+    myNode = node;
+    myPid = pid;
     myTraceElement = traceElement;
     mySourcePosition = SourcePosition.create(traceElement);
   }
@@ -64,11 +74,33 @@ class StackFrame extends XStackFrame {
 
   @Override
   public void computeChildren(@NotNull XCompositeNode node) {
-    XValueChildrenList myVariables = new XValueChildrenList(myTraceElement.getBindings().size());
-    for (Map.Entry<String, OtpErlangObject> binding : myTraceElement.getBindings().entrySet()) {
-      myVariables.add(binding.getKey(), getVariableValue(binding.getValue()));
+    Map<String, OtpErlangObject> bindings = myTraceElement.getBindings();
+
+    if (bindings != null) {
+      XValueChildrenList myVariables = new XValueChildrenList(bindings.size());
+      for (Map.Entry<String, OtpErlangObject> binding : bindings.entrySet()) {
+        myVariables.add(binding.getKey(), getVariableValue(binding.getValue()));
+      }
+      node.addChildren(myVariables, true);
+    } else {
+      myNode.requestBindings(myPid, myTraceElement.getLevel(), children -> {
+        if (children == null) {
+          node.setErrorMessage("Debugger stopped before the bindings were received");
+        } else {
+          XValueChildrenList myVariables = new XValueChildrenList(children.size());
+          for (Child child : children) {
+            String name = child.getName();
+            myVariables.add(
+                    name,
+                    Lazy.create(
+                            myNode, myPid, myTraceElement.getLevel(), name, Collections.emptyList(), child.getTerm()
+                    )
+            );
+          }
+          node.addChildren(myVariables, true);
+        }
+      });
     }
-    node.addChildren(myVariables, true);
   }
 
   @NotNull
@@ -32,7 +32,8 @@ class SuspendContext extends XSuspendContext {
   private final XExecutionStack[] myExecutionStacks;
   private final int myActiveStackIdx;
 
-  SuspendContext(@NotNull OtpErlangPid activePid,
+  SuspendContext(@NotNull Node node,
+                 @NotNull OtpErlangPid activePid,
                  @NotNull List<? extends ProcessSnapshot> snapshots) {
     myExecutionStacks = new XExecutionStack[snapshots.size()];
     int activeStackIdx = 0;
@@ -41,7 +42,7 @@ class SuspendContext extends XSuspendContext {
       if (snapshot.getPid().equals(activePid)) {
         activeStackIdx = i;
       }
-      myExecutionStacks[i] = new ExecutionStack(snapshot);
+      myExecutionStacks[i] = new ExecutionStack(node, snapshot);
     }
     myActiveStackIdx = activeStackIdx;
   }
@@ -0,0 +1,38 @@
+package org.elixir_lang.debugger.line_breakpoint
+
+import com.intellij.xdebugger.breakpoints.XLineBreakpoint
+import com.intellij.xdebugger.breakpoints.ui.XBreakpointCustomPropertiesPanel
+import com.intellij.xdebugger.impl.breakpoints.XBreakpointBase
+import java.awt.FlowLayout
+import javax.swing.JComponent
+import javax.swing.JLabel
+import javax.swing.JPanel
+import javax.swing.JSpinner
+import javax.swing.SpinnerNumberModel
+
+class HitCountPanel : XBreakpointCustomPropertiesPanel<XLineBreakpoint<Properties>>() {
+    private val spinner = JSpinner(SpinnerNumberModel(0, 0, Int.MAX_VALUE, 1))
+    private val panel = JPanel(FlowLayout(FlowLayout.LEFT, 0, 0)).apply {
+        val label = JLabel("Suspend from hit number (0 for every hit): ")
+        label.labelFor = spinner
+
+        add(label)
+        add(spinner)
+    }
+
+    override fun getComponent(): JComponent = panel
+
+    override fun loadFrom(breakpoint: XLineBreakpoint<Properties>) {
+        spinner.value = breakpoint.properties.hitCount
+    }
+
+    override fun saveTo(breakpoint: XLineBreakpoint<Properties>) {
+        val hitCount = spinner.value as Int
+
+        if (breakpoint.properties.hitCount != hitCount) {
+            breakpoint.properties.hitCount = hitCount
+            // so the handler re-registers the breakpoint with the new hit count
+            (breakpoint as? XBreakpointBase<*, *, *>)?.fireBreakpointChanged()
+        }
+    }
+}
@@ -18,9 +18,18 @@
 
 package org.elixir_lang.debugger.line_breakpoint
 
+import com.intellij.util.xmlb.XmlSerializerUtil
 import com.intellij.xdebugger.breakpoints.XBreakpointProperties
 
 class Properties : XBreakpointProperties<Properties>() {
+    /**
+     * The breakpoint only triggers from this hit on.  `0` and `1` trigger on every hit.  Hits are counted in the BEAM,
+     * after the condition, so skipped hits cost no round trip to the IDE.
+     */
+    var hitCount: Int = 0
+
     override fun getState(): Properties = this
-    override fun loadState(state: Properties) {}
+    override fun loadState(state: Properties) {
+        XmlSerializerUtil.copyBean(state, this)
+    }
 }
@@ -23,7 +23,9 @@ import com.intellij.openapi.fileEditor.FileDocumentManager
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.xdebugger.XDebuggerUtil
+import com.intellij.xdebugger.breakpoints.XLineBreakpoint
 import com.intellij.xdebugger.breakpoints.XLineBreakpointType
+import com.intellij.xdebugger.breakpoints.ui.XBreakpointCustomPropertiesPanel
 import org.elixir_lang.ElixirFileType
 import org.elixir_lang.debugger.line_breakpoint.availability_processor.EEx
 import org.elixir_lang.debugger.line_breakpoint.availability_processor.Elixir
@@ -37,6 +39,9 @@ class Type private constructor() : XLineBreakpointType<Properties>(ID, NAME) {
     override fun createBreakpointProperties(file: VirtualFile, line: Int): Properties =
             Properties()
 
+    override fun createCustomPropertiesPanel(): XBreakpointCustomPropertiesPanel<XLineBreakpoint<Properties>> =
+            HitCountPanel()
+
     companion object {
         private const val ID = "ElixirLineBreakpoint"
         private const val NAME = "Elixir Line Breakpoints"
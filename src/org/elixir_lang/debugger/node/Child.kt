@@ -0,0 +1,60 @@
+package org.elixir_lang.debugger.node
+
+import com.ericsson.otp.erlang.OtpErlangAtom
+import com.ericsson.otp.erlang.OtpErlangBinary
+import com.ericsson.otp.erlang.OtpErlangObject
+import com.ericsson.otp.erlang.OtpErlangTuple
+import com.intellij.openapi.diagnostic.Logger
+import org.elixir_lang.beam.term.inspect
+import org.elixir_lang.debugger.stack_frame.value.Presentation.toUtf8String
+
+/**
+ * A binding of a stack frame or a child of a [LazyTerm.Deferred] term.
+ */
+class Child(val name: String, val term: LazyTerm) {
+    companion object {
+        // {name, lazy_term}
+        private const val ARITY = 2
+
+        private val LOGGER = Logger.getInstance(Child::class.java)
+
+        fun from(term: OtpErlangObject): Child? =
+                when (term) {
+                    is OtpErlangTuple -> from(term)
+                    else -> {
+                        LOGGER.error("Child (${inspect(term)}) is not an OtpErlangTuple")
+
+                        null
+                    }
+                }
+
+        private fun from(tuple: OtpErlangTuple): Child? {
+            val arity = tuple.arity()
+
+            return if (arity == ARITY) {
+                name(tuple.elementAt(0))?.let { name ->
+                    LazyTerm.from(tuple.elementAt(1))?.let { lazyTerm ->
+                        Child(name, lazyTerm)
+                    }
+                }
+            } else {
+                LOGGER.error("Child (${inspect(tuple)}) arity ($arity) is not $ARITY")
+
+                null
+            }
+        }
+
+        private fun name(term: OtpErlangObject): String? =
+                when (term) {
+                    // binding names
+                    is OtpErlangAtom -> term.atomValue()
+                    // labels of children
+                    is OtpErlangBinary -> toUtf8String(term)
+                    else -> {
+                        LOGGER.error("name (${inspect(term)}) is neither an OtpErlangAtom nor an OtpErlangBinary")
+
+                        null
+                    }
+                }
+    }
+}
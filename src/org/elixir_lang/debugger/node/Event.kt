@@ -37,9 +37,12 @@ abstract class Event {
             if (message.arity() > 0) {
                 (message.elementAt(0) as? OtpErlangAtom)?.atomValue()?.let { messageName ->
                     when (messageName) {
+                        BreakpointLog.NAME -> BreakpointLog.from(message)
                         BreakpointReached.NAME -> BreakpointReached.from(message)
+                        ChildrenResponse.NAME -> ChildrenResponse.from(message)
                         DebugRemoteNodeResponse.NAME -> DebugRemoteNodeResponse.from(message)
                         InterpretModulesResponse.NAME -> InterpretModulesResponse.from(message)
+                        InterpretedModules.NAME -> InterpretedModules.from(message)
                         SetBreakpointResponse.NAME -> SetBreakpointResponse.from(message)
                         else -> null
                     }
@@ -0,0 +1,58 @@
+package org.elixir_lang.debugger.node
+
+import com.ericsson.otp.erlang.OtpErlangAtom
+import com.ericsson.otp.erlang.OtpErlangLong
+import com.ericsson.otp.erlang.OtpErlangObject
+import com.ericsson.otp.erlang.OtpErlangTuple
+import com.intellij.openapi.diagnostic.Logger
+import org.elixir_lang.beam.term.inspect
+
+/**
+ * A term as sent by the debug server: small terms are sent whole while large lists, tuples, maps, and binaries are
+ * only described, so that their children can be requested in chunks as the tree is expanded.
+ */
+sealed class LazyTerm {
+    class Eager(val term: OtpErlangObject) : LazyTerm()
+    class Deferred(val kind: String, val childCount: Int) : LazyTerm()
+
+    companion object {
+        private val LOGGER = Logger.getInstance(LazyTerm::class.java)
+
+        // {:value, term} | {:lazy, kind, child_count}
+        fun from(term: OtpErlangObject): LazyTerm? =
+                when (term) {
+                    is OtpErlangTuple -> from(term)
+                    else -> {
+                        LOGGER.error("LazyTerm (${inspect(term)}) is not an OtpErlangTuple")
+
+                        null
+                    }
+                }
+
+        private fun from(tuple: OtpErlangTuple): LazyTerm? {
+            val tag = (tuple.elementAt(0) as? OtpErlangAtom)?.atomValue()
+            val arity = tuple.arity()
+
+            return when {
+                tag == "value" && arity == 2 -> Eager(tuple.elementAt(1))
+                tag == "lazy" && arity == 3 -> {
+                    val kind = tuple.elementAt(1)
+                    val childCount = tuple.elementAt(2)
+
+                    if (kind is OtpErlangAtom && childCount is OtpErlangLong) {
+                        Deferred(kind.atomValue(), childCount.intValue())
+                    } else {
+                        LOGGER.error("LazyTerm (${inspect(tuple)}) kind is not an atom or child count is not an integer")
+
+                        null
+                    }
+                }
+                else -> {
+                    LOGGER.error("LazyTerm (${inspect(tuple)}) is neither {:value, term} nor {:lazy, kind, child_count}")
+
+                    null
+                }
+            }
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package org.elixir_lang.debugger.node
 
+import com.ericsson.otp.erlang.OtpErlangAtom
+import com.ericsson.otp.erlang.OtpErlangLong
 import com.ericsson.otp.erlang.OtpErlangObject
 import com.ericsson.otp.erlang.OtpErlangTuple
 import com.intellij.openapi.diagnostic.Logger
 import org.elixir_lang.beam.term.inspect
 
-class TraceElement(val module: String, val function: String, val arguments: List<OtpErlangObject>,
-                   val bindings: Map<String, OtpErlangObject>, val file: String, val line: Int) {
+/**
+ * @param bindings `null` when the bindings were left out of the frame and must be requested with
+ *   [org.elixir_lang.debugger.Node.requestBindings] for [level].
+ */
+class TraceElement(val level: Int, val module: String, val function: String, val arguments: List<OtpErlangObject>,
+                   val bindings: Map<String, OtpErlangObject>?, val file: String, val line: Int) {
     companion object {
-        // {level, {module, function, arguments}, bindings, {file, line}}
+        // {level, {module, function, arguments}, bindings | :lazy, {file, line}}
         private const val ARITY = 4
         private val LOGGER = Logger.getInstance(TraceElement::class.java)
 
@@ -26,10 +32,18 @@ class TraceElement(val module: String, val function: String, val arguments: List
             val arity = otpStackFrame.arity()
 
             return if (arity == ARITY) {
-                ModuleFunctionArguments.from(otpStackFrame.elementAt(1))?.let { (module, function, arguments) ->
-                    Bindings.from(otpStackFrame.elementAt(2))?.let { bindings ->
+                level(otpStackFrame.elementAt(0))?.let { level ->
+                    ModuleFunctionArguments.from(otpStackFrame.elementAt(1))?.let { (module, function, arguments) ->
                         FileLine.from(otpStackFrame.elementAt(3))?.let { (file, line) ->
-                            TraceElement(module, function, arguments, bindings, file, line)
+                            val bindings = otpStackFrame.elementAt(2)
+
+                            if (isLazy(bindings)) {
+                                TraceElement(level, module, function, arguments, null, file, line)
+                            } else {
+                                Bindings.from(bindings)?.let { eagerBindings ->
+                                    TraceElement(level, module, function, arguments, eagerBindings, file, line)
+                                }
+                            }
                         }
                     }
                 }
@@ -39,5 +53,17 @@ class TraceElement(val module: String, val function: String, val arguments: List
                 null
             }
         }
+
+        private fun isLazy(term: OtpErlangObject): Boolean = term is OtpErlangAtom && term.atomValue() == "lazy"
+
+        private fun level(term: OtpErlangObject): Int? =
+                when (term) {
+                    is OtpErlangLong -> term.intValue()
+                    else -> {
+                        LOGGER.error("level (${inspect(term)}) is not an OtpErlangLong")
+
+                        null
+                    }
+                }
     }
 }
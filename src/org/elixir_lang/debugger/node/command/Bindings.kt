@@ -0,0 +1,9 @@
+package org.elixir_lang.debugger.node.command
+
+import com.ericsson.otp.erlang.*
+import org.elixir_lang.debugger.node.Command
+
+class Bindings(private val pid: OtpErlangPid, private val level: Int, private val requestId: Long) : Command {
+    override fun toMessage(): OtpErlangTuple =
+            OtpErlangTuple(arrayOf(OtpErlangAtom("bindings"), pid, OtpErlangInt(level), OtpErlangLong(requestId)))
+}
@@ -0,0 +1,30 @@
+package org.elixir_lang.debugger.node.command
+
+import com.ericsson.otp.erlang.*
+import org.elixir_lang.debugger.node.Command
+
+/**
+ * Requests [count] children starting at [offset] of the term reached by following the child indices in [path] from
+ * the binding [name] in the frame at [level].
+ */
+class Children(
+        private val pid: OtpErlangPid,
+        private val level: Int,
+        private val name: String,
+        private val path: List<Int>,
+        private val offset: Int,
+        private val count: Int,
+        private val requestId: Long
+) : Command {
+    override fun toMessage(): OtpErlangTuple =
+            OtpErlangTuple(arrayOf(
+                    OtpErlangAtom("children"),
+                    pid,
+                    OtpErlangInt(level),
+                    OtpErlangAtom(name),
+                    OtpErlangList(path.map { OtpErlangInt(it) }.toTypedArray<OtpErlangObject>()),
+                    OtpErlangInt(offset),
+                    OtpErlangInt(count),
+                    OtpErlangLong(requestId)
+            ))
+}
@@ -1,12 +1,23 @@
 package org.elixir_lang.debugger.node.command
 
-import com.ericsson.otp.erlang.OtpErlangAtom
-import com.ericsson.otp.erlang.OtpErlangBinary
-import com.ericsson.otp.erlang.OtpErlangInt
-import com.ericsson.otp.erlang.OtpErlangTuple
+import com.ericsson.otp.erlang.*
 import org.elixir_lang.debugger.node.Command
 
-class SetBreakpoint(private val module: String, line: Int, private val file: String) : Command {
+/**
+ * @param condition Elixir expression that must be truthy for a hit to count
+ * @param hitCount the breakpoint only triggers from the [hitCount]th hit on which [condition] holds
+ * @param logExpression Elixir expression whose value is printed to the console on each triggered hit
+ * @param suspend `false` for log-only breakpoints, which never suspend the process
+ */
+class SetBreakpoint(
+        private val module: String,
+        line: Int,
+        private val file: String,
+        private val condition: String? = null,
+        private val hitCount: Int = 0,
+        private val logExpression: String? = null,
+        private val suspend: Boolean = true
+) : Command {
     private val line: Int = line + 1
 
     override fun toMessage(): OtpErlangTuple =
@@ -14,6 +25,21 @@ class SetBreakpoint(private val module: String, line: Int, private val file: Str
                     OtpErlangAtom("set_breakpoint"),
                     OtpErlangAtom(module),
                     OtpErlangInt(line),
-                    OtpErlangBinary(file)
+                    OtpErlangBinary(file),
+                    OtpErlangList(arrayOf<OtpErlangObject>(
+                            option("condition", condition.toTerm()),
+                            option("hit_count", OtpErlangInt(hitCount)),
+                            option("log_expression", logExpression.toTerm()),
+                            option("suspend", OtpErlangAtom(suspend))
+                    ))
             ))
+
+    private fun option(name: String, value: OtpErlangObject) = OtpErlangTuple(arrayOf(OtpErlangAtom(name), value))
+
+    private fun String?.toTerm(): OtpErlangObject =
+            if (this.isNullOrBlank()) {
+                OtpErlangAtom("nil")
+            } else {
+                OtpErlangBinary(this!!.toByteArray(Charsets.UTF_8))
+            }
 }
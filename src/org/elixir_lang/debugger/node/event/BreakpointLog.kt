@@ -0,0 +1,59 @@
+package org.elixir_lang.debugger.node.event
+
+import com.ericsson.otp.erlang.OtpErlangAtom
+import com.ericsson.otp.erlang.OtpErlangBinary
+import com.ericsson.otp.erlang.OtpErlangLong
+import com.ericsson.otp.erlang.OtpErlangTuple
+import com.intellij.openapi.diagnostic.Logger
+import org.elixir_lang.beam.term.inspect
+import org.elixir_lang.debugger.Node
+import org.elixir_lang.debugger.node.Event
+import org.elixir_lang.debugger.stack_frame.value.Presentation.toUtf8String
+
+/**
+ * The value of a breakpoint's log expression, or why its condition or log expression could not be evaluated.
+ */
+class BreakpointLog(
+        private val module: String,
+        private val line: Int,
+        private val isError: Boolean,
+        private val message: String
+) : Event() {
+    override fun process(node: Node, eventListener: Listener) =
+            eventListener.breakpointLogged(module, line, isError, message)
+
+    companion object {
+        // {:breakpoint_log, module, line, :info | :error, message}
+        private const val ARITY = 5
+        const val NAME = "breakpoint_log"
+
+        private val LOGGER by lazy { Logger.getInstance(BreakpointLog::class.java) }
+
+        fun from(tuple: OtpErlangTuple): BreakpointLog? {
+            val arity = tuple.arity()
+
+            return if (arity == ARITY) {
+                val module = tuple.elementAt(1)
+                val line = tuple.elementAt(2)
+                val type = tuple.elementAt(3)
+                val message = tuple.elementAt(4)
+
+                if (module is OtpErlangAtom && line is OtpErlangLong && type is OtpErlangAtom &&
+                        message is OtpErlangBinary) {
+                    toUtf8String(message)?.let { messageString ->
+                        // the server's lines are 1-based
+                        BreakpointLog(module.atomValue(), line.intValue() - 1, type.atomValue() == "error", messageString)
+                    }
+                } else {
+                    LOGGER.error(":$NAME tuple (${inspect(tuple)}) elements are not module, line, type, and message")
+
+                    null
+                }
+            } else {
+                LOGGER.error(":$NAME tuple (${inspect(tuple)}) arity ($arity) is not $ARITY")
+
+                null
+            }
+        }
+    }
+}
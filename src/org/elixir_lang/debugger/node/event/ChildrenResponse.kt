@@ -0,0 +1,47 @@
+package org.elixir_lang.debugger.node.event
+
+import com.ericsson.otp.erlang.OtpErlangList
+import com.ericsson.otp.erlang.OtpErlangLong
+import com.ericsson.otp.erlang.OtpErlangTuple
+import com.intellij.openapi.diagnostic.Logger
+import org.elixir_lang.beam.term.inspect
+import org.elixir_lang.debugger.Node
+import org.elixir_lang.debugger.node.Child
+import org.elixir_lang.debugger.node.Event
+
+/**
+ * Reply to both [org.elixir_lang.debugger.node.command.Bindings] and
+ * [org.elixir_lang.debugger.node.command.Children].
+ */
+class ChildrenResponse(private val requestId: Long, private val children: List<Child>) : Event() {
+    override fun process(node: Node, eventListener: Listener) = node.childrenResponse(requestId, children)
+
+    companion object {
+        // {:children_response, request_id, [{name, lazy_term}]}
+        private const val ARITY = 3
+        const val NAME = "children_response"
+
+        private val LOGGER = Logger.getInstance(ChildrenResponse::class.java)
+
+        fun from(tuple: OtpErlangTuple): ChildrenResponse? {
+            val arity = tuple.arity()
+
+            return if (arity == ARITY) {
+                val requestId = tuple.elementAt(1)
+                val children = tuple.elementAt(2)
+
+                if (requestId is OtpErlangLong && children is OtpErlangList) {
+                    ChildrenResponse(requestId.longValue(), children.mapNotNull { Child.from(it) })
+                } else {
+                    LOGGER.error(":$NAME tuple (${inspect(tuple)}) does not have an integer request id and list of children")
+
+                    null
+                }
+            } else {
+                LOGGER.error(":$NAME tuple (${inspect(tuple)}) arity ($arity) is not $ARITY")
+
+                null
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.elixir_lang.debugger.node.event
+
+import com.ericsson.otp.erlang.OtpErlangAtom
+import com.ericsson.otp.erlang.OtpErlangList
+import com.ericsson.otp.erlang.OtpErlangLong
+import com.ericsson.otp.erlang.OtpErlangTuple
+import com.intellij.openapi.diagnostic.Logger
+import org.elixir_lang.beam.term.inspect
+import org.elixir_lang.debugger.Node
+import org.elixir_lang.debugger.node.Event
+
+/**
+ * Sent when the debugger starts and whenever modules are interpreted on demand, so the IDE can show how much code
+ * currently runs in the (much slower) interpreter.
+ */
+class InterpretedModules(private val count: Int, private val newlyInterpreted: List<String>) : Event() {
+    override fun process(node: Node, eventListener: Listener) =
+            eventListener.interpretedModules(count, newlyInterpreted)
+
+    companion object {
+        // {:interpreted_modules, count, newly_interpreted}
+        private const val ARITY = 3
+        const val NAME = "interpreted_modules"
+
+        private val LOGGER by lazy { Logger.getInstance(InterpretedModules::class.java) }
+
+        fun from(tuple: OtpErlangTuple): InterpretedModules? {
+            val arity = tuple.arity()
+
+            return if (arity == ARITY) {
+                val count = tuple.elementAt(1)
+                val newlyInterpreted = tuple.elementAt(2)
+
+                if (count is OtpErlangLong && newlyInterpreted is OtpErlangList) {
+                    InterpretedModules(
+                            count.intValue(),
+                            newlyInterpreted.mapNotNull { (it as? OtpErlangAtom)?.atomValue() }
+                    )
+                } else {
+                    LOGGER.error(":$NAME tuple (${inspect(tuple)}) does not have a count and list of modules")
+
+                    null
+                }
+            } else {
+                LOGGER.error(":$NAME tuple (${inspect(tuple)}) arity ($arity) is not $ARITY")
+
+                null
+            }
+        }
+    }
+}
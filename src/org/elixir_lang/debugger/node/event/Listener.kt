@@ -6,11 +6,13 @@ import org.elixir_lang.debugger.node.ProcessSnapshot
 
 interface Listener {
     fun breakpointIsSet(module: String, file: String, line: Int)
+    fun breakpointLogged(module: String, line: Int, isError: Boolean, message: String)
     fun breakpointReached(pid: OtpErlangPid, snapshots: List<ProcessSnapshot>)
     fun debuggerStarted()
     fun debuggerStopped()
     fun failedToDebugRemoteNode(nodeName: String, error: OtpErlangObject)
     fun failedToInterpretModules(nodeName: String, errorReasonByModule: Map<String, OtpErlangObject>)
     fun failedToSetBreakpoint(module: String, file: String, line: Int, errorMessage: OtpErlangObject)
+    fun interpretedModules(count: Int, newlyInterpreted: List<String>)
     fun unknownMessage(messageText: String)
 }
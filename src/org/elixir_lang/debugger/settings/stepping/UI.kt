@@ -4,12 +4,14 @@ import com.intellij.openapi.options.ConfigurableUi
 import org.elixir_lang.debugger.Settings
 import org.elixir_lang.debugger.settings.stepping.module_filter.Editor
 import java.awt.BorderLayout
+import javax.swing.JCheckBox
 import javax.swing.JComponent
 import javax.swing.JLabel
 import javax.swing.JPanel
 
 class UI: ConfigurableUi<Settings> {
     private lateinit var filterEditor: Editor
+    private lateinit var interpretOnDemandCheckBox: JCheckBox
 
     override fun apply(settings: Settings) {
         filterEditor.stopEditing()
@@ -18,23 +20,31 @@ class UI: ConfigurableUi<Settings> {
             clear()
             addAll(filterEditor.filters)
         }
+        settings.interpretOnDemand = interpretOnDemandCheckBox.isSelected
     }
 
     override fun getComponent(): JComponent =
         JPanel(BorderLayout()).apply {
             filterEditor = Editor()
 
+            interpretOnDemandCheckBox = JCheckBox(
+                    "Only interpret modules with breakpoints or that are stepped into (faster, but cannot stop in " +
+                            "other modules)"
+            )
+
             add(JLabel("Do not step into the Modules:"), BorderLayout.NORTH)
             add(filterEditor, BorderLayout.CENTER)
+            add(interpretOnDemandCheckBox, BorderLayout.SOUTH)
         }
 
     override fun isModified(settings: Settings)= toSettings() != settings
 
     override fun reset(settings: Settings) {
         filterEditor.filters = settings.moduleFilters
+        interpretOnDemandCheckBox.isSelected = settings.interpretOnDemand
     }
 
     // Private Functions
 
-    private fun toSettings() = Settings(filterEditor.filters)
+    private fun toSettings() = Settings(filterEditor.filters, interpretOnDemandCheckBox.isSelected)
 }
@@ -65,6 +65,10 @@ public class Base<T extends OtpErlangObject> extends XValue {
   public final void computePresentation(@NotNull XValueNode node, @NotNull XValuePlace place) {
     com.intellij.xdebugger.frame.presentation.XValuePresentation presentation = getPresentation(node, place);
     if (presentation != null) {
+      if (presentation instanceof Presentation && ((Presentation) presentation).isTruncated()) {
+        node.setFullValueEvaluator(new FullValueEvaluator(getValue()));
+      }
+
       node.setPresentation(getIcon(), presentation, hasChildren());
     }
     else {
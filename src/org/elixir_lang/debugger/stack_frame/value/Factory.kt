@@ -33,7 +33,7 @@ object Factory {
                 is OtpErlangRef -> Ref(term)
                 is OtpErlangTuple -> Tuple(term)
                 is OtpErlangString ->
-                    if (Presentation.isPrintable(term)) {
+                    if (Presentation.isPrintable(term, Presentation.Budget.PRESENTATION)) {
                         CharList(term)
                     } else {
                         Proper(OtpErlangList(term.stringValue()))
@@ -46,7 +46,7 @@ object Factory {
                     }
 
                 is OtpErlangBitstr ->
-                    if (Presentation.toUtf8String(term) != null) {
+                    if (Presentation.isUtf8(term, Presentation.Budget.PRESENTATION)) {
                         String(term)
                     } else {
                         BitString(term)
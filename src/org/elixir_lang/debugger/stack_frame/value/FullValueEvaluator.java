@@ -0,0 +1,30 @@
+package org.elixir_lang.debugger.stack_frame.value;
+
+import com.ericsson.otp.erlang.OtpErlangObject;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.xdebugger.frame.XFullValueEvaluator;
+import org.jetbrains.annotations.NotNull;
+
+import static org.elixir_lang.beam.term.InspectKt.inspect;
+
+/**
+ * "View" for a value whose {@link Presentation} was truncated.  The larger {@link Presentation.Budget#FULL_VALUE} is
+ * rendered on a pooled thread, so even the full value never blocks the EDT.
+ */
+class FullValueEvaluator extends XFullValueEvaluator {
+  @NotNull
+  private final OtpErlangObject myValue;
+
+  FullValueEvaluator(@NotNull OtpErlangObject value) {
+    myValue = value;
+  }
+
+  @Override
+  public void startEvaluation(@NotNull XFullValueEvaluationCallback callback) {
+    ApplicationManager.getApplication().executeOnPooledThread(() -> {
+      if (!callback.isObsolete()) {
+        callback.evaluated(inspect(myValue, Presentation.Budget.FULL_VALUE));
+      }
+    });
+  }
+}
@@ -0,0 +1,110 @@
+package org.elixir_lang.debugger.stack_frame.value;
+
+import com.ericsson.otp.erlang.OtpErlangPid;
+import com.intellij.icons.AllIcons;
+import com.intellij.xdebugger.frame.*;
+import org.elixir_lang.debugger.Node;
+import org.elixir_lang.debugger.node.Child;
+import org.elixir_lang.debugger.node.LazyTerm;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A term that was too large to send whole.  Its children are requested from the debug server
+ * {@link XCompositeNode#MAX_CHILDREN_TO_SHOW} at a time as the node is expanded and "more" is clicked.
+ */
+public class Lazy extends XValue {
+  @NotNull
+  private final Node myNode;
+  @NotNull
+  private final OtpErlangPid myPid;
+  private final int myLevel;
+  @NotNull
+  private final java.lang.String myBindingName;
+  @NotNull
+  private final List<Integer> myPath;
+  @NotNull
+  private final LazyTerm.Deferred myDeferred;
+  private int myNextChildIdxToCompute;
+
+  private Lazy(@NotNull Node node,
+               @NotNull OtpErlangPid pid,
+               int level,
+               @NotNull java.lang.String bindingName,
+               @NotNull List<Integer> path,
+               @NotNull LazyTerm.Deferred deferred) {
+    myNode = node;
+    myPid = pid;
+    myLevel = level;
+    myBindingName = bindingName;
+    myPath = path;
+    myDeferred = deferred;
+  }
+
+  /**
+   * @param path child indices from the binding to the term.
+   */
+  @NotNull
+  public static XValue create(@NotNull Node node,
+                              @NotNull OtpErlangPid pid,
+                              int level,
+                              @NotNull java.lang.String bindingName,
+                              @NotNull List<Integer> path,
+                              @NotNull LazyTerm lazyTerm) {
+    XValue value;
+
+    if (lazyTerm instanceof LazyTerm.Eager) {
+      value = Factory.create(((LazyTerm.Eager) lazyTerm).getTerm());
+    } else {
+      value = new Lazy(node, pid, level, bindingName, path, (LazyTerm.Deferred) lazyTerm);
+    }
+
+    return value;
+  }
+
+  @Override
+  public void computePresentation(@NotNull XValueNode node, @NotNull XValuePlace place) {
+    int childCount = myDeferred.getChildCount();
+    java.lang.String unit = myDeferred.getKind().equals("binary") ? " chunks" : " elements";
+
+    node.setPresentation(AllIcons.Debugger.Value, myDeferred.getKind(), childCount + unit, childCount > 0);
+  }
+
+  @Override
+  public void computeChildren(@NotNull XCompositeNode node) {
+    int offset = myNextChildIdxToCompute;
+    int count = Math.min(XCompositeNode.MAX_CHILDREN_TO_SHOW, myDeferred.getChildCount() - offset);
+    myNextChildIdxToCompute = offset + count;
+
+    myNode.requestChildren(myPid, myLevel, myBindingName, myPath, offset, count, children -> {
+      if (children == null) {
+        node.setErrorMessage("Debugger stopped before the children were received");
+      } else {
+        XValueChildrenList childrenList = new XValueChildrenList(children.size());
+
+        for (int i = 0; i < children.size(); i++) {
+          Child child = children.get(i);
+          List<Integer> childPath = new ArrayList<>(myPath.size() + 1);
+          childPath.addAll(myPath);
+          childPath.add(offset + i);
+
+          childrenList.add(
+                  child.getName(),
+                  create(myNode, myPid, myLevel, myBindingName, Collections.unmodifiableList(childPath), child.getTerm())
+          );
+        }
+
+        int remaining = myDeferred.getChildCount() - (offset + count);
+
+        if (remaining > 0) {
+          node.tooManyChildren(remaining);
+        }
+
+        node.addChildren(childrenList, remaining <= 0);
+      }
+    });
+  }
+}
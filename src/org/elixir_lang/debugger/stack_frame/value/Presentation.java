@@ -19,6 +19,7 @@
 package org.elixir_lang.debugger.stack_frame.value;
 
 import com.ericsson.otp.erlang.*;
+import com.intellij.xdebugger.frame.XValueNode;
 import org.elixir_lang.utils.ElixirModulesUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -26,140 +27,470 @@ import org.jetbrains.annotations.Nullable;
 import java.lang.String;
 import java.nio.ByteBuffer;
 import java.nio.charset.CharacterCodingException;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Renders a term within a {@link Budget}, so that a huge list or binary renders its head and a {@code …(N more)}
+ * marker instead of the whole term.  Rendering stops as soon as the budget is spent, so the cost is bound by the budget
+ * and not by the size of the term.  The term is rendered once and replayed, so checking {@link #isTruncated()} and then
+ * showing the presentation does not render it twice.
+ */
 public class Presentation extends com.intellij.xdebugger.frame.presentation.XValuePresentation {
+  /**
+   * Limits on how much of a term is rendered.
+   */
+  public static final class Budget {
+    /**
+     * For the Variables view and hovers: a little more than {@link XValueNode#MAX_VALUE_LENGTH}, so that the node still
+     * gets the "View" link for the full value.
+     */
+    public static final Budget PRESENTATION = new Budget(8, 100, 2 * XValueNode.MAX_VALUE_LENGTH);
+    /**
+     * For "View" on a truncated value.
+     */
+    public static final Budget FULL_VALUE = new Budget(64, 10_000, 1024 * 1024);
+    /**
+     * For log messages.
+     */
+    public static final Budget LOG = new Budget(8, 32, 4 * 1024);
+    /**
+     * For decompiling, where the output has to be the whole term.
+     */
+    public static final Budget UNBOUNDED = new Budget(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    private final int maxDepth;
+    private final int maxElements;
+    private final int maxCharacters;
+
+    /**
+     * @param maxDepth      containers nested deeper than this are rendered as {@code …}
+     * @param maxElements   elements rendered per container before {@code …(N more)}
+     * @param maxCharacters characters rendered in total
+     */
+    public Budget(int maxDepth, int maxElements, int maxCharacters) {
+      this.maxDepth = maxDepth;
+      this.maxElements = maxElements;
+      this.maxCharacters = maxCharacters;
+    }
+  }
+
+  /**
+   * How a {@link Segment} is passed to an {@link XValueTextRenderer}.
+   */
+  private enum Style {
+    COMMENT,
+    KEYWORD,
+    NUMERIC,
+    SPECIAL_SYMBOL,
+    STRING,
+    VALUE
+  }
+
+  private static final class Segment {
+    @NotNull
+    private final Style style;
+    @NotNull
+    private final String text;
+
+    private Segment(@NotNull Style style, @NotNull String text) {
+      this.style = style;
+      this.text = text;
+    }
+
+    private void replay(@NotNull XValueTextRenderer renderer) {
+      switch (style) {
+        case COMMENT:
+          renderer.renderComment(text);
+          break;
+        case KEYWORD:
+          renderer.renderKeywordValue(text);
+          break;
+        case NUMERIC:
+          renderer.renderNumericValue(text);
+          break;
+        case SPECIAL_SYMBOL:
+          renderer.renderSpecialSymbol(text);
+          break;
+        case STRING:
+          renderer.renderStringValue(text);
+          break;
+        case VALUE:
+          renderer.renderValue(text);
+          break;
+      }
+    }
+  }
+
+  /**
+   * The segments of one rendering within a {@link Budget} and whether it left parts out.
+   */
+  private static final class Rendering {
+    @NotNull
+    private final Budget budget;
+    @NotNull
+    private final List<Segment> segmentList = new ArrayList<>();
+    private int depth = 0;
+    private int remainingCharacters;
+    private boolean truncated = false;
+
+    private Rendering(@NotNull Budget budget) {
+      this.budget = budget;
+      this.remainingCharacters = budget.maxCharacters;
+    }
+
+    private void render(@NotNull Style style, @NotNull String text) {
+      segmentList.add(new Segment(style, text));
+    }
+
+    private void replay(@NotNull XValueTextRenderer renderer) {
+      for (Segment segment : segmentList) {
+        segment.replay(renderer);
+      }
+    }
+
+    private boolean isExhausted() {
+      return remainingCharacters <= 0;
+    }
+
+    /**
+     * @return the part of {@code text} that fits in the budget.
+     */
+    @NotNull
+    private String spend(@NotNull String text) {
+      String spent;
+
+      if (text.length() <= remainingCharacters) {
+        spent = text;
+        remainingCharacters -= text.length();
+      } else {
+        spent = text.substring(0, Math.max(remainingCharacters, 0));
+        remainingCharacters = 0;
+        truncated = true;
+      }
+
+      return spent;
+    }
+
+    /**
+     * Delimiters are not charged against the budget, so that a truncated rendering is still balanced.
+     */
+    private void delimiter(@NotNull String text) {
+      render(Style.SPECIAL_SYMBOL, text);
+    }
+
+    private void keyword(@NotNull String text) {
+      if (!isExhausted()) {
+        render(Style.KEYWORD, spend(text));
+      }
+    }
+
+    private void more(int count) {
+      truncated = true;
+
+      // not charged against the budget, so that the marker is always shown
+      render(Style.COMMENT, "…(" + count + " more)");
+    }
+
+    private void numeric(@NotNull String text) {
+      if (!isExhausted()) {
+        render(Style.NUMERIC, spend(text));
+      }
+    }
+
+    /**
+     * @param complete {@code false} if {@code text} is only a prefix of the string
+     */
+    private void string(@NotNull String text, boolean complete) {
+      if (!isExhausted()) {
+        String spent = spend(text);
+        render(Style.STRING, spent);
+
+        if (!complete || spent.length() < text.length()) {
+          truncated = true;
+          render(Style.COMMENT, "…");
+        }
+      }
+    }
+
+    private void symbol(@NotNull String text) {
+      if (!isExhausted()) {
+        render(Style.SPECIAL_SYMBOL, spend(text));
+      }
+    }
+
+    private void value(@NotNull String text) {
+      if (!isExhausted()) {
+        render(Style.VALUE, spend(text));
+      }
+    }
+
+    /**
+     * @return {@code false} if the container is nested too deeply to render, in which case {@code …} is rendered in its
+     *   place.
+     */
+    private boolean enter() {
+      boolean entered;
+
+      if (depth < budget.maxDepth) {
+        depth++;
+        entered = true;
+      } else {
+        truncated = true;
+        render(Style.COMMENT, "…");
+        entered = false;
+      }
+
+      return entered;
+    }
+
+    private void exit() {
+      depth--;
+    }
+
+    /**
+     * @return {@code true} if the element at {@code index} of {@code count} elements should be rendered; otherwise,
+     *   renders {@code …(N more)}.
+     */
+    private boolean element(int index, int count) {
+      boolean render;
+
+      if (index < budget.maxElements && !isExhausted()) {
+        render = true;
+      } else {
+        more(count - index);
+        render = false;
+      }
+
+      return render;
+    }
+  }
+
   private final OtpErlangObject myValue;
+  @NotNull
+  private final Budget myBudget;
+  @Nullable
+  private volatile Rendering myRendering = null;
 
   public Presentation(OtpErlangObject value) {
+    this(value, Budget.PRESENTATION);
+  }
+
+  public Presentation(OtpErlangObject value, @NotNull Budget budget) {
     myValue = value;
+    myBudget = budget;
+  }
+
+  /**
+   * @return {@code true} if rendering the value within the budget leaves parts out.
+   */
+  public boolean isTruncated() {
+    return rendering().truncated;
   }
 
-  private static void renderObject(OtpErlangObject o, XValueTextRenderer renderer) {
-    if (o instanceof OtpErlangMap) {
-      renderMap((OtpErlangMap) o, renderer);
+  /**
+   * @return {@code true} if the prefix of {@code bitstr} that can be rendered within {@code budget} is UTF-8.  Bytes
+   *   past that prefix are not checked, as they are never rendered.
+   */
+  public static boolean isUtf8(@NotNull OtpErlangBitstr bitstr, @NotNull Budget budget) {
+    byte[] bytes = bitstr.binaryValue();
+
+    return bitstr.pad_bits() == 0 && toUtf8String(bytes, utf8PrefixLength(bytes, budget.maxCharacters)) != null;
+  }
+
+  @NotNull
+  private Rendering rendering() {
+    Rendering rendering = myRendering;
+
+    if (rendering == null) {
+      rendering = new Rendering(myBudget);
+      renderObject(myValue, rendering);
+      myRendering = rendering;
+    }
+
+    return rendering;
+  }
+
+  private static void renderObject(OtpErlangObject o, Rendering rendering) {
+    if (rendering.isExhausted()) {
+      rendering.truncated = true;
+    } else if (o instanceof OtpErlangMap) {
+      renderMap((OtpErlangMap) o, rendering);
     } else if (o instanceof OtpErlangAtom) {
-      renderAtom((OtpErlangAtom) o, renderer);
+      renderAtom((OtpErlangAtom) o, rendering);
     } else if (o instanceof OtpErlangTuple) {
-      renderTuple((OtpErlangTuple) o, renderer);
+      renderTuple((OtpErlangTuple) o, rendering);
     } else if (o instanceof OtpErlangList) {
-      renderList((OtpErlangList) o, renderer);
+      renderList((OtpErlangList) o, rendering);
     } else if (o instanceof OtpErlangBitstr) {
-      renderBitstr((OtpErlangBitstr) o, renderer);
+      renderBitstr((OtpErlangBitstr) o, rendering);
     } else if (o instanceof OtpErlangString) {
-      renderErlangString((OtpErlangString) o, renderer);
+      renderErlangString((OtpErlangString) o, rendering);
     } else if (o instanceof OtpErlangDouble || o instanceof OtpErlangLong) {
-      renderer.renderNumericValue(o.toString());
+      rendering.numeric(o.toString());
     } else {
-      renderer.renderValue(o.toString());
+      rendering.value(o.toString());
     }
   }
 
-  private static void renderMap(OtpErlangMap map, XValueTextRenderer renderer) {
-    renderer.renderSpecialSymbol("%");
-    if (isStruct(map)) {
-      java.lang.String structType = structType(map);
-
-      assert structType != null;
+  private static void renderMap(OtpErlangMap map, Rendering rendering) {
+    rendering.symbol("%");
+    java.lang.String structType = structType(map);
+    boolean struct = structType != null;
+    if (struct) {
+      rendering.keyword(structType);
+    }
+    rendering.delimiter("{");
+
+    if (rendering.enter()) {
+      boolean symbolKeys = hasSymbolKeys(map, rendering.budget);
+      // the `__struct__` key is rendered as the struct type instead of as an entry
+      int count = struct ? map.arity() - 1 : map.arity();
+      int index = 0;
+
+      for (final Map.Entry<OtpErlangObject, OtpErlangObject> e : map.entrySet()) {
+        OtpErlangObject key = e.getKey();
+        if (!(struct && isStructKey(key))) {
+          if (index > 0) {
+            rendering.symbol(", ");
+          }
+
+          if (!rendering.element(index, count)) {
+            break;
+          }
+
+          if (symbolKeys) {
+            assert key instanceof OtpErlangAtom;
+
+            rendering.keyword(((OtpErlangAtom) key).atomValue());
+            rendering.keyword(": ");
+          } else {
+            renderObject(key, rendering);
+            rendering.symbol(" => ");
+          }
+
+          renderObject(e.getValue(), rendering);
+          index++;
+        }
+      }
 
-      renderer.renderKeywordValue(structType);
+      rendering.exit();
     }
-    renderer.renderSpecialSymbol("{");
 
-    boolean first = true;
-    boolean symbolKeys = hasSymbolKeys(map);
+    rendering.delimiter("}");
+  }
+
+  private static void renderAtom(OtpErlangAtom atom, Rendering rendering) {
+    rendering.keyword(ElixirModulesUtil.INSTANCE.erlangModuleNameToElixir(atom.atomValue()));
+  }
+
+  private static void renderTuple(OtpErlangTuple tuple, Rendering rendering) {
+    rendering.delimiter("{");
 
-    for (final Map.Entry<OtpErlangObject, OtpErlangObject> e : map.entrySet()) {
-      OtpErlangObject key = e.getKey();
-      if (!(isStruct(map) && key instanceof OtpErlangAtom && ((OtpErlangAtom) key).atomValue().equals("__struct__"))) {
-        if (first) {
-          first = false;
-        } else {
-          renderer.renderSpecialSymbol(", ");
-        }
+    if (rendering.enter()) {
+      int arity = tuple.arity();
 
-        if (symbolKeys) {
-          assert key instanceof OtpErlangAtom;
+      for (int i = 0; i < arity; i++) {
+        if (i > 0) {
+          rendering.symbol(", ");
+        }
 
-          renderer.renderKeywordValue(((OtpErlangAtom) key).atomValue());
-          renderer.renderKeywordValue(": ");
-        } else {
-          renderObject(key, renderer);
-          renderer.renderSpecialSymbol(" => ");
+        if (!rendering.element(i, arity)) {
+          break;
         }
 
-        renderObject(e.getValue(), renderer);
+        renderObject(tuple.elementAt(i), rendering);
       }
+
+      rendering.exit();
     }
-    renderer.renderSpecialSymbol("}");
-  }
 
-  private static void renderAtom(OtpErlangAtom atom, XValueTextRenderer renderer) {
-    renderer.renderKeywordValue(ElixirModulesUtil.INSTANCE.erlangModuleNameToElixir(atom.atomValue()));
+    rendering.delimiter("}");
   }
 
-  private static void renderTuple(OtpErlangTuple tuple, XValueTextRenderer renderer) {
-    int i;
+  private static void renderList(OtpErlangList list, Rendering rendering) {
+    rendering.delimiter("[");
 
-    renderer.renderSpecialSymbol("{");
-    for (i = 0; i < tuple.arity(); i++) {
-      if (i > 0) {
-        renderer.renderSpecialSymbol(", ");
-      }
-      renderObject(tuple.elementAt(i), renderer);
-    }
+    if (rendering.enter()) {
+      int arity = list.arity();
+      boolean complete = true;
 
-    renderer.renderSpecialSymbol("}");
-  }
+      for (int i = 0; i < arity; i++) {
+        if (i > 0) {
+          rendering.symbol(", ");
+        }
 
-  private static void renderList(OtpErlangList list, XValueTextRenderer renderer) {
-    int i;
+        if (!rendering.element(i, arity)) {
+          complete = false;
+          break;
+        }
 
-    renderer.renderSpecialSymbol("[");
-    for (i = 0; i < list.arity(); i++) {
-      if (i > 0) {
-        renderer.renderSpecialSymbol(", ");
+        renderObject(list.elementAt(i), rendering);
       }
-      renderObject(list.elementAt(i), renderer);
-    }
 
-    // Improper lists have a lastTail
-    OtpErlangObject lastTail = list.getLastTail();
+      // Improper lists have a lastTail
+      OtpErlangObject lastTail = list.getLastTail();
+
+      if (complete && lastTail != null) {
+        // Improper lists need to render the head tail joiner, `|`, explicitly
+        rendering.symbol(" | ");
+        renderObject(lastTail, rendering);
+      }
 
-    if (lastTail != null) {
-      // Improper lists need to render the head tail joiner, `|`, explicitly
-      renderer.renderSpecialSymbol(" | ");
-      renderObject(lastTail, renderer);
+      rendering.exit();
     }
 
-    renderer.renderSpecialSymbol("]");
+    rendering.delimiter("]");
   }
 
-  private static void renderBitstr(OtpErlangBitstr bitstr, XValueTextRenderer renderer) {
-    java.lang.String utf8String = toUtf8String(bitstr);
+  private static void renderBitstr(OtpErlangBitstr bitstr, Rendering rendering) {
+    byte[] bytes = bitstr.binaryValue();
+    int prefixLength = utf8PrefixLength(bytes, rendering.remainingCharacters);
+    java.lang.String utf8String = bitstr.pad_bits() > 0 ? null : toUtf8String(bytes, prefixLength);
+
     if (utf8String != null) {
-      renderer.renderStringValue(utf8String);
+      rendering.string(utf8String, prefixLength == bytes.length);
     } else {
-      renderer.renderSpecialSymbol("<<");
-      boolean first = true;
-      for (byte b : bitstr.binaryValue()) {
-        if (!first) renderer.renderSpecialSymbol(", ");
-        renderer.renderValue("" + ((int) b & 0xFF));
-        first = false;
+      rendering.delimiter("<<");
+
+      if (rendering.enter()) {
+        for (int i = 0; i < bytes.length; i++) {
+          if (i > 0) {
+            rendering.symbol(", ");
+          }
+
+          if (!rendering.element(i, bytes.length)) {
+            break;
+          }
+
+          rendering.value(Integer.toString((int) bytes[i] & 0xFF));
+        }
+
+        rendering.exit();
       }
 
       if (bitstr.pad_bits() > 0) {
-        renderer.renderSpecialSymbol("::size(" + (8 - bitstr.pad_bits()) + ")");
+        rendering.symbol("::size(" + (8 - bitstr.pad_bits()) + ")");
       }
 
-      renderer.renderSpecialSymbol(">>");
+      rendering.delimiter(">>");
     }
   }
 
-  public static boolean isPrintable(OtpErlangString s) {
-    java.lang.String str = s.toString();
-    for (int i = 0; i < str.length(); i++) {
+  /**
+   * @return {@code true} if the prefix of {@code s} that can be rendered within {@code budget} is printable.
+   *   Characters past that prefix are not checked, as they are never rendered.
+   */
+  public static boolean isPrintable(@NotNull OtpErlangString s, @NotNull Budget budget) {
+    java.lang.String str = s.stringValue();
+
+    return isPrintable(str, charactersPrefixLength(str, budget.maxCharacters));
+  }
+
+  private static boolean isPrintable(@NotNull java.lang.String str, int length) {
+    for (int i = 0; i < length; i++) {
       char c = str.charAt(i);
       if (!isPrintable(c)) return false;
     }
@@ -172,25 +503,63 @@ public class Presentation extends com.intellij.xdebugger.frame.presentation.XVal
       || c == 27 /* esc */ || c == 7; /* bell */
   }
 
-  private static void renderErlangString(OtpErlangString str, XValueTextRenderer renderer) {
-    if (isPrintable(str)) {
-      renderer.renderSpecialSymbol("'");
-      renderer.renderValue(
-              str
-                      .stringValue()
-                      .replace("'", "\\'")
-      );
-      renderer.renderSpecialSymbol("'");
+  private static void renderErlangString(OtpErlangString str, Rendering rendering) {
+    java.lang.String text = str.stringValue();
+    int prefixLength = charactersPrefixLength(text, rendering.remainingCharacters);
+
+    if (isPrintable(text, prefixLength)) {
+      rendering.delimiter("'");
+      rendering.value(text.substring(0, prefixLength).replace("'", "\\'"));
+      rendering.delimiter("'");
     } else {
-      renderObject(new OtpErlangList(str.stringValue()), renderer);
+      renderObject(new OtpErlangList(text), rendering);
     }
   }
 
+  /**
+   * Escaping only lengthens the text, so only this prefix of {@code text} can fit in {@code characters}.  One more
+   * character than fits is kept, so that spending it marks the rendering as truncated.
+   */
+  private static int charactersPrefixLength(@NotNull java.lang.String text, int characters) {
+    return (int) Math.min(text.length(), Math.max(characters, 0) + 1L);
+  }
+
   @Nullable
   public static java.lang.String toUtf8String(OtpErlangBitstr bitstr) {
     if (bitstr.pad_bits() > 0) return null;
+    byte[] bytes = bitstr.binaryValue();
+    return toUtf8String(bytes, bytes.length);
+  }
+
+  /**
+   * UTF-8 never takes more than 4 bytes per character, so only this prefix of {@code bytes} can fit in
+   * {@code characters}.
+   */
+  private static int utf8PrefixLength(@NotNull byte[] bytes, int characters) {
+    return (int) Math.min(bytes.length, 4L * Math.max(characters, 0) + 4);
+  }
+
+  /**
+   * @param length decode only this many bytes from the start.  If shorter than {@code bytes}, a character cut off at
+   *               the end is dropped instead of making the prefix invalid.
+   */
+  @Nullable
+  private static java.lang.String toUtf8String(@NotNull byte[] bytes, int length) {
+    int end = length;
+
+    if (length < bytes.length) {
+      // back up over the continuation bytes and lead byte of a character cut off by the prefix
+      int start = end;
+
+      while (start > 0 && start > end - 4 && (bytes[start] & 0xC0) == 0x80) {
+        start--;
+      }
+
+      end = start;
+    }
+
     try {
-      return Charset.availableCharsets().get("UTF-8").newDecoder().decode(ByteBuffer.wrap(bitstr.binaryValue())).toString();
+      return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes, 0, end)).toString();
     } catch (CharacterCodingException e) {
       return null;
     }
@@ -206,19 +575,46 @@ public class Presentation extends com.intellij.xdebugger.frame.presentation.XVal
     }
   }
 
-  private static boolean isStruct(OtpErlangMap map) {
-    return structType(map) != null;
+  private static boolean isStructKey(OtpErlangObject key) {
+    return key instanceof OtpErlangAtom && ((OtpErlangAtom) key).atomValue().equals("__struct__");
+  }
+
+  private static boolean isSymbolKey(OtpErlangObject key) {
+    return key instanceof OtpErlangAtom && !((OtpErlangAtom) key).atomValue().startsWith("Elixir.");
   }
 
   public static boolean hasSymbolKeys(OtpErlangMap map) {
     for (OtpErlangObject key : map.keys()) {
-      if (!(key instanceof OtpErlangAtom) || ((OtpErlangAtom) key).atomValue().startsWith("Elixir.")) return false;
+      if (!isSymbolKey(key)) return false;
     }
     return true;
   }
 
+  /**
+   * @return {@code true} if the keys that can be rendered within {@code budget} are all atoms that aren't aliases.
+   *   Keys past those are not checked, as they are never rendered.  The {@code __struct__} key is never rendered as an
+   *   entry, so it does not count against the budget.
+   */
+  public static boolean hasSymbolKeys(@NotNull OtpErlangMap map, @NotNull Budget budget) {
+    int checked = 0;
+
+    for (OtpErlangObject key : map.keys()) {
+      if (checked >= budget.maxElements) {
+        break;
+      }
+
+      if (!isStructKey(key)) {
+        if (!isSymbolKey(key)) return false;
+
+        checked++;
+      }
+    }
+
+    return true;
+  }
+
   @Override
   public void renderValue(@NotNull XValueTextRenderer renderer) {
-    Presentation.renderObject(myValue, renderer);
+    rendering().replay(renderer);
   }
 }
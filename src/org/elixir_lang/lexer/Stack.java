@@ -2,15 +2,71 @@ package org.elixir_lang.lexer;
 
 import com.intellij.psi.tree.IElementType;
 import org.elixir_lang.lexer.group.Quote;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EmptyStackException;
 
 /**
  * Created by luke.imhoff on 8/19/14.
+ *
+ * The frames are kept in an immutable, singly-linked {@link Snapshot}, so {@link #snapshot()} and
+ * {@link #restore(Snapshot)} are O(1) and can be done at every token, which lets the lexer restart in the middle of
+ * groups and interpolations.  Unlike {@link java.util.Stack}, no method is synchronized: each lexer has its own stack.
  */
-public class Stack extends java.util.Stack<StackFrame> {
+public class Stack {
+    /*
+     * Static
+     */
+
+    /**
+     * The frames on the stack at one point while lexing.  {@code null} is the empty stack.
+     */
+    public static final class Snapshot {
+        @NotNull
+        private final StackFrame top;
+        @Nullable
+        private final Snapshot rest;
+
+        private Snapshot(@NotNull StackFrame top, @Nullable Snapshot rest) {
+            this.top = top;
+            this.rest = rest;
+        }
+    }
+
     /*
      * Instance
      */
 
+    @Nullable
+    private Snapshot snapshot = null;
+
+    public boolean empty() {
+        return snapshot == null;
+    }
+
+    @NotNull
+    public StackFrame peek() {
+        if (snapshot == null) {
+            throw new EmptyStackException();
+        }
+
+        return snapshot.top;
+    }
+
+    @NotNull
+    public StackFrame pop() {
+        StackFrame top = peek();
+        //noinspection ConstantConditions
+        snapshot = snapshot.rest;
+
+        return top;
+    }
+
+    public void push(@NotNull StackFrame stackFrame) {
+        snapshot = new Snapshot(stackFrame, snapshot);
+    }
+
     public void push(int currentLexicalState) {
         StackFrame stackFrame = new StackFrame(currentLexicalState);
         push(stackFrame);
@@ -26,6 +82,26 @@ public class Stack extends java.util.Stack<StackFrame> {
         push(stackFrame);
     }
 
+    private void replaceTop(@NotNull StackFrame top) {
+        pop();
+        push(top);
+    }
+
+    /**
+     * @return the current frames.  Later pushes and pops do not change the returned snapshot.
+     */
+    @Nullable
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @param snapshot frames previously returned by {@link #snapshot()}
+     */
+    public void restore(@Nullable Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
     public IElementType fragmentType() {
         return peek().fragmentType();
     }
@@ -39,7 +115,7 @@ public class Stack extends java.util.Stack<StackFrame> {
     }
 
     public void nameSigil(char sigilName) {
-        peek().nameSigil(sigilName);
+        replaceTop(peek().nameSigil(sigilName));
     }
 
     public IElementType promoterType() {
@@ -47,7 +123,7 @@ public class Stack extends java.util.Stack<StackFrame> {
     }
 
     public void setPromoter(String promoter) {
-        peek().setPromoter(promoter);
+        replaceTop(peek().setPromoter(promoter));
     }
 
     public IElementType sigilNameType() {
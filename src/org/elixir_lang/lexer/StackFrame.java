@@ -6,51 +6,69 @@ import org.elixir_lang.lexer.group.Quote;
 import org.elixir_lang.lexer.group.Sigil;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Created by luke.imhoff on 8/19/14.
+ *
+ * Immutable, so that frames can be shared between {@link Stack.Snapshot}s.  The properties that are only known after
+ * the frame is pushed, such as the sigil name and promoter, are filled in by {@link #nameSigil(char)} and
+ * {@link #setPromoter(String)}, which return a new frame.
  */
 public class StackFrame {
     /*
      * Static
      */
 
-    public static final Map<String, String> TERMINATOR_BY_PROMOTER = new HashMap<String, String>();
+    public static final Map<String, String> TERMINATOR_BY_PROMOTER;
 
     static {
-        TERMINATOR_BY_PROMOTER.put("'", "'");
-        TERMINATOR_BY_PROMOTER.put("'''", "'''");
-        TERMINATOR_BY_PROMOTER.put("(", ")");
-        TERMINATOR_BY_PROMOTER.put("/", "/");
-        TERMINATOR_BY_PROMOTER.put("<", ">");
-        TERMINATOR_BY_PROMOTER.put("[", "]");
-        TERMINATOR_BY_PROMOTER.put("\"", "\"");
-        TERMINATOR_BY_PROMOTER.put("\"\"\"", "\"\"\"");
-        TERMINATOR_BY_PROMOTER.put("{", "}");
-        TERMINATOR_BY_PROMOTER.put("|", "|");
+        Map<String, String> terminatorByPromoter = new HashMap<String, String>();
+        terminatorByPromoter.put("'", "'");
+        terminatorByPromoter.put("'''", "'''");
+        terminatorByPromoter.put("(", ")");
+        terminatorByPromoter.put("/", "/");
+        terminatorByPromoter.put("<", ">");
+        terminatorByPromoter.put("[", "]");
+        terminatorByPromoter.put("\"", "\"");
+        terminatorByPromoter.put("\"\"\"", "\"\"\"");
+        terminatorByPromoter.put("{", "}");
+        terminatorByPromoter.put("|", "|");
+
+        // unmodifiable because lexers on different threads share it
+        TERMINATOR_BY_PROMOTER = Collections.unmodifiableMap(terminatorByPromoter);
     }
 
     /*
      * Instance
      */
 
-    private Base group = null;
-    private Boolean interpolation = null;
-    private Integer lastLexicalState = null;
-    private String promoter = null;
-    private Character sigilName = null;
+    private final Base group;
+    private final Boolean interpolation;
+    private final int lastLexicalState;
+    private final String promoter;
+    private final Character sigilName;
 
     public StackFrame(int lastLexicalState) {
-        this.lastLexicalState = lastLexicalState;
+        this(null, null, lastLexicalState, null, null);
     }
 
     public StackFrame(Quote group, String promoter, int lastLexicalState) {
+        this(group, true, lastLexicalState, promoter, null);
+    }
+
+    private StackFrame(Base group,
+                       Boolean interpolation,
+                       int lastLexicalState,
+                       String promoter,
+                       Character sigilName) {
         this.group = group;
-        this.interpolation = true;
+        this.interpolation = interpolation;
         this.lastLexicalState = lastLexicalState;
         this.promoter = promoter;
+        this.sigilName = sigilName;
     }
 
     private Base getGroup() {
@@ -61,8 +79,11 @@ public class StackFrame {
         return this.group;
     }
 
-    // private because Quote groups should be set from constructors and Sigil groups should be set from nameSigil
-    private void setGroup(Base group) {
+    /**
+     * @return copy of this frame with the sigil name and the group and interpolation it implies set
+     */
+    @NotNull
+    public StackFrame nameSigil(char sigilName) {
         if (this.group != null) {
             throw new IllegalStateException(
                     "Group already set to " + this.group + ".  " +
@@ -70,33 +91,6 @@ public class StackFrame {
             );
         }
 
-        this.group = group;
-    }
-
-    public void nameSigil(char sigilName) {
-        Sigil group = Sigil.fetch(sigilName);
-        setGroup(group);
-
-        setSigilName(sigilName);
-        setInterpolation(SigilName.isInterpolating(sigilName));
-    }
-
-    public void setQuotePromoter(String quotePromoter) {
-        setInterpolation(true);
-        this.group = Quote.fetch(quotePromoter);
-    }
-
-    private char getSigilName() {
-        if (sigilName == null) {
-            throw new IllegalStateException("SigilName is not set.");
-        }
-
-        return sigilName;
-    }
-
-    // setSigilName is private because public API is nameSigil, which in addition to setting interpolation and sigilName
-    // with setSigilName, also sets the group with setGroup.
-    private void setSigilName(char sigilName) {
         if (this.sigilName != null) {
             throw new IllegalStateException(
                     "SigilName already set to " + this.sigilName + ".  " +
@@ -104,10 +98,6 @@ public class StackFrame {
             );
         }
 
-        this.sigilName = sigilName;
-    }
-
-    private void setInterpolation(boolean interpolation) {
         if (this.interpolation != null) {
             throw new IllegalStateException(
                     "Parent already set to " + this.interpolation + ".  " +
@@ -115,7 +105,21 @@ public class StackFrame {
             );
         }
 
-        this.interpolation = interpolation;
+        return new StackFrame(
+                Sigil.fetch(sigilName),
+                SigilName.isInterpolating(sigilName),
+                lastLexicalState,
+                promoter,
+                sigilName
+        );
+    }
+
+    private char getSigilName() {
+        if (sigilName == null) {
+            throw new IllegalStateException("SigilName is not set.");
+        }
+
+        return sigilName;
     }
 
     public boolean isInterpolating() {
@@ -127,19 +131,7 @@ public class StackFrame {
     }
 
     public int getLastLexicalState() {
-        if (lastLexicalState == null) {
-            throw new IllegalStateException("LastLexicalState not set");
-        }
-
-        return lastLexicalState.intValue();
-    }
-
-    public void setLastLexicalState(int lastLexicalState) {
-        if (this.lastLexicalState != null) {
-            throw new IllegalStateException("LastLexicalState already set");
-        }
-
-        this.lastLexicalState = lastLexicalState;
+        return lastLexicalState;
     }
 
     public String getPromoter() {
@@ -150,7 +142,11 @@ public class StackFrame {
         return promoter;
     }
 
-    public void setPromoter(@NotNull String promoter) {
+    /**
+     * @return copy of this frame with the promoter set
+     */
+    @NotNull
+    public StackFrame setPromoter(@NotNull String promoter) {
         if (this.promoter != null) {
             throw new IllegalStateException(
                     "Promoter already set to " + this.promoter + ". " +
@@ -159,7 +155,7 @@ public class StackFrame {
             );
         }
 
-        this.promoter = promoter;
+        return new StackFrame(group, interpolation, lastLexicalState, promoter, sigilName);
     }
 
     public IElementType promoterType() {
@@ -208,7 +204,6 @@ public class StackFrame {
 
         // unregistered promoters are their own terminators
         if (terminator == null) {
-            TERMINATOR_BY_PROMOTER.put(promoter, promoter);
             terminator = promoter;
         }
 
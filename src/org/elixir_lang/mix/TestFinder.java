@@ -10,7 +10,7 @@ import com.intellij.util.Function;
 import org.elixir_lang.psi.NamedElement;
 import org.elixir_lang.psi.call.Call;
 import org.elixir_lang.psi.call.StubBased;
-import org.elixir_lang.psi.stub.index.AllName;
+import org.elixir_lang.psi.stub.index.ModularName;
 import org.elixir_lang.structure_view.element.Quote;
 import org.elixir_lang.structure_view.element.modular.Implementation;
 import org.elixir_lang.structure_view.element.modular.Module;
@@ -45,7 +45,7 @@ public class TestFinder implements com.intellij.testIntegration.TestFinder {
 
                     if (correspondingCanonicalName != null) {
                         Collection<NamedElement> correspondingElements = StubIndex.getElements(
-                                AllName.KEY,
+                                ModularName.KEY,
                                 correspondingCanonicalName,
                                 project,
                                 scope,
@@ -0,0 +1,275 @@
+package org.elixir_lang.mix.runner;
+
+import com.ericsson.otp.erlang.*;
+import com.intellij.execution.testframework.sm.ServiceMessageBuilder;
+import com.intellij.openapi.diagnostic.Logger;
+import jetbrains.buildServer.messages.serviceMessages.ServiceMessage;
+import jetbrains.buildServer.messages.serviceMessages.ServiceMessageTypes;
+import jetbrains.buildServer.messages.serviceMessages.TestFailed;
+import jetbrains.buildServer.messages.serviceMessages.TestFinished;
+import jetbrains.buildServer.messages.serviceMessages.TestIgnored;
+import jetbrains.buildServer.messages.serviceMessages.TestStarted;
+import jetbrains.buildServer.messages.serviceMessages.TestSuiteFinished;
+import jetbrains.buildServer.messages.serviceMessages.TestSuiteStarted;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Loopback socket the {@code TeamCityExUnitFormatter} sends its test events over, so that they don't have to be
+ * scraped out of the test process's stdout line by line.
+ *
+ * Each frame is a 4-byte big-endian length followed by {@code :erlang.term_to_binary/1} of
+ * {@code {message_name, [{attribute_name, attribute_value}]}}, where all names and values are binaries.  The first
+ * frame is the token from {@link #ENVIRONMENT_VARIABLE}, so that only the test process can send events.
+ */
+public class EventChannel implements Closeable {
+    /**
+     * {@code <port>:<token>}.  When it is not set, such as for older formatters, the events are still printed as
+     * TeamCity service messages to stdout.
+     */
+    public static final String ENVIRONMENT_VARIABLE = "INTELLIJ_ELIXIR_EXUNIT_EVENTS";
+    private static final Logger LOGGER = Logger.getInstance(EventChannel.class);
+    private static final int TOKEN_BYTE_COUNT = 16;
+
+    @NotNull
+    private final ServerSocket serverSocket;
+    @NotNull
+    private final String token;
+    @Nullable
+    private volatile Socket socket = null;
+    /**
+     * Counted down once the test process connects or the channel is closed
+     */
+    @NotNull
+    private final CountDownLatch connected = new CountDownLatch(1);
+
+    public EventChannel() throws IOException {
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        token = token();
+    }
+
+    @NotNull
+    private static String token() {
+        byte[] bytes = new byte[TOKEN_BYTE_COUNT];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder(TOKEN_BYTE_COUNT * 2);
+
+        for (byte b : bytes) {
+            token.append(String.format("%02X", b));
+        }
+
+        return token.toString();
+    }
+
+    @NotNull
+    private static String string(@NotNull OtpErlangObject object) {
+        String string;
+
+        if (object instanceof OtpErlangBinary) {
+            string = new String(((OtpErlangBinary) object).binaryValue(), StandardCharsets.UTF_8);
+        } else {
+            string = object.toString();
+        }
+
+        return string;
+    }
+
+    /**
+     * @return service message for {@code frame} or {@code null} if {@code frame} is not an event.
+     */
+    @Nullable
+    static ServiceMessage serviceMessage(@NotNull byte[] frame) {
+        ServiceMessage serviceMessage = null;
+
+        try {
+            OtpErlangObject event = new OtpInputStream(frame).read_any();
+
+            if (event instanceof OtpErlangTuple) {
+                OtpErlangTuple tuple = (OtpErlangTuple) event;
+
+                if (tuple.arity() == 2 && tuple.elementAt(1) instanceof OtpErlangList) {
+                    Map<String, String> attributes = new LinkedHashMap<>();
+
+                    for (OtpErlangObject element : (OtpErlangList) tuple.elementAt(1)) {
+                        OtpErlangTuple attribute = (OtpErlangTuple) element;
+                        attributes.put(string(attribute.elementAt(0)), string(attribute.elementAt(1)));
+                    }
+
+                    serviceMessage = serviceMessage(string(tuple.elementAt(0)), attributes);
+                }
+            }
+        } catch (OtpErlangDecodeException | ClassCastException | NumberFormatException | ParseException exception) {
+            LOGGER.error("Malformed ExUnit event", exception);
+        }
+
+        return serviceMessage;
+    }
+
+    /**
+     * The typed message for each event the formatter sends, so that it can be visited without formatting it as
+     * TeamCity text and parsing it again.  Each keeps all of the frame's attributes, such as {@code nodeId} and
+     * {@code parentNodeId}, as they are.
+     */
+    @NotNull
+    private static ServiceMessage serviceMessage(@NotNull String messageName,
+                                                 @NotNull Map<String, String> attributes) throws ParseException {
+        Map<String, String> unmodifiableAttributes = Collections.unmodifiableMap(attributes);
+        String name = attributes.getOrDefault("name", "");
+        ServiceMessage serviceMessage;
+
+        switch (messageName) {
+            case ServiceMessageTypes.TEST_SUITE_STARTED:
+                serviceMessage = new TestSuiteStarted(name) {
+                    @NotNull
+                    @Override
+                    public Map<String, String> getAttributes() {
+                        return unmodifiableAttributes;
+                    }
+                };
+                break;
+            case ServiceMessageTypes.TEST_SUITE_FINISHED:
+                serviceMessage = new TestSuiteFinished(name) {
+                    @NotNull
+                    @Override
+                    public Map<String, String> getAttributes() {
+                        return unmodifiableAttributes;
+                    }
+                };
+                break;
+            case ServiceMessageTypes.TEST_STARTED:
+                serviceMessage = new TestStarted(name, false, attributes.get("locationHint")) {
+                    @NotNull
+                    @Override
+                    public Map<String, String> getAttributes() {
+                        return unmodifiableAttributes;
+                    }
+                };
+                break;
+            case ServiceMessageTypes.TEST_FINISHED:
+                serviceMessage = new TestFinished(name, Integer.parseInt(attributes.getOrDefault("duration", "0"))) {
+                    @NotNull
+                    @Override
+                    public Map<String, String> getAttributes() {
+                        return unmodifiableAttributes;
+                    }
+                };
+                break;
+            case ServiceMessageTypes.TEST_FAILED:
+                serviceMessage = new TestFailed(name, attributes.getOrDefault("message", "")) {
+                    @NotNull
+                    @Override
+                    public Map<String, String> getAttributes() {
+                        return unmodifiableAttributes;
+                    }
+                };
+                break;
+            case ServiceMessageTypes.TEST_IGNORED:
+                serviceMessage = new TestIgnored(name, attributes.getOrDefault("message", "")) {
+                    @NotNull
+                    @Override
+                    public Map<String, String> getAttributes() {
+                        return unmodifiableAttributes;
+                    }
+                };
+                break;
+            default:
+                // the formatter sends no other events, but don't drop any a newer formatter adds
+                ServiceMessageBuilder builder = new ServiceMessageBuilder(messageName);
+
+                for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                    builder.addAttribute(attribute.getKey(), attribute.getValue());
+                }
+
+                serviceMessage = ServiceMessage.parse(builder.toString());
+        }
+
+        return serviceMessage;
+    }
+
+    @NotNull
+    public String environmentValue() {
+        return serverSocket.getLocalPort() + ":" + token;
+    }
+
+    /**
+     * Waits up to {@code milliseconds} for the test process to connect.
+     *
+     * @return {@code false} if the test process never connected, such as when {@code mix test} failed to compile,
+     *   so there are no events to wait for.
+     */
+    boolean awaitConnection(long milliseconds) throws InterruptedException {
+        return connected.await(milliseconds, TimeUnit.MILLISECONDS) && socket != null;
+    }
+
+    /**
+     * Waits for the test process to connect and passes the service message for each of its events to
+     * {@code serviceMessageConsumer} until the test process disconnects or the channel is closed.
+     */
+    void consume(@NotNull Consumer<ServiceMessage> serviceMessageConsumer) {
+        try (Socket socket = serverSocket.accept();
+             DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            this.socket = socket;
+            connected.countDown();
+
+            if (token.equals(new String(readFrame(input), StandardCharsets.UTF_8))) {
+                while (true) {
+                    ServiceMessage serviceMessage = serviceMessage(readFrame(input));
+
+                    if (serviceMessage != null) {
+                        serviceMessageConsumer.accept(serviceMessage);
+                    }
+                }
+            } else {
+                LOGGER.warn("ExUnit event channel connected with wrong token");
+            }
+        } catch (EOFException eofException) {
+            // test process disconnected
+        } catch (IOException ioException) {
+            if (!serverSocket.isClosed()) {
+                LOGGER.warn(ioException);
+            }
+        } finally {
+            close();
+        }
+    }
+
+    @NotNull
+    private static byte[] readFrame(@NotNull DataInputStream input) throws IOException {
+        byte[] frame = new byte[input.readInt()];
+        input.readFully(frame);
+
+        return frame;
+    }
+
+    @Override
+    public void close() {
+        // nothing can connect anymore
+        connected.countDown();
+
+        try {
+            serverSocket.close();
+
+            Socket socket = this.socket;
+
+            if (socket != null) {
+                socket.close();
+            }
+        } catch (IOException ioException) {
+            LOGGER.debug(ioException);
+        }
+    }
+}
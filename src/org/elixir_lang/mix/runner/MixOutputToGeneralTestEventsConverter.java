@@ -2,20 +2,45 @@ package org.elixir_lang.mix.runner;
 
 import com.intellij.execution.process.ProcessOutputTypes;
 import com.intellij.execution.testframework.TestConsoleProperties;
+import com.intellij.execution.testframework.sm.runner.GeneralTestEventsProcessor;
 import com.intellij.execution.testframework.sm.runner.OutputLineSplitter;
 import com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.Key;
+import jetbrains.buildServer.messages.serviceMessages.ServiceMessage;
+import jetbrains.buildServer.messages.serviceMessages.ServiceMessageVisitor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class MixOutputToGeneralTestEventsConverter extends OutputToGeneralTestEventsConverter {
+    /**
+     * How long to wait after the test process terminates for the events it sent before terminating to be processed
+     */
+    private static final long EVENT_DRAIN_TIMEOUT_SECONDS = 5;
+    /**
+     * How long to wait after the test process terminates for a connection it made just before terminating to be
+     * accepted.  Test processes that never connect, such as when {@code mix test} fails to compile, only wait this
+     * long.
+     */
+    private static final long EVENT_CONNECTION_TIMEOUT_MILLISECONDS = 200;
     private static final Logger LOGGER = Logger.getInstance(MixOutputToGeneralTestEventsConverter.class);
     @NotNull
     private static final Method SUPER_PROCESS_CONSISTENT_TEXT_METHOD;
+    /**
+     * The visitor that turns service messages into test events for the {@link GeneralTestEventsProcessor}.  It's
+     * {@code private}, but using it lets events from the {@link EventChannel} skip formatting and parsing text.
+     */
+    @Nullable
+    private static final Field SERVICE_MESSAGE_VISITOR_FIELD;
 
     static {
         try {
@@ -30,8 +55,29 @@ public class MixOutputToGeneralTestEventsConverter extends OutputToGeneralTestEv
         } catch (NoSuchMethodException e) {
             throw new RuntimeException(e);
         }
+
+        Field serviceMessageVisitorField;
+
+        try {
+            serviceMessageVisitorField =
+                    OutputToGeneralTestEventsConverter.class.getDeclaredField("myServiceMessageVisitor");
+            serviceMessageVisitorField.setAccessible(true);
+        } catch (NoSuchFieldException noSuchFieldException) {
+            LOGGER.warn("ExUnit events will be formatted as text for the TeamCity parser", noSuchFieldException);
+            serviceMessageVisitorField = null;
+        }
+
+        SERVICE_MESSAGE_VISITOR_FIELD = serviceMessageVisitorField;
     }
 
+    @Nullable
+    private final EventChannel eventChannel;
+    @Nullable
+    private final Future<?> eventChannelFuture;
+    /**
+     * Events from the {@link #eventChannel} and lines from stdout and stderr arrive on different threads
+     */
+    private final Object lock = new Object();
     @NotNull
     private OutputLineSplitter splitter;
     @Nullable
@@ -39,9 +85,25 @@ public class MixOutputToGeneralTestEventsConverter extends OutputToGeneralTestEv
     @Nullable
     private Status stdoutStatus = null;
 
-    MixOutputToGeneralTestEventsConverter(@NotNull String testFrameworkName, @NotNull TestConsoleProperties consoleProperties) {
+    MixOutputToGeneralTestEventsConverter(@NotNull String testFrameworkName,
+                                          @NotNull TestConsoleProperties consoleProperties,
+                                          @Nullable EventChannel eventChannel) {
         super(testFrameworkName, consoleProperties);
 
+        this.eventChannel = eventChannel;
+
+        if (eventChannel != null) {
+            eventChannelFuture = ApplicationManager.getApplication().executeOnPooledThread(() ->
+                    eventChannel.consume(serviceMessage -> {
+                        synchronized (lock) {
+                            visit(serviceMessage);
+                        }
+                    })
+            );
+        } else {
+            eventChannelFuture = null;
+        }
+
         splitter = new OutputLineSplitter(consoleProperties.isEditable()) {
             @Override
             protected void onLineAvailable(@NotNull String text, @NotNull Key outputType, boolean tcLikeFakeOutput) {
@@ -55,13 +117,46 @@ public class MixOutputToGeneralTestEventsConverter extends OutputToGeneralTestEv
      */
     @Override
     public void flushBufferBeforeTerminating() {
-        super.flushBufferBeforeTerminating();
-        processStatuses();
+        drainEventChannel();
+
+        synchronized (lock) {
+            super.flushBufferBeforeTerminating();
+            processStatuses();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (eventChannel != null) {
+            eventChannel.close();
+        }
+
+        super.dispose();
     }
 
     @Override
     public void process(String text, Key outputType) {
-        splitter.process(text, outputType);
+        synchronized (lock) {
+            splitter.process(text, outputType);
+        }
+    }
+
+    private void drainEventChannel() {
+        if (eventChannelFuture != null) {
+            try {
+                //noinspection ConstantConditions
+                if (eventChannel.awaitConnection(EVENT_CONNECTION_TIMEOUT_MILLISECONDS)) {
+                    eventChannelFuture.get(EVENT_DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException exception) {
+                LOGGER.warn("ExUnit events did not finish before the test process terminated", exception);
+            } finally {
+                //noinspection ConstantConditions
+                eventChannel.close();
+            }
+        }
     }
 
     private void processStatus(@NotNull Status status, @NotNull Key outputType) {
@@ -126,6 +221,27 @@ public class MixOutputToGeneralTestEventsConverter extends OutputToGeneralTestEv
         }
     }
 
+    /**
+     * Dispatches {@code serviceMessage} to the same visitor that TeamCity text from stdout is dispatched to.
+     */
+    private void visit(@NotNull ServiceMessage serviceMessage) {
+        ServiceMessageVisitor serviceMessageVisitor = null;
+
+        if (SERVICE_MESSAGE_VISITOR_FIELD != null) {
+            try {
+                serviceMessageVisitor = (ServiceMessageVisitor) SERVICE_MESSAGE_VISITOR_FIELD.get(this);
+            } catch (IllegalAccessException illegalAccessException) {
+                LOGGER.error(illegalAccessException);
+            }
+        }
+
+        if (serviceMessageVisitor != null) {
+            serviceMessage.visit(serviceMessageVisitor);
+        } else {
+            superProcessConsistentText(serviceMessage.asString() + "\n", ProcessOutputTypes.STDOUT, false);
+        }
+    }
+
     private void superProcessConsistentText(@NotNull String text, @NotNull Key outputType, boolean tcLikeFakeOutput) {
         try {
             SUPER_PROCESS_CONSISTENT_TEXT_METHOD.invoke(this, text, outputType, tcLikeFakeOutput);
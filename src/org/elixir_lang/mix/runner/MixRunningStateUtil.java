@@ -194,7 +194,7 @@ public class MixRunningStateUtil {
     }
 
     @NotNull
-    static OSProcessHandler runMix(Project project, GeneralCommandLine commandLine) throws ExecutionException {
+    public static OSProcessHandler runMix(Project project, GeneralCommandLine commandLine) throws ExecutionException {
         try {
             return new ColoredProcessHandler(commandLine.createProcess(), commandLine.getCommandLineString());
         } catch (ExecutionException e) {
@@ -7,12 +7,24 @@ import com.intellij.execution.testframework.sm.SMCustomMessagesParsing;
 import com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter;
 import com.intellij.execution.testframework.sm.runner.SMTRunnerConsoleProperties;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class MixTestConsoleProperties extends SMTRunnerConsoleProperties implements SMCustomMessagesParsing {
+    @Nullable
+    private final EventChannel eventChannel;
+
     public MixTestConsoleProperties(@NotNull RunConfiguration config,
                                     @NotNull String testFrameworkName,
                                     @NotNull Executor executor) {
+        this(config, testFrameworkName, executor, null);
+    }
+
+    public MixTestConsoleProperties(@NotNull RunConfiguration config,
+                                    @NotNull String testFrameworkName,
+                                    @NotNull Executor executor,
+                                    @Nullable EventChannel eventChannel) {
         super(config, testFrameworkName, executor);
+        this.eventChannel = eventChannel;
         setIdBasedTestTree(true);
     }
 
@@ -21,6 +33,6 @@ public class MixTestConsoleProperties extends SMTRunnerConsoleProperties impleme
             @NotNull String testFrameworkName,
             @NotNull TestConsoleProperties consoleProperties
     ) {
-        return new MixOutputToGeneralTestEventsConverter(testFrameworkName, consoleProperties);
+        return new MixOutputToGeneralTestEventsConverter(testFrameworkName, consoleProperties, eventChannel);
     }
 }
@@ -4,6 +4,7 @@ import com.intellij.execution.DefaultExecutionResult;
 import com.intellij.execution.ExecutionException;
 import com.intellij.execution.ExecutionResult;
 import com.intellij.execution.Executor;
+import com.intellij.execution.configurations.GeneralCommandLine;
 import com.intellij.execution.process.ProcessHandler;
 import com.intellij.execution.runners.ExecutionEnvironment;
 import com.intellij.execution.runners.ProgramRunner;
@@ -16,8 +17,10 @@ import com.intellij.openapi.projectRoots.Sdk;
 import org.elixir_lang.console.ElixirConsoleUtil;
 import org.elixir_lang.exunit.ElixirModules;
 import org.elixir_lang.jps.builder.ParametersList;
+import org.elixir_lang.mix.runner.EventChannel;
 import org.elixir_lang.mix.runner.MixRunConfigurationBase;
 import org.elixir_lang.mix.runner.MixRunningState;
+import org.elixir_lang.mix.runner.MixRunningStateUtil;
 import org.elixir_lang.mix.runner.MixTestConsoleProperties;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -27,6 +30,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 import static org.elixir_lang.file.LevelPropertyPusher.level;
+import static org.elixir_lang.mix.runner.MixRunningStateUtil.runMix;
 import static org.elixir_lang.sdk.elixir.Type.mostSpecificSdk;
 
 final class MixExUnitRunningState extends MixRunningState {
@@ -34,6 +38,13 @@ final class MixExUnitRunningState extends MixRunningState {
 
     private final String TEST_FRAMEWORK_NAME = "ExUnit";
 
+    /**
+     * Created in {@link #startProcess()}, so the test process can connect to it, and consumed by the
+     * {@link MixTestConsoleProperties} converter.
+     */
+    @Nullable
+    private EventChannel eventChannel = null;
+
     MixExUnitRunningState(@NotNull ExecutionEnvironment environment, MixExUnitRunConfiguration configuration) {
         super(environment, configuration);
     }
@@ -144,12 +155,31 @@ final class MixExUnitRunningState extends MixRunningState {
         }
     }
 
+    @NotNull
+    @Override
+    protected ProcessHandler startProcess() throws ExecutionException {
+        GeneralCommandLine commandLine = MixRunningStateUtil.commandLine(
+                myConfiguration, elixirParametersList(myConfiguration), myConfiguration.mixParametersList()
+        );
+
+        try {
+            eventChannel = new EventChannel();
+            commandLine.withEnvironment(EventChannel.ENVIRONMENT_VARIABLE, eventChannel.environmentValue());
+        } catch (IOException ioException) {
+            LOGGER.warn("Could not open ExUnit event channel.  Events will be read from stdout.", ioException);
+            eventChannel = null;
+        }
+
+        return runMix(myConfiguration.getProject(), commandLine);
+    }
+
     @NotNull
     @Override
     public ExecutionResult execute(@NotNull Executor executor, @NotNull ProgramRunner runner) throws ExecutionException {
         ProcessHandler processHandler = startProcess();
 
-        TestConsoleProperties properties = new MixTestConsoleProperties(myConfiguration, TEST_FRAMEWORK_NAME, executor);
+        TestConsoleProperties properties =
+                new MixTestConsoleProperties(myConfiguration, TEST_FRAMEWORK_NAME, executor, eventChannel);
         ConsoleView console = createAndAttachConsole(TEST_FRAMEWORK_NAME, processHandler, properties);
         ElixirConsoleUtil.attachFilters(myConfiguration.getProject(), console);
 
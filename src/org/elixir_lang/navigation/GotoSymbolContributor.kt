@@ -1,13 +1,16 @@
 package org.elixir_lang.navigation
 
-import com.intellij.navigation.ChooseByNameContributor
+import com.intellij.navigation.ChooseByNameContributorEx
 import com.intellij.navigation.NavigationItem
 import com.intellij.openapi.project.Project
 import com.intellij.psi.PsiElement
 import com.intellij.psi.search.GlobalSearchScope
 import com.intellij.psi.stubs.StubIndex
 import com.intellij.util.ArrayUtil
+import com.intellij.util.Processor
 import com.intellij.util.containers.ContainerUtil
+import com.intellij.util.indexing.FindSymbolParameters
+import com.intellij.util.indexing.IdFilter
 import org.elixir_lang.Visibility
 import org.elixir_lang.errorreport.Logger
 import org.elixir_lang.psi.AtUnqualifiedNoParenthesesCall
@@ -23,7 +26,7 @@ import java.util.*
 /**
  * @see [org.intellij.erlang.go.ErlangSymbolContributor](https://github.com/ignatov/intellij-erlang/blob/2f59e59a31ecbb2fbdf9b7a3547fb4f206b0807e/src/org/intellij/erlang/go/ErlangSymbolContributor.java)
  */
-class GotoSymbolContributor : ChooseByNameContributor {
+class GotoSymbolContributor : ChooseByNameContributorEx {
     private fun globalSearchScope(project: Project, includeNonProjectItems: Boolean): GlobalSearchScope =
             if (includeNonProjectItems) {
                 GlobalSearchScope.allScope(project)
@@ -248,6 +251,21 @@ class GotoSymbolContributor : ChooseByNameContributor {
         return ArrayUtil.toStringArray(StubIndex.getInstance().getAllKeys(AllName.KEY, project))
     }
 
+    /**
+     * Streams the names in `scope` to `processor` instead of copying every key in the project into an array, so
+     * that the dialog can stop as soon as it has enough matches.
+     */
+    override fun processNames(processor: Processor<String>, scope: GlobalSearchScope, filter: IdFilter?) {
+        StubIndex.getInstance().processAllKeys(AllName.KEY, processor, scope, filter)
+    }
+
+    override fun processElementsWithName(name: String,
+                                         processor: Processor<NavigationItem>,
+                                         parameters: FindSymbolParameters) {
+        getItemsByName(name, parameters.completePattern, parameters.project, parameters.isSearchInLibraries)
+                .all { processor.process(it) }
+    }
+
     private fun error(userMessage: String, element: PsiElement) =
             Logger.error(this.javaClass, userMessage, element)
 }
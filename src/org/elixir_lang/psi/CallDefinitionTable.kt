@@ -0,0 +1,85 @@
+package org.elixir_lang.psi
+
+import com.intellij.psi.StubBasedPsiElement
+import com.intellij.psi.stubs.StubElement
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import org.elixir_lang.Arity
+import org.elixir_lang.ArityRange
+import org.elixir_lang.Name
+import org.elixir_lang.psi.call.Call
+import org.elixir_lang.psi.impl.call.macroChildCallSequence
+import org.elixir_lang.psi.stub.call.Stubbic
+import org.elixir_lang.structure_view.element.CallDefinitionClause
+
+/**
+ * The call definition clauses (`def`, `defp`, `defmacro` and `defmacrop`) directly in a modular with their name and
+ * arity range, in source order and by name, so that completion, `import` filtering and resolution don't walk
+ * [org.elixir_lang.psi.impl.call.macroChildCalls] and recompute each clause's head for every lookup.
+ */
+class CallDefinitionTable private constructor(val entries: List<Entry>) {
+    data class Entry(val call: Call, val name: Name, val arityRange: ArityRange)
+
+    private val entriesByName: Map<Name, List<Entry>> = entries.groupBy { it.name }
+
+    val names: Set<Name>
+        get() = entriesByName.keys
+
+    fun entries(name: Name): List<Entry> = entriesByName[name].orEmpty()
+
+    fun entries(name: Name, arity: Arity): List<Entry> = entries(name).filter { it.arityRange.contains(arity) }
+
+    companion object {
+        /**
+         * The table for `modular`, which is only rebuilt after the file containing `modular` changes.
+         */
+        @JvmStatic
+        fun of(modular: Call): CallDefinitionTable =
+                CachedValuesManager.getCachedValue(modular) {
+                    CachedValueProvider.Result.create(build(modular), modular)
+                }
+
+        /**
+         * Builds from the stub when the AST of `modular` is not loaded, as for the `import`ed modulars in other files,
+         * so that looking up definitions does not parse those files.
+         */
+        private fun build(modular: Call): CallDefinitionTable {
+            val stub = (modular as? StubBasedPsiElement<*>)?.stub
+
+            val entries = if (stub != null) {
+                entries(stub)
+            } else {
+                entries(modular)
+            }
+
+            return CallDefinitionTable(entries)
+        }
+
+        private fun entries(modular: Call): List<Entry> =
+                modular
+                        .macroChildCallSequence()
+                        .filter { CallDefinitionClause.`is`(it) }
+                        .mapNotNull { call ->
+                            CallDefinitionClause.nameArityRange(call)?.let { (name, arityRange) ->
+                                Entry(call, name, arityRange)
+                            }
+                        }
+                        .toList()
+
+        /**
+         * Only stubs for nameable calls are created, so, like
+         * [org.elixir_lang.psi.stub.index.CallDefinitionClauseNameArity], the call definition clauses of a modular are
+         * its children stubs with a head arity range.
+         */
+        private fun entries(stub: StubElement<*>): List<Entry> =
+                stub.childrenStubs.mapNotNull { childStub ->
+                    (childStub as? Stubbic)?.let { stubbic ->
+                        stubbic.callDefinitionClauseHeadArityRange()?.let { arityRange ->
+                            stubbic.name?.let { name ->
+                                (childStub.psi as? Call)?.let { call -> Entry(call, name, arityRange) }
+                            }
+                        }
+                    }
+                }
+    }
+}
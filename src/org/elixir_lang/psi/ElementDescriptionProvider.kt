@@ -16,6 +16,7 @@ import org.elixir_lang.psi.impl.hasKeywordKey
 import org.elixir_lang.reference.Callable
 import org.elixir_lang.reference.module.ResolvableName.resolvableName
 import org.elixir_lang.structure_view.element.*
+import org.elixir_lang.structure_view.element.Use
 import org.elixir_lang.structure_view.element.modular.Implementation
 import org.elixir_lang.structure_view.element.modular.Module
 import org.elixir_lang.structure_view.element.modular.Protocol
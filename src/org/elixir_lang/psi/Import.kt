@@ -18,7 +18,6 @@ import org.elixir_lang.psi.impl.call.finalArguments
 import org.elixir_lang.psi.impl.hasKeywordKey
 import org.elixir_lang.psi.impl.maybeModularNameToModular
 import org.elixir_lang.psi.impl.stripAccessExpression
-import org.elixir_lang.structure_view.element.CallDefinitionClause.Companion.nameArityRange
 
 /**
  * An `import` call
@@ -35,16 +34,29 @@ object Import {
      * matching names in `:except` list.
      */
     @JvmStatic
-    fun callDefinitionClauseCallWhile(importCall: Call, function: (Call) -> Boolean) {
+    fun callDefinitionClauseCallWhile(importCall: Call, function: (Call) -> Boolean) =
+            callDefinitionClauseCallWhile(importCall, { it.entries }, function)
+
+    /**
+     * Like [callDefinitionClauseCallWhile], but `function` is only called on the imported call definition clauses in
+     * `candidates` of the imported modular's [CallDefinitionTable], such as the [CallDefinitionTable.entries] for one
+     * name.
+     */
+    @JvmStatic
+    fun callDefinitionClauseCallWhile(importCall: Call,
+                                      candidates: (CallDefinitionTable) -> List<CallDefinitionTable.Entry>,
+                                      function: (Call) -> Boolean) {
         try {
             modular(importCall)
         } catch (stackOverflowError: StackOverflowError) {
             Logger.error(Import::class.java, "StackoverflowError while finding modular for import", importCall)
             null
         }?.let { modularCall ->
-            val optionsFilter = callDefinitionClauseCallFilter(importCall)
+            val optionsFilter = entryFilter(importCall)
 
-            Modular.callDefinitionClauseCallWhile(modularCall) { call -> !optionsFilter(call) || function(call) }
+            candidates(CallDefinitionTable.of(modularCall)).all { entry ->
+                !optionsFilter(entry) || function(entry.call)
+            }
         }
     }
 
@@ -61,7 +73,7 @@ object Import {
     @JvmStatic
     fun `is`(call: Call): Boolean = call.isCalling(KERNEL, IMPORT) && call.resolvedFinalArity() in 1..2
 
-    private val TRUE: (Call) -> Boolean = { true }
+    private val TRUE: (CallDefinitionTable.Entry) -> Boolean = { true }
 
     private fun aritiesByNameFromNameByArityKeywordList(list: ElixirList): Map<Name, List<Arity>> {
         val aritiesByName = mutableMapOf<Name, MutableList<Int>>()
@@ -91,23 +103,24 @@ object Import {
         emptyMap()
 
     /**
-     * A function that returns `true` for call definition clauses that are imported by `importCall`
+     * A function that returns `true` for the [CallDefinitionTable.Entry]s of call definition clauses that are imported
+     * by `importCall`
      *
      * @param importCall `import` call
      */
-    private fun callDefinitionClauseCallFilter(importCall: Call): (Call) -> Boolean {
+    private fun entryFilter(importCall: Call): (CallDefinitionTable.Entry) -> Boolean {
         val finalArguments = importCall.finalArguments()
 
         return if (finalArguments != null && finalArguments.size >= 2) {
-            optionsCallDefinitionClauseCallFilter(finalArguments[1])
+            optionsEntryFilter(finalArguments[1])
         } else {
             TRUE
         }
     }
 
-    private fun exceptCallDefinitionClauseCallFilter(element: PsiElement): (Call) -> Boolean {
-        val only = onlyCallDefinitionClauseCallFilter(element)
-        return { call -> !only(call) }
+    private fun exceptEntryFilter(element: PsiElement): (CallDefinitionTable.Entry) -> Boolean {
+        val only = onlyEntryFilter(element)
+        return { entry -> !only(entry) }
     }
 
     private fun keywordKeyToName(keywordKey: Quotable): String? = (keywordKey.quote() as? OtpErlangAtom)?.atomValue()
@@ -126,14 +139,12 @@ object Import {
             }
         }
 
-    private fun onlyCallDefinitionClauseCallFilter(element: PsiElement): (Call) -> Boolean {
+    private fun onlyEntryFilter(element: PsiElement): (CallDefinitionTable.Entry) -> Boolean {
         val aritiesByName = aritiesByNameFromNameByArityKeywordList(element)
 
-        return { call ->
-            nameArityRange(call)?.let { (callName, callArityRange) ->
-                aritiesByName[callName]?.let { arities ->
-                    arities.any { callArityRange.contains(it) }
-                }
+        return { entry ->
+            aritiesByName[entry.name]?.let { arities ->
+                arities.any { entry.arityRange.contains(it) }
             } ?: false
         }
     }
@@ -148,11 +159,12 @@ object Import {
             importCall.finalArguments()?.firstOrNull()?.maybeModularNameToModular(importCall.parent)
 
     /**
-     * A [Function] that returns `true` for call definition clauses that are imported by `importCall`
+     * A [Function] that returns `true` for the [CallDefinitionTable.Entry]s of call definition clauses that are
+     * imported by `importCall`
      *
      * @param options options (second argument) to an `import Module, ...` call.
      */
-    private fun optionsCallDefinitionClauseCallFilter(options: PsiElement?): (Call) -> Boolean {
+    private fun optionsEntryFilter(options: PsiElement?): (CallDefinitionTable.Entry) -> Boolean {
         var filter = TRUE
 
         if (options != null && options is QuotableKeywordList) {
@@ -160,9 +172,9 @@ object Import {
                 /* although using both `except` and `only` is invalid semantically, support it to handle transient code
                    and take the final option as the filter in that state */
                 if (quotableKeywordPair.hasKeywordKey("except")) {
-                    filter = exceptCallDefinitionClauseCallFilter(quotableKeywordPair.keywordValue)
+                    filter = exceptEntryFilter(quotableKeywordPair.keywordValue)
                 } else if (quotableKeywordPair.hasKeywordKey("only")) {
-                    filter = onlyCallDefinitionClauseCallFilter(quotableKeywordPair.keywordValue)
+                    filter = onlyEntryFilter(quotableKeywordPair.keywordValue)
                 }
             }
         }
@@ -7,54 +7,27 @@ import org.elixir_lang.ArityRange
 import org.elixir_lang.Name
 import org.elixir_lang.psi.call.Call
 import org.elixir_lang.psi.call.Named
-import org.elixir_lang.psi.impl.call.macroChildCallSequence
-import org.elixir_lang.psi.impl.call.macroChildCalls
-import org.elixir_lang.structure_view.element.CallDefinitionClause
 
 data class AccumulatorContinue<out R>(val accumulator: R, val `continue`: Boolean)
 
 object Modular {
     @JvmStatic
     fun callDefinitionClauseCallSequence(modular: Call): Sequence<Call> =
-            modular.macroChildCallSequence().filter { CallDefinitionClause.`is`(it) }
+            CallDefinitionTable.of(modular).entries.asSequence().map { it.call }
 
     @JvmStatic
-    fun callDefinitionClauseCallWhile(modular: Call, function: (Call) -> Boolean): Boolean {
-        val childCalls = modular.macroChildCalls()
-        var keepProcessing = true
-
-        for (childCall in childCalls) {
-            if (CallDefinitionClause.`is`(childCall) && !function(childCall)) {
-                keepProcessing = false
-
-                break
-            }
-        }
-
-        return keepProcessing
-    }
+    fun callDefinitionClauseCallWhile(modular: Call, function: (Call) -> Boolean): Boolean =
+            CallDefinitionTable.of(modular).entries.all { function(it.call) }
 
     @JvmStatic
     inline fun <R> callDefinitionClauseCallFoldWhile(
             modular: Call,
             initial: R,
             foldWhile: (Call, R) -> AccumulatorContinue<R>
-    ): AccumulatorContinue<R> {
-        val childCalls = modular.macroChildCalls()
-        var accumulatorContinue = AccumulatorContinue(initial, true)
-
-        for (childChild in childCalls) {
-            if (CallDefinitionClause.`is`(childChild)) {
-                accumulatorContinue = foldWhile(childChild, accumulatorContinue.accumulator)
-
-                if (!accumulatorContinue.`continue`) {
-                    break
-                }
+    ): AccumulatorContinue<R> =
+            entryFoldWhile(CallDefinitionTable.of(modular).entries, initial) { entry, acc ->
+                foldWhile(entry.call, acc)
             }
-        }
-
-        return accumulatorContinue
-    }
 
     inline fun <R> callDefinitionClauseCallFoldWhile(
             modular: Call,
@@ -62,15 +35,8 @@ object Modular {
             initial: R,
             foldWhile: (Call, Name, ArityRange,  R) -> AccumulatorContinue<R>
     ): AccumulatorContinue<R> =
-            callDefinitionClauseCallFoldWhile(modular, initial) { callDefinitionClauseCall, acc ->
-                CallDefinitionClause.nameArityRange(callDefinitionClauseCall)?.let { (name, arityRange) ->
-                    if (name == functionName) {
-                            foldWhile(callDefinitionClauseCall, name, arityRange, acc)
-                    } else {
-                        null
-                    }
-                } ?:
-                AccumulatorContinue(acc, true)
+            entryFoldWhile(CallDefinitionTable.of(modular).entries(functionName), initial) { entry, acc ->
+                foldWhile(entry.call, entry.name, entry.arityRange, acc)
             }
 
     @JvmStatic
@@ -81,18 +47,31 @@ object Modular {
             initial: R,
             foldWhile: (Call, String, IntRange, R) -> AccumulatorContinue<R>
     ): AccumulatorContinue<R> =
-            callDefinitionClauseCallFoldWhile(
-                    modular,
-                    functionName,
+            entryFoldWhile(
+                    CallDefinitionTable.of(modular).entries(functionName, resolvedFinalArity),
                     initial
-            ) { callDefinitionClauseCall, name, arityRange, acc ->
-                if (arityRange.contains(resolvedFinalArity)) {
-                    foldWhile(callDefinitionClauseCall, name, arityRange, acc)
-                } else {
-                    AccumulatorContinue(acc, true)
-                }
+            ) { entry, acc ->
+                foldWhile(entry.call, entry.name, entry.arityRange, acc)
             }
 
+    inline fun <R> entryFoldWhile(
+            entries: List<CallDefinitionTable.Entry>,
+            initial: R,
+            foldWhile: (CallDefinitionTable.Entry, R) -> AccumulatorContinue<R>
+    ): AccumulatorContinue<R> {
+        var accumulatorContinue = AccumulatorContinue(initial, true)
+
+        for (entry in entries) {
+            accumulatorContinue = foldWhile(entry, accumulatorContinue.accumulator)
+
+            if (!accumulatorContinue.`continue`) {
+                break
+            }
+        }
+
+        return accumulatorContinue
+    }
+
     @JvmStatic
     fun forEachCallDefinitionClauseNameIdentifier(
             modular: Call,
@@ -120,15 +99,7 @@ object Modular {
                                               resolvedFinalArity: Int,
                                               function: (Call) -> Boolean) {
         if (functionName != null) {
-            callDefinitionClauseCallWhile(modular) { callDefinitionClauseCall ->
-                CallDefinitionClause.nameArityRange(callDefinitionClauseCall)?.let { (name, arityRange) ->
-                    if (name == functionName) {
-                        !(arityRange.contains(resolvedFinalArity) && !function(callDefinitionClauseCall))
-                    } else {
-                        null
-                    }
-                } ?: true
-            }
+            CallDefinitionTable.of(modular).entries(functionName, resolvedFinalArity).all { function(it.call) }
         }
     }
 }
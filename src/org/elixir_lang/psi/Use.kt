@@ -0,0 +1,119 @@
+package org.elixir_lang.psi
+
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiManager
+import com.intellij.psi.impl.source.PsiFileImpl
+import com.intellij.psi.stubs.StubElement
+import com.intellij.psi.stubs.StubTree
+import org.elixir_lang.psi.call.Call
+import org.elixir_lang.psi.impl.call.finalArguments
+import org.elixir_lang.psi.impl.stripAccessExpression
+import org.elixir_lang.psi.stub.call.Stubbic
+import org.elixir_lang.psi.stub.index.using.Indexer
+import org.elixir_lang.psi.stub.index.using.Injection
+import org.elixir_lang.psi.stub.index.using.Using
+import org.elixir_lang.structure_view.element.CallDefinitionClause
+
+/**
+ * A `use` call
+ */
+object Use {
+    /**
+     * The atom argument to `use Module, argument`, without the `:`.
+     */
+    @JvmStatic
+    fun argument(useCall: Call): String? =
+            (useCall.finalArguments()?.getOrNull(1)?.stripAccessExpression() as? ElixirAtom)?.text?.removePrefix(":")
+
+    /**
+     * The call definition clause that `injection` of kind [Injection.Kind.DEFINITION] was recorded for.  When the AST
+     * of `virtualFile` is not loaded, the clause is found among its stubs, so resolving through a `use` does not parse
+     * the file declaring `__using__`.
+     */
+    @JvmStatic
+    fun definition(project: Project, virtualFile: VirtualFile, injection: Injection): Call? =
+            PsiManager.getInstance(project).findFile(virtualFile)?.let { file ->
+                (file as? PsiFileImpl)
+                        ?.takeUnless { it.isContentsLoaded }
+                        ?.stubTree
+                        ?.let { stubDefinition(it, injection) }
+                        ?: astDefinition(file, injection)
+            }
+
+    /**
+     * Calls `function` on each [Injection] of the `__using__` of the module `useCall` uses while `function` returns
+     * `true`.  The injections of a `use` that is itself injected are expanded in its place, so `function` is never
+     * called on an [Injection.Kind.USE].
+     *
+     * @return `false` if `function` returned `false`
+     */
+    @JvmStatic
+    fun injectionWhile(useCall: Call, function: (VirtualFile, Injection) -> Boolean): Boolean =
+            modularName(useCall)?.let { modularName ->
+                injectionWhile(useCall.project, modularName, argument(useCall), mutableSetOf(), function)
+            } ?: true
+
+    /**
+     * Whether `call` is a `use Module` or `use Module, opts` call
+     */
+    @JvmStatic
+    fun `is`(call: Call): Boolean = org.elixir_lang.structure_view.element.Use.`is`(call)
+
+    private fun astDefinition(file: PsiFile, injection: Injection): Call? =
+            file.findElementAt(injection.offset)?.let { leaf ->
+                generateSequence(leaf) { it.parent }
+                        .takeWhile { it.textRange.startOffset == injection.offset }
+                        .filterIsInstance<Call>()
+                        .firstOrNull { CallDefinitionClause.`is`(it) }
+            }
+
+    private fun injectionWhile(project: Project,
+                               modularName: String,
+                               argument: String?,
+                               visited: MutableSet<Pair<String, String?>>,
+                               function: (VirtualFile, Injection) -> Boolean): Boolean =
+            // `visited` stops `use`s that inject each other
+            if (visited.add(modularName to argument)) {
+                Using.injections(project, modularName, argument).all { (virtualFile, injection) ->
+                    if (injection.kind == Injection.Kind.USE) {
+                        injectionWhile(project, injection.name, injection.detail, visited, function)
+                    } else {
+                        function(virtualFile, injection)
+                    }
+                }
+            } else {
+                true
+            }
+
+    private fun modularName(useCall: Call): String? =
+            (useCall.finalArguments()?.firstOrNull()?.stripAccessExpression() as? QualifiableAlias)
+                    ?.fullyQualifiedName()
+
+    /**
+     * The definition is a child stub of the clauses returning its quote: `__using__` itself, or the 0-arity `def`
+     * named by the `use` argument.  Its arity range is checked, so that a definition the indexer did not number, such
+     * as one nested in an `if` in the quote, falls back to the AST instead of picking the wrong clause.
+     */
+    private fun stubDefinition(stubTree: StubTree, injection: Injection): Call? {
+        val quotingName = injection.argument ?: Indexer.USING
+
+        return stubTree
+                .plainList
+                .asSequence()
+                .filter { (it as? Stubbic)?.canonicalNameSet()?.contains(injection.module) == true }
+                .flatMap { it.childrenStubs.asSequence() }
+                .filter { isCallDefinitionClause(it, quotingName) }
+                .flatMap { it.childrenStubs.asSequence() }
+                .filter { isCallDefinitionClause(it, injection.name) }
+                .elementAtOrNull(injection.ordinal)
+                ?.takeIf { (it as Stubbic).callDefinitionClauseHeadArityRange() == injection.arityRange }
+                ?.psi as? Call
+    }
+
+    private fun isCallDefinitionClause(stub: StubElement<*>, name: String): Boolean =
+            (stub as? Stubbic)?.let { stubbic ->
+                stubbic.callDefinitionClauseHeadArityRange() != null && stubbic.name == name
+            } ?: false
+}
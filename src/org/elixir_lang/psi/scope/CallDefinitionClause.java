@@ -2,18 +2,24 @@ package org.elixir_lang.psi.scope;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.ResolveState;
 import com.intellij.psi.scope.PsiScopeProcessor;
 import org.elixir_lang.errorreport.Logger;
+import org.elixir_lang.psi.CallDefinitionTable;
 import org.elixir_lang.psi.ElixirFile;
 import org.elixir_lang.psi.Import;
-import org.elixir_lang.psi.Modular;
+import org.elixir_lang.psi.Use;
 import org.elixir_lang.psi.call.Call;
+import org.elixir_lang.psi.stub.index.using.Injection;
 import org.elixir_lang.structure_view.element.modular.Module;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+import java.util.function.Function;
+
 import static org.elixir_lang.psi.call.name.Module.KERNEL;
 import static org.elixir_lang.psi.call.name.Module.KERNEL_SPECIAL_FORMS;
 import static org.elixir_lang.psi.impl.call.CallImplKt.macroChildCalls;
@@ -23,6 +29,9 @@ public abstract class CallDefinitionClause implements PsiScopeProcessor {
      * CONSTANTS
      */
 
+    /**
+     * The {@code import} or {@code use} call that brought the call definition clause into scope
+     */
     protected static final Key<Call> IMPORT_CALL = new Key<>("IMPORT_CALL");
     public static final Key<String> MODULAR_CANONICAL_NAME = new Key<>("MODULAR_CANONICAL_NAME");
 
@@ -62,6 +71,28 @@ public abstract class CallDefinitionClause implements PsiScopeProcessor {
      * Protected Instance Methods
      */
 
+    /**
+     * The entries of an imported modular's {@link CallDefinitionTable} that
+     * {@link #executeOnCallDefinitionClause(Call, ResolveState)} is called on, so that processors that only want one
+     * name don't check every definition in modulars as big as {@code Kernel}.
+     *
+     * @return all of {@link CallDefinitionTable#getEntries()} by default
+     */
+    @NotNull
+    protected List<CallDefinitionTable.Entry> candidateEntries(@NotNull CallDefinitionTable callDefinitionTable) {
+        return callDefinitionTable.getEntries();
+    }
+
+    /**
+     * Whether a call definition clause named {@code name} that a {@code use} injected could be processed, so that
+     * only those are found in the file declaring {@code __using__}.
+     *
+     * @return {@code true} by default
+     */
+    protected boolean isCandidateName(@NotNull String name) {
+        return true;
+    }
+
     /**
      * Called on every {@link Call} where {@link org.elixir_lang.structure_view.element.CallDefinitionClause#is} is
      * {@code true} when checking tree with {@link #execute(Call, ResolveState)}
@@ -81,6 +112,21 @@ public abstract class CallDefinitionClause implements PsiScopeProcessor {
      * Private Instance Methods
      */
 
+    private boolean candidateCallDefinitionClauseCallWhile(@NotNull Call modular,
+                                                           @NotNull Function<Call, Boolean> function) {
+        boolean keepProcessing = true;
+
+        for (CallDefinitionTable.Entry entry : candidateEntries(CallDefinitionTable.of(modular))) {
+            if (!function.apply(entry.getCall())) {
+                keepProcessing = false;
+
+                break;
+            }
+        }
+
+        return keepProcessing;
+    }
+
     private boolean execute(@NotNull Call element, @NotNull final ResolveState state) {
         boolean keepProcessing = true;
 
@@ -92,11 +138,20 @@ public abstract class CallDefinitionClause implements PsiScopeProcessor {
             try {
                 Import.INSTANCE.callDefinitionClauseCallWhile(
                         element,
+                        this::candidateEntries,
                         callDefinitionClause -> executeOnCallDefinitionClause(callDefinitionClause, importState)
                 );
             } catch (StackOverflowError stackOverflowError) {
                 Logger.error(CallDefinitionClause.class, "StackOverflowError while processing import", element);
             }
+        } else if (Use.is(element)) {
+            final ResolveState useState = state.put(IMPORT_CALL, element);
+            final Project project = element.getProject();
+
+            keepProcessing = Use.injectionWhile(
+                    element,
+                    (virtualFile, injection) -> executeOnInjection(project, virtualFile, injection, useState)
+            );
         } else if (Module.Companion.is(element)) {
             Call[] childCalls = macroChildCalls(element);
 
@@ -118,6 +173,56 @@ public abstract class CallDefinitionClause implements PsiScopeProcessor {
         return keepProcessing;
     }
 
+    /**
+     * Processes what {@code __using__} injected as recorded in the {@link org.elixir_lang.psi.stub.index.using.Index},
+     * instead of expanding {@code __using__}.
+     */
+    private boolean executeOnInjection(@NotNull Project project,
+                                       @NotNull VirtualFile virtualFile,
+                                       @NotNull Injection injection,
+                                       @NotNull ResolveState state) {
+        boolean keepProcessing = true;
+
+        switch (injection.getKind()) {
+            case DEFINITION:
+                if (isCandidateName(injection.getName())) {
+                    Call definition = Use.definition(project, virtualFile, injection);
+
+                    if (definition != null) {
+                        keepProcessing = executeOnCallDefinitionClause(definition, state);
+                    }
+                }
+
+                break;
+            case IMPORT:
+                keepProcessing = org.elixir_lang.Reference.forEachNavigationElement(
+                        project,
+                        injection.getName(),
+                        navigationElement -> {
+                            boolean keepProcessingNavigationElements = true;
+
+                            if (navigationElement instanceof Call) {
+                                keepProcessingNavigationElements = candidateCallDefinitionClauseCallWhile(
+                                        (Call) navigationElement,
+                                        callDefinitionClause -> executeOnCallDefinitionClause(
+                                                callDefinitionClause,
+                                                state
+                                        )
+                                );
+                            }
+
+                            return keepProcessingNavigationElements;
+                        }
+                );
+
+                break;
+            default:
+                break;
+        }
+
+        return keepProcessing;
+    }
+
     private boolean implicitImports(@NotNull PsiElement element, @NotNull ResolveState state) {
         Project project = element.getProject();
 
@@ -130,7 +235,7 @@ public abstract class CallDefinitionClause implements PsiScopeProcessor {
                     if (navigationElement instanceof Call) {
                         Call modular = (Call) navigationElement;
 
-                        keepProcessingNavigationElements = Modular.callDefinitionClauseCallWhile(
+                        keepProcessingNavigationElements = candidateCallDefinitionClauseCallWhile(
                                 modular,
                                 callDefinitionClause -> executeOnCallDefinitionClause(callDefinitionClause, state)
                         );
@@ -152,7 +257,7 @@ public abstract class CallDefinitionClause implements PsiScopeProcessor {
                         if (navigationElement instanceof Call) {
                             Call modular = (Call) navigationElement;
 
-                            keepProcessingNavigationElements = Modular.callDefinitionClauseCallWhile(
+                            keepProcessingNavigationElements = candidateCallDefinitionClauseCallWhile(
                                     modular,
                                     callDefinitionClause -> executeOnCallDefinitionClause(
                                             callDefinitionClause,
@@ -6,12 +6,14 @@ import com.intellij.psi.PsiNamedElement
 import com.intellij.psi.ResolveState
 import com.intellij.psi.scope.PsiScopeProcessor
 import org.elixir_lang.psi.*
+import org.elixir_lang.psi.call.Call
 import org.elixir_lang.psi.call.Named
 
 import org.elixir_lang.psi.call.name.Function.ALIAS
 import org.elixir_lang.psi.call.name.Module.KERNEL
 import org.elixir_lang.psi.impl.call.finalArguments
 import org.elixir_lang.psi.impl.call.keywordArgument
+import org.elixir_lang.psi.stub.index.using.Injection
 import org.elixir_lang.psi.stub.type.call.Stub.isModular
 
 abstract class Module : PsiScopeProcessor {
@@ -28,10 +30,23 @@ abstract class Module : PsiScopeProcessor {
                                                 aliasedName: String,
                                                 state: ResolveState): Boolean
 
+    /**
+     * Called for each `alias` injected by the `__using__` of the module `useCall` uses.
+     *
+     * @param aliasedName the name the alias is available as in the modular containing `useCall`
+     * @param unaliasedName the full module name `aliasedName` stands for
+     * @return `true` to keep processing; `false` to stop processing.
+     */
+    protected abstract fun executeOnInjectedAlias(useCall: Call,
+                                                  aliasedName: String,
+                                                  unaliasedName: String,
+                                                  state: ResolveState): Boolean
+
     protected fun execute(match: Named, state: ResolveState): Boolean =
             when {
                 isModular(match) -> executeOnMaybeAliasedName(match, match.name, state)
                 match.isCalling(KERNEL, ALIAS) -> executeOnAliasCall(match, state)
+                Use.`is`(match) -> executeOnUseCall(match, state)
                 else -> true
             }
 
@@ -180,6 +195,15 @@ abstract class Module : PsiScopeProcessor {
                 else -> true
             }
 
+    private fun executeOnUseCall(useCall: Call, state: ResolveState): Boolean =
+            Use.injectionWhile(useCall) { _, injection ->
+                if (injection.kind == Injection.Kind.ALIAS && injection.detail != null) {
+                    executeOnInjectedAlias(useCall, injection.detail, injection.name, state)
+                } else {
+                    true
+                }
+            }
+
     private fun executeOnMaybeAliasedName(named: PsiNamedElement,
                                           aliasedName: String?,
                                           state: ResolveState): Boolean =
@@ -10,6 +10,7 @@ import com.intellij.util.containers.ContainerUtil;
 import org.elixir_lang.psi.NamedElement;
 import org.elixir_lang.psi.scope.Atom;
 import org.elixir_lang.psi.stub.index.AllName;
+import org.elixir_lang.psi.stub.index.name_prefix.NamePrefix;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -26,14 +27,13 @@ public class Variants extends Atom {
 
     private List<LookupElement> projectLookupElementStream(@NotNull PsiElement entrance) {
         Project project = entrance.getProject();
-        /* getAllKeys is not the actual keys in the actual project.  They need to be checked.
-           See https://intellij-support.jetbrains.com/hc/en-us/community/posts/207930789-StubIndex-persisting-between-test-runs-leading-to-incorrect-completions */
-        Collection<String> indexedNameCollection = StubIndex.getInstance().getAllKeys(AllName.KEY, project);
         GlobalSearchScope scope = GlobalSearchScope.allScope(project);
 
-        Collection<String> atomNameCollection = atomNameCollection(indexedNameCollection);
         String prefix = prefix(entrance);
-        Collection<String> prefixedNameCollection = prefixedNameCollection(atomNameCollection, prefix);
+        // Only reads the names starting with `prefix`, without loading their elements
+        Collection<String> prefixedNameCollection = atomNameCollection(
+                NamePrefix.names(project, prefix, scope, Variants::isAtomName)
+        );
         List<LookupElement> lookupElementList = new ArrayList<>();
 
         for (String atomName : prefixedNameCollection) {
@@ -56,12 +56,6 @@ public class Variants extends Atom {
         return lookupElementList;
     }
 
-    @Contract(pure = true)
-    @NotNull
-    private Collection<String> prefixedNameCollection(Collection<String> atomNameCollection, String prefix) {
-        return ContainerUtil.filter(atomNameCollection, atomName -> atomName.startsWith(prefix));
-    }
-
     @Contract(pure = true)
     @NotNull
     private static String prefix(PsiElement atom) {
@@ -4,6 +4,7 @@ import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiElementResolveResult
 import com.intellij.psi.ResolveState
 import com.intellij.psi.util.PsiTreeUtil
+import org.elixir_lang.psi.CallDefinitionTable
 import org.elixir_lang.psi.call.Call
 import org.elixir_lang.psi.call.Named
 
@@ -34,6 +35,18 @@ private constructor(private val name: String,
             }
         } ?: true
 
+    /**
+     * Only the definitions named [name], unless [incompleteCode] also allows definitions it is a prefix of.
+     */
+    override fun candidateEntries(callDefinitionTable: CallDefinitionTable): List<CallDefinitionTable.Entry> =
+            if (incompleteCode) {
+                callDefinitionTable.entries
+            } else {
+                callDefinitionTable.entries(name)
+            }
+
+    override fun isCandidateName(name: String): Boolean = incompleteCode || name == this.name
+
     override fun keepProcessing(): Boolean = resolveResultOrderedSet.keepProcessing(incompleteCode)
     fun resolveResults(): Array<PsiElementResolveResult> = resolveResultOrderedSet.toTypedArray()
 
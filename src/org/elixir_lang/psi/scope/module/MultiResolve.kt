@@ -11,11 +11,12 @@ import com.intellij.psi.util.PsiTreeUtil
 import org.elixir_lang.Module.concat
 import org.elixir_lang.Module.split
 import org.elixir_lang.psi.NamedElement
+import org.elixir_lang.psi.call.Call
 import org.elixir_lang.psi.call.Named
 import org.elixir_lang.psi.impl.ElixirPsiImplUtil.ENTRANCE
 import org.elixir_lang.psi.scope.Module
 import org.elixir_lang.psi.scope.ResolveResultOrderedSet
-import org.elixir_lang.psi.stub.index.AllName
+import org.elixir_lang.psi.stub.index.ModularName
 import org.elixir_lang.reference.module.UnaliasedName
 import java.util.*
 
@@ -61,12 +62,35 @@ class MultiResolve internal constructor(private val name: String, private val in
         return resolveResultOrderedSet.keepProcessing(incompleteCode)
     }
 
+    /**
+     * Like [executeOnAliasedName], but `useCall` stands in for the `alias` call in `__using__`, so the unaliased name
+     * is the one recorded for the injection instead of one derived from `useCall`.
+     */
+    override fun executeOnInjectedAlias(useCall: Call,
+                                        aliasedName: String,
+                                        unaliasedName: String,
+                                        state: ResolveState): Boolean {
+        val namePartList = split(name)
+
+        if (aliasedName == name || aliasedName == namePartList[0]) {
+            resolveResultOrderedSet.add(useCall, true)
+
+            indexedNamedElements(useCall, unaliasedName(unaliasedName, namePartList))
+                    .map(PsiElement::getNavigationElement)
+                    .forEach { resolveResultOrderedSet.add(it, true) }
+        } else if (incompleteCode && aliasedName.startsWith(name)) {
+            resolveResultOrderedSet.add(useCall, false)
+        }
+
+        return resolveResultOrderedSet.keepProcessing(incompleteCode)
+    }
+
     fun resolveResults(): Array<PsiElementResolveResult> = resolveResultOrderedSet.toTypedArray()
 
     private val resolveResultOrderedSet = ResolveResultOrderedSet()
 
     private fun addUnaliasedNamedElementsToResolveResultList(match: PsiNamedElement, namePartList: List<String>) {
-        unaliasedName(match, namePartList)
+        unaliasedName(UnaliasedName.unaliasedName(match)!!, namePartList)
                 .let { indexedNamedElements(match, it) }
                 .map(PsiElement::getNavigationElement)
                 .forEach { resolveResultOrderedSet.add(it, true) }
@@ -79,14 +103,14 @@ class MultiResolve internal constructor(private val name: String, private val in
                            maxScope: PsiElement): Array<PsiElementResolveResult> =
                 resolveResults(name, incompleteCode, entrance, maxScope, ResolveState.initial())
 
-        private fun indexedNamedElements(match: PsiNamedElement, unaliasedName: String): Collection<NamedElement> {
+        private fun indexedNamedElements(match: PsiElement, unaliasedName: String): Collection<NamedElement> {
             val project = match.project
 
             return if (DumbService.isDumb(project)) {
                 emptyList()
             } else {
                 StubIndex.getElements(
-                        AllName.KEY,
+                        ModularName.KEY,
                         unaliasedName,
                         project,
                         GlobalSearchScope.allScope(project),
@@ -112,11 +136,9 @@ class MultiResolve internal constructor(private val name: String, private val in
             return multiResolve.resolveResults()
         }
 
-        private fun unaliasedName(match: PsiNamedElement, namePartList: List<String>): String {
-            val matchUnaliasedName = UnaliasedName.unaliasedName(match)
-
+        private fun unaliasedName(matchUnaliasedName: String, namePartList: List<String>): String {
             val unaliasedNamePartList = ArrayList<String>(namePartList.size)
-            unaliasedNamePartList.add(matchUnaliasedName!!)
+            unaliasedNamePartList.add(matchUnaliasedName)
 
             for (i in 1 until namePartList.size) {
                 unaliasedNamePartList.add(namePartList[i])
@@ -2,6 +2,7 @@ package org.elixir_lang.psi.scope.module
 
 import com.intellij.codeInsight.lookup.LookupElement
 import com.intellij.codeInsight.lookup.LookupElementBuilder
+import com.intellij.openapi.project.Project
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiNamedElement
 import com.intellij.psi.ResolveState
@@ -11,13 +12,14 @@ import com.intellij.psi.util.PsiTreeUtil.treeWalkUp
 import com.intellij.util.containers.ContainerUtil
 import org.elixir_lang.Module.concat
 import org.elixir_lang.Module.split
-import org.elixir_lang.Reference.indexedNameCollection
 import org.elixir_lang.psi.*
+import org.elixir_lang.psi.call.Call
 import org.elixir_lang.psi.call.Named
 import org.elixir_lang.psi.impl.ElixirPsiImplUtil.ENTRANCE
 import org.elixir_lang.psi.operation.Normalized
 import org.elixir_lang.psi.scope.Module
 import org.elixir_lang.psi.stub.index.AllName
+import org.elixir_lang.psi.stub.index.name_prefix.NamePrefix
 import org.elixir_lang.reference.module.UnaliasedName
 
 class Variants : Module() {
@@ -46,52 +48,18 @@ class Variants : Module() {
         )
 
         UnaliasedName.unaliasedName(match)?.let { unaliasedName ->
-            val project = match.project
+            addNestedLookupElements(match.project, aliasedName, unaliasedName)
+        }
 
-            val indexedNameCollection = indexedNameCollection(project)
-            val unaliasedNestedNames = ContainerUtil.findAll(
-                    indexedNameCollection,
-                    org.elixir_lang.Module.IsNestedUnder(unaliasedName)
-            )
+        return true
+    }
 
-            if (unaliasedNestedNames.isNotEmpty()) {
-                val scope = GlobalSearchScope.allScope(project)
-
-                for (unaliasedNestedName in unaliasedNestedNames) {
-                    val unaliasedNestedNamedElementCollection = StubIndex.getElements(
-                            AllName.KEY,
-                            unaliasedNestedName,
-                            project,
-                            scope,
-                            NamedElement::class.java
-                    )
-
-                    if (unaliasedNestedNamedElementCollection.isNotEmpty()) {
-                        val unaliasedNestedNamePartList = split(unaliasedNestedName)
-                        val unaliasedNamePartList = split(unaliasedName)
-                        val aliasedNamePartList = split(aliasedName)
-                        val aliasedNestedNamePartList = mutableListOf<String>()
-
-                        aliasedNestedNamePartList.addAll(aliasedNamePartList)
-
-                        for (i in unaliasedNamePartList.size until unaliasedNestedNamePartList.size) {
-                            aliasedNestedNamePartList.add(unaliasedNestedNamePartList[i])
-                        }
-
-                        val aliasedNestedName = concat(aliasedNestedNamePartList)
-
-                        for (unaliasedNestedNamedElement in unaliasedNestedNamedElementCollection) {
-                            lookupElementList.add(
-                                    LookupElementBuilder.createWithSmartPointer(
-                                            aliasedNestedName,
-                                            unaliasedNestedNamedElement
-                                    )
-                            )
-                        }
-                    }
-                }
-            }
-        }
+    override fun executeOnInjectedAlias(useCall: Call,
+                                        aliasedName: String,
+                                        unaliasedName: String,
+                                        state: ResolveState): Boolean {
+        lookupElementList.add(LookupElementBuilder.createWithSmartPointer(aliasedName, useCall))
+        addNestedLookupElements(useCall.project, aliasedName, unaliasedName)
 
         return true
     }
@@ -99,17 +67,61 @@ class Variants : Module() {
     private var multipleAliases: ElixirMultipleAliases? = null
     private val lookupElementList: MutableList<LookupElement> = mutableListOf()
 
+    /**
+     * Adds the modules nested under `unaliasedName` by their name under `aliasedName`
+     */
+    private fun addNestedLookupElements(project: Project, aliasedName: String, unaliasedName: String) {
+        val unaliasedNestedNames = ContainerUtil.findAll(
+                NamePrefix.names(project, "$unaliasedName."),
+                org.elixir_lang.Module.IsNestedUnder(unaliasedName)
+        )
+
+        if (unaliasedNestedNames.isNotEmpty()) {
+            val scope = GlobalSearchScope.allScope(project)
+
+            for (unaliasedNestedName in unaliasedNestedNames) {
+                val unaliasedNestedNamedElementCollection = StubIndex.getElements(
+                        AllName.KEY,
+                        unaliasedNestedName,
+                        project,
+                        scope,
+                        NamedElement::class.java
+                )
+
+                if (unaliasedNestedNamedElementCollection.isNotEmpty()) {
+                    val unaliasedNestedNamePartList = split(unaliasedNestedName)
+                    val unaliasedNamePartList = split(unaliasedName)
+                    val aliasedNamePartList = split(aliasedName)
+                    val aliasedNestedNamePartList = mutableListOf<String>()
+
+                    aliasedNestedNamePartList.addAll(aliasedNamePartList)
+
+                    for (i in unaliasedNamePartList.size until unaliasedNestedNamePartList.size) {
+                        aliasedNestedNamePartList.add(unaliasedNestedNamePartList[i])
+                    }
+
+                    val aliasedNestedName = concat(aliasedNestedNamePartList)
+
+                    for (unaliasedNestedNamedElement in unaliasedNestedNamedElementCollection) {
+                        lookupElementList.add(
+                                LookupElementBuilder.createWithSmartPointer(
+                                        aliasedNestedName,
+                                        unaliasedNestedNamedElement
+                                )
+                        )
+                    }
+                }
+            }
+        }
+    }
+
     private fun projectNameElements(entrance: PsiElement): List<LookupElement> {
         val project = entrance.project
         val prefix = multipleAliases.indexedNamePrefix()
-        /* getAllKeys is not the actual keys in the actual project.  They need to be checked.
-           See https://intellij-support.jetbrains.com/hc/en-us/community/posts/207930789-StubIndex-persisting-between-test-runs-leading-to-incorrect-completions */
-        val prefixedNameCollection = StubIndex.getInstance()
-                .getAllKeys(AllName.KEY, project)
-                .filter(String::isAlias)
-                .filterStartsWithMaybe(prefix)
-
         val scope = GlobalSearchScope.allScope(project)
+        val prefixedNameCollection = NamePrefix
+                .names(project, prefix ?: "", scope) { it.isAlias() }
+                .filter(String::isAlias)
 
         return prefixedNameCollection.flatMap { prefixedName ->
             val lookupName = prefixedName.removeMaybePrefix(prefix)
@@ -167,12 +179,6 @@ private fun ElixirMultipleAliases?.indexedNamePrefix(): String? =
             )!!.indexNamePrefix()
         }
 
-private fun List<String>.filterStartsWithMaybe(maybePrefix: String?): List<String> =
-        maybePrefix?.let { prefix ->
-            filter { element -> element.startsWith(prefix) }
-        } ?:
-        this
-
 private fun ElixirAccessExpression.indexNamePrefix(): String? =
         children.singleOrNull()?.indexNamePrefix()
 
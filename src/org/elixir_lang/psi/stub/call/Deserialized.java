@@ -5,6 +5,7 @@ import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
 import com.intellij.util.io.StringRef;
 import gnu.trove.THashSet;
+import kotlin.ranges.IntRange;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -47,19 +48,23 @@ public class Deserialized {
     public final StringRef resolvedFunctionName;
     @Nullable
     public final StringRef resolvedModuleName;
+    @Nullable
+    public final IntRange callDefinitionClauseHeadArityRange;
 
     public Deserialized(@Nullable StringRef resolvedModuleName,
                         @Nullable StringRef resolvedFunctionName,
                         int resolvedFinalArity,
                         boolean hasDoBlockOrKeyword,
                         @NotNull StringRef name,
-                        @NotNull Set<StringRef> canonicalNameSet) {
+                        @NotNull Set<StringRef> canonicalNameSet,
+                        @Nullable IntRange callDefinitionClauseHeadArityRange) {
         this.resolvedModuleName = resolvedModuleName;
         this.resolvedFunctionName = resolvedFunctionName;
         this.resolvedFinalArity = resolvedFinalArity;
         this.hasDoBlockOrKeyword = hasDoBlockOrKeyword;
         this.name = name;
         this.canonicalNameSet = canonicalNameSet;
+        this.callDefinitionClauseHeadArityRange = callDefinitionClauseHeadArityRange;
     }
 
     public <T extends Stubbic> Deserialized(@NotNull T stubbic) {
@@ -69,7 +74,8 @@ public class Deserialized {
                 stubbic.resolvedFinalArity(),
                 stubbic.hasDoBlockOrKeyword(),
                 StringRef.fromNullableString(stubbic.getName()),
-                stringRefSet(stubbic.canonicalNameSet())
+                stringRefSet(stubbic.canonicalNameSet()),
+                stubbic.callDefinitionClauseHeadArityRange()
         );
     }
 
@@ -96,6 +102,7 @@ public class Deserialized {
         boolean hasDoBlockOrKeyword = deserializeHasDoBlockOrKeyword(stubInputStream);
         StringRef name = deserializeName(stubInputStream);
         Set<StringRef> canonicalNameSet = deserializeCanonicalNameSet(stubInputStream);
+        IntRange callDefinitionClauseHeadArityRange = deserializeCallDefinitionClauseHeadArityRange(stubInputStream);
 
         assertGuard(stubInputStream, END);
 
@@ -105,10 +112,17 @@ public class Deserialized {
                 resolvedFinalArity,
                 hasDoBlockOrKeyword,
                 name,
-                canonicalNameSet
+                canonicalNameSet,
+                callDefinitionClauseHeadArityRange
         );
     }
 
+    @Nullable
+    private static IntRange deserializeCallDefinitionClauseHeadArityRange(@NotNull StubInputStream stubInputStream)
+            throws IOException {
+        return readGuarded(stubInputStream, Deserialized::readArityRange);
+    }
+
     private static Set<StringRef> deserializeCanonicalNameSet(@NotNull StubInputStream stubInputStream)
             throws IOException {
         return readGuarded(stubInputStream, Deserialized::readNameSet);
@@ -155,6 +169,20 @@ public class Deserialized {
         return read;
     }
 
+    @Nullable
+    private static IntRange readArityRange(@NotNull StubInputStream stubInputStream) throws IOException {
+        IntRange arityRange = null;
+
+        if (stubInputStream.readBoolean()) {
+            int start = stubInputStream.readVarInt();
+            int endInclusive = stubInputStream.readVarInt();
+
+            arityRange = new IntRange(start, endInclusive);
+        }
+
+        return arityRange;
+    }
+
     private static StringRef readGuardedName(@NotNull StubInputStream stubInputStream) throws IOException {
         return readGuarded(stubInputStream, StubInputStream::readName);
     }
@@ -248,6 +276,7 @@ public class Deserialized {
                     serializeHasDoBlockOrKeyword(guardedStubOutputStream);
                     serializeName(guardedStubOutputStream);
                     serializeCanonicalNameSet(guardedStubOutputStream);
+                    serializeCallDefinitionClauseHeadArityRange(guardedStubOutputStream);
                 }
         );
     }
@@ -259,6 +288,21 @@ public class Deserialized {
         );
     }
 
+    private void serializeCallDefinitionClauseHeadArityRange(@NotNull StubOutputStream stubOutputStream)
+            throws IOException {
+        writeGuarded(
+                stubOutputStream,
+                guardedStubOutputStream -> {
+                    guardedStubOutputStream.writeBoolean(callDefinitionClauseHeadArityRange != null);
+
+                    if (callDefinitionClauseHeadArityRange != null) {
+                        guardedStubOutputStream.writeVarInt(callDefinitionClauseHeadArityRange.getStart());
+                        guardedStubOutputStream.writeVarInt(callDefinitionClauseHeadArityRange.getEndInclusive());
+                    }
+                }
+        );
+    }
+
     private void serializeHasDoBlockOrKeyword(@NotNull StubOutputStream stubOutputStream) throws IOException {
         writeGuarded(
                 stubOutputStream,
@@ -6,6 +6,7 @@ import com.intellij.psi.stubs.NamedStubBase;
 import com.intellij.psi.stubs.StubElement;
 import com.intellij.util.containers.SmartHashSet;
 import com.intellij.util.io.StringRef;
+import kotlin.ranges.IntRange;
 import org.elixir_lang.psi.call.Call;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -44,6 +45,8 @@ public class Stub<T extends org.elixir_lang.psi.call.StubBased> extends NamedStu
     private final StringRef resolvedFunctionName;
     @Nullable
     private final StringRef resolvedModuleName;
+    @Nullable
+    private final IntRange callDefinitionClauseHeadArityRange;
 
     /*
      * Constructors
@@ -56,7 +59,8 @@ public class Stub<T extends org.elixir_lang.psi.call.StubBased> extends NamedStu
                 int resolvedFinalArity,
                 boolean hasDoBlockOrKeyword,
                 @NotNull String name,
-                @NotNull Set<String> canonicalNameSet) {
+                @NotNull Set<String> canonicalNameSet,
+                @Nullable IntRange callDefinitionClauseHeadArityRange) {
         this(
                 parent,
                 elementType,
@@ -65,7 +69,8 @@ public class Stub<T extends org.elixir_lang.psi.call.StubBased> extends NamedStu
                 resolvedFinalArity,
                 hasDoBlockOrKeyword,
                 StringRef.fromString(name),
-                setStringToSetStringRef(canonicalNameSet)
+                setStringToSetStringRef(canonicalNameSet),
+                callDefinitionClauseHeadArityRange
         );
     }
 
@@ -80,7 +85,8 @@ public class Stub<T extends org.elixir_lang.psi.call.StubBased> extends NamedStu
                 deserialized.resolvedFinalArity,
                 deserialized.hasDoBlockOrKeyword,
                 deserialized.name,
-                deserialized.canonicalNameSet
+                deserialized.canonicalNameSet,
+                deserialized.callDefinitionClauseHeadArityRange
         );
     }
 
@@ -91,9 +97,11 @@ public class Stub<T extends org.elixir_lang.psi.call.StubBased> extends NamedStu
                 int resolvedFinalArity,
                 boolean hasDoBlockOrKeyword,
                 @NotNull StringRef name,
-                @NotNull Set<StringRef> canonicalNameSet) {
+                @NotNull Set<StringRef> canonicalNameSet,
+                @Nullable IntRange callDefinitionClauseHeadArityRange) {
         super(parent, elementType, name);
         this.canonicalNameSet = canonicalNameSet;
+        this.callDefinitionClauseHeadArityRange = callDefinitionClauseHeadArityRange;
         this.hasDoBlockOrKeyword = hasDoBlockOrKeyword;
         this.resolvedFinalArity = resolvedFinalArity;
         this.resolvedFunctionName = resolvedFunctionName;
@@ -115,6 +123,17 @@ public class Stub<T extends org.elixir_lang.psi.call.StubBased> extends NamedStu
         return setStringRefToSetString(canonicalNameSet);
     }
 
+    /**
+     * The arities of the function or macro defined by this call.
+     *
+     * @return the arity range of the head if this call is a call definition clause; otherwise, {@code null}.
+     */
+    @Nullable
+    @Override
+    public IntRange callDefinitionClauseHeadArityRange() {
+        return callDefinitionClauseHeadArityRange;
+    }
+
     /**
      * Whether this call has a {@code do} block or a {@code :do} keyword, so it is a macro
      *
@@ -1,6 +1,7 @@
 package org.elixir_lang.psi.stub.call;
 
 import com.intellij.psi.PsiReference;
+import kotlin.ranges.IntRange;
 import org.elixir_lang.psi.call.Call;
 import org.jetbrains.annotations.Nullable;
 
@@ -15,6 +16,16 @@ public interface Stubbic {
      */
     Set<String> canonicalNameSet();
 
+    /**
+     * The arities of the function or macro defined by this call, so that it can be indexed by name/arity without
+     * loading the AST.
+     *
+     * @return the arity range of the head if this call is a call definition clause; otherwise, {@code null}.
+     * @see org.elixir_lang.structure_view.element.CallDefinitionClause.Companion#nameArityRange(Call)
+     */
+    @Nullable
+    IntRange callDefinitionClauseHeadArityRange();
+
     /**
      * Whether this call has a {@code do} block or a {@code :do} keyword, so it is a macro
      *
@@ -8,7 +8,9 @@ import org.jetbrains.annotations.NotNull;
 public class AllName extends StringStubIndexExtension<NamedElement> {
     public static final StubIndexKey<String, NamedElement> KEY = StubIndexKey.createIndexKey("elixir.all.name");
     // 4 - adds defp and defmacrop to decompiled beam files
-    public static final int VERSION = 4;
+    // 5 - stubs record call definition clause head arity ranges and defimpl for: names for the dedicated indices
+    // 6 - stubs no longer record defimpl for: names
+    public static final int VERSION = 6;
 
     @Override
     public int getVersion() {
@@ -0,0 +1,31 @@
+package org.elixir_lang.psi.stub.index;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import org.elixir_lang.psi.NamedElement;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Call definition clauses ({@code def}, {@code defmacro}, {@code defmacrop}, {@code defp}) by
+ * {@code Module.name/arity}.  A clause with default arguments is indexed once for each arity it accepts.
+ */
+public class CallDefinitionClauseNameArity extends StringStubIndexExtension<NamedElement> {
+    public static final StubIndexKey<String, NamedElement> KEY = StubIndexKey.createIndexKey("elixir.call_definition_clause.name_arity");
+    public static final int VERSION = 1;
+
+    @Override
+    public int getVersion() {
+        return super.getVersion() + VERSION;
+    }
+
+    @NotNull
+    @Override
+    public StubIndexKey<String, NamedElement> getKey() {
+        return KEY;
+    }
+
+    @NotNull
+    public static String key(@NotNull String modularCanonicalName, @NotNull String name, int arity) {
+        return modularCanonicalName + "." + name + "/" + arity;
+    }
+}
@@ -0,0 +1,26 @@
+package org.elixir_lang.psi.stub.index;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import org.elixir_lang.psi.NamedElement;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Modulars ({@code defimpl}, {@code defmodule}, {@code defprotocol} and decompiled modules) by canonical name, so
+ * that modules can be found without filtering every {@link AllName} match by kind.
+ */
+public class ModularName extends StringStubIndexExtension<NamedElement> {
+    public static final StubIndexKey<String, NamedElement> KEY = StubIndexKey.createIndexKey("elixir.modular.name");
+    public static final int VERSION = 1;
+
+    @Override
+    public int getVersion() {
+        return super.getVersion() + VERSION;
+    }
+
+    @NotNull
+    @Override
+    public StubIndexKey<String, NamedElement> getKey() {
+        return KEY;
+    }
+}
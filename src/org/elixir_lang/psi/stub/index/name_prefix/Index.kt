@@ -0,0 +1,39 @@
+package org.elixir_lang.psi.stub.index.name_prefix
+
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter
+import com.intellij.util.indexing.FileBasedIndexExtension
+import com.intellij.util.indexing.ID
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.KeyDescriptor
+import org.elixir_lang.ElixirFileType
+import org.elixir_lang.beam.FileType
+import org.elixir_lang.psi.stub.index.AllName
+
+/**
+ * The [AllName] keys of each file, bucketed by their first [KEY_LENGTH] characters, so that completion can enumerate
+ * only the names starting with a prefix, without loading any PSI, instead of filtering every key in the project.
+ */
+class Index : FileBasedIndexExtension<String, Set<String>>() {
+    override fun dependsOnFileContent() = true
+    override fun getIndexer() = INDEXER
+    override fun getInputFilter() = DefaultFileTypeSpecificInputFilter(ElixirFileType.INSTANCE, FileType.INSTANCE)
+    override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+    override fun getName() = NAME
+    override fun getValueExternalizer(): DataExternalizer<Set<String>> = NameSetExternalizer
+
+    /**
+     * Tracks [AllName.VERSION] because the names are the same as [AllName]'s keys.
+     */
+    override fun getVersion() = VERSION + AllName.VERSION
+
+    companion object {
+        const val KEY_LENGTH = 2
+        const val VERSION = 3
+
+        val INDEXER = Indexer()
+        val NAME = ID.create<String, Set<String>>("elixir.name_prefix")
+
+        fun key(name: String): String = name.take(KEY_LENGTH)
+    }
+}
@@ -0,0 +1,46 @@
+package org.elixir_lang.psi.stub.index.name_prefix
+
+import com.intellij.psi.stubs.NamedStub
+import com.intellij.psi.stubs.Stub
+import com.intellij.psi.stubs.StubTreeBuilder
+import com.intellij.util.indexing.DataIndexer
+import com.intellij.util.indexing.FileContent
+import org.elixir_lang.psi.stub.call.Stubbic
+
+/**
+ * Indexes the same names as [org.elixir_lang.psi.stub.type.Named.indexStub] puts in
+ * [org.elixir_lang.psi.stub.index.AllName].
+ *
+ * [StubTreeBuilder.buildStubTree] keeps the stub tree it builds on `inputData`, so the stub index and this index share
+ * one stub build, and one `.beam` decode, per file.
+ */
+class Indexer : DataIndexer<String, Set<String>, FileContent> {
+    override fun map(inputData: FileContent): Map<String, Set<String>> =
+            StubTreeBuilder
+                    .buildStubTree(inputData)
+                    ?.let { names(it) }
+                    ?.groupBy { Index.key(it) }
+                    ?.mapValues { (_, names) -> names.toSet() }
+                    ?: emptyMap()
+
+    private fun names(fileStub: Stub): Set<String> {
+        val names = mutableSetOf<String>()
+
+        addNames(fileStub, names)
+
+        return names
+    }
+
+    private fun addNames(stub: Stub, names: MutableSet<String>) {
+        if (stub is Stubbic) {
+            stub.name?.let { names.add(it) }
+            names.addAll(stub.canonicalNameSet())
+        } else if (stub is NamedStub<*>) {
+            stub.name?.let { names.add(it) }
+        }
+
+        for (childStub in stub.childrenStubs) {
+            addNames(childStub, names)
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.elixir_lang.psi.stub.index.name_prefix
+
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.stubs.StubIndex
+import com.intellij.util.indexing.FileBasedIndex
+import org.elixir_lang.psi.stub.index.AllName
+
+object NamePrefix {
+    /**
+     * Names in [AllName] that start with [prefix].  Only the [Index] bucket that contains [prefix] is read, and only
+     * the names are read, so no PSI is loaded.  A [prefix] shorter than [Index.KEY_LENGTH] can be in any number of
+     * buckets, so the names are the [AllName] keys instead.
+     *
+     * @param nameFilter further restricts the names, such as to only those starting with an uppercase letter for
+     *   Aliases.
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun names(project: Project,
+              prefix: String,
+              scope: GlobalSearchScope = GlobalSearchScope.allScope(project),
+              nameFilter: (String) -> Boolean = { true }): Set<String> =
+            if (DumbService.isDumb(project)) {
+                emptySet()
+            } else {
+                val names = mutableSetOf<String>()
+
+                if (prefix.length >= Index.KEY_LENGTH) {
+                    FileBasedIndex.getInstance().processValues(
+                            Index.NAME,
+                            Index.key(prefix),
+                            null,
+                            { _, nameSet ->
+                                nameSet.filterTo(names) { it.startsWith(prefix) && nameFilter(it) }
+
+                                true
+                            },
+                            scope
+                    )
+                } else {
+                    StubIndex.getInstance().processAllKeys(
+                            AllName.KEY,
+                            { name ->
+                                if (name.startsWith(prefix) && nameFilter(name)) {
+                                    names.add(name)
+                                }
+
+                                true
+                            },
+                            scope,
+                            null
+                    )
+                }
+
+                names
+            }
+}
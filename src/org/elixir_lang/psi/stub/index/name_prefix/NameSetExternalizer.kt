@@ -0,0 +1,23 @@
+package org.elixir_lang.psi.stub.index.name_prefix
+
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.DataInputOutputUtil
+import com.intellij.util.io.IOUtil
+import java.io.DataInput
+import java.io.DataOutput
+
+object NameSetExternalizer : DataExternalizer<Set<String>> {
+    override fun save(out: DataOutput, value: Set<String>) {
+        DataInputOutputUtil.writeINT(out, value.size)
+
+        for (name in value) {
+            IOUtil.writeUTF(out, name)
+        }
+    }
+
+    override fun read(input: DataInput): Set<String> {
+        val size = DataInputOutputUtil.readINT(input)
+
+        return (0 until size).mapTo(HashSet(size)) { IOUtil.readUTF(input) }
+    }
+}
@@ -0,0 +1,32 @@
+package org.elixir_lang.psi.stub.index.using
+
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter
+import com.intellij.util.indexing.FileBasedIndexExtension
+import com.intellij.util.indexing.ID
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.KeyDescriptor
+import org.elixir_lang.ElixirFileType
+
+/**
+ * The [Injection]s of each module's `defmacro __using__`, keyed by the module's canonical name, so that resolving and
+ * completing in a modular that `use`s it does not have to find, parse and walk `__using__` and the quotes it returns.
+ *
+ * Only source files are indexed: `.beam` files only have the expanded `__using__`.
+ */
+class Index : FileBasedIndexExtension<String, List<Injection>>() {
+    override fun dependsOnFileContent() = true
+    override fun getIndexer() = INDEXER
+    override fun getInputFilter() = DefaultFileTypeSpecificInputFilter(ElixirFileType.INSTANCE)
+    override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+    override fun getName() = NAME
+    override fun getValueExternalizer(): DataExternalizer<List<Injection>> = InjectionListExternalizer
+    override fun getVersion() = VERSION
+
+    companion object {
+        const val VERSION = 2
+
+        val INDEXER = Indexer()
+        val NAME = ID.create<String, List<Injection>>("elixir.using")
+    }
+}
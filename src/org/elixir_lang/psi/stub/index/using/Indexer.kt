@@ -0,0 +1,178 @@
+package org.elixir_lang.psi.stub.index.using
+
+import com.intellij.psi.PsiElement
+import com.intellij.util.indexing.DataIndexer
+import com.intellij.util.indexing.FileContent
+import org.elixir_lang.psi.ElixirFile
+import org.elixir_lang.psi.Import
+import org.elixir_lang.psi.QualifiableAlias
+import org.elixir_lang.psi.Use
+import org.elixir_lang.psi.call.Call
+import org.elixir_lang.psi.call.StubBased
+import org.elixir_lang.psi.call.name.Function.ALIAS
+import org.elixir_lang.psi.call.name.Function.__MODULE__
+import org.elixir_lang.psi.call.name.Module.KERNEL
+import org.elixir_lang.psi.impl.call.finalArguments
+import org.elixir_lang.psi.impl.call.keywordArgument
+import org.elixir_lang.psi.impl.call.macroChildCalls
+import org.elixir_lang.psi.impl.stripAccessExpression
+import org.elixir_lang.psi.stub.type.call.Stub.isModular
+import org.elixir_lang.structure_view.element.CallDefinitionClause
+import org.elixir_lang.structure_view.element.Quote
+import org.elixir_lang.structure_view.element.modular.Module
+
+/**
+ * Records what the `quote`s returned by `defmacro __using__` inject where that is statically determinable:
+ *
+ * * `defmacro __using__(_) do quote do ... end end`, whose quote is injected for any `use` argument.
+ * * `defmacro __using__(which) do apply(__MODULE__, which, []) end`, where each 0-arity `def` returning a quote is
+ *   injected for the `use` argument with the same name.
+ *
+ * In each quote, only the literal `alias`, `import` and `use` calls and the call definition clauses are recorded;
+ * anything built with `unquote` is left to the normal, slower resolution.
+ *
+ * Only the modulars and the bodies of `__using__` and the quotes it returns are walked, and files that do not mention
+ * `__using__` are skipped before their PSI is built, so indexing does not walk the whole PSI of every file.
+ */
+class Indexer : DataIndexer<String, List<Injection>, FileContent> {
+    override fun map(inputData: FileContent): Map<String, List<Injection>> =
+            if (inputData.contentAsText.contains(USING)) {
+                (inputData.psiFile as? ElixirFile)?.let { elixirFile ->
+                    val injectionsByModuleName = mutableMapOf<String, MutableList<Injection>>()
+
+                    for (modular in elixirFile.modulars()) {
+                        putInjections(injectionsByModuleName, modular)
+                    }
+
+                    injectionsByModuleName
+                } ?: emptyMap()
+            } else {
+                emptyMap()
+            }
+
+    private fun putInjections(injectionsByModuleName: MutableMap<String, MutableList<Injection>>, modular: Call) {
+        val childCalls = modular.macroChildCalls()
+
+        if (Module.`is`(modular)) {
+            (modular as? StubBased<*>)?.canonicalNameSet()?.let { canonicalNameSet ->
+                canonicalNameSet.firstOrNull()?.let { moduleName ->
+                    val injections = injections(moduleName, childCalls)
+
+                    if (injections.isNotEmpty()) {
+                        canonicalNameSet.forEach { canonicalName ->
+                            injectionsByModuleName.getOrPut(canonicalName) { mutableListOf() }.addAll(injections)
+                        }
+                    }
+                }
+            }
+        }
+
+        childCalls
+                .filter { isModular(it) }
+                .forEach { putInjections(injectionsByModuleName, it) }
+    }
+
+    private fun injections(moduleName: String, moduleChildCalls: Array<Call>): List<Injection> {
+        val injections = moduleChildCalls
+                .filter { CallDefinitionClause.isPublicMacro(it) }
+                .filter { childCall ->
+                    CallDefinitionClause.nameArityRange(childCall)?.let { (name, arityRange) ->
+                        name == USING && arityRange.contains(1)
+                    } ?: false
+                }
+                .flatMap { usingClause -> usingInjections(moduleName, moduleChildCalls, usingClause) }
+
+        return numberDefinitions(injections)
+    }
+
+    /**
+     * Numbers each [Injection.Kind.DEFINITION] among those with the same [Injection.argument] and [Injection.name], so
+     * that [org.elixir_lang.psi.Use.definition] can find it among the stubs of the clauses returning its quote.
+     */
+    private fun numberDefinitions(injections: List<Injection>): List<Injection> {
+        val countByArgumentName = mutableMapOf<Pair<String?, String>, Int>()
+
+        return injections.map { injection ->
+            if (injection.kind == Injection.Kind.DEFINITION) {
+                val argumentName = injection.argument to injection.name
+                val ordinal = countByArgumentName.getOrDefault(argumentName, 0)
+                countByArgumentName[argumentName] = ordinal + 1
+
+                injection.copy(ordinal = ordinal)
+            } else {
+                injection
+            }
+        }
+    }
+
+    private fun usingInjections(moduleName: String, moduleChildCalls: Array<Call>, usingClause: Call): List<Injection> {
+        val returned = usingClause.macroChildCalls().lastOrNull()
+
+        return when {
+            returned == null -> emptyList()
+            Quote.`is`(returned) -> quoteInjections(moduleName, null, returned)
+            isApplyModule(returned) -> moduleChildCalls
+                    .filter { CallDefinitionClause.isPublicFunction(it) }
+                    .flatMap { childCall ->
+                        CallDefinitionClause.nameArityRange(childCall)?.let { (name, arityRange) ->
+                            if (arityRange.contains(0)) {
+                                childCall
+                                        .macroChildCalls()
+                                        .lastOrNull()
+                                        ?.takeIf { Quote.`is`(it) }
+                                        ?.let { quoteInjections(moduleName, name, it) }
+                            } else {
+                                null
+                            }
+                        } ?: emptyList()
+                    }
+            else -> emptyList()
+        }
+    }
+
+    /**
+     * `apply(__MODULE__, which, [])`
+     */
+    private fun isApplyModule(call: Call): Boolean =
+            call.isCalling(KERNEL, APPLY, 3) &&
+                    call.finalArguments()?.firstOrNull()?.stripAccessExpression()?.text == __MODULE__
+
+    private fun quoteInjections(moduleName: String, argument: String?, quote: Call): List<Injection> =
+            quote.macroChildCalls().mapNotNull { call ->
+                val offset = call.textRange.startOffset
+
+                when {
+                    CallDefinitionClause.`is`(call) ->
+                        CallDefinitionClause.nameArityRange(call)?.let { (name, arityRange) ->
+                            Injection(moduleName, argument, Injection.Kind.DEFINITION, name, arityRange, null, offset)
+                        }
+                    Import.`is`(call) ->
+                        firstArgumentName(call)?.let { name ->
+                            Injection(moduleName, argument, Injection.Kind.IMPORT, name, null, null, offset)
+                        }
+                    Use.`is`(call) ->
+                        firstArgumentName(call)?.let { name ->
+                            Injection(moduleName, argument, Injection.Kind.USE, name, null, Use.argument(call), offset)
+                        }
+                    call.isCalling(KERNEL, ALIAS) ->
+                        firstArgumentName(call)?.let { name ->
+                            val aliasedName = call.keywordArgument("as")?.let { aliasedName(it) } ?:
+                                    name.substringAfterLast('.')
+
+                            Injection(moduleName, argument, Injection.Kind.ALIAS, name, null, aliasedName, offset)
+                        }
+                    else -> null
+                }
+            }
+
+    private fun aliasedName(asKeywordValue: PsiElement): String? =
+            (asKeywordValue.stripAccessExpression() as? QualifiableAlias)?.fullyQualifiedName()
+
+    private fun firstArgumentName(call: Call): String? =
+            (call.finalArguments()?.firstOrNull()?.stripAccessExpression() as? QualifiableAlias)?.fullyQualifiedName()
+
+    companion object {
+        private const val APPLY = "apply"
+        const val USING = "__using__"
+    }
+}
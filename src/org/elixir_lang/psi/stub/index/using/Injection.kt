@@ -0,0 +1,33 @@
+package org.elixir_lang.psi.stub.index.using
+
+import org.elixir_lang.ArityRange
+
+/**
+ * Something a `quote` returned by `defmacro __using__` puts in the modular that `use`s it.
+ *
+ * @property module a canonical name of the module declaring `__using__`
+ * @property argument the argument to `use` that selects the quote, such as `:controller` in
+ *   `use MyAppWeb, :controller`, or `null` if the quote is injected for any argument.
+ * @property name the module name for [Kind.ALIAS], [Kind.IMPORT] and [Kind.USE]; the definition name for
+ *   [Kind.DEFINITION].
+ * @property arityRange the arity range of a [Kind.DEFINITION]
+ * @property detail the aliased name for [Kind.ALIAS]; the `use` argument for [Kind.USE], if any
+ * @property offset the start offset of the injecting call in the file declaring `__using__`
+ * @property ordinal for a [Kind.DEFINITION], the number of earlier definitions with the same [argument] and [name], so
+ *   that it can be found among the stubs of [module] without loading the AST
+ */
+data class Injection(val module: String,
+                     val argument: String?,
+                     val kind: Kind,
+                     val name: String,
+                     val arityRange: ArityRange?,
+                     val detail: String?,
+                     val offset: Int,
+                     val ordinal: Int = 0) {
+    enum class Kind {
+        ALIAS,
+        DEFINITION,
+        IMPORT,
+        USE
+    }
+}
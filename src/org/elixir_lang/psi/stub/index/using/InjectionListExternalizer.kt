@@ -0,0 +1,69 @@
+package org.elixir_lang.psi.stub.index.using
+
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.DataInputOutputUtil
+import com.intellij.util.io.IOUtil
+import java.io.DataInput
+import java.io.DataOutput
+
+object InjectionListExternalizer : DataExternalizer<List<Injection>> {
+    override fun save(out: DataOutput, value: List<Injection>) {
+        DataInputOutputUtil.writeINT(out, value.size)
+
+        for (injection in value) {
+            IOUtil.writeUTF(out, injection.module)
+            writeNullableUTF(out, injection.argument)
+            DataInputOutputUtil.writeINT(out, injection.kind.ordinal)
+            IOUtil.writeUTF(out, injection.name)
+
+            val arityRange = injection.arityRange
+
+            out.writeBoolean(arityRange != null)
+
+            if (arityRange != null) {
+                DataInputOutputUtil.writeINT(out, arityRange.first)
+                DataInputOutputUtil.writeINT(out, arityRange.last)
+            }
+
+            writeNullableUTF(out, injection.detail)
+            DataInputOutputUtil.writeINT(out, injection.offset)
+            DataInputOutputUtil.writeINT(out, injection.ordinal)
+        }
+    }
+
+    override fun read(input: DataInput): List<Injection> {
+        val size = DataInputOutputUtil.readINT(input)
+
+        return (0 until size).map {
+            val module = IOUtil.readUTF(input)
+            val argument = readNullableUTF(input)
+            val kind = Injection.Kind.values()[DataInputOutputUtil.readINT(input)]
+            val name = IOUtil.readUTF(input)
+            val arityRange = if (input.readBoolean()) {
+                DataInputOutputUtil.readINT(input)..DataInputOutputUtil.readINT(input)
+            } else {
+                null
+            }
+            val detail = readNullableUTF(input)
+            val offset = DataInputOutputUtil.readINT(input)
+            val ordinal = DataInputOutputUtil.readINT(input)
+
+            Injection(module, argument, kind, name, arityRange, detail, offset, ordinal)
+        }
+    }
+
+    private fun readNullableUTF(input: DataInput): String? =
+            if (input.readBoolean()) {
+                IOUtil.readUTF(input)
+            } else {
+                null
+            }
+
+    private fun writeNullableUTF(out: DataOutput, value: String?) {
+        out.writeBoolean(value != null)
+
+        if (value != null) {
+            IOUtil.writeUTF(out, value)
+        }
+    }
+}
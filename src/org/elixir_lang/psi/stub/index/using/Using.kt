@@ -0,0 +1,39 @@
+package org.elixir_lang.psi.stub.index.using
+
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.util.indexing.FileBasedIndex
+
+object Using {
+    /**
+     * The [Injection]s of the `__using__` of the modules named [moduleName] for `use moduleName, argument`, with the
+     * file declaring each, so that [Injection.offset] can be found in it.
+     *
+     * @param argument the atom passed to `use`, without the `:`, or `null` for `use moduleName` or non-atom arguments.
+     */
+    @JvmStatic
+    fun injections(project: Project, moduleName: String, argument: String?): List<Pair<VirtualFile, Injection>> =
+            if (DumbService.isDumb(project)) {
+                emptyList()
+            } else {
+                val injections = mutableListOf<Pair<VirtualFile, Injection>>()
+
+                FileBasedIndex.getInstance().processValues(
+                        Index.NAME,
+                        moduleName,
+                        null,
+                        { virtualFile, fileInjections ->
+                            fileInjections
+                                    .filter { it.argument == null || it.argument == argument }
+                                    .mapTo(injections) { virtualFile to it }
+
+                            true
+                        },
+                        GlobalSearchScope.allScope(project)
+                )
+
+                injections
+            }
+}
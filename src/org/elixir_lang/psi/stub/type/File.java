@@ -20,7 +20,7 @@ import java.io.IOException;
 import static org.elixir_lang.file.LevelPropertyPusher.VIRTUAL_FILE;
 
 public class File extends IStubFileElementType<org.elixir_lang.psi.stub.File> {
-    public static final int VERSION = 3;
+    public static final int VERSION = 5;
     public static final IStubFileElementType INSTANCE = new File();
 
     public File() {
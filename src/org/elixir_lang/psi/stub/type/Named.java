@@ -3,14 +3,29 @@ package org.elixir_lang.psi.stub.type;
 import com.intellij.psi.PsiNameIdentifierOwner;
 import com.intellij.psi.stubs.IndexSink;
 import com.intellij.psi.stubs.NamedStubBase;
+import com.intellij.psi.stubs.StubElement;
+import kotlin.ranges.IntRange;
 import org.elixir_lang.psi.stub.call.Stubbic;
 import org.elixir_lang.psi.stub.index.AllName;
+import org.elixir_lang.psi.stub.index.CallDefinitionClauseNameArity;
+import org.elixir_lang.psi.stub.index.ModularName;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Set;
 
+import static org.elixir_lang.psi.call.name.Function.DEFIMPL;
+import static org.elixir_lang.psi.call.name.Function.DEFMODULE;
+import static org.elixir_lang.psi.call.name.Function.DEFPROTOCOL;
+import static org.elixir_lang.psi.call.name.Module.KERNEL;
+
 public abstract class Named<S extends NamedStubBase<T>, T extends PsiNameIdentifierOwner> extends Element<S, T> {
+    private static final Set<String> MODULAR_FUNCTION_NAME_SET =
+            new HashSet<>(Arrays.asList(DEFIMPL, DEFMODULE, DEFPROTOCOL));
+
     public Named(@NonNls @NotNull String debugName) {
         super(debugName);
     }
@@ -29,6 +44,63 @@ public abstract class Named<S extends NamedStubBase<T>, T extends PsiNameIdentif
                 sink.occurrence(AllName.KEY, canonicalName);
             }
         }
+
+        if (isModular(stubbic)) {
+            for (String canonicalName : canonicalNameSet) {
+                sink.occurrence(ModularName.KEY, canonicalName);
+            }
+        } else if (name != null) {
+            indexCallDefinitionClauseNameArity(stubbic, name, sink);
+        }
+    }
+
+    private static void indexCallDefinitionClauseNameArity(@NotNull Stubbic stubbic,
+                                                           @NotNull String name,
+                                                           @NotNull IndexSink sink) {
+        IntRange arityRange = stubbic.callDefinitionClauseHeadArityRange();
+
+        if (arityRange != null) {
+            Stubbic enclosingModular = enclosingModular(stubbic);
+
+            if (enclosingModular != null) {
+                for (String modularCanonicalName : enclosingModular.canonicalNameSet()) {
+                    for (int arity = arityRange.getStart(); arity <= arityRange.getEndInclusive(); arity++) {
+                        sink.occurrence(
+                                CallDefinitionClauseNameArity.KEY,
+                                CallDefinitionClauseNameArity.key(modularCanonicalName, name, arity)
+                        );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Only stubs for nameable calls are created, so the parent stub of a call definition clause directly in a
+     * {@code defmodule} body is the {@code defmodule} stub.
+     */
+    @Nullable
+    private static Stubbic enclosingModular(@NotNull Stubbic stubbic) {
+        Stubbic enclosingModular = null;
+
+        if (stubbic instanceof StubElement) {
+            StubElement parentStub = ((StubElement) stubbic).getParentStub();
+
+            if (parentStub instanceof Stubbic) {
+                Stubbic parentStubbic = (Stubbic) parentStub;
+
+                if (isModular(parentStubbic)) {
+                    enclosingModular = parentStubbic;
+                }
+            }
+        }
+
+        return enclosingModular;
+    }
+
+    private static boolean isModular(@NotNull Stubbic stubbic) {
+        return KERNEL.equals(stubbic.resolvedModuleName()) &&
+                MODULAR_FUNCTION_NAME_SET.contains(stubbic.resolvedFunctionName());
     }
 
     @Override
@@ -2,6 +2,8 @@ package org.elixir_lang.psi.stub.type.call;
 
 import com.intellij.lang.ASTNode;
 import com.intellij.psi.stubs.StubOutputStream;
+import kotlin.ranges.IntRange;
+import org.elixir_lang.NameArityRange;
 import org.elixir_lang.psi.call.Call;
 import org.elixir_lang.psi.call.StubBased;
 import org.elixir_lang.psi.stub.call.Deserialized;
@@ -13,6 +15,7 @@ import org.elixir_lang.structure_view.element.modular.Implementation;
 import org.elixir_lang.structure_view.element.modular.Module;
 import org.elixir_lang.structure_view.element.modular.Protocol;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 
@@ -26,6 +29,24 @@ public abstract class Stub<Stub extends org.elixir_lang.psi.stub.call.Stub<Psi>,
         super(debugName);
     }
 
+    /**
+     * @return the arity range of the head if {@code call} is a call definition clause; otherwise, {@code null}.
+     */
+    @Nullable
+    protected static IntRange callDefinitionClauseHeadArityRange(@NotNull Call call) {
+        IntRange callDefinitionClauseHeadArityRange = null;
+
+        if (CallDefinitionClause.Companion.is(call)) {
+            NameArityRange nameArityRange = CallDefinitionClause.nameArityRange(call);
+
+            if (nameArityRange != null) {
+                callDefinitionClauseHeadArityRange = nameArityRange.getArityRange();
+            }
+        }
+
+        return callDefinitionClauseHeadArityRange;
+    }
+
     public static boolean isModular(Call call) {
         return Implementation.is(call) || Module.Companion.is(call) || Protocol.is(call);
     }
@@ -1,14 +1,21 @@
 package org.elixir_lang.reference.resolver
 
+import com.intellij.openapi.project.DumbService
 import com.intellij.psi.PsiElementResolveResult
 import com.intellij.psi.ResolveResult
 import com.intellij.psi.impl.source.resolve.ResolveCache
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.stubs.StubIndex
+import com.intellij.psi.util.PsiTreeUtil
 import org.elixir_lang.psi.AccumulatorContinue
 import org.elixir_lang.psi.Modular
+import org.elixir_lang.psi.NamedElement
 import org.elixir_lang.psi.UnqualifiedNoArgumentsCall
 import org.elixir_lang.psi.call.Call
+import org.elixir_lang.psi.call.StubBased
 import org.elixir_lang.psi.call.qualification.Qualified
 import org.elixir_lang.psi.impl.call.qualification.qualifiedToModular
+import org.elixir_lang.psi.stub.index.CallDefinitionClauseNameArity
 
 object Callable : ResolveCache.PolyVariantResolver<org.elixir_lang.reference.Callable> {
     override fun resolve(callable: org.elixir_lang.reference.Callable, incompleteCode: Boolean): Array<ResolveResult> {
@@ -57,11 +64,44 @@ object Callable : ResolveCache.PolyVariantResolver<org.elixir_lang.reference.Cal
         } ?:
         emptyList()
 
+    /**
+     * Looks up `Module.name/arity` in [CallDefinitionClauseNameArity] limited to the [modular]'s file, so that the
+     * children of [modular] don't need to be walked.
+     *
+     * @return `null` if the index can't be used, so that the caller can fall back to walking the [modular].
+     */
+    private fun indexedResolveResults(modular: Call, name: String, resolvedFinalArity: Int): List<ResolveResult>? {
+        val project = modular.project
+
+        return if (modular is StubBased<*> && !DumbService.isDumb(project)) {
+            val scope = GlobalSearchScope.fileScope(modular.containingFile)
+
+            modular
+                    .canonicalNameSet()
+                    .flatMap { modularCanonicalName ->
+                        StubIndex.getElements(
+                                CallDefinitionClauseNameArity.KEY,
+                                CallDefinitionClauseNameArity.key(modularCanonicalName, name, resolvedFinalArity),
+                                project,
+                                scope,
+                                NamedElement::class.java
+                        )
+                    }
+                    // the same canonical name can be defined twice in the same file
+                    .filter { PsiTreeUtil.isAncestor(modular, it, true) }
+                    .map { PsiElementResolveResult(it, true) }
+                    .takeIf { it.isNotEmpty() }
+        } else {
+            null
+        }
+    }
+
     private fun resolveElement(element: Qualified): List<ResolveResult> =
         element.qualifiedToModular()?.let { modular ->
             element.functionName()?.let { name ->
                 val resolvedFinalArity = element.resolvedFinalArity()
 
+                indexedResolveResults(modular, name, resolvedFinalArity) ?:
                 Modular.callDefinitionClauseCallFoldWhile(
                         modular,
                         name,
@@ -0,0 +1,87 @@
+package org.elixir_lang.sdk;
+
+import com.intellij.openapi.components.*;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Persisted SDK version strings, read from SDK metadata files, such as {@code lib/elixir/ebin/elixir.app} or
+ * {@code releases/start_erl.data}, instead of booting a VM.  Each version string is stored with the modification
+ * time of the metadata file it was read from, so upgrading an SDK in place reads the file again.
+ */
+@State(
+  name = "ElixirSdkReleaseCache",
+  storages = @Storage(value = "elixir.sdk.releases.xml", roamingType = RoamingType.DISABLED)
+)
+public class ReleaseCache implements PersistentStateComponent<ReleaseCache> {
+    /*
+     * Fields
+     */
+
+    /**
+     * {@code "<modification time> <version string>"} by absolute metadata file path
+     */
+    public Map<String, String> VERSION_BY_PATH = new HashMap<>();
+
+    /*
+     * Static Methods
+     */
+
+    @NotNull
+    public static ReleaseCache getInstance() {
+        return ServiceManager.getService(ReleaseCache.class);
+    }
+
+    /*
+     * Instance Methods
+     */
+
+    @Nullable
+    @Override
+    public ReleaseCache getState() {
+        return this;
+    }
+
+    @Override
+    public void loadState(ReleaseCache state) {
+        XmlSerializerUtil.copyBean(state, this);
+    }
+
+    /**
+     * @param metadataFile file the SDK version can be read from
+     * @param read         reads the version string from {@code metadataFile}.  Only called when the
+     *                     {@code metadataFile} was not read before or was modified since.
+     * @return {@code null} if {@code metadataFile} does not exist or {@code read} returned {@code null}
+     */
+    @Nullable
+    public synchronized String versionString(@NotNull File metadataFile,
+                                             @NotNull Function<File, String> read) {
+        // 0 when the file does not exist
+        long lastModified = metadataFile.lastModified();
+        String versionString = null;
+
+        if (lastModified != 0) {
+            String path = metadataFile.getAbsolutePath();
+            String prefix = lastModified + " ";
+            String cached = VERSION_BY_PATH.get(path);
+
+            if (cached != null && cached.startsWith(prefix)) {
+                versionString = cached.substring(prefix.length());
+            } else {
+                versionString = read.apply(metadataFile);
+
+                if (versionString != null) {
+                    VERSION_BY_PATH.put(path, prefix + versionString);
+                }
+            }
+        }
+
+        return versionString;
+    }
+}
@@ -16,6 +16,7 @@ import com.intellij.openapi.util.InvalidDataException;
 import com.intellij.openapi.util.SystemInfo;
 import com.intellij.openapi.util.Version;
 import com.intellij.openapi.util.WriteExternalException;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -25,11 +26,13 @@ import gnu.trove.THashSet;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.elixir_lang.Facet;
+import org.elixir_lang.beam.bundle.Bundle;
 import org.elixir_lang.icons.ElixirIcons;
 import org.elixir_lang.jps.model.SerializerExtension;
 import org.elixir_lang.jps.sdk_type.Elixir;
 import org.elixir_lang.mix.runner.MixRunConfigurationBase;
 import org.elixir_lang.jps.HomePath;
+import org.elixir_lang.sdk.ReleaseCache;
 import org.elixir_lang.sdk.erlang_dependent.SdkModificatorRootTypeConsumer;
 import org.jdom.Element;
 import org.jetbrains.annotations.Contract;
@@ -39,10 +42,12 @@ import org.jetbrains.annotations.TestOnly;
 
 import javax.swing.*;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.function.Function;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.intellij.openapi.application.ModalityState.NON_MODAL;
@@ -57,6 +62,10 @@ import static org.elixir_lang.sdk.Type.ebinPathChainVirtualFile;
 
 public class Type extends org.elixir_lang.sdk.erlang_dependent.Type {
     private static final String LINUX_DEFAULT_HOME_PATH = HomePath.LINUX_DEFAULT_HOME_PATH + "/elixir";
+    /**
+     * The {@code {vsn, "1.6.5"}} in {@code elixir.app}
+     */
+    private static final Pattern APP_VSN_PATTERN = Pattern.compile("\\{\\s*vsn\\s*,\\s*\"([^\"]+)\"\\s*\\}");
     private static final Logger LOG = Logger.getInstance(Type.class);
     private static final Pattern NIX_PATTERN = nixPattern("elixir");
     private static final Set<String> SDK_HOME_CHILD_BASE_NAME_SET = new THashSet<>(Arrays.asList("bin", "lib", "src"));
@@ -161,6 +170,11 @@ public class Type extends org.elixir_lang.sdk.erlang_dependent.Type {
         configureInternalErlangSdk(sdk, sdkModificator);
 
         sdkModificator.commitChanges();
+
+        // so that re-indexing the SDK roots after this or a later change doesn't decode every `.beam` again
+        if (!ApplicationManager.getApplication().isUnitTestMode()) {
+            Bundle.generateInBackground(sdk);
+        }
     }
 
     @Nullable
@@ -402,6 +416,28 @@ public class Type extends org.elixir_lang.sdk.erlang_dependent.Type {
         return sdk != null && sdk.getSdkType() == getInstance() ? sdk.getHomePath() : null;
     }
 
+    @Nullable
+    private static String appVersionString(@NotNull File app) {
+        String versionString = null;
+
+        try {
+            Matcher matcher = APP_VSN_PATTERN.matcher(FileUtil.loadFile(app));
+
+            if (matcher.find()) {
+                versionString = matcher.group(1);
+            }
+        } catch (IOException ioException) {
+            LOG.warn("Can't read Elixir version from " + app.getPath(), ioException);
+        }
+
+        return versionString;
+    }
+
+    @NotNull
+    private static File elixirApp(@NotNull String sdkHome) {
+        return Paths.get(sdkHome, "lib", "elixir", "ebin", "elixir.app").toFile();
+    }
+
     @Nullable
     private static String getVersionCacheKey(@Nullable String sdkHome) {
         return sdkHome != null ? new File(sdkHome).getAbsolutePath() : null;
@@ -445,22 +481,13 @@ public class Type extends org.elixir_lang.sdk.erlang_dependent.Type {
         if (mySdkHomeToReleaseCache.containsKey(versionCacheKey)) {
             release = mySdkHomeToReleaseCache.get(versionCacheKey);
         } else {
-            File elixir = Elixir.getScriptInterpreterExecutable(sdkHome);
-
-            if (!elixir.canExecute()) {
-                String reason = elixir.getPath() + (elixir.exists() ? " is not executable." : " is missing.");
-                LOG.warn("Can't detect Elixir version: " + reason);
+            // reading the version from the app file is persisted and doesn't wait for the VM to boot
+            release = Release.fromString(
+                    ReleaseCache.getInstance().versionString(elixirApp(sdkHome), Type::appVersionString)
+            );
 
-                release = null;
-            } else {
-                release = transformStdoutLine(
-                        Release::fromString,
-                        STANDARD_TIMEOUT,
-                        sdkHome,
-                        elixir.getAbsolutePath(),
-                        "-e",
-                        "System.version() |> IO.puts()"
-                );
+            if (release == null) {
+                release = detectSdkVersionWithVM(sdkHome);
             }
 
             mySdkHomeToReleaseCache.put(versionCacheKey, release);
@@ -469,6 +496,33 @@ public class Type extends org.elixir_lang.sdk.erlang_dependent.Type {
         return release;
     }
 
+    /**
+     * Only used when the SDK has no {@code lib/elixir/ebin/elixir.app}, as starting the VM can take seconds.
+     */
+    @Nullable
+    private static Release detectSdkVersionWithVM(@NotNull String sdkHome) {
+        Release release;
+        File elixir = Elixir.getScriptInterpreterExecutable(sdkHome);
+
+        if (!elixir.canExecute()) {
+            String reason = elixir.getPath() + (elixir.exists() ? " is not executable." : " is missing.");
+            LOG.warn("Can't detect Elixir version: " + reason);
+
+            release = null;
+        } else {
+            release = transformStdoutLine(
+                    Release::fromString,
+                    STANDARD_TIMEOUT,
+                    sdkHome,
+                    elixir.getAbsolutePath(),
+                    "-e",
+                    "System.version() |> IO.puts()"
+            );
+        }
+
+        return release;
+    }
+
     @Nullable
     @Override
     public String getDefaultDocumentationUrl(@NotNull Sdk sdk) {
@@ -10,15 +10,19 @@ import com.intellij.openapi.projectRoots.SdkType;
 import com.intellij.openapi.roots.OrderRootType;
 import com.intellij.openapi.util.SystemInfo;
 import com.intellij.openapi.util.Version;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.util.containers.WeakHashMap;
 import org.elixir_lang.jps.sdk_type.Erlang;
 import org.elixir_lang.jps.HomePath;
+import org.elixir_lang.sdk.ReleaseCache;
 import org.elixir_lang.sdk.erlang_dependent.AdditionalDataConfigurable;
 import org.jdom.Element;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.function.Function;
 import java.util.regex.Pattern;
@@ -78,6 +82,35 @@ public class Type extends SdkType {
         return versionCacheKey;
     }
 
+    /**
+     * {@code releases/start_erl.data} holds the ERTS version and OTP release that {@code erl} boots, such as
+     * {@code 9.3 20}.
+     */
+    @NotNull
+    private static File startErlData(@NotNull String sdkHome) {
+        return Paths.get(sdkHome, "releases", "start_erl.data").toFile();
+    }
+
+    /**
+     * @return the {@link Release#toString()} form, so that it can be parsed back with {@link Release#fromString(String)}
+     */
+    @Nullable
+    private static String startErlDataVersionString(@NotNull File startErlData) {
+        String versionString = null;
+
+        try {
+            String[] ertsVersionOtpRelease = FileUtil.loadFile(startErlData).trim().split("\\s+");
+
+            if (ertsVersionOtpRelease.length == 2) {
+                versionString = new Release(ertsVersionOtpRelease[1], ertsVersionOtpRelease[0]).toString();
+            }
+        } catch (IOException ioException) {
+            LOGGER.warn("Can't read Erlang version from " + startErlData.getPath(), ioException);
+        }
+
+        return versionString;
+    }
+
     @Nullable
     private static Release parseSdkVersion(@NotNull List<String> printVersionInfoOutput) {
         String otpRelease = null;
@@ -230,50 +263,71 @@ public class Type extends SdkType {
 
     @Nullable
     private Release detectSdkVersion(@NotNull String sdkHome) {
-        Release release = null;
+        Release release;
 
         Release cachedRelease = releaseBySdkHome.get(getVersionCacheKey(sdkHome));
 
         if (cachedRelease != null) {
             release = cachedRelease;
         } else {
-            File erl = Erlang.getByteCodeInterpreterExecutable(sdkHome);
+            // reading the version from start_erl.data is persisted and doesn't wait for the VM to boot
+            release = Release.fromString(
+                    ReleaseCache.getInstance().versionString(startErlData(sdkHome), Type::startErlDataVersionString)
+            );
+
+            if (release != null) {
+                releaseBySdkHome.put(getVersionCacheKey(sdkHome), release);
+            } else {
+                release = detectSdkVersionWithVM(sdkHome);
+            }
+        }
 
-            if (!erl.canExecute()) {
-                StringBuilder messageBuilder = new StringBuilder("Can't detect Erlang version: ").append(erl.getPath());
+        return release;
+    }
 
-                if (erl.exists()) {
-                    messageBuilder.append(" is not executable.");
-                } else {
-                    messageBuilder.append(" is missing.");
-                }
+    /**
+     * Only used when the SDK has no {@code releases/start_erl.data}, as starting the VM can take seconds.
+     */
+    @Nullable
+    private Release detectSdkVersionWithVM(@NotNull String sdkHome) {
+        Release release = null;
+
+        File erl = Erlang.getByteCodeInterpreterExecutable(sdkHome);
+
+        if (!erl.canExecute()) {
+            StringBuilder messageBuilder = new StringBuilder("Can't detect Erlang version: ").append(erl.getPath());
 
-                LOGGER.warn(messageBuilder.toString());
+            if (erl.exists()) {
+                messageBuilder.append(" is not executable.");
             } else {
-                try {
-                    ProcessOutput output = org.elixir_lang.sdk.ProcessOutput.getProcessOutput(
-                            10 * 1000,
-                            sdkHome,
-                            erl.getAbsolutePath(),
-                            "-noshell",
-                            "-eval",
-                            PRINT_VERSION_INFO_EXPRESSION
-                    );
-
-                    if (!(output.getExitCode() != 0 || output.isCancelled() || output.isTimeout())) {
-                        release = parseSdkVersion(output.getStdoutLines());
-                    }
-
-                    if (release != null) {
-                        releaseBySdkHome.put(getVersionCacheKey(sdkHome), release);
-                    } else {
-                        LOGGER.warn("Failed to detect Erlang version.\n" +
-                                "StdOut: " + output.getStdout() + "\n" +
-                                "StdErr: " + output.getStderr());
-                    }
-                } catch (ExecutionException e) {
-                    LOGGER.warn(e);
+                messageBuilder.append(" is missing.");
+            }
+
+            LOGGER.warn(messageBuilder.toString());
+        } else {
+            try {
+                ProcessOutput output = org.elixir_lang.sdk.ProcessOutput.getProcessOutput(
+                        10 * 1000,
+                        sdkHome,
+                        erl.getAbsolutePath(),
+                        "-noshell",
+                        "-eval",
+                        PRINT_VERSION_INFO_EXPRESSION
+                );
+
+                if (!(output.getExitCode() != 0 || output.isCancelled() || output.isTimeout())) {
+                    release = parseSdkVersion(output.getStdoutLines());
+                }
+
+                if (release != null) {
+                    releaseBySdkHome.put(getVersionCacheKey(sdkHome), release);
+                } else {
+                    LOGGER.warn("Failed to detect Erlang version.\n" +
+                            "StdOut: " + output.getStdout() + "\n" +
+                            "StdErr: " + output.getStderr());
                 }
+            } catch (ExecutionException e) {
+                LOGGER.warn(e);
             }
         }
 
@@ -0,0 +1,7 @@
+defmodule Usage do
+  import Definitions
+
+  def usage do
+    public_<caret>
+  end
+end
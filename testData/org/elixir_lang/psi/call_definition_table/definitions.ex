@@ -0,0 +1,10 @@
+defmodule Definitions do
+  def public_function(a), do: a
+  def public_function(a, b \\ 1, c), do: a + b + c
+
+  defp private_function, do: :ok
+
+  defmacro public_macro(ast), do: ast
+
+  defmacrop private_macro(ast) when is_tuple(ast), do: ast
+end
@@ -0,0 +1,7 @@
+defmodule Usage do
+  import Definitions
+
+  def usage do
+    public_func<caret>tion(1)
+  end
+end
@@ -0,0 +1,2 @@
+defmodule Aliased.Nested do
+end
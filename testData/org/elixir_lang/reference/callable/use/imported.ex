@@ -0,0 +1,5 @@
+defmodule Imported do
+  def imported() do
+    :ok
+  end
+end
@@ -0,0 +1,5 @@
+defmodule UseAlias do
+  use UsingAlias
+
+  Nest<caret>ed
+end
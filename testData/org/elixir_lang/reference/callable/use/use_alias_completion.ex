@@ -0,0 +1,5 @@
+defmodule UseAliasCompletion do
+  use UsingAlias
+
+  Nest<caret>
+end
@@ -0,0 +1,5 @@
+defmodule UseArgument do
+  use Using, :controller
+
+  <caret>injected()
+end
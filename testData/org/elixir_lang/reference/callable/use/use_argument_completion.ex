@@ -0,0 +1,7 @@
+defmodule UseArgumentCompletion do
+  use Using, :controller
+
+  def usage do
+    inj<caret>
+  end
+end
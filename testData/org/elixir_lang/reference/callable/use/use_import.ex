@@ -0,0 +1,5 @@
+defmodule UseImport do
+  use UsingImport
+
+  <caret>imported()
+end
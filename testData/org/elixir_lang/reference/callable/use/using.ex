@@ -0,0 +1,13 @@
+defmodule Using do
+  def controller do
+    quote do
+      def injected do
+        :ok
+      end
+    end
+  end
+
+  defmacro __using__(which) when is_atom(which) do
+    apply(__MODULE__, which, [])
+  end
+end
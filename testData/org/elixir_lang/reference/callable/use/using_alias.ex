@@ -0,0 +1,7 @@
+defmodule UsingAlias do
+  defmacro __using__(_) do
+    quote do
+      alias Aliased.Nested
+    end
+  end
+end
@@ -0,0 +1,7 @@
+defmodule UsingImport do
+  defmacro __using__(_) do
+    quote do
+      import Imported
+    end
+  end
+end
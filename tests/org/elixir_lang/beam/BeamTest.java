@@ -4,6 +4,9 @@ import com.ericsson.otp.erlang.OtpErlangDecodeException;
 import com.intellij.util.containers.ContainerUtil;
 import org.elixir_lang.beam.chunk.Atoms;
 import org.elixir_lang.beam.chunk.CallDefinitions;
+import org.elixir_lang.beam.chunk.Chunk;
+import org.elixir_lang.beam.chunk.Code;
+import kotlin.ranges.IntRange;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.junit.After;
@@ -14,6 +17,8 @@ import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.stream.Stream;
@@ -96,6 +101,83 @@ public class BeamTest {
         assertEquals(8, (int) secondExtract.arity);
     }
 
+    @Test
+    public void directory() throws IOException, OtpErlangDecodeException {
+        String path = "testData/org/elixir_lang/beam/decompiler/OTP20/Elixir.Kernel.beam";
+        byte[] bytes = Files.readAllBytes(Paths.get(path));
+
+        Beam beam = Beam.Companion.from(bytes, path);
+
+        assertNotNull(beam);
+
+        Chunk code = beam.chunkCollection()
+                         .stream()
+                         .filter(chunk -> chunk.typeID.equals(Chunk.TypeID.CODE.toString()))
+                         .findFirst()
+                         .orElse(null);
+
+        assertNotNull("There is no Code chunk", code);
+        assertEquals(code.getLength(), code.getData().length);
+
+        Atoms atoms = beam.atoms();
+
+        assertNotNull(atoms);
+        assertEquals("Elixir.Kernel", atoms.moduleName());
+    }
+
+    @Test
+    public void code() throws IOException, OtpErlangDecodeException {
+        String path = "testData/org/elixir_lang/beam/decompiler/OTP20/Elixir.Kernel.beam";
+        Beam beam = Beam.Companion.from(Files.readAllBytes(Paths.get(path)), path);
+
+        assertNotNull(beam);
+
+        Code code = beam.code();
+
+        assertNotNull(code);
+        assertTrue(code.size() > 0);
+
+        int[] funcInfoCount = {0};
+
+        code.accept((index, operationCode) -> {
+            // decoding on demand produces the same operation as the compact opcode
+            assertEquals(operationCode, code.get(index).getCode());
+
+            if (operationCode == org.elixir_lang.beam.chunk.code.operation.Code.FUNC_INFO) {
+                funcInfoCount[0]++;
+            }
+        });
+
+        assertTrue("No func_info operations found", funcInfoCount[0] > 0);
+    }
+
+    @Test
+    public void pagedAssembly() throws IOException, OtpErlangDecodeException {
+        String path = "testData/org/elixir_lang/beam/decompiler/OTP20/Elixir.Kernel.beam";
+        Beam beam = Beam.Companion.from(Files.readAllBytes(Paths.get(path)), path);
+
+        assertNotNull(beam);
+
+        Cache cache = Cache.Companion.from(beam);
+        Code code = cache.getCode();
+
+        assertNotNull(code);
+
+        int functionCount = code.functionCount();
+
+        assertTrue(functionCount > 1);
+
+        int middle = functionCount / 2;
+        String firstPage = code.assembly(cache, Code.Options.Companion.getUNAMBIGUOUS(), new IntRange(0, middle - 1));
+        String secondPage = code.assembly(
+                cache,
+                Code.Options.Companion.getUNAMBIGUOUS(),
+                new IntRange(middle, functionCount - 1)
+        );
+
+        assertEquals(code.assembly(cache, Code.Options.Companion.getUNAMBIGUOUS()), firstPage + "\n" + secondPage);
+    }
+
     private Beam beam(@NotNull String baseName) throws IOException, OtpErlangDecodeException {
         String path = ebinDirectory + baseName + ".beam";
         DataInputStream dataInputStream = new DataInputStream(
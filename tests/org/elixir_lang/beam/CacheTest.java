@@ -0,0 +1,106 @@
+package org.elixir_lang.beam;
+
+import com.ericsson.otp.erlang.OtpErlangDecodeException;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Checks {@link Cache#prefetch()} against the sequential decoding that {@link FileEditor} did before, and that
+ * {@link Cache#from(VirtualFile)} reuses a cache until the {@code .beam} changes, on the largest Elixir module in the
+ * test data.
+ */
+public class CacheTest extends LightPlatformCodeInsightFixtureTestCase {
+    private static final String PATH = "testData/org/elixir_lang/beam/decompiler/OTP20/Elixir.Kernel.beam";
+
+    /*
+     * Tests
+     */
+
+    public void testPrefetchDecodesSameChunksAsSequential() throws IOException, OtpErlangDecodeException {
+        Cache sequential = sequential(cache());
+        Cache prefetched = cache().prefetch();
+
+        assertEquals(sequential.getAtoms().moduleName(), prefetched.getAtoms().moduleName());
+        assertEquals(sequential.getCode().size(), prefetched.getCode().size());
+        assertEquals(sequential.getLiterals().size(), prefetched.getLiterals().size());
+        assertEquals(sequential.getExports().size(), prefetched.getExports().size());
+        assertEquals(sequential.getLocals().size(), prefetched.getLocals().size());
+    }
+
+    public void testFromVirtualFileHitsUntilModified() throws IOException {
+        VirtualFile virtualFile = beamVirtualFile();
+
+        Cache first = Cache.Companion.from(virtualFile);
+        assertNotNull(first);
+
+        Cache hit = Cache.Companion.from(virtualFile);
+        assertSame("Unmodified .beam did not reuse its cache", first, hit);
+        assertSame("Prefetching replaced the cache", hit, hit.prefetch());
+        assertSame("Prefetched cache was not reused", hit, Cache.Companion.from(virtualFile));
+
+        byte[] content = virtualFile.contentsToByteArray();
+        long timeStamp = virtualFile.getTimeStamp() + 1000;
+        WriteAction.run(() -> virtualFile.setBinaryContent(content, -1, timeStamp));
+
+        Cache miss = Cache.Companion.from(virtualFile);
+        assertNotNull(miss);
+        assertNotSame("Modified .beam reused its stale cache", first, miss);
+        assertSame("Cache of modified .beam was not reused", miss, Cache.Companion.from(virtualFile));
+    }
+
+    /*
+     * Private Instance Methods
+     */
+
+    @NotNull
+    private VirtualFile beamVirtualFile() throws IOException {
+        File directory = FileUtil.createTempDirectory("beam_cache", null);
+        File file = new File(directory, "Elixir.Kernel.beam");
+        FileUtil.copy(new File(PATH), file);
+
+        VirtualFile virtualFile = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(file);
+        assertNotNull(virtualFile);
+
+        return virtualFile;
+    }
+
+    @NotNull
+    private Cache cache() throws IOException, OtpErlangDecodeException {
+        Beam beam = Beam.Companion.from(Files.readAllBytes(Paths.get(PATH)), PATH);
+
+        assertNotNull(beam);
+
+        return Cache.Companion.from(beam);
+    }
+
+    /**
+     * The chunks {@link FileEditor} decodes for its tabs, one after another on the calling thread.
+     */
+    @NotNull
+    private static Cache sequential(@NotNull Cache cache) {
+        cache.getAtoms();
+        cache.getAttributes();
+        cache.getCode();
+        cache.getCompileInfo();
+        cache.getDebugInfo();
+        cache.getElixirDocumentation();
+        cache.getExports();
+        cache.getFunctions();
+        cache.getImports();
+        cache.getLines();
+        cache.getLiterals();
+        cache.getLocals();
+        cache.getStrings();
+
+        return cache;
+    }
+}
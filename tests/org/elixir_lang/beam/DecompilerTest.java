@@ -153,6 +153,12 @@ public class DecompilerTest extends LightCodeInsightTestCase {
         assertDecompiled("OTP20/Elixir.AtU8Test");
     }
 
+    public void testCachedDecompilationMatches() throws IOException {
+        // first decompiles and writes the cache entry, second reads the cache entry
+        assertDecompiled("OTP20/Elixir.AtU8Test");
+        assertDecompiled("OTP20/Elixir.AtU8Test");
+    }
+
     /*
      * Instance Methods
      */
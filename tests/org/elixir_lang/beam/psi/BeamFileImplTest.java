@@ -0,0 +1,121 @@
+package org.elixir_lang.beam.psi;
+
+import com.ericsson.otp.erlang.OtpErlangDecodeException;
+import com.intellij.psi.stubs.Stub;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.elixir_lang.beam.Beam;
+import org.elixir_lang.beam.MacroNameArity;
+import org.elixir_lang.beam.bundle.Bundle;
+import org.elixir_lang.beam.bundle.Summary;
+import org.elixir_lang.beam.psi.stubs.CallDefinitionStub;
+import org.elixir_lang.beam.psi.stubs.ModuleStub;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that the stub {@link BeamFileImpl#buildFileStub(byte[], String)} builds from a bundled {@link Summary} is the
+ * same as the one it builds by decoding the {@code .beam}, and that a {@link Bundle} reads back what it wrote.
+ */
+public class BeamFileImplTest extends LightPlatformCodeInsightFixtureTestCase {
+    private static final String PATH = "testData/org/elixir_lang/beam/decompiler/OTP20/Elixir.Kernel.beam";
+
+    /*
+     * Tests
+     */
+
+    public void testSummaryStubMatchesDecodedStub() throws IOException, OtpErlangDecodeException {
+        Optional<Stub> decodedFileStub = BeamFileImpl.decodeFileStub(bytes(), PATH);
+        assertTrue("Decoding did not build a stub", decodedFileStub.isPresent());
+
+        ModuleStub summaryModuleStub = BeamFileImpl.buildModuleStub(summary());
+
+        assertEquals(describe(moduleStub(decodedFileStub.get())), describe(summaryModuleStub));
+    }
+
+    public void testBundleRoundTrip() throws IOException, OtpErlangDecodeException {
+        Summary summary = summary();
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+        try (DataOutputStream output = new DataOutputStream(byteArrayOutputStream)) {
+            Bundle.write(output, Collections.singletonMap("digest", summary));
+        }
+
+        Map<String, Summary> summaryByDigest;
+
+        try (DataInputStream input =
+                     new DataInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()))) {
+            summaryByDigest = Bundle.read(input);
+        }
+
+        assertEquals(Collections.singleton("digest"), summaryByDigest.keySet());
+
+        Summary read = summaryByDigest.get("digest");
+
+        assertEquals(summary.getModuleName(), read.getModuleName());
+        assertEquals(describe(summary.getMacroNameArities()), describe(read.getMacroNameArities()));
+        assertEquals(summary.getSourcePath(), read.getSourcePath());
+        assertEquals(summary.getRelativePaths(), read.getRelativePaths());
+    }
+
+    /*
+     * Private Static Methods
+     */
+
+    @NotNull
+    private static byte[] bytes() throws IOException {
+        return Files.readAllBytes(Paths.get(PATH));
+    }
+
+    @NotNull
+    private static List<String> describe(@NotNull List<MacroNameArity> macroNameArities) {
+        return macroNameArities
+                .stream()
+                .map(macroNameArity -> macroNameArity.macro + " " + macroNameArity.name + "/" + macroNameArity.arity)
+                .collect(Collectors.toList());
+    }
+
+    @NotNull
+    private static List<String> describe(@NotNull ModuleStub<?> moduleStub) {
+        List<String> descriptions = moduleStub
+                .getChildrenStubs()
+                .stream()
+                .map(childStub -> {
+                    CallDefinitionStub<?> callDefinitionStub = (CallDefinitionStub<?>) childStub;
+
+                    return callDefinitionStub.resolvedFunctionName() + " " +
+                            callDefinitionStub.getName() + "/" +
+                            callDefinitionStub.callDefinitionClauseHeadArity();
+                })
+                .collect(Collectors.toList());
+        descriptions.add(0, "defmodule " + moduleStub.getName());
+
+        return descriptions;
+    }
+
+    @NotNull
+    private static ModuleStub<?> moduleStub(@NotNull Stub fileStub) {
+        List<? extends Stub> childrenStubs = fileStub.getChildrenStubs();
+        assertEquals(1, childrenStubs.size());
+
+        return (ModuleStub<?>) childrenStubs.get(0);
+    }
+
+    @NotNull
+    private static Summary summary() throws IOException, OtpErlangDecodeException {
+        Beam beam = Beam.Companion.from(bytes(), PATH);
+        assertNotNull(beam);
+
+        Summary summary = Summary.Companion.from(beam);
+        assertNotNull(summary);
+
+        return summary;
+    }
+}
@@ -0,0 +1,109 @@
+package org.elixir_lang.credo.inspection_tool
+
+import com.intellij.openapi.application.WriteAction
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase
+import org.elixir_lang.credo.Annotator
+import java.io.File
+
+class GlobalTest : LightPlatformCodeInsightFixtureTestCase() {
+    /*
+     * Tests
+     */
+
+    fun testParseIssuesGroupsIssuesByFile() {
+        val issueListByFullPath = parseIssues(
+                sequenceOf(
+                        "Compiling 2 files (.ex)",
+                        "lib/a.ex:1:1: C: First",
+                        "lib/b.ex:3:5: W: Third",
+                        "lib/a.ex:2: R: Second"
+                ),
+                "/project",
+                setOf("/project/lib/a.ex", "/project/lib/b.ex")
+        )
+
+        assertEquals(
+                mapOf("/project/lib/a.ex" to listOf(1, 2), "/project/lib/b.ex" to listOf(3)),
+                issueListByFullPath.mapValues { (_, issueList) -> issueList.map { it.line } }
+        )
+    }
+
+    fun testParseIssuesSkipsFilesNotAsked() {
+        val issueListByFullPath = parseIssues(
+                sequenceOf("lib/cached.ex:1:1: C: Cached", "lib/../lib/a.ex:1:1: C: Changed"),
+                "/project",
+                setOf("/project/lib/a.ex")
+        )
+
+        assertEquals(setOf("/project/lib/a.ex"), issueListByFullPath.keys)
+    }
+
+    fun testCacheIsOnlyFilledWhenCredoEvidentlyRan() {
+        val virtualFile = myFixture.addFileToProject("lib/a.ex", "defmodule A do\nend\n").virtualFile
+        val contentHash = contentHash(virtualFile, "configuration")!!
+
+        cacheIssueLists(listOf(Pair(virtualFile, contentHash)), 1, emptyMap())
+        assertNull("Failed run was cached", cachedIssueList(virtualFile, contentHash))
+
+        cacheIssueLists(listOf(Pair(virtualFile, contentHash)), 0, emptyMap())
+        assertEquals(emptyList<Annotator.Issue>(), cachedIssueList(virtualFile, contentHash))
+
+        val issue = Annotator.lineToIssue("lib/a.ex:1:1: C: Issue")!!
+        cacheIssueLists(listOf(Pair(virtualFile, contentHash)), 4, mapOf(virtualFile.path to listOf(issue)))
+        assertEquals(listOf(issue), cachedIssueList(virtualFile, contentHash))
+    }
+
+    fun testCacheMissesWhenContentOrConfigurationChanges() {
+        val virtualFile = myFixture.addFileToProject("lib/a.ex", "defmodule A do\nend\n").virtualFile
+        val contentHash = contentHash(virtualFile, "configuration")!!
+
+        cacheIssueLists(listOf(Pair(virtualFile, contentHash)), 0, emptyMap())
+        assertNotNull(cachedIssueList(virtualFile, contentHash(virtualFile, "configuration")!!))
+        assertNull(cachedIssueList(virtualFile, contentHash(virtualFile, "other configuration")!!))
+
+        WriteAction.run<Exception> { virtualFile.setBinaryContent("defmodule B do\nend\n".toByteArray()) }
+        assertNull(cachedIssueList(virtualFile, contentHash(virtualFile, "configuration")!!))
+    }
+
+    fun testConfigurationKeyChangesWithCredoVersionAndConfiguration() {
+        val umbrella = FileUtil.createTempDirectory("umbrella", null)
+        val app = File(umbrella, "apps${File.separator}app")
+        FileUtil.writeToFile(File(umbrella, "mix.exs"), "")
+        FileUtil.writeToFile(File(app, "mix.exs"), "")
+        FileUtil.writeToFile(File(umbrella, "mix.lock"), "%{\n  \"credo\": {:hex, :credo, \"0.9.2\"},\n}\n")
+        FileUtil.writeToFile(File(app, ".credo.exs"), "%{configs: []}")
+
+        val workingDirectory = FileUtil.toSystemIndependentName(app.path)
+        val mixProjectDirectory = mixProjectDirectory(workingDirectory, umbrella.path)
+        assertEquals(FileUtil.toSystemIndependentName(umbrella.path), mixProjectDirectory)
+
+        val key = configurationKey(workingDirectory, mixProjectDirectory)
+        assertEquals(key, configurationKey(workingDirectory, mixProjectDirectory))
+
+        val credoExs = File(app, ".credo.exs")
+        val lastModified = credoExs.lastModified()
+        FileUtil.writeToFile(credoExs, "%{configs: [%{name: \"default\"}]}")
+        credoExs.setLastModified(lastModified)
+        val configuredKey = configurationKey(workingDirectory, mixProjectDirectory)
+        assertFalse("Configuration content is not in the key", key == configuredKey)
+
+        FileUtil.writeToFile(File(umbrella, "mix.lock"), "%{\n  \"credo\": {:hex, :credo, \"0.9.3\"},\n}\n")
+        assertFalse(
+                "Credo version is not in the key",
+                configuredKey == configurationKey(workingDirectory, mixProjectDirectory)
+        )
+    }
+
+    fun testMixProjectDirectoryStopsAtContentRoot() {
+        val outside = FileUtil.createTempDirectory("outside", null)
+        val projectDirectory = File(outside, "project")
+        FileUtil.writeToFile(File(outside, "mix.exs"), "")
+        FileUtil.writeToFile(File(projectDirectory, "mix.exs"), "")
+
+        val workingDirectory = FileUtil.toSystemIndependentName(projectDirectory.path)
+
+        assertEquals(workingDirectory, mixProjectDirectory(workingDirectory, projectDirectory.path))
+        assertEquals(workingDirectory, mixProjectDirectory(workingDirectory, null))
+    }
+}
@@ -0,0 +1,263 @@
+package org.elixir_lang.debugger;
+
+import com.ericsson.otp.erlang.*;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.elixir_lang.debugger.node.Child;
+import org.elixir_lang.debugger.node.LazyTerm;
+import org.elixir_lang.debugger.node.ProcessSnapshot;
+import org.elixir_lang.debugger.node.event.Listener;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uses a fake node in place of {@code debug_server.ex}, which answers every {@code :set_breakpoint} with a
+ * {@code :set_breakpoint_response} and every {@code :bindings} with a {@code :children_response}, so that the
+ * commands and events through {@link Node} can be checked without a BEAM.
+ */
+public class NodeTest extends LightPlatformCodeInsightFixtureTestCase {
+    private static final int BREAKPOINTS = 200;
+
+    /*
+     * Tests
+     */
+
+    public void testQueuedCommandsAreEachWrittenOnceInOrder() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        CountDownLatch[] breakpointIsSet = new CountDownLatch[]{new CountDownLatch(BREAKPOINTS)};
+        Node node = new Node(new CountingListener(started, stopped, breakpointIsSet));
+
+        try (FakeNode fakeNode = new FakeNode(node.getLocalDebuggerPort())) {
+            Thread fakeNodeThread = new Thread(fakeNode::respond, "FakeNode");
+            fakeNodeThread.start();
+
+            assertTrue("Debugger did not start", started.await(5, TimeUnit.SECONDS));
+
+            // queued without waiting for responses, so the writer has to drain several commands per wake up
+            for (int line = 0; line < BREAKPOINTS; line++) {
+                node.setBreakpoint("Elixir.Fake", "lib/fake.ex", line);
+            }
+
+            assertTrue("Not every breakpoint was set", breakpointIsSet[0].await(5, TimeUnit.SECONDS));
+
+            List<Integer> expectedLines = new ArrayList<>();
+
+            for (int line = 0; line < BREAKPOINTS; line++) {
+                expectedLines.add(line);
+            }
+
+            assertEquals(expectedLines, fakeNode.setBreakpointLines());
+        } finally {
+            node.stop();
+        }
+
+        assertTrue("Debugger did not stop", stopped.await(5, TimeUnit.SECONDS));
+    }
+
+    public void testBindingsAreRequestedOnDemand() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Node node = new Node(new CountingListener(started, stopped, new CountDownLatch[]{new CountDownLatch(1)}));
+
+        try (FakeNode fakeNode = new FakeNode(node.getLocalDebuggerPort())) {
+            Thread fakeNodeThread = new Thread(fakeNode::respond, "FakeNode");
+            fakeNodeThread.start();
+
+            assertTrue("Debugger did not start", started.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<List<Child>> bindingsFuture = new CompletableFuture<>();
+            node.requestBindings(new OtpErlangPid("fake@localhost", 1, 0, 0), 1, bindingsFuture::complete);
+            List<Child> bindings = bindingsFuture.get(5, TimeUnit.SECONDS);
+
+            assertEquals(2, bindings.size());
+
+            Child small = bindings.get(0);
+            assertEquals("small", small.getName());
+            assertInstanceOf(small.getTerm(), LazyTerm.Eager.class);
+
+            Child large = bindings.get(1);
+            assertEquals("large", large.getName());
+            LazyTerm.Deferred deferred = assertInstanceOf(large.getTerm(), LazyTerm.Deferred.class);
+            assertEquals("list", deferred.getKind());
+            assertEquals(100000, deferred.getChildCount());
+        } finally {
+            node.stop();
+        }
+
+        assertTrue("Debugger did not stop", stopped.await(5, TimeUnit.SECONDS));
+    }
+
+    /*
+     * Private Classes
+     */
+
+    private static class CountingListener implements Listener {
+        @NotNull
+        private final CountDownLatch started;
+        @NotNull
+        private final CountDownLatch stopped;
+        @NotNull
+        private final CountDownLatch[] breakpointIsSet;
+
+        CountingListener(@NotNull CountDownLatch started,
+                         @NotNull CountDownLatch stopped,
+                         @NotNull CountDownLatch[] breakpointIsSet) {
+            this.started = started;
+            this.stopped = stopped;
+            this.breakpointIsSet = breakpointIsSet;
+        }
+
+        @Override
+        public void breakpointIsSet(@NotNull String module, @NotNull String file, int line) {
+            breakpointIsSet[0].countDown();
+        }
+
+        @Override
+        public void breakpointLogged(@NotNull String module, int line, boolean isError, @NotNull String message) {
+        }
+
+        @Override
+        public void breakpointReached(@NotNull OtpErlangPid pid, @NotNull List<ProcessSnapshot> snapshots) {
+        }
+
+        @Override
+        public void debuggerStarted() {
+            started.countDown();
+        }
+
+        @Override
+        public void debuggerStopped() {
+            stopped.countDown();
+        }
+
+        @Override
+        public void failedToDebugRemoteNode(@NotNull String nodeName, @NotNull OtpErlangObject error) {
+        }
+
+        @Override
+        public void failedToInterpretModules(@NotNull String nodeName,
+                                             @NotNull Map<String, ? extends OtpErlangObject> errorReasonByModule) {
+        }
+
+        @Override
+        public void failedToSetBreakpoint(@NotNull String module,
+                                          @NotNull String file,
+                                          int line,
+                                          @NotNull OtpErlangObject errorMessage) {
+            fail("Fake node never fails to set breakpoints");
+        }
+
+        @Override
+        public void interpretedModules(int count, @NotNull List<String> newlyInterpreted) {
+        }
+
+        @Override
+        public void unknownMessage(@NotNull String messageText) {
+        }
+    }
+
+    /**
+     * Speaks the same 4-byte length-prefixed external term format as {@code debug_server.ex}.
+     */
+    private static class FakeNode implements Closeable {
+        @NotNull
+        private final Socket socket;
+        @NotNull
+        private final DataInputStream in;
+        @NotNull
+        private final DataOutputStream out;
+        @NotNull
+        private final List<Integer> setBreakpointLines = Collections.synchronizedList(new ArrayList<>());
+
+        FakeNode(int port) throws IOException {
+            socket = new Socket("localhost", port);
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+
+        void respond() {
+            try {
+                //noinspection InfiniteLoopStatement
+                while (true) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+
+                    OtpErlangTuple command = (OtpErlangTuple) new OtpInputStream(bytes).read_any();
+
+                    String name = ((OtpErlangAtom) command.elementAt(0)).atomValue();
+
+                    if (name.equals("set_breakpoint")) {
+                        setBreakpointLines.add(((OtpErlangLong) command.elementAt(2)).intValue());
+                        send(
+                                new OtpErlangTuple(new OtpErlangObject[]{
+                                        new OtpErlangAtom("set_breakpoint_response"),
+                                        command.elementAt(1),
+                                        command.elementAt(2),
+                                        new OtpErlangAtom("ok"),
+                                        command.elementAt(3)
+                                })
+                        );
+                    } else if (name.equals("bindings")) {
+                        send(
+                                new OtpErlangTuple(new OtpErlangObject[]{
+                                        new OtpErlangAtom("children_response"),
+                                        command.elementAt(3),
+                                        new OtpErlangList(new OtpErlangObject[]{
+                                                binding("small", new OtpErlangTuple(new OtpErlangObject[]{
+                                                        new OtpErlangAtom("value"), new OtpErlangLong(1)
+                                                })),
+                                                binding("large", new OtpErlangTuple(new OtpErlangObject[]{
+                                                        new OtpErlangAtom("lazy"),
+                                                        new OtpErlangAtom("list"),
+                                                        new OtpErlangLong(100000)
+                                                }))
+                                        })
+                                })
+                        );
+                    }
+                }
+            } catch (IOException | OtpErlangException e) {
+                // socket closed by close() or Node#stop()
+            }
+        }
+
+        /**
+         * The line of each {@code :set_breakpoint} command in the order they were read
+         */
+        @NotNull
+        List<Integer> setBreakpointLines() {
+            synchronized (setBreakpointLines) {
+                return new ArrayList<>(setBreakpointLines);
+            }
+        }
+
+        @NotNull
+        private static OtpErlangTuple binding(@NotNull String name, @NotNull OtpErlangTuple lazyTerm) {
+            return new OtpErlangTuple(new OtpErlangObject[]{new OtpErlangAtom(name), lazyTerm});
+        }
+
+        private void send(@NotNull OtpErlangObject message) throws IOException {
+            byte[] bytes = new OtpOutputStream(message).toByteArray();
+
+            out.writeInt(1 + bytes.length);
+            out.write(OtpExternal.versionTag);
+            out.write(bytes);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package org.elixir_lang.debugger.stack_frame.value;
+
+import com.ericsson.otp.erlang.*;
+import junit.framework.TestCase;
+import org.elixir_lang.beam.chunk.XValueRenderer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.elixir_lang.beam.term.InspectKt.inspect;
+
+/**
+ * Renders synthetic huge terms, like those that hung the Variables view, and checks that the work is bound by the
+ * {@link Presentation.Budget} and not by the size of the term.
+ */
+public class PresentationTest extends TestCase {
+    private static final int HUGE_LIST_LENGTH = 500_000;
+    private static final int HUGE_BINARY_SIZE = 50 * 1024 * 1024;
+    private static final int MAX_DEPTH = 8;
+    private static final int MAX_ELEMENTS = 100;
+    private static final int MAX_CHARACTERS = 1_000;
+    private static final Presentation.Budget BUDGET = new Presentation.Budget(MAX_DEPTH, MAX_ELEMENTS, MAX_CHARACTERS);
+    /**
+     * The markers for truncated containers and delimiters are not charged against the budget
+     */
+    private static final int MAX_UNCHARGED_CHARACTERS = 100;
+
+    /**
+     * Counts the elements rendered from it
+     */
+    private static class CountingList extends OtpErlangList {
+        private int visited = 0;
+
+        private CountingList(OtpErlangObject[] elements) {
+            super(elements);
+        }
+
+        @Override
+        public OtpErlangObject elementAt(int i) {
+            visited++;
+
+            return super.elementAt(i);
+        }
+    }
+
+    /**
+     * Counts the elements rendered from it
+     */
+    private static class CountingTuple extends OtpErlangTuple {
+        private int visited = 0;
+
+        private CountingTuple(OtpErlangObject element) {
+            super(element);
+        }
+
+        @Override
+        public OtpErlangObject elementAt(int i) {
+            visited++;
+
+            return super.elementAt(i);
+        }
+    }
+
+    /*
+     * Tests
+     */
+
+    public void testHugeListIsTruncated() {
+        OtpErlangObject[] elements = new OtpErlangObject[HUGE_LIST_LENGTH];
+
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = new OtpErlangLong(i);
+        }
+
+        CountingList list = new CountingList(elements);
+        Presentation presentation = new Presentation(list, BUDGET);
+
+        String rendered = render(presentation);
+
+        assertTrue(rendered.startsWith("[0, 1, 2, "));
+        assertTrue(rendered.contains("…(" + (HUGE_LIST_LENGTH - MAX_ELEMENTS) + " more)"));
+        assertTrue(presentation.isTruncated());
+        // rendering and checking truncation share one rendering
+        assertEquals(MAX_ELEMENTS, list.visited);
+    }
+
+    public void testHugeUtf8BinaryIsTruncated() {
+        byte[] bytes = new byte[HUGE_BINARY_SIZE];
+        Arrays.fill(bytes, (byte) 'a');
+        OtpErlangBinary binary = new OtpErlangBinary(bytes);
+
+        Presentation presentation = new Presentation(binary, BUDGET);
+
+        String rendered = assertRendersWithinBudget(presentation);
+
+        assertTrue(rendered.startsWith("\"aaa"));
+        assertTrue(presentation.isTruncated());
+    }
+
+    public void testHugeNonUtf8BinaryIsTruncated() {
+        byte[] bytes = new byte[HUGE_BINARY_SIZE];
+        Arrays.fill(bytes, (byte) 0xFF);
+        OtpErlangBinary binary = new OtpErlangBinary(bytes);
+
+        String rendered = assertRendersWithinBudget(new Presentation(binary, BUDGET));
+
+        assertTrue(rendered.startsWith("<<255, 255, "));
+        assertTrue(rendered.endsWith(">>"));
+        assertTrue(rendered.contains("more)"));
+    }
+
+    public void testDeeplyNestedTupleIsTruncated() {
+        OtpErlangObject term = new OtpErlangAtom("leaf");
+        CountingTuple[] tuples = new CountingTuple[10_000];
+
+        for (int i = 0; i < tuples.length; i++) {
+            tuples[i] = new CountingTuple(term);
+            term = tuples[i];
+        }
+
+        String rendered = assertRendersWithinBudget(new Presentation(term, BUDGET));
+
+        assertTrue(rendered.contains("…"));
+
+        int visited = 0;
+
+        for (CountingTuple tuple : tuples) {
+            visited += tuple.visited;
+        }
+
+        assertEquals(MAX_DEPTH, visited);
+    }
+
+    public void testIsUtf8ChecksOnlyRenderedPrefix() {
+        byte[] bytes = new byte[HUGE_BINARY_SIZE];
+        Arrays.fill(bytes, (byte) 'a');
+        // invalid UTF-8 far past anything the budget can render
+        bytes[bytes.length - 1] = (byte) 0xFF;
+
+        assertTrue(Presentation.isUtf8(new OtpErlangBinary(bytes), BUDGET));
+        assertFalse(Presentation.isUtf8(new OtpErlangBinary(bytes), Presentation.Budget.UNBOUNDED));
+    }
+
+    public void testIsPrintableChecksOnlyRenderedPrefix() {
+        char[] chars = new char[HUGE_LIST_LENGTH];
+        Arrays.fill(chars, 'a');
+        // unprintable far past anything the budget can render
+        chars[chars.length - 1] = 1;
+        OtpErlangString string = new OtpErlangString(new String(chars));
+
+        assertTrue(Presentation.isPrintable(string, BUDGET));
+        assertFalse(Presentation.isPrintable(string, Presentation.Budget.UNBOUNDED));
+
+        String rendered = assertRendersWithinBudget(new Presentation(string, BUDGET));
+
+        assertTrue(rendered.startsWith("'aaa"));
+    }
+
+    public void testHugeStructCountsOnlyFieldsAsMore() {
+        int fieldCount = MAX_ELEMENTS + 50;
+        OtpErlangObject[] keys = new OtpErlangObject[fieldCount + 1];
+        OtpErlangObject[] values = new OtpErlangObject[keys.length];
+        keys[0] = new OtpErlangAtom("__struct__");
+        values[0] = new OtpErlangAtom("Elixir.Huge");
+
+        for (int i = 1; i < keys.length; i++) {
+            keys[i] = new OtpErlangAtom("field" + i);
+            values[i] = new OtpErlangLong(i);
+        }
+
+        // enough characters that only the element budget truncates
+        Presentation.Budget budget = new Presentation.Budget(MAX_DEPTH, MAX_ELEMENTS, 100 * MAX_CHARACTERS);
+        Presentation presentation = new Presentation(new OtpErlangMap(keys, values), budget);
+        String rendered = render(presentation);
+
+        assertTrue(rendered.startsWith("%Huge{field"));
+        assertTrue(rendered, rendered.endsWith("…(50 more)}"));
+        assertTrue(presentation.isTruncated());
+    }
+
+    public void testSmallStructIsNotTruncated() {
+        OtpErlangMap struct = new OtpErlangMap(
+                new OtpErlangObject[]{new OtpErlangAtom("__struct__"), new OtpErlangAtom("a")},
+                new OtpErlangObject[]{new OtpErlangAtom("Elixir.Small"), new OtpErlangLong(1)}
+        );
+
+        Presentation presentation = new Presentation(struct, BUDGET);
+
+        assertEquals("%Small{a: 1}", render(presentation));
+        assertFalse(presentation.isTruncated());
+    }
+
+    public void testMultibyteCharacterCutByBudgetIsDropped() {
+        byte[] bytes = "é".getBytes(StandardCharsets.UTF_8);
+        // the leading `a` puts the end of the decoded prefix in the middle of an `é`
+        byte[] repeated = new byte[1 + bytes.length * 10_000];
+        repeated[0] = 'a';
+
+        for (int i = 1; i < repeated.length; i += bytes.length) {
+            System.arraycopy(bytes, 0, repeated, i, bytes.length);
+        }
+
+        String rendered = inspect(new OtpErlangBinary(repeated), Presentation.Budget.PRESENTATION);
+
+        assertTrue(rendered.startsWith("\"aéé"));
+        assertTrue(rendered.endsWith("\"…"));
+        assertFalse(rendered.contains("�"));
+    }
+
+    public void testSmallTermIsNotTruncated() {
+        OtpErlangTuple tuple = new OtpErlangTuple(new OtpErlangObject[]{
+                new OtpErlangAtom("ok"),
+                new OtpErlangList(new OtpErlangObject[]{new OtpErlangLong(1), new OtpErlangLong(2)})
+        });
+
+        Presentation presentation = new Presentation(tuple, Presentation.Budget.PRESENTATION);
+
+        assertEquals("{:ok, [1, 2]}", render(presentation));
+        assertFalse(presentation.isTruncated());
+    }
+
+    public void testUnboundedRendersEverything() {
+        OtpErlangObject[] elements = new OtpErlangObject[1_000];
+
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = new OtpErlangLong(i);
+        }
+
+        String rendered = inspect(new OtpErlangList(elements));
+
+        assertTrue(rendered.endsWith(", 999]"));
+        assertFalse(rendered.contains("more)"));
+    }
+
+    /*
+     * Private Static Methods
+     */
+
+    private static String assertRendersWithinBudget(Presentation presentation) {
+        String rendered = render(presentation);
+
+        assertTrue(
+                rendered.length() + " characters rendered, more than the budget allows",
+                rendered.length() <= MAX_CHARACTERS + MAX_UNCHARGED_CHARACTERS
+        );
+
+        return rendered;
+    }
+
+    private static String render(Presentation presentation) {
+        XValueRenderer renderer = new XValueRenderer();
+        presentation.renderValue(renderer);
+
+        return renderer.getText();
+    }
+}
@@ -0,0 +1,335 @@
+package org.elixir_lang.elixir_flex_lexer;
+
+import com.intellij.lexer.LexerPosition;
+import com.intellij.psi.tree.IElementType;
+import org.elixir_lang.ElixirFlexLexer;
+import org.elixir_lang.ElixirFlexLexerAdapter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Restarts lexing the way the editor highlighter does after each keystroke: from the last token before the change in
+ * the initial state, until the tokens converge with the old tokens again.  The restarted tokens must be the same as
+ * lexing the whole changed text, which only holds if the initial state really means the stack is empty.
+ */
+public class RestartTest extends Test {
+    /*
+     * Constants
+     */
+
+    private static final int LINE_COUNT = 10_000;
+    private static final int KEYSTROKE_COUNT = 100;
+    private static final String MODULE = "defmodule Module%d do\n" +
+            "  @moduledoc \"\"\"\n" +
+            "  Documentation for %d with `code` and #{inspect(%%{a: 1})}.\n" +
+            "  More documentation.\n" +
+            "  \"\"\"\n" +
+            "\n" +
+            "  @doc \"\"\"\n" +
+            "  Adds numbers.\n" +
+            "  \"\"\"\n" +
+            "  def add(a, b) do\n" +
+            "    map = %%{\n" +
+            "      a: a,\n" +
+            "      b: b,\n" +
+            "      sum: \"#{a + b}\"\n" +
+            "    }\n" +
+            "    log = \"#{inspect(%%{a: a, b: b})}\"\n" +
+            "\n" +
+            "    Map.get(map, :sum)\n" +
+            "  end\n" +
+            "\n" +
+            "  def sigil, do: ~r/a#{1}b/i\n" +
+            "\n" +
+            "  def keyword, do: [key: :value, other: 'chars']\n" +
+            "end\n";
+
+    /*
+     * Tests
+     */
+
+    @org.junit.Test
+    public void nestedYYInitialIsNotInitial() {
+        String text = "\"#{inspect(%{a: a, b: b})}\"";
+        List<Lex> lexes = lexAll(text);
+        int opening = text.indexOf("%{") + 1;
+        int closing = text.indexOf("})");
+
+        for (Lex lex : lexes) {
+            if (lex.start > opening && lex.start <= closing) {
+                assertNotEquals(lex + " is inside {}", ElixirFlexLexer.YYINITIAL, lex.state);
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void restoringPositionContinuesWithStack() {
+        String text = String.format(MODULE, 1, 1);
+        List<Lex> expected = lexAll(text);
+        List<LexerPosition> positions = new ArrayList<>();
+
+        start(text);
+
+        while (lexer.getTokenType() != null) {
+            positions.add(lexer.getCurrentPosition());
+            lexer.advance();
+        }
+
+        for (int i = 0; i < positions.size(); i++) {
+            lexer.restore(positions.get(i));
+
+            assertEquals("Restored at " + expected.get(i), expected.subList(i, expected.size()), lexRest());
+        }
+    }
+
+    @org.junit.Test
+    public void restartingInNewBufferContinuesWithStack() {
+        String text = "\"#{inspect(%{a: a, b: b})}\"";
+        int changeOffset = text.indexOf("b})") + 1;
+        // the editor passes a new buffer with the changed text, but the same text before the change
+        String changed = text.substring(0, changeOffset) + "b" + text.substring(changeOffset);
+        List<Lex> expected = lexAll(changed);
+        Lex restart = null;
+
+        for (Lex lex : lexAll(text)) {
+            if (lex.start < changeOffset && lex.state == ElixirFlexLexerAdapter.NESTED_YYINITIAL) {
+                restart = lex;
+            }
+        }
+
+        assertNotNull("No token inside {} before the change", restart);
+
+        lexer.start(changed, restart.start, changed.length(), restart.state);
+        List<Lex> relexed = lexRest();
+
+        assertEquals(expected.subList(expected.indexOf(restart), expected.size()), relexed);
+    }
+
+    @org.junit.Test
+    public void keystrokeRelexesOnlyItsModule() {
+        String text = text();
+        List<Lex> lexes = lexAll(text);
+        int moduleTokenCount = lexAll(String.format(MODULE, 0, 0)).size();
+
+        for (int keystroke = 0; keystroke < KEYSTROKE_COUNT; keystroke++) {
+            int module = (keystroke * (LINE_COUNT / lineCount(MODULE))) / KEYSTROKE_COUNT;
+            int moduleStart = text.indexOf("defmodule Module" + module + " do\n");
+            int nextModuleStart = text.indexOf("defmodule Module" + (module + 1) + " do\n");
+            int moduleEnd = nextModuleStart == -1 ? text.length() : nextModuleStart;
+            // alternate between typing in a heredoc and typing in a map inside an interpolation
+            String anchor = keystroke % 2 == 0 ? "More documentation" : "b: b})";
+            int offset = text.indexOf(anchor, moduleStart) + anchor.indexOf(keystroke % 2 == 0 ? " " : "}");
+            String changed = text.substring(0, offset) + "x" + text.substring(offset);
+
+            List<Lex> relexed = relex(changed, lexes, offset, 1);
+            String keystrokeDescription = "Keystroke at " + offset + " in module " + module;
+
+            assertEquals(keystrokeDescription, lexAll(changed), stitch(lexes, relexed, offset, 1));
+            assertTrue(
+                    keystrokeDescription + " restarted at " + relexed.get(0).start + ", before its module at " +
+                            moduleStart,
+                    relexed.get(0).start >= moduleStart
+            );
+            assertTrue(
+                    keystrokeDescription + " relexed until " + relexed.get(relexed.size() - 1).end +
+                            ", past its module ending at " + moduleEnd,
+                    relexed.get(relexed.size() - 1).end <= moduleEnd + 1
+            );
+            assertTrue(
+                    keystrokeDescription + " relexed " + relexed.size() + " tokens, more than the " +
+                            moduleTokenCount + " in a module",
+                    relexed.size() <= moduleTokenCount
+            );
+        }
+    }
+
+    /*
+     * Private Static Methods
+     */
+
+    private static int lineCount(@NotNull String text) {
+        int lineCount = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lineCount++;
+            }
+        }
+
+        return lineCount;
+    }
+
+    /**
+     * The old tokens before the relexed ones and, shifted by the change, after them.
+     */
+    @NotNull
+    private static List<Lex> stitch(@NotNull List<Lex> oldLexes,
+                                    @NotNull List<Lex> relexed,
+                                    int changeOffset,
+                                    int changeLength) {
+        List<Lex> stitched = new ArrayList<>();
+        int relexedStart = relexed.get(0).start;
+        int relexedEnd = relexed.get(relexed.size() - 1).end;
+
+        for (Lex lex : oldLexes) {
+            if (lex.end <= relexedStart) {
+                stitched.add(lex);
+            }
+        }
+
+        stitched.addAll(relexed);
+
+        for (Lex lex : oldLexes) {
+            if (lex.start >= changeOffset && lex.start + changeLength >= relexedEnd) {
+                stitched.add(lex.shift(changeLength));
+            }
+        }
+
+        return stitched;
+    }
+
+    @NotNull
+    private static String text() {
+        StringBuilder text = new StringBuilder();
+        int moduleCount = LINE_COUNT / lineCount(MODULE);
+
+        for (int module = 0; module < moduleCount; module++) {
+            text.append(String.format(MODULE, module, module)).append('\n');
+        }
+
+        return text.toString();
+    }
+
+    /*
+     * Private Instance Methods
+     */
+
+    @NotNull
+    private List<Lex> lexAll(@NotNull CharSequence text) {
+        start(text);
+
+        return lexRest();
+    }
+
+    @NotNull
+    private List<Lex> lexRest() {
+        List<Lex> lexes = new ArrayList<>();
+
+        while (lexer.getTokenType() != null) {
+            lexes.add(new Lex(lexer.getTokenType(), lexer.getTokenStart(), lexer.getTokenEnd(), lexer.getState()));
+            lexer.advance();
+        }
+
+        return lexes;
+    }
+
+    /**
+     * Relexes from the last token before the change in the initial state until a token after the change is in the
+     * initial state again and matches the old token there.
+     */
+    @NotNull
+    private List<Lex> relex(@NotNull CharSequence changed,
+                            @NotNull List<Lex> oldLexes,
+                            int changeOffset,
+                            int changeLength) {
+        int restartOffset = 0;
+        Map<Integer, Lex> oldLexByShiftedStart = new HashMap<>();
+
+        for (Lex lex : oldLexes) {
+            if (lex.start < changeOffset) {
+                if (lex.state == ElixirFlexLexer.YYINITIAL) {
+                    restartOffset = lex.start;
+                }
+            } else {
+                Lex shifted = lex.shift(changeLength);
+                oldLexByShiftedStart.put(shifted.start, shifted);
+            }
+        }
+
+        List<Lex> relexed = new ArrayList<>();
+
+        lexer.start(changed, restartOffset, changed.length(), ElixirFlexLexer.YYINITIAL);
+
+        while (lexer.getTokenType() != null) {
+            Lex lex = new Lex(lexer.getTokenType(), lexer.getTokenStart(), lexer.getTokenEnd(), lexer.getState());
+
+            if (lex.start > changeOffset &&
+                    lex.state == ElixirFlexLexer.YYINITIAL &&
+                    lex.equals(oldLexByShiftedStart.get(lex.start))) {
+                break;
+            }
+
+            relexed.add(lex);
+            lexer.advance();
+        }
+
+        return relexed;
+    }
+
+    /*
+     * Classes
+     */
+
+    private static class Lex {
+        @NotNull
+        final IElementType tokenType;
+        final int start;
+        final int end;
+        /**
+         * The state reported by {@link ElixirFlexLexerAdapter}, not just the lexical state
+         */
+        final int state;
+
+        Lex(@NotNull IElementType tokenType, int start, int end, int state) {
+            this.tokenType = tokenType;
+            this.start = start;
+            this.end = end;
+            this.state = state;
+        }
+
+        @NotNull
+        Lex shift(int delta) {
+            return new Lex(tokenType, start + delta, end + delta, state);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            boolean equals;
+
+            if (this == other) {
+                equals = true;
+            } else if (other instanceof Lex) {
+                Lex otherLex = (Lex) other;
+
+                equals = tokenType == otherLex.tokenType &&
+                        start == otherLex.start &&
+                        end == otherLex.end &&
+                        state == otherLex.state;
+            } else {
+                equals = false;
+            }
+
+            return equals;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tokenType, start, end, state);
+        }
+
+        @Override
+        public String toString() {
+            return tokenType + " [" + start + ", " + end + ") in state " + state;
+        }
+    }
+}
@@ -10,6 +10,12 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.ComparisonFailure;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
 
 import static org.apache.commons.lang.CharUtils.isAsciiPrintable;
 import static org.elixir_lang.psi.impl.ParentImpl.elixirString;
@@ -24,6 +30,19 @@ public class Quoter {
        with Elixir. from erlang's perspective. */
     private static final String REMOTE_NAME = "Elixir.IntellijElixir.Quoter";
     private static final int TIMEOUT_IN_MILLISECONDS = 1000;
+    /**
+     * Requests are pipelined in batches of this size on one mailbox, so that a batch pays for about one round trip.
+     */
+    private static final int BATCH_SIZE = 64;
+    /**
+     * Batches in flight at once.  The remote quoter handles each request in turn, so this only needs to be large enough
+     * that it never waits for the next request.
+     */
+    private static final int PARALLELISM = 4;
+    /**
+     * Mailboxes that are known to have no replies outstanding.  Creating one per quote leaked them on the shared node.
+     */
+    private static final BlockingQueue<OtpMbox> MBOX_POOL = new LinkedBlockingQueue<>();
 
     public static void assertError(PsiFile file) {
         final String text = file.getText();
@@ -107,17 +126,161 @@ public class Quoter {
 
     public static OtpErlangTuple quote(@NotNull String code) throws IOException, OtpErlangExit, OtpErlangDecodeException {
         final OtpNode otpNode = IntellijElixir.getLocalNode();
-        final OtpMbox otpMbox = otpNode.createMbox();
+        final OtpMbox otpMbox = acquireMbox(otpNode);
         OtpErlangObject request = elixirString(code);
+        OtpErlangTuple quoted = null;
 
-        return (OtpErlangTuple) GenericServer.call(
-                otpMbox,
-                otpNode,
-                REMOTE_NAME,
-                IntellijElixir.REMOTE_NODE,
-                request,
-                TIMEOUT_IN_MILLISECONDS
-        );
+        try {
+            quoted = (OtpErlangTuple) GenericServer.call(
+                    otpMbox,
+                    otpNode,
+                    REMOTE_NAME,
+                    IntellijElixir.REMOTE_NODE,
+                    request,
+                    TIMEOUT_IN_MILLISECONDS
+            );
+        } finally {
+            releaseMbox(otpMbox, quoted != null);
+        }
+
+        return quoted;
+    }
+
+    /**
+     * Quotes all of {@code codeList} with batches of pipelined requests, several batches at once.
+     *
+     * Unlike {@link #quote(String)}, the caller is not linked to the remote quoter, so a {@code code} that makes the
+     * quoter exit gets a {@code null} quote instead of an {@link OtpErlangExit}.
+     *
+     * @return quotes in the same order as {@code codeList}
+     */
+    @NotNull
+    public static List<OtpErlangTuple> quote(@NotNull List<String> codeList) throws IOException {
+        final OtpNode otpNode = IntellijElixir.getLocalNode();
+        ExecutorService executorService = Executors.newFixedThreadPool(PARALLELISM);
+        List<Future<List<OtpErlangObject>>> batchFutureList = new ArrayList<>();
+
+        try {
+            for (int start = 0; start < codeList.size(); start += BATCH_SIZE) {
+                List<String> batch = codeList.subList(start, Math.min(start + BATCH_SIZE, codeList.size()));
+                batchFutureList.add(executorService.submit(() -> quoteBatch(otpNode, batch)));
+            }
+
+            List<OtpErlangTuple> quotedList = new ArrayList<>(codeList.size());
+
+            for (Future<List<OtpErlangObject>> batchFuture : batchFutureList) {
+                for (OtpErlangObject quoted : batchFuture.get()) {
+                    quotedList.add((OtpErlangTuple) quoted);
+                }
+            }
+
+            return quotedList;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @NotNull
+    private static List<OtpErlangObject> quoteBatch(@NotNull OtpNode otpNode, @NotNull List<String> batch)
+            throws OtpErlangExit, OtpErlangDecodeException {
+        List<OtpErlangObject> requestList = new ArrayList<>(batch.size());
+
+        for (String code : batch) {
+            requestList.add(elixirString(code));
+        }
+
+        OtpMbox otpMbox = acquireMbox(otpNode);
+        List<OtpErlangObject> quotedList = null;
+
+        try {
+            quotedList = unmonitoredCalls(otpMbox, otpNode, requestList);
+        } finally {
+            releaseMbox(otpMbox, quotedList != null && !quotedList.contains(null));
+        }
+
+        return quotedList;
+    }
+
+    /**
+     * Sends a {@link GenericServer#GEN_CALL} for each of {@code requests} to the remote quoter before waiting for any
+     * reply, so that the round trips overlap instead of being paid one after another.
+     *
+     * @return replies in the same order as {@code requests}; {@code null} for a request whose reply did not arrive
+     *   within {@link #TIMEOUT_IN_MILLISECONDS} of the previous one
+     */
+    @NotNull
+    private static List<OtpErlangObject> unmonitoredCalls(@NotNull OtpMbox otpMbox,
+                                                          @NotNull OtpNode otpNode,
+                                                          @NotNull List<OtpErlangObject> requests)
+            throws OtpErlangExit, OtpErlangDecodeException {
+        Map<OtpErlangRef, Integer> indexByRef = new HashMap<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            OtpErlangRef ref = otpNode.createRef();
+            indexByRef.put(ref, i);
+
+            otpMbox.send(
+                    REMOTE_NAME,
+                    IntellijElixir.REMOTE_NODE,
+                    new OtpErlangTuple(
+                            new OtpErlangObject[]{
+                                    GenericServer.GEN_CALL,
+                                    new OtpErlangTuple(new OtpErlangObject[]{otpMbox.self(), ref}),
+                                    requests.get(i)
+                            }
+                    )
+            );
+        }
+
+        OtpErlangObject[] responses = new OtpErlangObject[requests.size()];
+
+        while (!indexByRef.isEmpty()) {
+            OtpErlangObject received = otpMbox.receive(TIMEOUT_IN_MILLISECONDS);
+
+            if (received == null) {
+                break;
+            }
+
+            OtpErlangTuple tuple = (OtpErlangTuple) received;
+            Integer index = indexByRef.remove(tuple.elementAt(0));
+
+            assertNotNull(
+                    "Expected one of refs " + indexByRef.keySet() + ", but received " + tuple.elementAt(0),
+                    index
+            );
+
+            responses[index] = tuple.elementAt(1);
+        }
+
+        return Arrays.asList(responses);
+    }
+
+    @NotNull
+    private static OtpMbox acquireMbox(@NotNull OtpNode otpNode) {
+        OtpMbox otpMbox = MBOX_POOL.poll();
+
+        if (otpMbox == null) {
+            otpMbox = otpNode.createMbox();
+        }
+
+        return otpMbox;
+    }
+
+    /**
+     * @param reusable {@code false} when a reply may still arrive, so it can't be mistaken for the reply to a later
+     *   request
+     */
+    private static void releaseMbox(@NotNull OtpMbox otpMbox, boolean reusable) {
+        if (reusable) {
+            MBOX_POOL.offer(otpMbox);
+        } else {
+            otpMbox.close();
+        }
     }
 
     @NotNull
@@ -0,0 +1,143 @@
+package org.elixir_lang.mix.runner;
+
+import com.ericsson.otp.erlang.*;
+import com.intellij.execution.testframework.TestConsoleProperties;
+import com.intellij.execution.testframework.sm.runner.GeneralTestEventsProcessor;
+import com.intellij.execution.testframework.sm.runner.events.TestStartedEvent;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import jetbrains.buildServer.messages.serviceMessages.ServiceMessage;
+import jetbrains.buildServer.messages.serviceMessages.TestStarted;
+import org.jetbrains.annotations.NotNull;
+import org.mockito.ArgumentCaptor;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+public class EventChannelTest extends LightPlatformCodeInsightFixtureTestCase {
+    public void testServiceMessage() {
+        ServiceMessage serviceMessage = EventChannel.serviceMessage(
+                new OtpOutputStream(testStartedEvent()).toByteArray()
+        );
+
+        TestStarted testStarted = assertInstanceOf(serviceMessage, TestStarted.class);
+        assertEquals("test bar's [value]", testStarted.getTestName());
+
+        Map<String, String> expectedAttributes = new LinkedHashMap<>();
+        expectedAttributes.put("nodeId", "Elixir.FooTest.test bar");
+        expectedAttributes.put("name", "test bar's [value]");
+        expectedAttributes.put("parentNodeId", "Elixir.FooTest");
+
+        assertEquals(expectedAttributes, testStarted.getAttributes());
+    }
+
+    public void testConverterDispatchesEventsToProcessor() throws IOException {
+        EventChannel eventChannel = new EventChannel();
+        MixOutputToGeneralTestEventsConverter converter = new MixOutputToGeneralTestEventsConverter(
+                "ExUnit",
+                mock(TestConsoleProperties.class),
+                eventChannel
+        );
+        GeneralTestEventsProcessor processor = mock(GeneralTestEventsProcessor.class);
+        converter.setProcessor(processor);
+
+        try {
+            String[] portToken = eventChannel.environmentValue().split(":");
+
+            // connects and sends frames like TeamCityExUnitFormatting does
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(portToken[0]));
+                 DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                writeFrame(output, portToken[1].getBytes(StandardCharsets.UTF_8));
+
+                byte[] event = new OtpOutputStream(testStartedEvent()).toByteArray();
+                byte[] frame = new byte[1 + event.length];
+                frame[0] = (byte) OtpExternal.versionTag;
+                System.arraycopy(event, 0, frame, 1, event.length);
+                writeFrame(output, frame);
+            }
+
+            converter.flushBufferBeforeTerminating();
+
+            ArgumentCaptor<TestStartedEvent> testStartedEventCaptor = ArgumentCaptor.forClass(TestStartedEvent.class);
+            verify(processor).onTestStarted(testStartedEventCaptor.capture());
+
+            TestStartedEvent testStartedEvent = testStartedEventCaptor.getValue();
+            assertEquals("test bar's [value]", testStartedEvent.getName());
+            assertEquals("Elixir.FooTest.test bar", testStartedEvent.getId());
+            assertEquals("Elixir.FooTest", testStartedEvent.getParentId());
+        } finally {
+            converter.dispose();
+        }
+    }
+
+    public void testConverterDoesNotWaitForUnconnectedChannel() throws IOException {
+        EventChannel eventChannel = new EventChannel();
+        MixOutputToGeneralTestEventsConverter converter = new MixOutputToGeneralTestEventsConverter(
+                "ExUnit",
+                mock(TestConsoleProperties.class),
+                eventChannel
+        );
+        GeneralTestEventsProcessor processor = mock(GeneralTestEventsProcessor.class);
+        converter.setProcessor(processor);
+
+        try {
+            // like `mix test` failing to compile: the process terminates without the formatter ever connecting
+            converter.flushBufferBeforeTerminating();
+
+            assertFalse("Unconnected channel was not closed", isConnectable(eventChannel));
+            verify(processor, never()).onTestStarted(any());
+        } finally {
+            converter.dispose();
+        }
+    }
+
+    private static OtpErlangTuple attribute(String name, String value) {
+        return new OtpErlangTuple(new OtpErlangObject[]{binary(name), binary(value)});
+    }
+
+    private static OtpErlangBinary binary(String string) {
+        return new OtpErlangBinary(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isConnectable(@NotNull EventChannel eventChannel) {
+        int port = Integer.parseInt(eventChannel.environmentValue().split(":")[0]);
+        boolean connectable;
+
+        try (Socket ignored = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            connectable = true;
+        } catch (IOException ioException) {
+            connectable = false;
+        }
+
+        return connectable;
+    }
+
+    @NotNull
+    private static OtpErlangObject testStartedEvent() {
+        return new OtpErlangTuple(
+                new OtpErlangObject[]{
+                        binary("testStarted"),
+                        new OtpErlangList(
+                                new OtpErlangObject[]{
+                                        attribute("nodeId", "Elixir.FooTest.test bar"),
+                                        attribute("name", "test bar's [value]"),
+                                        attribute("parentNodeId", "Elixir.FooTest")
+                                }
+                        )
+                }
+        );
+    }
+
+    private static void writeFrame(@NotNull DataOutputStream output, @NotNull byte[] frame) throws IOException {
+        output.writeInt(frame.length);
+        output.write(frame);
+        output.flush();
+    }
+}
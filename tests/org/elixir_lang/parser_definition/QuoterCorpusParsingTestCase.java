@@ -0,0 +1,115 @@
+package org.elixir_lang.parser_definition;
+
+import com.ericsson.otp.erlang.OtpErlangAtom;
+import com.ericsson.otp.erlang.OtpErlangObject;
+import com.ericsson.otp.erlang.OtpErlangTuple;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.elixir_lang.intellij_elixir.Quoter;
+import org.elixir_lang.psi.impl.ElixirPsiImplUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.internal.runners.JUnit38ClassRunner;
+import org.junit.runner.Description;
+import org.junit.runner.RunWith;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.RunNotifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Checks every {@code .ex} file in the parser definition test data against the native quoting in one pass, with the
+ * native quotes requested in parallel batches instead of one round trip per file.
+ *
+ * Only runs when {@code -Delixir.quoter.corpus=true} is set, as the per-file parsing test cases already cover the same
+ * files with the expectations specific to each; otherwise it's reported as ignored.  Files that the native quoter can't
+ * quote are skipped: those are the error and exit cases.
+ */
+@RunWith(QuoterCorpusParsingTestCase.CorpusRunner.class)
+public class QuoterCorpusParsingTestCase extends ParsingTestCase {
+    private static final String CORPUS_PROPERTY = "elixir.quoter.corpus";
+
+    public void testCorpus() throws IOException {
+        List<File> fileList = new ArrayList<>(
+                FileUtil.findFilesByMask(Pattern.compile(".*\\.ex"), new File(getTestDataPath()))
+        );
+        List<String> textList = new ArrayList<>(fileList.size());
+
+        for (File file : fileList) {
+            textList.add(StringUtil.convertLineSeparators(FileUtil.loadFile(file, "UTF-8")));
+        }
+
+        List<OtpErlangTuple> quotedList = Quoter.quote(textList);
+        List<String> mismatchList = new ArrayList<>();
+        int comparedCount = 0;
+
+        for (int i = 0; i < fileList.size(); i++) {
+            OtpErlangTuple quoted = quotedList.get(i);
+
+            if (quoted != null && ((OtpErlangAtom) quoted.elementAt(0)).atomValue().equals("ok")) {
+                File file = fileList.get(i);
+                PsiFile psiFile = createPsiFile(file.getName(), textList.get(i));
+                comparedCount++;
+
+                if (PsiTreeUtil.hasErrorElements(psiFile)) {
+                    mismatchList.add(file.getPath() + " has PsiErrorElements");
+                } else {
+                    OtpErlangObject actualQuoted = ElixirPsiImplUtil.quote(psiFile);
+
+                    if (!quoted.elementAt(1).equals(actualQuoted)) {
+                        mismatchList.add(file.getPath() + " is not quoted correctly");
+                    }
+                }
+            }
+        }
+
+        assertTrue("No files were quoted natively", comparedCount > 0);
+        assertTrue(
+                mismatchList.size() + " of " + comparedCount + " files do not match native quoting:\n" +
+                        StringUtil.join(mismatchList, "\n"),
+                mismatchList.isEmpty()
+        );
+    }
+
+    /**
+     * Runs the test case as usual when {@link #CORPUS_PROPERTY} is set and reports it as ignored otherwise, so that
+     * leaving the property unset is never mistaken for a pass.
+     */
+    public static class CorpusRunner extends Runner {
+        @Nullable
+        private final Runner delegate;
+        @NotNull
+        private final Description description;
+
+        public CorpusRunner(@NotNull Class<?> testClass) {
+            if (Boolean.getBoolean(CORPUS_PROPERTY)) {
+                delegate = new JUnit38ClassRunner(testClass);
+                description = delegate.getDescription();
+            } else {
+                delegate = null;
+                description = Description.createTestDescription(testClass, "testCorpus");
+            }
+        }
+
+        @NotNull
+        @Override
+        public Description getDescription() {
+            return description;
+        }
+
+        @Override
+        public void run(@NotNull RunNotifier notifier) {
+            if (delegate != null) {
+                delegate.run(notifier);
+            } else {
+                notifier.fireTestIgnored(description);
+            }
+        }
+    }
+}
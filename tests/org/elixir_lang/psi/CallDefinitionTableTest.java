@@ -0,0 +1,207 @@
+package org.elixir_lang.psi;
+
+import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubTree;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.elixir_lang.psi.call.Call;
+import org.elixir_lang.structure_view.element.modular.Module;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CallDefinitionTableTest extends LightPlatformCodeInsightFixtureTestCase {
+    private static final List<String> DEFINITIONS_NAME_ARITY_RANGES = Arrays.asList(
+            "public_function/1..1",
+            "public_function/2..3",
+            "private_function/0..0",
+            "public_macro/1..1",
+            "private_macro/1..1"
+    );
+
+    /*
+     * Tests
+     */
+
+    public void testStubAndAstEntriesAreTheSame() {
+        PsiFile stubbedFile = stubbedFile();
+        Call stubbedModular = stubbedModular(stubbedFile);
+        List<String> stubNameArityRanges = nameArityRanges(CallDefinitionTable.of(stubbedModular));
+
+        assertFalse("Building from the stub parsed the file", ((PsiFileImpl) stubbedFile).isContentsLoaded());
+
+        myFixture.configureByFile("definitions.ex");
+        Call loadedModular = loadedModular(myFixture.getFile());
+
+        assertNull(((StubBasedPsiElement<?>) loadedModular).getStub());
+        assertEquals(DEFINITIONS_NAME_ARITY_RANGES, stubNameArityRanges);
+        assertEquals(stubNameArityRanges, nameArityRanges(CallDefinitionTable.of(loadedModular)));
+    }
+
+    public void testCachedValueIsInvalidatedOnEdit() {
+        myFixture.configureByFile("definitions.ex");
+        Call modular = loadedModular(myFixture.getFile());
+        CallDefinitionTable table = CallDefinitionTable.of(modular);
+
+        assertSame(table, CallDefinitionTable.of(modular));
+        assertEmpty(table.entries("added"));
+
+        Document document = myFixture.getEditor().getDocument();
+        int offset = document.getText().lastIndexOf("end");
+
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+            document.insertString(offset, "  def added(a), do: a\n");
+            PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+        });
+
+        CallDefinitionTable editedTable = CallDefinitionTable.of(loadedModular(myFixture.getFile()));
+
+        assertNotSame(table, editedTable);
+        assertSize(1, editedTable.entries("added"));
+    }
+
+    public void testResolveImportedFromStubbedFile() {
+        myFixture.configureByFile("resolve.ex");
+        PsiFile stubbedFile = stubbedFile();
+
+        assertResolvesTo(stubbedFile);
+    }
+
+    public void testResolveImportedFromLoadedFile() {
+        myFixture.configureByFile("resolve.ex");
+        PsiFile loadedFile = loadedFile();
+
+        assertResolvesTo(loadedFile);
+    }
+
+    public void testCompleteImportedFromStubbedFile() {
+        myFixture.configureByFile("complete.ex");
+        stubbedFile();
+
+        assertCompletesImported();
+    }
+
+    public void testCompleteImportedFromLoadedFile() {
+        myFixture.configureByFile("complete.ex");
+        loadedFile();
+
+        assertCompletesImported();
+    }
+
+    /*
+     * Protected Instance Methods
+     */
+
+    @Override
+    protected String getTestDataPath() {
+        return "testData/org/elixir_lang/psi/call_definition_table";
+    }
+
+    /*
+     * Private Static Methods
+     */
+
+    @NotNull
+    private static Call loadedModular(@NotNull PsiFile file) {
+        for (Call call : PsiTreeUtil.findChildrenOfType(file, Call.class)) {
+            if (Module.Companion.is(call)) {
+                return call;
+            }
+        }
+
+        throw new AssertionError("No modular in " + file.getName());
+    }
+
+    @NotNull
+    private static List<String> nameArityRanges(@NotNull CallDefinitionTable table) {
+        List<String> nameArityRanges = new ArrayList<>();
+
+        for (CallDefinitionTable.Entry entry : table.getEntries()) {
+            nameArityRanges.add(entry.getName() + "/" + entry.getArityRange());
+        }
+
+        return nameArityRanges;
+    }
+
+    @NotNull
+    private static Call stubbedModular(@NotNull PsiFile file) {
+        StubTree stubTree = ((PsiFileImpl) file).getStubTree();
+
+        assertNotNull("AST of " + file.getName() + " is loaded", stubTree);
+
+        for (StubElement<?> childStub : stubTree.getRoot().getChildrenStubs()) {
+            PsiElement psi = childStub.getPsi();
+
+            if (psi instanceof Call && Module.Companion.is((Call) psi)) {
+                return (Call) psi;
+            }
+        }
+
+        throw new AssertionError("No modular stub in " + file.getName());
+    }
+
+    /*
+     * Private Instance Methods
+     */
+
+    private void assertCompletesImported() {
+        myFixture.complete(CompletionType.BASIC, 1);
+        List<String> strings = myFixture.getLookupElementStrings();
+
+        assertNotNull("Completion lookup not shown", strings);
+        assertContainsElements(strings, "public_function", "public_macro");
+        assertDoesntContain(strings, "private_function", "private_macro");
+    }
+
+    private void assertResolvesTo(@NotNull PsiFile definitionsFile) {
+        PsiReference reference = myFixture.getFile().findReferenceAt(myFixture.getCaretOffset());
+
+        assertInstanceOf(reference, PsiPolyVariantReference.class);
+
+        ResolveResult[] resolveResults = ((PsiPolyVariantReference) reference).multiResolve(false);
+
+        assertNotEmpty(Arrays.asList(resolveResults));
+
+        for (ResolveResult resolveResult : resolveResults) {
+            PsiElement element = resolveResult.getElement();
+
+            assertNotNull(element);
+            assertEquals(definitionsFile, element.getContainingFile());
+        }
+    }
+
+    /**
+     * {@code definitions.ex} with its AST loaded, as when it is open in an editor
+     */
+    @NotNull
+    private PsiFile loadedFile() {
+        PsiFile file = stubbedFile();
+        file.getNode();
+
+        assertTrue(((PsiFileImpl) file).isContentsLoaded());
+
+        return file;
+    }
+
+    /**
+     * {@code definitions.ex} with only its stub, as for a file that is not open
+     */
+    @NotNull
+    private PsiFile stubbedFile() {
+        // a directory of its own, so that it is not the file `configureByFile("definitions.ex")` opens
+        VirtualFile virtualFile = myFixture.copyFileToProject("definitions.ex", "stubbed/definitions.ex");
+        PsiFile file = PsiManager.getInstance(getProject()).findFile(virtualFile);
+
+        assertNotNull(file);
+
+        return file;
+    }
+}
@@ -0,0 +1,129 @@
+package org.elixir_lang.reference.callable;
+
+import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiPolyVariantReference;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.elixir_lang.psi.ElixirAlias;
+import org.elixir_lang.psi.call.Call;
+
+import java.util.List;
+
+public class UseTest extends LightPlatformCodeInsightFixtureTestCase {
+    /*
+     * Tests
+     */
+
+    public void testUseArgument() {
+        myFixture.configureByFiles("use_argument.ex", "using.ex");
+
+        ResolveResult[] resolveResults = resolveResultsAtCaret("injected");
+
+        // `def injected` in the quote returned by `controller` and `use Using, :controller`
+        assertEquals(2, resolveResults.length);
+    }
+
+    public void testUseArgumentCompletion() {
+        myFixture.configureByFiles("use_argument_completion.ex", "using.ex");
+
+        assertCompletes("injected");
+    }
+
+    public void testUseAlias() {
+        myFixture.configureByFiles("use_alias.ex", "using_alias.ex", "aliased.ex");
+        PsiElement elementAtCaret = myFixture.getFile().findElementAt(myFixture.getCaretOffset());
+
+        assertNotNull(elementAtCaret);
+
+        ElixirAlias alias = PsiTreeUtil.getParentOfType(elementAtCaret, ElixirAlias.class, false);
+
+        assertNotNull(alias);
+
+        PsiReference reference = alias.getReference();
+
+        assertInstanceOf(reference, PsiPolyVariantReference.class);
+
+        ResolveResult[] resolveResults = ((PsiPolyVariantReference) reference).multiResolve(false);
+        boolean resolvedToModule = false;
+
+        for (ResolveResult resolveResult : resolveResults) {
+            PsiElement element = resolveResult.getElement();
+
+            if (element != null && element.getText().startsWith("defmodule Aliased.Nested")) {
+                resolvedToModule = true;
+            }
+        }
+
+        // `alias Aliased.Nested` injected by `use UsingAlias`
+        assertTrue("`Nested` does not resolve to `defmodule Aliased.Nested`", resolvedToModule);
+    }
+
+    public void testUseAliasCompletion() {
+        myFixture.configureByFiles("use_alias_completion.ex", "using_alias.ex", "aliased.ex");
+
+        assertCompletes("Nested");
+    }
+
+    public void testUseImport() {
+        myFixture.configureByFiles("use_import.ex", "using_import.ex", "imported.ex");
+
+        ResolveResult[] resolveResults = resolveResultsAtCaret("imported");
+
+        // `def imported` and `use UsingImport`
+        assertEquals(2, resolveResults.length);
+    }
+
+    /*
+     * Protected Instance Methods
+     */
+
+    @Override
+    protected String getTestDataPath() {
+        return "testData/org/elixir_lang/reference/callable/use";
+    }
+
+    /*
+     * Private Instance Methods
+     */
+
+    private void assertCompletes(String lookupString) {
+        myFixture.complete(CompletionType.BASIC, 1);
+        List<String> strings = myFixture.getLookupElementStrings();
+
+        if (strings == null) {
+            // the only variant is inserted without showing the lookup
+            assertTrue(
+                    "`" + lookupString + "` not completed",
+                    myFixture.getEditor().getDocument().getText().contains(lookupString)
+            );
+        } else {
+            assertContainsElements(strings, lookupString);
+        }
+    }
+
+    private ResolveResult[] resolveResultsAtCaret(String functionName) {
+        PsiElement elementAtCaret = myFixture.getFile().findElementAt(myFixture.getCaretOffset());
+
+        assertNotNull(elementAtCaret);
+
+        PsiElement maybeCall = elementAtCaret.getParent().getParent();
+
+        assertInstanceOf(maybeCall, Call.class);
+
+        Call call = (Call) maybeCall;
+        assertEquals(functionName, call.functionName());
+        assertEquals(0, call.resolvedFinalArity());
+
+        PsiReference reference = call.getReference();
+
+        assertNotNull(reference);
+        assertInstanceOf(reference, PsiPolyVariantReference.class);
+
+        PsiPolyVariantReference polyVariantReference = (PsiPolyVariantReference) reference;
+
+        return polyVariantReference.multiResolve(false);
+    }
+}